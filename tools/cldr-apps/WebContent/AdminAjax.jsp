@@ -30,8 +30,11 @@
 			//			sess.put("locales",new JSONArray().put(cs.getLocales().keys()));
 			users.put(cs.id, sess);
 		}
+		JSONObject counts = new JSONObject().put("active", CookieSession.getActiveCount())
+				.put("users", CookieSession.getUserCount()).put("guests", CookieSession.getGuestCount())
+				.put("created", CookieSession.getCreatedCount()).put("reaped", CookieSession.getReapedCount());
 		new JSONWriter(out).object().key("users").value(users)
-				.endObject();
+				.key("sessionCounts").value(counts).endObject();
 // 	} else if (action.equals("verifycheckout")) {
 // 		CLDRConfig cconfig = CLDRConfig.getInstance();
 		
@@ -109,6 +112,18 @@
 			
 		new JSONWriter(out).object().key("exceptions").value(exceptions)
 		.endObject();
+    } else if(action.equals("testcache")) {
+        JSONObject testcache = new JSONObject();
+        for (Map.Entry<String, Map<String, Long>> e : CookieSession.sm.getSTFactory().getTestCacheStatistics().entrySet()) {
+            testcache.put(e.getKey(), new JSONObject(e.getValue()));
+        }
+        testcache.put("queryToCachedJSON", new JSONObject(DBUtils.getCachedJSONStatistics()));
+        new JSONWriter(out).object().key("testcache").value(testcache).endObject();
+    } else if(action.equals("rebuildVoteStatistics")) {
+        ElapsedTimer et = new ElapsedTimer("rebuild");
+        int votes = VoteStatistics.getInstance().rebuild();
+        new JSONWriter(out).object().key("rebuildVoteStatistics").value(new JSONObject().put("votes", votes).put("time", et.toString()))
+        .endObject();
     } else if(action.equals("settings")) {
     	CLDRConfigImpl cci = (CLDRConfigImpl)(CLDRConfig.getInstance());
         new JSONWriter(out).object().key("settings").value(new JSONObject().put("all", cci.toJSONObject())).endObject();
@@ -629,6 +629,9 @@ function submitPost(event) {
                 dataType: 'json',
                 success: function(data) {
                     var post = $('.post').first();
+                    if(typeof forgetForumCounts === 'function') {
+                    	forgetForumCounts(); // the counts changed
+                    }
                     if(data.err) {
                 		post.before("<p class='warn'>error: " + data.err+ "</p>");
                     } else if(data.ret && data.ret.length>0) {
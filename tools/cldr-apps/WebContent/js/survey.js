@@ -2238,24 +2238,80 @@ function showForumStuff(frag, forumDiv, tr) {
 	}
 
 	// lazy load post count!
-	// load async
-	var ourUrl = tr.forumDiv.url + "&what=forum_count" + cacheKill() ;
+	// load async, one request for all the rows in the locale
 	window.setTimeout(function() {
-		var xhrArgs = {
-				url: ourUrl,
-				handleAs:"json",
-				load: function(json) {
-					if(json && json.forum_count !== undefined) {
-						havePosts(parseInt(json.forum_count));
-					} else {
-						console.log("Some error loading post count??");
-					}
-				},
-		};
-		queueXhr(xhrArgs);
+		getForumCount(surveyCurrentLocale, tr.theTable.session, theRow.xpathId, havePosts);
 	}, 1900);
 }
 
+/**
+ * The forum post counts of one locale, shared by all the rows of a page
+ * @property forumCounts
+ */
+var forumCounts = null;
+
+/**
+ * How long, in ms, to keep using the forum post counts before fetching them again
+ * @property FORUM_COUNTS_MAX_AGE
+ */
+var FORUM_COUNTS_MAX_AGE = 60 * 1000;
+
+/**
+ * Get the number of forum posts on an item. The counts for the whole locale are fetched
+ * with one forum_counts request, and kept for FORUM_COUNTS_MAX_AGE.
+ * @method getForumCount
+ * @param {String} locale
+ * @param {String} session
+ * @param {Integer} xpathId
+ * @param {Function} callback called with the number of posts
+ */
+function getForumCount(locale, session, xpathId, callback) {
+	var now = new Date().getTime();
+	if(!forumCounts || forumCounts.locale !== locale || (now - forumCounts.when) > FORUM_COUNTS_MAX_AGE) {
+		var counts = forumCounts = { locale: locale, when: now, posts: null, waiting: [] };
+		var done = function(posts) {
+			counts.posts = posts;
+			for(var i = 0; i < counts.waiting.length; i++) {
+				counts.waiting[i]();
+			}
+			counts.waiting = [];
+		};
+		queueXhr({
+			url: contextPath + "/SurveyAjax?what=forum_counts&_=" + locale + "&s=" + session + cacheKill(),
+			handleAs: "json",
+			load: function(json) {
+				if(json && json.forum_counts && json.forum_counts.posts) {
+					done(json.forum_counts.posts);
+				} else {
+					console.log("Some error loading post counts??");
+					done({});
+				}
+			},
+			error: function(err) {
+				console.log("Error loading post counts: " + err);
+				done({});
+			}
+		});
+	}
+	var theCounts = forumCounts;
+	var answer = function() {
+		callback(parseInt(theCounts.posts[xpathId] || 0));
+	};
+	if(theCounts.posts) {
+		answer();
+	} else {
+		theCounts.waiting.push(answer);
+	}
+}
+
+/**
+ * Forget the forum post counts, after a post, so that they are fetched again
+ * @method forgetForumCounts
+ */
+function forgetForumCounts() {
+	forumCounts = null;
+}
+
 /**
  * @method appendForumStuff
  * called when initially setting up the section.
@@ -4030,6 +4086,36 @@ function loadAdminPanel() {
 		div.appendChild(frag);
 	});
 
+	addAdminPanel("admin_testcache", function(div) {
+		var frag = document.createDocumentFragment();
+
+		div.className="adminSettings";
+		var u = createChunk("Loading...","div","adminSettingsList");
+		frag.appendChild(u);
+		loadOrFail("do=testcache", u, function(json) {
+			removeAllChildNodes(u);
+			if(!json || !json.testcache || Object.keys(json.testcache)==0) {
+				u.appendChild(document.createTextNode(stui.str("notestcache")));
+			} else {
+				var frag2 = document.createDocumentFragment();
+				for(var cacheName in json.testcache) {
+					frag2.appendChild(createChunk(cacheName,"h4"));
+					var stats = json.testcache[cacheName];
+					for(var id in stats) {
+						var row = createChunk(null,"div","adminSetting");
+						row.appendChild(createChunk(id,"span","adminSettingId"));
+						row.appendChild(createChunk(stats[id],"span","adminSettingValue"));
+						frag2.appendChild(row);
+					}
+				}
+				u.appendChild(frag2);
+			}
+		});
+
+		removeAllChildNodes(div);
+		div.appendChild(frag);
+	});
+
 	addAdminPanel("admin_ops", function(div) {
 		var frag = document.createDocumentFragment();
 
@@ -202,6 +202,8 @@
 	UserRegistry.User u = theirU;
 	CheckCLDR.Phase cPhase = CLDRConfig.getInstance().getPhase();
 	Set<String> allValidPaths = stf.getPathsForFile(loc);
+	Map<String, String> toVote = new LinkedHashMap<String, String>(); // submitted together after the loop
+	String voteFailure = null; // why the votes were not recorded, if they weren't
 	CLDRProgressTask progress = CookieSession.sm.openProgress("Bulk:" + loc, all.size());
 	try {
 		CoverageInfo coverageInfo = CLDRConfig.getInstance().getCoverageInfo();
@@ -324,8 +326,8 @@
 						resultIcon = "stop";
 					} else {
 						if (doFinal) {
-							ballotBox.voteForValue(u, base, val0);
-							result = "Vote accepted";
+							toVote.put(base, val0);
+							result = "Ready to vote";
 							resultIcon = "vote";
 						} else {
 							result = "Ready to submit.";
@@ -359,6 +361,15 @@
 		</tr>
 		<%
 			}
+			if (!toVote.isEmpty()) {
+				try {
+					// all or nothing: if any vote is rejected, none are recorded
+					ballotBox.voteForValues(u, toVote);
+				} catch (SurveyException se) {
+					voteFailure = se.getMessage();
+					updCnt = 0;
+				}
+			}
 			} finally {
 				progress.close();
 			}
@@ -367,6 +378,11 @@
 	</table>
 
 	<hr />
+	<%	if(voteFailure != null) { %>
+	<div class='ferrbox'><%=WebContext.iconHtml(request, "stop", "not voted")%>
+		None of the votes were recorded, because one was not accepted: <%=voteFailure%>
+	</div>
+	<%  } %>
 	<%	if(doFinal) { %>
 	Voted on
 	<%  } else { %>
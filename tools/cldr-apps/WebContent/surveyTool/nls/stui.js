@@ -112,6 +112,10 @@ define({
 		adminExceptionDupList: "List of other instances:",
 		clickToSelect: "select",
 
+		admin_testcache: "Test Cache",
+		admin_testcache_desc: "CheckCLDR test result cache hits and invalidations",
+		notestcache: "(no test cache statistics)",
+
 		admin_ops: "Actions",
 		admin_ops_desc: "Administrative Actions",
 
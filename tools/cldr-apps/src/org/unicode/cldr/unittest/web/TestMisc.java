@@ -4,10 +4,23 @@ package org.unicode.cldr.unittest.web;
  * Copyright (C) 2012
  */
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
 import org.unicode.cldr.util.CLDRConfig;
 import org.unicode.cldr.util.CLDRLocale;
 import org.unicode.cldr.util.Factory;
 import org.unicode.cldr.web.STFactory;
+import org.unicode.cldr.web.SurveyThread;
+import org.unicode.cldr.web.SurveyThread.SurveyTask;
+import org.unicode.cldr.web.VoteStateSnapshot;
 import org.unicode.cldr.web.WebContext;
 
 import com.ibm.icu.dev.test.TestFmwk;
@@ -79,4 +92,98 @@ public class TestMisc extends TestFmwk {
         }
         System.out.println("✅");
     }
+
+    public void TestSurveyThreadPriorities() throws InterruptedException {
+        final SurveyThread st = new SurveyThread(null, 1);
+        final CountDownLatch blockerStarted = new CountDownLatch(1);
+        final CountDownLatch blocked = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(4);
+        final List<String> order = Collections.synchronizedList(new ArrayList<String>());
+        st.addTask(new SurveyTask("blocker", SurveyTask.Priority.HIGH) {
+            public void run() throws Throwable {
+                blockerStarted.countDown();
+                blocked.await();
+            }
+        });
+        SurveyTask waiting = null;
+        for (String name : new String[] { "low", "normal1", "normal2", "high" }) {
+            SurveyTask.Priority p = name.startsWith("low") ? SurveyTask.Priority.LOW
+                : name.startsWith("high") ? SurveyTask.Priority.HIGH : SurveyTask.Priority.NORMAL;
+            SurveyTask t = new SurveyTask(name, p) {
+                public void run() throws Throwable {
+                    order.add(name);
+                    done.countDown();
+                }
+            };
+            if (name.equals("normal2")) {
+                waiting = t;
+            }
+            st.addTask(t);
+        }
+        st.start();
+        // only the queued tasks are counted, so wait until the worker has taken the blocker
+        assertTrue("blocker started", blockerStarted.await(10, TimeUnit.SECONDS));
+        assertEquals("tasks ahead of normal2", 2, st.tasksAhead(waiting, SurveyTask.class));
+        blocked.countDown();
+        assertTrue("tasks finished", done.await(10, TimeUnit.SECONDS));
+        assertEquals("order", "[high, normal1, normal2, low]", order.toString());
+        assertEquals("tasks ahead of a finished task", 0, st.tasksAhead(waiting, SurveyTask.class));
+        assertTrue("wait time measured", waiting.getQueueWaitMillis() >= 0);
+
+        final CountDownLatch started = new CountDownLatch(1);
+        SurveyTask endless = new SurveyTask("endless") {
+            public void run() throws Throwable {
+                started.countDown();
+                while (true) {
+                    checkRunning();
+                    Thread.sleep(10);
+                }
+            }
+        };
+        st.addTask(endless);
+        assertTrue("endless task started", started.await(10, TimeUnit.SECONDS));
+        endless.stop();
+        for (int i = 0; i < 100 && st.htmlStatus() != null; i++) {
+            Thread.sleep(50);
+        }
+        assertEquals("status after stop", null, st.htmlStatus());
+        logln(st.getStatistics());
+        assertTrue("stopped task counted: " + st.getStatistics(), st.getStatistics().contains("stopped:1"));
+        st.requestStop();
+    }
+
+    /**
+     * A read-only locale's fingerprint depends on its file, so changing a read-only parent
+     * makes its children's snapshots stale.
+     */
+    public void TestVoteStateSnapshotParentChange() throws IOException {
+        File dir = TestAll.getEmptyDir(TestMisc.class.getName() + "_votestate");
+        File parentFile = new File(dir, "en.xml");
+        File childFile = new File(dir, "en_GB.xml");
+        writeFile(parentFile, "<ldml/>");
+        writeFile(childFile, "<ldml/>");
+        CLDRLocale parent = CLDRLocale.getInstance("en");
+        CLDRLocale child = CLDRLocale.getInstance("en_GB");
+        VoteStateSnapshot snapshots = new VoteStateSnapshot(new File(dir, "votestate"));
+
+        String parentFingerprint = VoteStateSnapshot.localeFingerprint(parent, "99", 0, 0, 0, "", "voters", parentFile);
+        String childFingerprint = VoteStateSnapshot.localeFingerprint(child, "99", 3, 1234L, 5678L, parentFingerprint, "voters", childFile);
+        List<VoteStateSnapshot.Entry> entries = new ArrayList<VoteStateSnapshot.Entry>();
+        entries.add(new VoteStateSnapshot.Entry("//ldml/localeDisplayNames/languages/language[@type=\"de\"]",
+            "//ldml/localeDisplayNames/languages/language[@type=\"de\"]", "German"));
+        snapshots.write(child, childFingerprint, entries);
+        assertNotNull("snapshot read back", snapshots.read(child, childFingerprint));
+
+        // change the parent's file, but not the child's votes
+        writeFile(parentFile, "<ldml><identity/></ldml>");
+        parentFile.setLastModified(parentFile.lastModified() + 2000);
+        String newParentFingerprint = VoteStateSnapshot.localeFingerprint(parent, "99", 0, 0, 0, "", "voters", parentFile);
+        assertTrue("parent fingerprint changed", !parentFingerprint.equals(newParentFingerprint));
+        String newChildFingerprint = VoteStateSnapshot.localeFingerprint(child, "99", 3, 1234L, 5678L, newParentFingerprint, "voters", childFile);
+        assertNull("child snapshot rejected", snapshots.read(child, newChildFingerprint));
+    }
+
+    private static void writeFile(File file, String contents) throws IOException {
+        Files.write(file.toPath(), contents.getBytes(StandardCharsets.UTF_8));
+    }
 }
@@ -5,11 +5,30 @@ import java.io.IOException;
 import java.io.PrintWriter;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.logging.Logger;
 
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
 import org.unicode.cldr.draft.FileUtilities;
 import org.unicode.cldr.unittest.web.TestAll.WebTestInfo;
 import org.unicode.cldr.util.CLDRFile;
@@ -22,6 +41,7 @@ import org.unicode.cldr.util.VoteResolver;
 import org.unicode.cldr.util.VoteResolver.Level;
 import org.unicode.cldr.util.VoteResolver.Status;
 import org.unicode.cldr.util.XMLFileReader;
+import org.unicode.cldr.util.XMLSource;
 import org.unicode.cldr.util.XPathParts;
 import org.unicode.cldr.web.BallotBox;
 import org.unicode.cldr.web.BallotBox.InvalidXPathException;
@@ -35,6 +55,7 @@ import org.unicode.cldr.web.SurveyMain;
 import org.unicode.cldr.web.UserRegistry;
 import org.unicode.cldr.web.UserRegistry.LogoutException;
 import org.unicode.cldr.web.UserRegistry.User;
+import org.unicode.cldr.web.VoteStatistics;
 import org.unicode.cldr.web.XPathTable;
 
 import com.ibm.icu.dev.test.TestFmwk;
@@ -61,6 +82,33 @@ public class TestSTFactory extends TestFmwk {
         box.getValues(somePath);
     }
 
+    public void TestConcurrentLocaleLoad() throws SQLException, InterruptedException, ExecutionException {
+        final STFactory fac = getFactory();
+        final String somePath = "//ldml/localeDisplayNames/keys/key[@type=\"collation\"]";
+        final String[] locales = { "de", "de_CH", "fr", "fr_CA", "aa", "mt" };
+        ExecutorService pool = Executors.newFixedThreadPool(locales.length * 2);
+        try {
+            // each locale is asked for by two threads at once; both must get the same ballot box
+            List<Future<BallotBox<User>>> boxes = new ArrayList<Future<BallotBox<User>>>();
+            for (int i = 0; i < locales.length * 2; i++) {
+                final CLDRLocale locale = CLDRLocale.getInstance(locales[i % locales.length]);
+                boxes.add(pool.submit(new Callable<BallotBox<User>>() {
+                    @Override
+                    public BallotBox<User> call() {
+                        BallotBox<User> box = fac.ballotBoxForLocale(locale);
+                        fac.make(locale, true).getStringValue(somePath);
+                        return box;
+                    }
+                }));
+            }
+            for (int i = 0; i < locales.length; i++) {
+                assertTrue(locales[i] + " loaded once", boxes.get(i).get() == boxes.get(i + locales.length).get());
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
     public void TestReadonlyLocales() throws SQLException {
         STFactory fac = getFactory();
 
@@ -364,6 +412,181 @@ public class TestSTFactory extends TestFmwk {
         }
     }
 
+    public void TestVoteForValues() throws SQLException, InvalidXPathException, VoteNotAcceptedException {
+        final STFactory fac = getFactory();
+        final CLDRLocale locale = CLDRLocale.getInstance("fr_CA");
+        final String[] paths = {
+            "//ldml/localeDisplayNames/keys/key[@type=\"calendar\"]",
+            "//ldml/localeDisplayNames/keys/key[@type=\"collation\"]",
+            "//ldml/localeDisplayNames/keys/key[@type=\"currency\"]",
+        };
+        final BallotBox<User> box = fac.ballotBoxForLocale(locale);
+        final User user = getMyUser();
+        final CLDRFile file = fac.make(locale, false);
+        final List<Collection<String>> notified = new ArrayList<Collection<String>>();
+        XMLSource.Listener listener = new XMLSource.Listener() {
+            @Override
+            public void valueChanged(String xpath, XMLSource source) {
+                notified.add(Collections.singleton(xpath));
+            }
+
+            @Override
+            public void valuesChanged(Collection<String> xpaths, XMLSource source) {
+                notified.add(new ArrayList<String>(xpaths));
+            }
+        };
+        fac.makeSource(locale.getBaseName(), false).addListener(listener);
+        final Map<String, String> before = new TreeMap<String, String>();
+        for (String path : paths) {
+            before.put(path, box.getVoteValue(user, path));
+        }
+
+        // one value too long: nothing is recorded
+        Map<String, String> tooLong = new LinkedHashMap<String, String>();
+        tooLong.put(paths[0], "batch too long 0");
+        tooLong.put(paths[1], new String(new char[STFactory.LocaleMaxSizer.MAX_VAL_LEN + 1]).replace('\0', 'x'));
+        tooLong.put(paths[2], "batch too long 2");
+        try {
+            box.voteForValues(user, tooLong);
+            errln("a batch with a value that is too long was accepted");
+        } catch (VoteNotAcceptedException e) {
+            logln("too long: " + e);
+        }
+        assertVotesUnchanged("too long", box, user, before);
+
+        // one invalid path: nothing is recorded
+        Map<String, String> badPath = new LinkedHashMap<String, String>();
+        badPath.put(paths[0], "batch bad path 0");
+        badPath.put("//ldml/foo/bar[@type=\"baz\"]", "batch bad path");
+        badPath.put(paths[2], "batch bad path 2");
+        try {
+            box.voteForValues(user, badPath);
+            errln("a batch with an invalid path was accepted");
+        } catch (InvalidXPathException e) {
+            logln("invalid path: " + e);
+        }
+        assertVotesUnchanged("invalid path", box, user, before);
+        assertEquals("no notifications for rejected batches", 0, notified.size());
+
+        // accepted: every path is resolved, and the listeners are notified once
+        Map<String, String> accepted = new LinkedHashMap<String, String>();
+        for (int i = 0; i < paths.length; i++) {
+            accepted.put(paths[i], "batch accepted " + i);
+        }
+        box.voteForValues(user, accepted);
+        for (Map.Entry<String, String> e : accepted.entrySet()) {
+            assertEquals("vote for " + e.getKey(), e.getValue(), box.getVoteValue(user, e.getKey()));
+            expect(e.getKey(), e.getValue(), true, file, box);
+        }
+        assertEquals("notifications for an accepted batch", 1, notified.size());
+        if (!notified.isEmpty()) {
+            assertEquals("notified paths", accepted.keySet(), new TreeSet<String>(notified.get(0)));
+        }
+    }
+
+    private void assertVotesUnchanged(String message, BallotBox<User> box, User user, Map<String, String> before) {
+        for (Map.Entry<String, String> e : before.entrySet()) {
+            assertEquals(message + ": vote for " + e.getKey(), e.getValue(), box.getVoteValue(user, e.getKey()));
+        }
+    }
+
+    public void TestVoteStatistics() throws SQLException, InvalidXPathException, VoteNotAcceptedException, JSONException,
+        InterruptedException, ExecutionException {
+        final STFactory fac = getFactory();
+        final CLDRLocale locale = CLDRLocale.getInstance("mt");
+        final String insertPath = "//ldml/localeDisplayNames/keys/key[@type=\"calendar\"]";
+        final String revotePath = "//ldml/localeDisplayNames/keys/key[@type=\"collation\"]";
+        final String concurrentPath = "//ldml/localeDisplayNames/keys/key[@type=\"numbers\"]";
+        final BallotBox<User> box = fac.ballotBoxForLocale(locale);
+        final User user = getMyUser();
+        final SimpleDateFormat dayFormat = new SimpleDateFormat("yyyy-MM-dd");
+        final Timestamp yesterdayTime = new Timestamp(System.currentTimeMillis() - 24L * 60 * 60 * 1000);
+        final String yesterday = dayFormat.format(yesterdayTime);
+        final String today = dayFormat.format(new Date());
+
+        // start with a vote made yesterday on revotePath, and no vote on the others
+        box.voteForValue(user, revotePath, "revote1");
+        Connection conn = DBUtils.getInstance().getDBConnection();
+        try {
+            DBUtils.sqlUpdate(conn, "update " + DBUtils.Table.VOTE_VALUE + " set last_mod=? where locale=? and xpath=? and submitter=?",
+                yesterdayTime, locale, fac.sm.xpt.getByXpath(revotePath), user.id);
+            DBUtils.sqlUpdate(conn, "delete from " + DBUtils.Table.VOTE_VALUE + " where locale=? and xpath in (?,?) and submitter=?",
+                locale, fac.sm.xpt.getByXpath(insertPath), fac.sm.xpt.getByXpath(concurrentPath), user.id);
+            conn.commit();
+        } finally {
+            DBUtils.closeDBConnection(conn);
+        }
+        VoteStatistics stats = VoteStatistics.getInstance();
+        final int total = stats.rebuild();
+        final int onYesterday = countOnDay(stats, dayFormat, yesterday);
+        final int onToday = countOnDay(stats, dayFormat, today);
+        assertTrue("yesterday's vote is counted", onYesterday > 0);
+
+        box.voteForValue(user, insertPath, "insert1");
+        assertEquals("total after an insert", total + 1, stats.getTotalVotes());
+        assertEquals("today after an insert", onToday + 1, countOnDay(stats, dayFormat, today));
+
+        // the row moves from yesterday to today
+        box.voteForValue(user, revotePath, "revote2");
+        assertEquals("total after a re-vote", total + 1, stats.getTotalVotes());
+        assertEquals("yesterday after a re-vote", onYesterday - 1, countOnDay(stats, dayFormat, yesterday));
+        assertEquals("today after a re-vote", onToday + 2, countOnDay(stats, dayFormat, today));
+
+        assertEquals("total on rebuild", total + 1, stats.rebuild());
+        assertEquals("yesterday on rebuild", onYesterday - 1, countOnDay(stats, dayFormat, yesterday));
+        assertEquals("today on rebuild", onToday + 2, countOnDay(stats, dayFormat, today));
+
+        // a rebuild waits for the vote in progress, which is then counted once
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            Future<Integer> rebuilt;
+            stats.beginVotes();
+            try {
+                rebuilt = pool.submit(new Callable<Integer>() {
+                    @Override
+                    public Integer call() throws SQLException {
+                        return VoteStatistics.getInstance().rebuild();
+                    }
+                });
+                try {
+                    rebuilt.get(500, TimeUnit.MILLISECONDS);
+                    errln("rebuild didn't wait for the vote in progress");
+                } catch (TimeoutException e) {
+                    logln("rebuild is waiting for the vote in progress");
+                }
+                box.voteForValue(user, concurrentPath, "concurrent1");
+            } finally {
+                stats.endVotes();
+            }
+            assertEquals("total on rebuild after a vote in progress", total + 2, rebuilt.get().intValue());
+            assertEquals("today on rebuild after a vote in progress", onToday + 3, countOnDay(stats, dayFormat, today));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * @return the VoteStatistics count for the day, formatted with dayFormat
+     */
+    private int countOnDay(VoteStatistics stats, SimpleDateFormat dayFormat, String day) throws SQLException, JSONException {
+        final long dayMillis;
+        try {
+            dayMillis = dayFormat.parse(day).getTime();
+        } catch (ParseException e) {
+            throw new IllegalArgumentException(day, e);
+        }
+        JSONObject byDay = stats.getByDayJSON();
+        JSONObject header = byDay.getJSONObject("header");
+        JSONArray data = byDay.getJSONArray("data");
+        for (int i = 0; i < data.length(); i++) {
+            JSONArray row = data.getJSONArray(i);
+            if (row.getLong(header.getInt("LAST_MOD")) == dayMillis) {
+                return row.getInt(header.getInt("COUNT"));
+            }
+        }
+        return 0;
+    }
+
     public void TestVettingDataDriven() throws SQLException, IOException {
         runDataDrivenTest(TestSTFactory.class.getSimpleName()); // TestSTFactory.xml
     }
@@ -8,10 +8,12 @@ import java.sql.SQLException;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.unicode.cldr.util.XPathParts;
 import org.unicode.cldr.web.CookieSession;
 import org.unicode.cldr.web.DBUtils;
+import org.unicode.cldr.web.XPathIdTable;
 import org.unicode.cldr.web.XPathTable;
 
 import com.ibm.icu.dev.test.TestFmwk;
@@ -65,6 +67,50 @@ public class TestXPathTable extends TestFmwk {
         logln("OK: Tested " + ii + " values");
     }
 
+    /**
+     * Read the id table from several threads while another thread adds to it, through several resizes.
+     */
+    public void TestIdTableConcurrent() throws InterruptedException {
+        final XPathIdTable ids = new XPathIdTable();
+        final int count = 100000;
+        final String xpaths[] = new String[count];
+        for (int i = 0; i < count; i++) {
+            xpaths[i] = "//test/" + i + "/[@hash=\"" + CookieSession.cheapEncode(i) + "\"]/item";
+        }
+        final AtomicInteger added = new AtomicInteger();
+        final AtomicInteger errors = new AtomicInteger();
+        Thread readers[] = new Thread[4];
+        for (int t = 0; t < readers.length; t++) {
+            readers[t] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    int n;
+                    while ((n = added.get()) < count) {
+                        for (int i = 0; i < n; i += 97) {
+                            if (ids.getId(xpaths[i]) != i || !xpaths[i].equals(ids.getXpath(i))
+                                || !xpaths[i].equals(ids.getXpathByStringId(XPathTable.getStringID(xpaths[i])))) {
+                                errors.incrementAndGet();
+                            }
+                        }
+                    }
+                }
+            });
+            readers[t].start();
+        }
+        for (int i = 0; i < count; i++) {
+            ids.put(i, xpaths[i], XPathTable.getStringID(xpaths[i]));
+            added.set(i + 1);
+        }
+        for (Thread reader : readers) {
+            reader.join();
+        }
+        assertEquals("errors seen by readers", 0, errors.get());
+        assertEquals("size", count, ids.size());
+        assertEquals("missing xpath", XPathTable.NO_XPATH, ids.getId("//test/none"));
+        assertNull("missing id", ids.getXpath(count + 1));
+        logln(ids.stats());
+    }
+
     public void TestRemoveDraftAltProposed() {
         String inout[] = {
 
@@ -0,0 +1,83 @@
+package org.unicode.cldr.unittest.web.perf;
+
+import java.util.Hashtable;
+
+import org.unicode.cldr.web.XPathTable;
+
+/**
+ * Measures the XPathTable lookups used on every row of DataSection, SurveyAjax and vote handling,
+ * against the Hashtables that XPathTable used to keep. No database is needed.
+ *
+ * Example: java org.unicode.cldr.unittest.web.perf.XPathTablePerf --iterations 100 --passes 4 GetByXpath GetById HashtableGetByXpath
+ * Add --threads N to measure with concurrent readers.
+ */
+public class XPathTablePerf extends PerfTest {
+    private static final int XPATH_COUNT = 60000;
+
+    private final XPathTable xpt = new XPathTable();
+    private final Hashtable<String, Integer> stringToId = new Hashtable<String, Integer>();
+    private final String[] xpaths = new String[XPATH_COUNT];
+    private final int[] xpids = new int[XPATH_COUNT];
+
+    public static void main(String[] args) throws Exception {
+        new XPathTablePerf().run(args);
+    }
+
+    @Override
+    protected void setup(String[] args) {
+        for (int i = 0; i < XPATH_COUNT; i++) {
+            // shaped like real paths, so that hashing and comparison costs are similar
+            String xpath = "//ldml/localeDisplayNames/languages/language[@type=\"x" + Integer.toString(i, 36) + "\"][@alt=\"variant\"]";
+            int id = i + 1;
+            xpt.setById(id, new String(xpath)); // lookups use a different instance, as they do in the ST
+            stringToId.put(xpath, id);
+            xpaths[i] = xpath;
+            xpids[i] = id;
+        }
+    }
+
+    PerfTest.Function testGetByXpath() {
+        return new PerfTest.Function() {
+            public void call() {
+                for (String xpath : xpaths) {
+                    xpt.getByXpath(xpath);
+                }
+            }
+
+            public long getOperationsPerIteration() {
+                return XPATH_COUNT;
+            }
+        };
+    }
+
+    PerfTest.Function testGetById() {
+        return new PerfTest.Function() {
+            public void call() {
+                for (int xpid : xpids) {
+                    xpt.getById(xpid);
+                }
+            }
+
+            public long getOperationsPerIteration() {
+                return XPATH_COUNT;
+            }
+        };
+    }
+
+    /**
+     * Baseline: the synchronized, boxing lookup that getByXpath used to do
+     */
+    PerfTest.Function testHashtableGetByXpath() {
+        return new PerfTest.Function() {
+            public void call() {
+                for (String xpath : xpaths) {
+                    stringToId.get(xpath).intValue();
+                }
+            }
+
+            public long getOperationsPerIteration() {
+                return XPATH_COUNT;
+            }
+        };
+    }
+}
@@ -77,6 +77,21 @@ public interface BallotBox<T> {
 
     public void voteForValue(T user, String distinguishingXpath, String value) throws InvalidXPathException, VoteNotAcceptedException;
 
+    /**
+     * Record votes by one user for several items at once. The same as calling
+     * voteForValue for each, but the votes are written in one transaction, each
+     * item is resolved once, and listeners are notified once for all of them.
+     * Nothing is recorded if any of the votes is not accepted.
+     *
+     * @param user
+     *            voter's object
+     * @param values
+     *            map from dpath of item to new string value to vote for, or null for "unvote"
+     * @throws InvalidXPathException
+     * @throws VoteNotAcceptedException
+     */
+    public void voteForValues(T user, Map<String, String> values) throws InvalidXPathException, VoteNotAcceptedException;
+
     /**
      * Delete an item. Will (eventually) throw a number of
      * exceptions.
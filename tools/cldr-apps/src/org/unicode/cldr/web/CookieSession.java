@@ -17,10 +17,12 @@ import java.sql.Connection;
 import java.util.Comparator;
 import java.util.HashSet;
 import java.util.Hashtable;
-import java.util.LinkedList;
-import java.util.List;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.xml.bind.DatatypeConverter;
 
@@ -31,6 +33,10 @@ import org.unicode.cldr.util.StandardCodes;
 /**
  * Instances of this class represent the session-persistent data kept on a
  * per-user basis. Instances are typically held by WebContext.session.
+ * <p>
+ * The sessions are kept in concurrent maps, so looking one up doesn't lock out other requests;
+ * changes to a single session lock only that session. Expired sessions are removed by a
+ * background reaper on the SurveyMain timer, not on the request path.
  */
 public class CookieSession {
     /*
@@ -58,7 +64,7 @@ public class CookieSession {
     /**
      * When did the user last take an explicit action?
      */
-    private long lastAction = System.currentTimeMillis();
+    private volatile long lastAction = System.currentTimeMillis();
 
     public long getLastAction() {
         return lastAction;
@@ -107,36 +113,36 @@ public class CookieSession {
     /**
      * When did the user last touch this session?
      */
-    public long last;
+    public volatile long last;
+
+    /**
+     * Set once the session has been removed, so it is only closed once
+     */
+    private boolean removed = false;
 
     public String toString() {
         return "{CookieSession#" + id + ", user=" + user + ", timeTillKick=" + SurveyMain.durationDiff(timeTillKick()) + ", age=" + age() + ", userActionAge="
             + userActionAge() + "}";
     }
 
-    static Hashtable<String, CookieSession> gHash = new Hashtable<String, CookieSession>(); // hash by sess ID
-    static Hashtable<String, CookieSession> uHash = new Hashtable<String, CookieSession>(); // hash by user ID
+    static final ConcurrentHashMap<String, CookieSession> gHash = new ConcurrentHashMap<String, CookieSession>(); // hash by sess ID
+    static final ConcurrentHashMap<String, CookieSession> uHash = new ConcurrentHashMap<String, CookieSession>(); // hash by user ID
 
     public static Set<CookieSession> getAllSet() {
-        synchronized (gHash) {
-            TreeSet<CookieSession> sessSet = new TreeSet<CookieSession>(new Comparator<Object>() {
-                public int compare(Object a, Object b) {
-                    CookieSession aa = (CookieSession) a;
-                    CookieSession bb = (CookieSession) b;
-                    if (aa == bb)
-                        return 0;
-                    if (aa.last > bb.last)
-                        return -1;
-                    if (aa.last < bb.last)
-                        return 1;
-                    return 0; // same age
-                }
-            });
-            // sessSet.addAll(uHash.values()); // all users (reg'd)
-            sessSet.addAll(gHash.values()); // ALL sessions
-            return sessSet;
-            // return uHash.values().iterator();
-        }
+        TreeSet<CookieSession> sessSet = new TreeSet<CookieSession>(new Comparator<CookieSession>() {
+            public int compare(CookieSession aa, CookieSession bb) {
+                if (aa == bb)
+                    return 0;
+                if (aa.last > bb.last)
+                    return -1;
+                if (aa.last < bb.last)
+                    return 1;
+                return aa.id.compareTo(bb.id); // same age
+            }
+        });
+        // sessSet.addAll(uHash.values()); // all users (reg'd)
+        sessSet.addAll(gHash.values()); // ALL sessions
+        return sessSet;
     }
 
     /**
@@ -165,10 +171,7 @@ public class CookieSession {
      */
     public static CookieSession retrieveWithoutTouch(String sessionid) {
         checkForExpiredSessions();
-        synchronized (gHash) {
-            CookieSession c = gHash.get(sessionid);
-            return c;
-        }
+        return gHash.get(sessionid);
     }
 
     /**
@@ -179,10 +182,7 @@ public class CookieSession {
      * @return session or null
      */
     public static CookieSession retrieveUserWithoutTouch(String email) {
-        synchronized (gHash) {
-            CookieSession c = uHash.get(email);
-            return c;
-        }
+        return uHash.get(email);
     }
 
     /**
@@ -193,13 +193,11 @@ public class CookieSession {
      * @return session or null
      */
     public static CookieSession retrieveUser(String email) {
-        synchronized (gHash) {
-            CookieSession c = retrieveUserWithoutTouch(email);
-            if (c != null) {
-                c.touch();
-            }
-            return c;
+        CookieSession c = retrieveUserWithoutTouch(email);
+        if (c != null) {
+            c.touch();
         }
+        return c;
     }
 
     /**
@@ -208,13 +206,11 @@ public class CookieSession {
      * @param u
      *            user
      */
-    public void setUser(UserRegistry.User u) {
+    public synchronized void setUser(UserRegistry.User u) {
         user = u;
         settings = null;
-        synchronized (gHash) {
-            uHash.put(user.email, this); // replaces any existing session by
-            // this user.
-        }
+        uHash.put(user.email, this); // replaces any existing session by
+        // this user.
     }
 
     /**
@@ -232,28 +228,27 @@ public class CookieSession {
             id = fromId;
         }
         if (DEBUG_INOUT) System.out.println("S: new " + id + " - " + user);
-        synchronized (gHash) {
-            if (gHash.containsKey(id)) {
-                System.err.println("CookieSession.CookieSession() - dup id " + id);
-            }
-            gHash.put(id, this);
-            touch();
-        }
+        touch();
     }
 
     public static CookieSession newSession(boolean isGuest, String ip, String fromId) {
-        CookieSession rv = null;
-        synchronized (gHash) {
-            rv = gHash.get(fromId);
-            if (rv != null) {
-                System.err.println("Trying to create extant session " + rv);
-                if (!rv.ip.equals(ip)) {
-                    if (SurveyMain.isUnofficial()) System.out.println("IP changed from " + rv.ip + " to " + ip + " - " + rv);
-                    rv.ip = ip;
-                    rv.touch();
-                }
-            } else {
-                rv = new CookieSession(isGuest, ip, fromId);
+        CookieSession rv = (fromId == null) ? null : gHash.get(fromId);
+        if (rv == null) {
+            CookieSession created = new CookieSession(isGuest, ip, fromId);
+            rv = gHash.putIfAbsent(created.id, created);
+            if (rv == null) {
+                sessionsCreated.incrementAndGet();
+                startReaper();
+                return created;
+            }
+            // lost a race with another request for the same id
+        }
+        System.err.println("Trying to create extant session " + rv);
+        synchronized (rv) {
+            if (!rv.ip.equals(ip)) {
+                if (SurveyMain.isUnofficial()) System.out.println("IP changed from " + rv.ip + " to " + ip + " - " + rv);
+                rv.ip = ip;
+                rv.touch();
             }
         }
         return rv;
@@ -278,11 +273,15 @@ public class CookieSession {
      * Delete a session.
      */
     public void remove() {
-        synchronized (gHash) {
+        synchronized (this) {
+            if (removed) {
+                return;
+            }
+            removed = true;
             if (user != null) {
-                uHash.remove(user.email);
+                uHash.remove(user.email, this); // not a newer session by this user
             }
-            gHash.remove(id);
+            gHash.remove(id, this);
         }
         // clear out any database sessions in use
         DBUtils.closeDBConnection(conn);
@@ -308,9 +307,18 @@ public class CookieSession {
     }
 
     // secure stuff
-    static SecureRandom myRand = null;
 
-    /** Secure random number generator **/
+    /** Secure random number generator; SecureRandom is thread safe **/
+    private static class RandHolder {
+        static final SecureRandom myRand;
+        static {
+            try {
+                myRand = SecureRandom.getInstance("SHA1PRNG");
+            } catch (NoSuchAlgorithmException nsa) {
+                throw new InternalError(nsa.toString());
+            }
+        }
+    }
 
     /**
      * Generate a new ID.
@@ -319,12 +327,9 @@ public class CookieSession {
      *            true if user is a guest. The guest namespace is separate from
      *            the nonguest.
      */
-    public static synchronized String newId(boolean isGuest) {
+    public static String newId(boolean isGuest) {
         try {
-            if (myRand == null) {
-                myRand = SecureRandom.getInstance("SHA1PRNG");
-            }
-
+            final SecureRandom myRand = RandHolder.myRand;
             MessageDigest aDigest = MessageDigest.getInstance("SHA-1");
             byte[] outBytes = aDigest.digest(new Integer(myRand.nextInt()).toString().getBytes());
             return cheapEncode(outBytes);
@@ -545,7 +550,8 @@ public class CookieSession {
         CLDR_GUEST_TIMEOUT(1 * 60), // Guest computers must checkin every minute or they are kicked. (always)
         CLDR_GUEST_INACTIVITY(1 * 60), // Guests must perform some activity every 5 minutes or they are kicked ( when too many guests)
         CLDR_USER_TIMEOUT(2 * 60), // Users computer must check in every 2 minutes or kicked (always)
-        CLDR_USER_INACTIVITY(5 * 60); // Users must do something (load a page, vote, etc) or they are kicked (when too many users)
+        CLDR_USER_INACTIVITY(5 * 60), // Users must do something (load a page, vote, etc) or they are kicked (when too many users)
+        CLDR_SESSION_REAP_INTERVAL(5); // How often, in seconds, the background reaper looks for expired sessions
 
         private int defVal;
         private Integer value;
@@ -622,73 +628,124 @@ public class CookieSession {
 
     // parameters
 
-    static long lastReap = 0;
-    /** last time reaped. Starts at 0, so reap immediately **/
+    /** # of guests, as of the last reap **/
+    private static volatile int nGuests = 0;
+    /** # of users, as of the last reap **/
+    private static volatile int nUsers = 0;
 
-    private static int nGuests = 0;
-    /** # of guests **/
-    private static int nUsers = 0;
+    private static final AtomicLong sessionsCreated = new AtomicLong();
+    private static final AtomicLong sessionsReaped = new AtomicLong();
+
+    private static final Object reaperLock = new Object();
+    private static ScheduledFuture<?> reaper = null;
 
     public static int getGuestCount() {
-        getUserCount();
         return nGuests;
     }
 
     /** # of users **/
     /**
-     * Perform a reap if need be, and count.
      * @return user count
      */
     public static int getUserCount() {
-        synchronized (uHash) {
-            return uHash.size();
-        }
+        return uHash.size();
     }
 
-    private static int lastCount = -1;
+    /**
+     * @return the number of sessions, guests and users, including any not yet reaped
+     */
+    public static int getActiveCount() {
+        return gHash.size();
+    }
 
-    public static int checkForExpiredSessions() {
+    /**
+     * @return the number of sessions created since startup
+     */
+    public static long getCreatedCount() {
+        return sessionsCreated.get();
+    }
+
+    /**
+     * @return the number of sessions removed by the reaper since startup
+     */
+    public static long getReapedCount() {
+        return sessionsReaped.get();
+    }
 
-        synchronized (gHash) {
-            int allCount = gHash.size(); // count of ALL users
-            long now = System.currentTimeMillis();
-            long elapsed = (now - lastReap);
+    /**
+     * Make sure the background reaper is running. Expired sessions are removed by the reaper,
+     * so this doesn't wait for a reap; it's kept for the callers that used to reap here.
+     *
+     * @return the user count as of the last reap
+     */
+    public static int checkForExpiredSessions() {
+        startReaper();
+        return nUsers;
+    }
 
-            final boolean tooManyUsers = tooManyUsers();
-            final boolean tooManyGuests = tooManyGuests();
+    private static void startReaper() {
+        synchronized (reaperLock) {
+            if (reaper != null) {
+                return;
+            }
+            final long interval = Params.CLDR_SESSION_REAP_INTERVAL.value();
+            reaper = SurveyMain.getTimer().scheduleWithFixedDelay(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        reapExpiredSessions();
+                    } catch (Throwable t) {
+                        // don't let an exception cancel the reaper
+                        SurveyLog.logException(t, "CookieSession reaper");
+                    }
+                }
+            }, 0, interval, TimeUnit.SECONDS);
+        }
+    }
 
-            if (elapsed < (1000 * 5) && allCount <= lastCount && !tooManyGuests) { // check every 5 seconds or if count grows
-                return nUsers;
+    private static void stopReaper() {
+        synchronized (reaperLock) {
+            if (reaper != null) {
+                reaper.cancel(false);
+                reaper = null;
             }
+        }
+    }
 
-            lastCount = allCount;
+    /**
+     * Remove any sessions that have expired, and count the rest.
+     * Called by the background reaper.
+     *
+     * @return user count
+     */
+    public static int reapExpiredSessions() {
+        synchronized (reaperLock) { // one reap at a time
+            final boolean tooManyUsers = tooManyUsers();
 
             int guests = 0;
             int users = 0;
-            lastReap = now;
 
             // remove any sessions we need to get rid of, count the rest.
-            List<CookieSession> toRemove = new LinkedList<CookieSession>();
             for (CookieSession cs : gHash.values()) {
+                boolean expired;
                 if (cs.user == null) { // guest
-                    if (tooManyUsers || cs.age() > (Params.CLDR_GUEST_TIMEOUT.value() * 1000) || (cs.timeTillKick() == 0)) {
-                        toRemove.add(cs);
-                    } else {
+                    expired = tooManyUsers || cs.age() > (Params.CLDR_GUEST_TIMEOUT.value() * 1000) || (cs.timeTillKick() == 0);
+                    if (!expired) {
                         guests++;
                     }
                 } else {
-                    if ((cs.age() > Params.CLDR_USER_TIMEOUT.value() * 1000) || (cs.timeTillKick() <= 0)) {
-                        toRemove.add(cs);
-                    } else {
+                    expired = (cs.age() > Params.CLDR_USER_TIMEOUT.value() * 1000) || (cs.timeTillKick() <= 0);
+                    if (!expired) {
                         users++;
                     }
                 }
-            }
-            for (CookieSession cs : toRemove) {
-                if (SurveyMain.isUnofficial()) {
-                    System.err.println("Removed stale session " + cs);
+                if (expired) {
+                    if (SurveyMain.isUnofficial()) {
+                        System.err.println("Removed stale session " + cs);
+                    }
+                    cs.remove();
+                    sessionsReaped.incrementAndGet();
                 }
-                cs.remove();
             }
             nGuests = guests;
             return (nUsers = users);
@@ -696,18 +753,16 @@ public class CookieSession {
     }
 
     public static void shutdownDB() {
-        synchronized (gHash) {
-            CookieSession sessions[] = gHash.values().toArray(new CookieSession[0]);
-            for (CookieSession cs : sessions) {
-                try {
-                    cs.remove();
-                } catch (Throwable t) {
-                    //
-                }
+        stopReaper();
+        for (CookieSession cs : gHash.values()) {
+            try {
+                cs.remove();
+            } catch (Throwable t) {
+                //
             }
-            gHash.clear();
-            uHash.clear();
         }
+        gHash.clear();
+        uHash.clear();
     }
 
     public UserSettings settings() {
@@ -723,14 +778,21 @@ public class CookieSession {
 
     private UserSettings settings;
 
-    static CookieSession specialGuest = null;
-
-    private static synchronized CookieSession getSpecialGuest() {
-        if (specialGuest == null) {
-            specialGuest = new CookieSession(true, "[throttled]", null);
-            // gHash.put("throttled", specialGuest);
+    private static volatile CookieSession specialGuest = null;
+
+    private static CookieSession getSpecialGuest() {
+        CookieSession rv = specialGuest;
+        if (rv == null) {
+            synchronized (reaperLock) {
+                rv = specialGuest;
+                if (rv == null) {
+                    rv = new CookieSession(true, "[throttled]", null);
+                    gHash.put(rv.id, rv);
+                    specialGuest = rv;
+                }
+            }
         }
-        return specialGuest;
+        return rv;
     }
 
     private static class BadUserRecord {
@@ -742,12 +804,12 @@ public class CookieSession {
             ip = IP;
         }
 
-        public void hit(String userAgent) {
+        public synchronized void hit(String userAgent) {
             agents.add(userAgent);
             hits++;
         }
 
-        public String toString() {
+        public synchronized String toString() {
             String s = " hits: " + hits + ", from :";
             for (String ua : agents) {
                 s = s + ua + ", ";
@@ -756,7 +818,7 @@ public class CookieSession {
         }
     }
 
-    public static synchronized CookieSession checkForAbuseFrom(String userIP, Hashtable<String, Object> BAD_IPS, String userAgent) {
+    public static CookieSession checkForAbuseFrom(String userIP, Hashtable<String, Object> BAD_IPS, String userAgent) {
         if (userAgent == null)
             userAgent = "X-None";
         if (BAD_IPS.containsKey(userIP)) {
@@ -773,18 +835,15 @@ public class CookieSession {
 
         int noSes = 0;
         long now = System.currentTimeMillis();
-        synchronized (gHash) {
-            for (Object o : gHash.values()) {
-                CookieSession cs = (CookieSession) o;
-                if (!userIP.equals(cs.ip)) {
-                    continue;
-                }
-                if (cs.user != null) {
-                    return null; // has a user, OK
-                }
-                if ((now - cs.last) < (5 * 60 * 1000)) {
-                    noSes++;
-                }
+        for (CookieSession cs : gHash.values()) {
+            if (!userIP.equals(cs.ip)) {
+                continue;
+            }
+            if (cs.user != null) {
+                return null; // has a user, OK
+            }
+            if ((now - cs.last) < (5 * 60 * 1000)) {
+                noSes++;
             }
         }
         if ((noSes > 10) || userAgent.contains("Googlebot") || userAgent.contains("MJ12bot") || userAgent.contains("ezooms.bot")
@@ -802,7 +861,7 @@ public class CookieSession {
     }
 
     public String banIn(Hashtable<String, Object> BAD_IPS) {
-        synchronized (gHash) {
+        synchronized (BAD_IPS) {
             BadUserRecord bur = (BadUserRecord) BAD_IPS.get(this.ip);
             if (bur == null) {
                 bur = new BadUserRecord(this.ip);
@@ -810,9 +869,9 @@ public class CookieSession {
             } else {
                 bur.hit("(Banned by Admin)");
             }
-            this.remove();
-            return "banned and kicked this session";
         }
+        this.remove();
+        return "banned and kicked this session";
     }
 
     /**
@@ -26,8 +26,16 @@ import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.naming.Context;
 import javax.naming.InitialContext;
@@ -1389,10 +1397,58 @@ public class DBUtils {
         }
     }
 
-    private Map<String, Reference<JSONObject>> cachedJsonQuery = new ConcurrentHashMap<String, Reference<JSONObject>>();
+    /**
+     * One cached result of queryToCachedJSON.
+     * The lock on the instance is held while the query runs, so that only one request runs it at a time.
+     */
+    private static final class CachedQuery {
+        volatile Reference<JSONObject> ref = null;
+        /**
+         * Set while a background refresh is pending or running
+         */
+        final AtomicBoolean refreshing = new AtomicBoolean(false);
+
+        JSONObject get() {
+            Reference<JSONObject> r = ref;
+            return (r == null) ? null : r.get();
+        }
+    }
+
+    private final ConcurrentHashMap<String, CachedQuery> cachedJsonQuery = new ConcurrentHashMap<String, CachedQuery>();
+
+    /**
+     * Runs the background refreshes of queryToCachedJSON, apart from the timer's periodic tasks, so that a slow
+     * query doesn't hold them up. At most one refresh per id is queued at a time.
+     */
+    private static final ExecutorService cachedJsonRefresher = Executors.newFixedThreadPool(
+        CLDRConfig.getInstance().getProperty("CLDR_QUERY_REFRESH_THREADS", 1),
+        new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread t = new Thread(r, "CachedQueryRefresh-" + count.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            }
+        });
+
+    private final AtomicLong cachedJsonHits = new AtomicLong();
+    private final AtomicLong cachedJsonStaleHits = new AtomicLong();
+    private final AtomicLong cachedJsonMisses = new AtomicLong();
+    private final AtomicLong cachedJsonRefreshes = new AtomicLong();
+    private final AtomicLong cachedJsonRefreshFailures = new AtomicLong();
+    private final AtomicLong cachedJsonQueryMs = new AtomicLong();
+    private final AtomicLong cachedJsonMaxQueryMs = new AtomicLong();
 
     /**
      * Run a query, caching the JSON response
+     *
+     * Only one request at a time runs the query for an id; others asking for the same id while it runs wait for
+     * its result. Once a result is older than cacheAge, it is still returned, while one refresh runs in the
+     * background, so that requests don't pile up behind a slow query. A result that hasn't been refreshed yet
+     * can therefore be older than cacheAge; its "birth" tells when it was fetched.
+     *
      * TODO: cache exceptions..
      * @param id
      * @param cacheAge
@@ -1403,7 +1459,8 @@ public class DBUtils {
      * @throws IOException
      * @throws JSONException
      */
-    public static JSONObject queryToCachedJSON(String id, long cacheAge, String query, Object... args) throws SQLException, IOException, JSONException {
+    public static JSONObject queryToCachedJSON(final String id, long cacheAge, final String query, final Object... args)
+        throws SQLException, IOException, JSONException {
         if (SurveyMain.isSetup == false || SurveyMain.isBusted()) {
             return null;
         }
@@ -1412,40 +1469,108 @@ public class DBUtils {
          * Debug the cachedJSON
          */
         final boolean CDEBUG = SurveyMain.isUnofficial() && CldrUtility.getProperty("CLDR_QUERY_CACHEDEBUG", false);
-        DBUtils instance = getInstance(); // don't want the cache to be static
-        Reference<JSONObject> ref = instance.cachedJsonQuery.get(id);
-        JSONObject result = null;
-        if (ref != null) result = ref.get();
-        long now = System.currentTimeMillis();
+        final DBUtils instance = getInstance(); // don't want the cache to be static
+        CachedQuery entry = instance.cachedJsonQuery.get(id);
+        if (entry == null) {
+            CachedQuery newEntry = new CachedQuery();
+            entry = instance.cachedJsonQuery.putIfAbsent(id, newEntry);
+            if (entry == null) {
+                entry = newEntry;
+            }
+        }
+        JSONObject result = entry.get();
         if (CDEBUG) {
-            System.out.println("cachedjson: id " + id + " ref=" + ref + "res?" + (result != null));
+            System.out.println("cachedjson: id " + id + " res?" + (result != null));
         }
         if (result != null) {
-            long age = now - (Long) result.get("birth");
-            if (age > cacheAge) {
+            long age = System.currentTimeMillis() - (Long) result.get("birth");
+            if (age <= cacheAge) {
+                instance.cachedJsonHits.incrementAndGet();
+                return result;
+            }
+            // stale: return it anyway, and refresh it in the background if that isn't already happening.
+            instance.cachedJsonStaleHits.incrementAndGet();
+            if (entry.refreshing.compareAndSet(false, true)) {
                 if (CDEBUG) {
-                    System.out.println("cachedjson: id " + id + " expiring because age " + age + " > " + cacheAge);
+                    System.out.println("cachedjson: id " + id + " refreshing because age " + age + " > " + cacheAge);
+                }
+                final CachedQuery refreshEntry = entry;
+                try {
+                    cachedJsonRefresher.submit(new Runnable() {
+                        @Override
+                        public void run() {
+                            try {
+                                synchronized (refreshEntry) {
+                                    instance.fetchCachedJSON(id, refreshEntry, CDEBUG, query, args);
+                                }
+                                instance.cachedJsonRefreshes.incrementAndGet();
+                            } catch (Throwable t) {
+                                instance.cachedJsonRefreshFailures.incrementAndGet();
+                                SurveyLog.logException(t, "Refreshing cached query " + id);
+                            } finally {
+                                refreshEntry.refreshing.set(false);
+                            }
+                        }
+                    });
+                } catch (RejectedExecutionException ree) {
+                    entry.refreshing.set(false); // shutting down
                 }
-                result = null;
             }
+            return result;
         }
 
-        if (result == null) { // have to fetch it
-            if (CDEBUG) {
-                System.out.println("cachedjson: id " + id + " fetching: " + query);
-            }
-            result = queryToJSON(query, args);
-            long queryms = System.currentTimeMillis() - now;
-            result.put("birth", (Long) now);
-            if (CDEBUG) {
-                System.out.println("cachedjson: id " + id + " fetched in " + Double.toString(queryms / 1000.0) + "s");
+        // nothing to return: fetch it, unless another request is already doing so
+        synchronized (entry) {
+            result = entry.get();
+            if (result != null) {
+                instance.cachedJsonHits.incrementAndGet(); // fetched while we waited
+                return result;
             }
-            result.put("queryms", (Long) (queryms));
-            result.put("id", id);
-            ref = new SoftReference<JSONObject>(result);
-            instance.cachedJsonQuery.put(id, ref);
+            instance.cachedJsonMisses.incrementAndGet();
+            return instance.fetchCachedJSON(id, entry, CDEBUG, query, args);
         }
+    }
 
+    /**
+     * Run the query for queryToCachedJSON and cache the result. Called holding the lock on the entry.
+     */
+    private JSONObject fetchCachedJSON(String id, CachedQuery entry, boolean CDEBUG, String query, Object... args)
+        throws SQLException, IOException, JSONException {
+        if (CDEBUG) {
+            System.out.println("cachedjson: id " + id + " fetching: " + query);
+        }
+        long now = System.currentTimeMillis();
+        JSONObject result = queryToJSON(query, args);
+        long queryms = System.currentTimeMillis() - now;
+        result.put("birth", (Long) now);
+        if (CDEBUG) {
+            System.out.println("cachedjson: id " + id + " fetched in " + Double.toString(queryms / 1000.0) + "s");
+        }
+        result.put("queryms", (Long) (queryms));
+        result.put("id", id);
+        entry.ref = new SoftReference<JSONObject>(result);
+        cachedJsonQueryMs.addAndGet(queryms);
+        long max;
+        while ((max = cachedJsonMaxQueryMs.get()) < queryms && !cachedJsonMaxQueryMs.compareAndSet(max, queryms)) {
+            // retry
+        }
+        return result;
+    }
+
+    /**
+     * Hit, miss and query time counts of queryToCachedJSON, for the admin page
+     */
+    public static Map<String, Long> getCachedJSONStatistics() {
+        DBUtils instance = getInstance();
+        Map<String, Long> result = new LinkedHashMap<String, Long>();
+        result.put("entries", (long) instance.cachedJsonQuery.size());
+        result.put("hits", instance.cachedJsonHits.get());
+        result.put("staleHits", instance.cachedJsonStaleHits.get());
+        result.put("misses", instance.cachedJsonMisses.get());
+        result.put("refreshes", instance.cachedJsonRefreshes.get());
+        result.put("refreshFailures", instance.cachedJsonRefreshFailures.get());
+        result.put("totalQueryMs", instance.cachedJsonQueryMs.get());
+        result.put("maxQueryMs", instance.cachedJsonMaxQueryMs.get());
         return result;
     }
 
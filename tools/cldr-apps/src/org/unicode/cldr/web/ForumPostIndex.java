@@ -0,0 +1,164 @@
+package org.unicode.cldr.web;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.unicode.cldr.util.CLDRLocale;
+
+/**
+ * In-memory index of the forum posts of each locale: the number of posts on each xpath,
+ * and the thread heads (posts that aren't replies) on each xpath, newest first.
+ *
+ * A locale is read from the database with one query the first time it is asked for; after that,
+ * SurveyForum keeps it up to date by calling {@link #postAdded(CLDRLocale, int, int, int)} as
+ * posts are written.
+ */
+class ForumPostIndex {
+    /**
+     * The posts of one locale. All access is synchronized on the instance.
+     */
+    static final class LocalePosts {
+        private boolean loaded = false;
+        private final Set<Integer> ids = new HashSet<Integer>();
+        private final Map<Integer, Integer> counts = new HashMap<Integer, Integer>();
+        private final Map<Integer, List<Integer>> threadHeads = new HashMap<Integer, List<Integer>>();
+
+        /**
+         * @param id
+         * @param parent the post replied to, or {@link SurveyForum#NO_PARENT}
+         * @param xpath
+         * @param newest true if this post is newer than all the others, false if loading newest first
+         */
+        private void add(int id, int parent, int xpath, boolean newest) {
+            if (!ids.add(id)) {
+                return; // already read from the database
+            }
+            Integer count = counts.get(xpath);
+            counts.put(xpath, count == null ? 1 : count + 1);
+            if (parent < 0) {
+                List<Integer> heads = threadHeads.get(xpath);
+                if (heads == null) {
+                    threadHeads.put(xpath, heads = new ArrayList<Integer>());
+                }
+                if (newest) {
+                    heads.add(0, id);
+                } else {
+                    heads.add(id);
+                }
+            }
+        }
+
+        public synchronized int getCount(int xpath) {
+            Integer count = counts.get(xpath);
+            return count == null ? 0 : count;
+        }
+
+        /**
+         * @return a copy of the post count of each xpath that has posts
+         */
+        public synchronized Map<Integer, Integer> getCounts() {
+            return new TreeMap<Integer, Integer>(counts);
+        }
+
+        /**
+         * @return the ids of the posts starting threads on the xpath, newest first
+         */
+        public synchronized List<Integer> getThreadHeads(int xpath) {
+            List<Integer> heads = threadHeads.get(xpath);
+            return heads == null ? Collections.<Integer> emptyList() : new ArrayList<Integer>(heads);
+        }
+
+        /**
+         * @return the number of threads on each xpath that has threads
+         */
+        public synchronized Map<Integer, Integer> getThreadCounts() {
+            Map<Integer, Integer> result = new TreeMap<Integer, Integer>();
+            for (Map.Entry<Integer, List<Integer>> e : threadHeads.entrySet()) {
+                result.put(e.getKey(), e.getValue().size());
+            }
+            return result;
+        }
+    }
+
+    private final ConcurrentHashMap<CLDRLocale, LocalePosts> locales = new ConcurrentHashMap<CLDRLocale, LocalePosts>();
+
+    /**
+     * Get the posts of a locale, reading them from the database if this is the first time.
+     *
+     * @param locale
+     * @return the posts
+     * @throws SQLException
+     */
+    public LocalePosts get(CLDRLocale locale) throws SQLException {
+        LocalePosts posts = locales.get(locale);
+        if (posts == null) {
+            LocalePosts newPosts = new LocalePosts();
+            posts = locales.putIfAbsent(locale, newPosts);
+            if (posts == null) {
+                posts = newPosts;
+            }
+        }
+        synchronized (posts) {
+            if (!posts.loaded) {
+                load(locale, posts);
+                posts.loaded = true;
+            }
+        }
+        return posts;
+    }
+
+    /**
+     * Note a post that has been committed to the database. Nothing is done if the locale hasn't been loaded;
+     * the post will be read along with the others when it is.
+     *
+     * A load running at the same time holds the locale's lock, so this waits for it; if the load already saw
+     * the post, it isn't counted again.
+     */
+    public void postAdded(CLDRLocale locale, int id, int parent, int xpath) {
+        LocalePosts posts = locales.get(locale);
+        if (posts != null) {
+            synchronized (posts) {
+                if (posts.loaded) {
+                    posts.add(id, parent, xpath, true);
+                }
+            }
+        }
+    }
+
+    /**
+     * Forget all loaded locales, so that they are read again.
+     */
+    public void clear() {
+        locales.clear();
+    }
+
+    private static void load(CLDRLocale locale, LocalePosts posts) throws SQLException {
+        Connection conn = null;
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+        final String tableName = DBUtils.Table.FORUM_POSTS.toString();
+        try {
+            conn = DBUtils.getInstance().getDBConnection();
+            ps = DBUtils.prepareForwardReadOnly(conn, "select id,parent,xpath from " + tableName
+                + " where loc=? ORDER BY last_time DESC");
+            ps.setString(1, locale.getBaseName());
+            rs = ps.executeQuery();
+            while (rs.next()) {
+                posts.add(rs.getInt(1), rs.getInt(2), rs.getInt(3), false);
+            }
+        } finally {
+            DBUtils.close(rs, ps, conn);
+        }
+    }
+}
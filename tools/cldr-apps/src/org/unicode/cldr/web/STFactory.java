@@ -13,7 +13,10 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.sql.Timestamp;
+import java.util.ArrayList;
 import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -27,6 +30,10 @@ import java.util.TreeMap;
 import java.util.TreeSet;
 import java.util.Vector;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.unicode.cldr.icu.LDMLConstants;
 import org.unicode.cldr.test.CheckCLDR;
@@ -48,6 +55,7 @@ import org.unicode.cldr.util.PathHeader;
 import org.unicode.cldr.util.SimpleXMLSource;
 import org.unicode.cldr.util.VoteResolver;
 import org.unicode.cldr.util.VoteResolver.Status;
+import org.unicode.cldr.util.VoteResolver.VoterInfo;
 import org.unicode.cldr.util.XMLFileReader;
 import org.unicode.cldr.util.XMLSource;
 import org.unicode.cldr.util.XPathParts;
@@ -134,6 +142,11 @@ public class STFactory extends Factory implements BallotBoxFactory<UserRegistry.
 
     private static final String VOTE_OVERRIDE = "vote_override";
 
+    /**
+     * How many paths' previous votes are read with one query when recording a batch of votes.
+     */
+    private static final int LAST_MOD_BATCH_SIZE = 500;
+
     public class DataBackedSource extends DelegateXMLSource {
         PerLocaleData ballotBox;
         XMLSource aliasOf; // original XMLSource
@@ -198,6 +211,25 @@ public class STFactory extends Factory implements BallotBoxFactory<UserRegistry.
          * @return the VoteResolver
          */
         public VoteResolver<String> setValueFromResolver(String path, VoteResolver<String> resolver, boolean resolveMorePaths) {
+            return setValueFromResolver(path, resolver, resolveMorePaths, true);
+        }
+
+        /**
+         * Set the values of several paths from their votes, as by {@link #setValueFromResolver(String, VoteResolver, boolean)},
+         * notifying the listeners once for all of them.
+         *
+         * @param paths the xpaths
+         */
+        public void setValuesFromResolver(Collection<String> paths) {
+            VoteResolver<String> resolver = null;
+            for (String path : paths) {
+                resolver = setValueFromResolver(path, resolver, false /* resolveMorePaths */, false);
+            }
+            notifyListeners(paths);
+        }
+
+        private VoteResolver<String> setValueFromResolver(String path, VoteResolver<String> resolver, boolean resolveMorePaths,
+            boolean notify) {
             org.unicode.cldr.web.STFactory.PerLocaleData.PerXPathData xpd = ballotBox.peekXpathData(path);
             String res;
             String fullPath = null;
@@ -252,10 +284,30 @@ public class STFactory extends Factory implements BallotBoxFactory<UserRegistry.
             } else {
                 delegate.removeValueAtDPath(path);
             }
-            notifyListeners(path);
+            if (notify) {
+                notifyListeners(path);
+            }
             return resolver;
         }
 
+        /**
+         * @return the value set for the path by {@link #setValueFromResolver(String, VoteResolver, boolean)}, for a snapshot
+         */
+        VoteStateSnapshot.Entry getSnapshotEntry(String path) {
+            String value = delegate.getValueAtDPath(path);
+            return new VoteStateSnapshot.Entry(path, value == null ? null : delegate.getFullPathAtDPath(path), value);
+        }
+
+        /**
+         * Set the value for a path from a snapshot, instead of resolving it again.
+         */
+        void setValueFromSnapshot(VoteStateSnapshot.Entry entry) {
+            delegate.removeValueAtDPath(entry.path);
+            if (entry.value != null) {
+                delegate.putValueAtPath(entry.fullPath, entry.value);
+            }
+        }
+
         /**
          * Map the given VoteResolver.Status to a CLDRFile.DraftStatus
          *
@@ -365,17 +417,29 @@ public class STFactory extends Factory implements BallotBoxFactory<UserRegistry.
      *
      */
     private final class PerLocaleData implements Comparable<PerLocaleData>, BallotBox<User> {
-        private CLDRFile file = null, rFile = null;
+        /*
+         * Locking: sourceLock guards making the sources and files, which are published through
+         * volatile fields so that reads don't lock once they exist. voteLock serializes the vote
+         * writes, which take sourceLock after it (never the other way around). Reads never take voteLock.
+         */
+        private final Object sourceLock = new Object();
+        private final Object voteLock = new Object();
+        private volatile CLDRFile file = null, rFile = null;
         private CLDRLocale locale;
         private CLDRFile oldFile;
         private CLDRFile oldFileUnresolved;
         private boolean readonly;
         private MutableStamp stamp = null;
+        /**
+         * Fingerprint of the votes this locale and its parents were loaded from, for vote state snapshots;
+         * null until the votes are loaded, or if snapshots are off
+         */
+        private volatile String voteStateFingerprint = null;
 
         /**
          * The held XMLSource.
          */
-        private DataBackedSource xmlsource = null;
+        private volatile DataBackedSource xmlsource = null;
         /**
          * The on-disk data. May be == to xmlsource for readonly data.
          */
@@ -431,9 +495,9 @@ public class STFactory extends Factory implements BallotBoxFactory<UserRegistry.
                 }
             };
 
-            Date lastModDate = null;
+            volatile Date lastModDate = null;
             Set<String> otherValues = null;
-            Map<User, PerUserData> userToData = null;
+            volatile Map<User, PerUserData> userToData = null;
 
             /**
              * Is there any user data (votes)?
@@ -568,12 +632,12 @@ public class STFactory extends Factory implements BallotBoxFactory<UserRegistry.
             }
         };
 
-        private Map<String, PerXPathData> xpathToData = new HashMap<String, PerXPathData>();
+        private Map<String, PerXPathData> xpathToData = new ConcurrentHashMap<String, PerXPathData>();
 //        private Map<String, Map<User, String>> xpathToVotes = new HashMap<String, Map<User, String>>();
 //        private Map<String, Map<User, Integer>> xpathToOverrides = new HashMap<String, Map<User, Integer>>();
 //        private Map<Integer, Set<String>> xpathToOtherValues = new HashMap<Integer, Set<String>>();
         private boolean oldFileMissing;
-        private XMLSource resolvedXmlsource = null;
+        private volatile XMLSource resolvedXmlsource = null;
         /**
          * Parent locale - or null.
          */
@@ -691,16 +755,17 @@ public class STFactory extends Factory implements BallotBoxFactory<UserRegistry.
         }
 
         /**
-         * Load internal data (votes, etc.) for this PerLocaleData, and push it into this.xmlsource,
-         * which is a DataBackedSource.
+         * Load internal data (votes, etc.) for this PerLocaleData, and push it into the given
+         * DataBackedSource.
          *
          * @param resolveMorePaths false to do vote resolution only on paths with votes in current votes table, or
          *                         true to do vote resolution also on all paths in trunk (for making vxml).
          *                        
          *
-         * Called by PerLocaleData.makeSource(resolve = false), and by PerLocaleData.makeVettedSource.
+         * Called by PerLocaleData.makeSource(resolve = false), and by PerLocaleData.makeVettedSource,
+         * before the source is published.
          */
-        private void loadVoteValues(boolean resolveMorePaths) {
+        private void loadVoteValues(DataBackedSource xmlsource, boolean resolveMorePaths) {
             if (!readonly) {
                 VoteResolver<String> resolver = null; // save recalculating this.
                 ElapsedTimer et = (SurveyLog.DEBUG) ? new ElapsedTimer("Loading PLD for " + locale) : null;
@@ -709,7 +774,11 @@ public class STFactory extends Factory implements BallotBoxFactory<UserRegistry.
                 ResultSet rs = null;
                 int n = 0;
                 int del = 0;
-                
+                // for the snapshot fingerprint: all the rows, including ignored ones
+                int rows = 0;
+                long maxLastMod = 0;
+                long rowHash = 0;
+
                 try {
                     /*
                      * Select several columns (xp, submitter, value, override, last_mod),
@@ -731,6 +800,15 @@ public class STFactory extends Factory implements BallotBoxFactory<UserRegistry.
                             voteOverride = null;
                         }
                         Timestamp last_mod = rs.getTimestamp(6); // last mod
+                        if (snapshots != null) {
+                            rows++;
+                            if (last_mod != null) {
+                                maxLastMod = Math.max(maxLastMod, last_mod.getTime());
+                            }
+                            // order independent
+                            rowHash += (((long) xp * 31 + submitter) * 31 + (value == null ? 0 : value.hashCode())) * 31
+                                + (voteOverride == null ? -1 : voteOverride);
+                        }
                         User theSubmitter = sm.reg.getInfo(submitter);
                         if (theSubmitter == null) {
                             SurveyLog.warnOnce("Ignoring votes for deleted user #" + submitter);
@@ -753,6 +831,7 @@ public class STFactory extends Factory implements BallotBoxFactory<UserRegistry.
                     if (del > 0) {
                         System.out.println("Committing delete of " + del + " invalid votes from " + locale);
                         conn.commit();
+                        VoteStatistics.getInstance().forget();
                     }
                 } catch (SQLException e) {
                     SurveyLog.logException(e);
@@ -786,15 +865,58 @@ public class STFactory extends Factory implements BallotBoxFactory<UserRegistry.
                 } else {
                     xpathSet = allPXDPaths();
                 }
-                int j = 0;
-                for (String xp : xpathSet) {
-                    resolver = xmlsource.setValueFromResolver(xp, resolver, resolveMorePaths);
-                    j++;
+                final String fingerprint = (snapshots == null || resolveMorePaths) ? null
+                    : getVoteStateFingerprint(rows, maxLastMod, rowHash);
+                final List<VoteStateSnapshot.Entry> restored = (fingerprint == null) ? null
+                    : snapshots.read(locale, fingerprint);
+                if (restored != null) {
+                    for (VoteStateSnapshot.Entry entry : restored) {
+                        xmlsource.setValueFromSnapshot(entry);
+                    }
+                    SurveyLog.debug(et + " - restored " + restored.size() + " items from snapshot, " + n + " total.");
+                } else {
+                    final List<VoteStateSnapshot.Entry> toSave = (fingerprint == null) ? null
+                        : new ArrayList<VoteStateSnapshot.Entry>(xpathSet.size());
+                    int j = 0;
+                    for (String xp : xpathSet) {
+                        resolver = xmlsource.setValueFromResolver(xp, resolver, resolveMorePaths);
+                        if (toSave != null) {
+                            toSave.add(xmlsource.getSnapshotEntry(xp));
+                        }
+                        j++;
+                    }
+                    if (toSave != null) {
+                        snapshots.write(locale, fingerprint, toSave);
+                    }
+                    SurveyLog.debug(et + " - resolved " + j + " items, " + n + " total.");
+                }
+                if (!resolveMorePaths) {
+                    voteStateFingerprint = fingerprint;
                 }
-                SurveyLog.debug(et + " - resolved " + j + " items, " + n + " total.");
+            } else if (snapshots != null) {
+                voteStateFingerprint = getVoteStateFingerprint(0, 0, 0);
             }
             stamp.next();
             xmlsource.addListener(gTestCache);
+            xmlsource.addListener(VettingViewerQueue.getInstance().getSummaryCache());
+        }
+
+        /**
+         * Get the fingerprint for this locale's vote state snapshot. It changes if the votes, the parent's votes,
+         * the voters, or the file on disk (this locale's or a parent's) change. Read-only locales have no votes.
+         *
+         * @return the fingerprint, or null if the parent's isn't known
+         */
+        private String getVoteStateFingerprint(int rows, long maxLastMod, long rowHash) {
+            String parentFingerprint = "";
+            if (nextParent != null) {
+                parentFingerprint = get(nextParent).voteStateFingerprint;
+                if (parentFingerprint == null) {
+                    return null;
+                }
+            }
+            return VoteStateSnapshot.localeFingerprint(locale, SurveyMain.getNewVersion(), rows, maxLastMod, rowHash,
+                parentFingerprint, voterFingerprint, sm.getBaseFile(locale));
         }
 
         @Override
@@ -817,22 +939,29 @@ public class STFactory extends Factory implements BallotBoxFactory<UserRegistry.
             }
         }
 
-        public synchronized CLDRFile getFile(boolean resolved) {
-            if (resolved) {
-                if (rFile == null) {
-                    if (getSupplementalDirectory() == null)
-                        throw new InternalError("getSupplementalDirectory() == null!");
-                    rFile = new CLDRFile(makeSource(true)).setSupplementalDirectory(getSupplementalDirectory());
-                    rFile.getSupplementalDirectory();
-                }
-                return rFile;
-            } else {
-                if (file == null) {
-                    if (getSupplementalDirectory() == null)
-                        throw new InternalError("getSupplementalDirectory() == null!");
-                    file = new CLDRFile(makeSource(false)).setSupplementalDirectory(getSupplementalDirectory());
+        public CLDRFile getFile(boolean resolved) {
+            CLDRFile result = resolved ? rFile : file;
+            if (result != null) {
+                return result; // no locking once made
+            }
+            synchronized (sourceLock) {
+                if (resolved) {
+                    if (rFile == null) {
+                        if (getSupplementalDirectory() == null)
+                            throw new InternalError("getSupplementalDirectory() == null!");
+                        CLDRFile newFile = new CLDRFile(makeSource(true)).setSupplementalDirectory(getSupplementalDirectory());
+                        newFile.getSupplementalDirectory();
+                        rFile = newFile;
+                    }
+                    return rFile;
+                } else {
+                    if (file == null) {
+                        if (getSupplementalDirectory() == null)
+                            throw new InternalError("getSupplementalDirectory() == null!");
+                        file = new CLDRFile(makeSource(false)).setSupplementalDirectory(getSupplementalDirectory());
+                    }
+                    return file;
                 }
-                return file;
             }
         }
 
@@ -1115,21 +1244,34 @@ public class STFactory extends Factory implements BallotBoxFactory<UserRegistry.
             }
         }
 
-        public synchronized XMLSource makeSource(boolean resolved) {
+        public XMLSource makeSource(boolean resolved) {
             if (resolved == true) {
-                if (resolvedXmlsource == null) {
-                    resolvedXmlsource = makeResolvingSource(locale.getBaseName(), getMinimalDraftStatus());
+                XMLSource result = resolvedXmlsource;
+                if (result != null) {
+                    return result;
+                }
+                synchronized (sourceLock) {
+                    if (resolvedXmlsource == null) {
+                        resolvedXmlsource = makeResolvingSource(locale.getBaseName(), getMinimalDraftStatus());
+                    }
+                    return resolvedXmlsource;
                 }
-                return resolvedXmlsource;
             } else {
                 if (readonly) {
                     return diskData;
                 } else {
-                    if (xmlsource == null) {
-                        xmlsource = new DataBackedSource(this);
-                        loadVoteValues(false /* resolveMorePaths */);
+                    XMLSource result = xmlsource;
+                    if (result != null) {
+                        return result;
+                    }
+                    synchronized (sourceLock) {
+                        if (xmlsource == null) {
+                            DataBackedSource newSource = new DataBackedSource(this);
+                            loadVoteValues(newSource, false /* resolveMorePaths */);
+                            xmlsource = newSource;
+                        }
+                        return xmlsource;
                     }
-                    return xmlsource;
                 }
             }
         }
@@ -1142,10 +1284,15 @@ public class STFactory extends Factory implements BallotBoxFactory<UserRegistry.
          *
          * @return this.xmlsource, the new XMLSource for this PerLocaleData.
          */
-        public synchronized XMLSource makeVettedSource() {
-            xmlsource = new DataBackedSource(this);
-            loadVoteValues(true /* resolveMorePaths */);
-            return xmlsource;
+        public XMLSource makeVettedSource() {
+            synchronized (voteLock) {
+                synchronized (sourceLock) {
+                    DataBackedSource newSource = new DataBackedSource(this);
+                    loadVoteValues(newSource, true /* resolveMorePaths */);
+                    xmlsource = newSource;
+                    return newSource;
+                }
+            }
         }
 
         @Override
@@ -1165,12 +1312,37 @@ public class STFactory extends Factory implements BallotBoxFactory<UserRegistry.
         }
 
         @Override
-        public synchronized void voteForValue(User user, String distinguishingXpath, String value, Integer withVote) throws BallotBox.InvalidXPathException,
+        public void voteForValue(User user, String distinguishingXpath, String value, Integer withVote) throws BallotBox.InvalidXPathException,
             BallotBox.VoteNotAcceptedException {
-            if (!getPathsForFile().contains(distinguishingXpath)) {
-                throw new BallotBox.InvalidXPathException(distinguishingXpath);
+            synchronized (voteLock) {
+                voteForValuesInternal(user, Collections.singletonMap(distinguishingXpath, value), withVote);
+            }
+        }
+
+        @Override
+        public void voteForValues(User user, Map<String, String> values) throws BallotBox.InvalidXPathException,
+            BallotBox.VoteNotAcceptedException {
+            synchronized (voteLock) {
+                voteForValuesInternal(user, values, null);
+            }
+        }
+
+        /**
+         * Called by voteForValue and voteForValues, holding voteLock.
+         *
+         * All the votes are checked before any is recorded; they are then written in one transaction,
+         * each path is resolved once, and the listeners are notified once for all the paths.
+         */
+        private void voteForValuesInternal(User user, Map<String, String> values, Integer withVote) throws BallotBox.InvalidXPathException,
+            BallotBox.VoteNotAcceptedException {
+            if (values.isEmpty()) {
+                return;
+            }
+            for (String distinguishingXpath : values.keySet()) {
+                if (!getPathsForFile().contains(distinguishingXpath)) {
+                    throw new BallotBox.InvalidXPathException(distinguishingXpath);
+                }
             }
-            SurveyLog.debug("V4v: " + locale + " " + distinguishingXpath + " : " + user + " voting for '" + value + "'");
             /*
              * this has to do with changing a vote - not counting it.
              */
@@ -1187,31 +1359,46 @@ public class STFactory extends Factory implements BallotBoxFactory<UserRegistry.
                 }
             }
 
-            // check for too-long
-            if (value != null) {
-                final int valueLimit = SurveyMain.localeSizer.getSize(locale, distinguishingXpath);
-                final int valueLength = value.length();
-                if (valueLength > valueLimit) {
-                    NumberFormat nf = NumberFormat.getInstance();
-                    throw new VoteNotAcceptedException(ErrorCode.E_BAD_VALUE, "Length " + nf.format(valueLength) + " exceeds limit of "
-                        + nf.format(valueLimit) + " - please file a bug if you need a longer value.");
+            for (Map.Entry<String, String> e : values.entrySet()) {
+                final String distinguishingXpath = e.getKey();
+                final String value = e.getValue();
+                SurveyLog.debug("V4v: " + locale + " " + distinguishingXpath + " : " + user + " voting for '" + value + "'");
+                // check for too-long
+                if (value != null) {
+                    final int valueLimit = SurveyMain.localeSizer.getSize(locale, distinguishingXpath);
+                    final int valueLength = value.length();
+                    if (valueLength > valueLimit) {
+                        NumberFormat nf = NumberFormat.getInstance();
+                        throw new VoteNotAcceptedException(ErrorCode.E_BAD_VALUE, "Length " + nf.format(valueLength) + " exceeds limit of "
+                            + nf.format(valueLimit) + " - please file a bug if you need a longer value.");
+                    }
                 }
             }
 
+            final Date when = new Date();
             if (!readonly) {
-                boolean didClearFlag = false;
+                List<String> clearedFlags = new ArrayList<String>();
                 makeSource(false);
                 ElapsedTimer et = !SurveyLog.DEBUG ? null : new ElapsedTimer("{0} Recording PLD for " + locale + " "
-                    + distinguishingXpath + " : " + user + " voting for '" + value);
+                    + values.size() + " votes by " + user);
                 Connection conn = null;
                 PreparedStatement saveOld = null; // save off old value
-                PreparedStatement ps = null; // all for mysql, or 1st step for
+                PreparedStatement ps = null; // all for mysql, or 2nd step for
                 // derby
-                PreparedStatement ps2 = null; // 2nd step for derby
+                PreparedStatement ps2 = null; // 1st step for derby
                 ResultSet rs = null;
-                int xpathId = sm.xpt.getByXpath(distinguishingXpath);
-                final boolean wasFlagged = getFlag(locale, xpathId); // do this outside of the txn..
+                final String[] paths = values.keySet().toArray(new String[values.size()]);
+                final int[] xpathIds = new int[paths.length];
+                final boolean[] wasFlagged = new boolean[paths.length];
+                // for VoteStatistics
+                final boolean[] hadVote = new boolean[paths.length];
+                final Timestamp[] oldLastMod = new Timestamp[paths.length];
+                for (int i = 0; i < paths.length; i++) {
+                    xpathIds[i] = sm.xpt.getByXpath(paths[i]);
+                    wasFlagged[i] = getFlag(locale, xpathIds[i]); // do this outside of the txn..
+                }
                 int submitter = user.id;
+                VoteStatistics.getInstance().beginVotes();
                 try {
                     conn = DBUtils.getInstance().getDBConnection();
 
@@ -1232,69 +1419,105 @@ public class STFactory extends Factory implements BallotBoxFactory<UserRegistry.
                         + DBUtils.Table.VOTE_VALUE + ".xpath," + DBUtils.Table.VOTE_VALUE + ".value "
                         + " from " + DBUtils.Table.VOTE_VALUE + " where locale=? and xpath=? and submitter=? and value is not null " + add2;
                     // if(DEBUG) System.out.println(sql);
-                    saveOld = DBUtils.prepareStatementWithArgs(conn, sql, locale.getBaseName(), xpathId, user.id);
+                    saveOld = conn.prepareStatement(sql);
 
-                    int oldSaved = saveOld.executeUpdate();
-                    // System.err.println("SaveOld: saved " + oldSaved +
-                    // " values");
+                    // the rows' previous last_mod, a batch of paths per query
+                    final Map<Integer, Integer> xpathIdToIndex = new HashMap<Integer, Integer>();
+                    for (int i = 0; i < paths.length; i++) {
+                        xpathIdToIndex.put(xpathIds[i], i);
+                    }
+                    for (int start = 0; start < paths.length; start += LAST_MOD_BATCH_SIZE) {
+                        final int end = Math.min(paths.length, start + LAST_MOD_BATCH_SIZE);
+                        StringBuilder placeholders = new StringBuilder();
+                        for (int i = start; i < end; i++) {
+                            placeholders.append(i == start ? "?" : ",?");
+                        }
+                        ps = DBUtils.prepareForwardReadOnly(conn, "select xpath,last_mod from " + DBUtils.Table.VOTE_VALUE
+                            + " where locale=? and submitter=? and xpath in (" + placeholders + ")");
+                        int colNum = 1;
+                        ps.setString(colNum++, locale.getBaseName());
+                        ps.setInt(colNum++, submitter);
+                        for (int i = start; i < end; i++) {
+                            ps.setInt(colNum++, xpathIds[i]);
+                        }
+                        rs = ps.executeQuery();
+                        while (rs.next()) {
+                            final int i = xpathIdToIndex.get(rs.getInt(1));
+                            hadVote[i] = true;
+                            oldLastMod[i] = rs.getTimestamp(2);
+                        }
+                        rs.close();
+                        ps.close();
+                    }
 
                     // #2 - save the actual vote.
                     if (DBUtils.db_Mysql) { // use 'on duplicate key' syntax
                         ps = DBUtils.prepareForwardReadOnly(conn, "INSERT INTO " + DBUtils.Table.VOTE_VALUE
                             + " (locale,xpath,submitter,value,last_mod," + VOTE_OVERRIDE + ") values (?,?,?,?,CURRENT_TIMESTAMP,?) "
                             + "ON DUPLICATE KEY UPDATE locale=?,xpath=?,submitter=?,value=?,last_mod=CURRENT_TIMESTAMP," + VOTE_OVERRIDE + "=?");
-                        int colNum = 6;
-                        ps.setString(colNum++, locale.getBaseName());
-                        ps.setInt(colNum++, xpathId);
-                        ps.setInt(colNum++, submitter);
-                        DBUtils.setStringUTF8(ps, colNum++, value);
-                        DBUtils.setInteger(ps, colNum++, withVote);
                     } else { // derby
                         ps2 = DBUtils.prepareForwardReadOnly(conn, "DELETE FROM " + DBUtils.Table.VOTE_VALUE
                             + " where locale=? and xpath=? and submitter=? ");
                         ps = DBUtils.prepareForwardReadOnly(conn, "INSERT INTO " + DBUtils.Table.VOTE_VALUE
                             + " (locale,xpath,submitter,value,last_mod," + VOTE_OVERRIDE + ") VALUES (?,?,?,?,CURRENT_TIMESTAMP,?) ");
-                        int colNum = 1;
-                        ps2.setString(colNum++, locale.getBaseName());
-                        ps2.setInt(colNum++, xpathId);
-                        ps2.setInt(colNum++, submitter);
-                        // NB:  no "VOTE_OVERRIDE" column on delete.
                     }
 
-                    {
+                    for (int i = 0; i < paths.length; i++) {
+                        final String value = values.get(paths[i]);
+                        DBUtils.setArgs(saveOld, locale.getBaseName(), xpathIds[i], submitter);
+                        saveOld.addBatch();
+                        if (ps2 != null) {
+                            int colNum = 1;
+                            ps2.setString(colNum++, locale.getBaseName());
+                            ps2.setInt(colNum++, xpathIds[i]);
+                            ps2.setInt(colNum++, submitter);
+                            // NB:  no "VOTE_OVERRIDE" column on delete.
+                            ps2.addBatch();
+                        }
                         int colNum = 1;
-                        ps.setString(colNum++, locale.getBaseName());
-                        ps.setInt(colNum++, xpathId);
-                        ps.setInt(colNum++, submitter);
-                        DBUtils.setStringUTF8(ps, colNum++, value);
-                        DBUtils.setInteger(ps, colNum++, withVote);
+                        for (int repeat = DBUtils.db_Mysql ? 2 : 1; repeat > 0; repeat--) { // mysql repeats the values for the update
+                            ps.setString(colNum++, locale.getBaseName());
+                            ps.setInt(colNum++, xpathIds[i]);
+                            ps.setInt(colNum++, submitter);
+                            DBUtils.setStringUTF8(ps, colNum++, value);
+                            DBUtils.setInteger(ps, colNum++, withVote);
+                        }
+                        ps.addBatch();
                     }
+                    saveOld.executeBatch();
                     if (ps2 != null) {
-                        ps2.executeUpdate();
+                        ps2.executeBatch();
                     }
-                    ps.executeUpdate();
-
-                    if (wasFlagged && UserRegistry.userIsTC(user)) {
-                        clearFlag(conn, locale, xpathId, user);
-                        didClearFlag = true;
+                    ps.executeBatch();
+
+                    if (UserRegistry.userIsTC(user)) {
+                        for (int i = 0; i < paths.length; i++) {
+                            if (wasFlagged[i]) {
+                                clearFlag(conn, locale, xpathIds[i], user);
+                                clearedFlags.add(paths[i]);
+                            }
+                        }
                     }
                     conn.commit();
+                    for (int i = 0; i < paths.length; i++) {
+                        VoteStatistics.getInstance().voteRecorded(locale, submitter, hadVote[i], oldLastMod[i], when);
+                    }
                 } catch (SQLException e) {
                     SurveyLog.logException(e);
                     SurveyMain.busted("Could not vote for value in locale locale " + locale, e);
                     throw new InternalError("Could not load locale " + locale + " : " + DBUtils.unchainSqlException(e));
                 } finally {
                     DBUtils.close(saveOld, rs, ps, ps2, conn);
+                    VoteStatistics.getInstance().endVotes();
                 }
                 SurveyLog.debug(et);
 
-                if (didClearFlag) {
+                for (String distinguishingXpath : clearedFlags) {
                     // now, outside of THAT txn, make a forum post about clearing the flag.
-                    final String forum = SurveyForum.localeToForum(locale.toULocale());
-                    final int forumNumber = sm.fora.getForumNumber(forum);
                     int newPostId;
                     try {
-                        newPostId = sm.fora.doPostInternal(xpathId, -1, locale, "Flag Removed", "(The flag was removed.)", false, user);
+                        newPostId = sm.fora.doPostInternal(sm.xpt.getByXpath(distinguishingXpath), -1, locale, "Flag Removed",
+                            "(The flag was removed.)", false, user);
                         //sm.fora.emailNotify(ctx, forum, base_xpath, subj, text, postId);
                         SurveyLog.warnOnce("TODO: no email notify on flag clear. This may be OK, it could be a lot of mail.");
                         System.out.println("NOTE: flag was removed from " + locale + " " + distinguishingXpath + " - post ID=" + newPostId + "  by "
@@ -1308,8 +1531,10 @@ public class STFactory extends Factory implements BallotBoxFactory<UserRegistry.
                 readonly();
             }
 
-            internalSetVoteForValue(user, distinguishingXpath, value, withVote, new Date());
-            xmlsource.setValueFromResolver(distinguishingXpath, null, false /* resolveMorePaths */);
+            for (Map.Entry<String, String> e : values.entrySet()) {
+                internalSetVoteForValue(user, e.getKey(), e.getValue(), withVote, when);
+            }
+            xmlsource.setValuesFromResolver(values.keySet());
         }
 
         /**
@@ -1332,7 +1557,16 @@ public class STFactory extends Factory implements BallotBoxFactory<UserRegistry.
         }
 
         @Override
-        public synchronized void deleteValue(User user, String distinguishingXpath, String value) throws BallotBox.InvalidXPathException {
+        public void deleteValue(User user, String distinguishingXpath, String value) throws BallotBox.InvalidXPathException {
+            synchronized (voteLock) {
+                deleteValueInternal(user, distinguishingXpath, value);
+            }
+        }
+
+        /**
+         * Called by deleteValue, holding voteLock.
+         */
+        private void deleteValueInternal(User user, String distinguishingXpath, String value) throws BallotBox.InvalidXPathException {
             if (!getPathsForFile().contains(distinguishingXpath)) {
                 throw new BallotBox.InvalidXPathException(distinguishingXpath);
             }
@@ -1535,6 +1769,16 @@ public class STFactory extends Factory implements BallotBoxFactory<UserRegistry.
             return delegate.iterator();
         }
 
+        @Override
+        public Iterator<String> iterator(String prefix) {
+            return delegate.iterator(prefix);
+        }
+
+        @Override
+        public Iterator<String> sortedIterator(String prefix) {
+            return delegate.sortedIterator(prefix);
+        }
+
         /*
          * (non-Javadoc)
          *
@@ -1644,6 +1888,16 @@ public class STFactory extends Factory implements BallotBoxFactory<UserRegistry.
 
     private org.unicode.cldr.util.PathHeader.Factory phf;
 
+    /**
+     * Snapshots of the resolved vote state, or null if CLDR_VOTE_SNAPSHOTS isn't set
+     */
+    private final VoteStateSnapshot snapshots;
+
+    /**
+     * Fingerprint of the voters, for the vote state snapshots; updated when the users change
+     */
+    private volatile String voterFingerprint = "";
+
     /**
      * Construct one.
      */
@@ -1653,6 +1907,9 @@ public class STFactory extends Factory implements BallotBoxFactory<UserRegistry.
             throw new IllegalArgumentException("sm must not be null");
         }
         this.sm = sm;
+        snapshots = CLDRConfig.getInstance().getProperty("CLDR_VOTE_SNAPSHOTS", false)
+            ? new VoteStateSnapshot(new File(sm.getVetdir(), "votestate"))
+            : null;
         try (CLDRProgressTask progress = sm.openProgress("STFactory")) {
             progress.update("setup supplemental data");
             setSupplementalDirectory(sm.getDiskFactory().getSupplementalDirectory());
@@ -1677,8 +1934,8 @@ public class STFactory extends Factory implements BallotBoxFactory<UserRegistry.
         StringBuilder sb = new StringBuilder(super.toString());
         sb.append("-cache:");
         int good = 0;
-        for (Entry<CLDRLocale, Reference<PerLocaleData>> e : locales.entrySet()) {
-            if (e.getValue().get() != null) {
+        for (LocaleEntry e : locales.values()) {
+            if (e.peek() != null) {
                 good++;
             }
         }
@@ -1686,19 +1943,74 @@ public class STFactory extends Factory implements BallotBoxFactory<UserRegistry.
         return sb.toString();
     }
 
+    /**
+     * Hit and invalidation counts of the test caches, for the admin page
+     */
+    public Map<String, Map<String, Long>> getTestCacheStatistics() {
+        Map<String, Map<String, Long>> result = new TreeMap<String, Map<String, Long>>();
+        result.put("testCache", gTestCache.getStatistics());
+        result.put("diskTestCache", gDiskTestCache.getStatistics());
+        return result;
+    }
+
     @Override
     public BallotBox<User> ballotBoxForLocale(CLDRLocale locale) {
         return get(locale);
     }
 
     /**
-     * Per locale map
+     * Per locale map. Each locale is loaded at most once at a time, holding only its own entry's lock,
+     * so a slow locale doesn't hold up the others.
+     */
+    private final ConcurrentHashMap<CLDRLocale, LocaleEntry> locales = new ConcurrentHashMap<CLDRLocale, LocaleEntry>();
+
+    /**
+     * Strong references to the most recently used locales; guarded by itself.
      */
-    private Map<CLDRLocale, Reference<PerLocaleData>> locales = new HashMap<CLDRLocale, Reference<PerLocaleData>>();
+    private final LruMap<CLDRLocale, PerLocaleData> rLocales = new LruMap<CLDRLocale, PerLocaleData>(5);
 
-    private LruMap<CLDRLocale, PerLocaleData> rLocales = new LruMap<CLDRLocale, PerLocaleData>(5);
+    /**
+     * The PerLocaleData for one locale. It is held by a SoftReference, and loaded again if it was GC'ed.
+     */
+    private final class LocaleEntry {
+        private final CLDRLocale locale;
+        private volatile Reference<PerLocaleData> ref = null;
+
+        LocaleEntry(CLDRLocale locale) {
+            this.locale = locale;
+        }
+
+        /**
+         * @return the PerLocaleData, or null if it isn't loaded
+         */
+        PerLocaleData peek() {
+            Reference<PerLocaleData> r = ref;
+            return r == null ? null : r.get();
+        }
+
+        PerLocaleData get() {
+            PerLocaleData pld = peek();
+            if (pld != null) {
+                return pld;
+            }
+            synchronized (this) {
+                pld = peek();
+                if (pld == null) {
+                    if (ref != null) {
+                        SurveyLog.debug("STFactory: " + locale + " was GC'ed." + SurveyMain.freeMem());
+                    }
+                    // This loads the parent locales first, each under its own entry's lock.
+                    pld = new PerLocaleData(locale);
+                    ref = new SoftReference<PerLocaleData>(pld);
+                    // update the locale display name cache.
+                    OutputFileManager.updateLocaleDisplayName(pld.getFile(true), locale);
+                }
+                return pld;
+            }
+        }
+    }
 
-    private Map<CLDRLocale, MutableStamp> localeStamps = new ConcurrentHashMap<CLDRLocale, MutableStamp>(SurveyMain.getLocales().length);
+    private ConcurrentHashMap<CLDRLocale, MutableStamp> localeStamps = new ConcurrentHashMap<CLDRLocale, MutableStamp>(SurveyMain.getLocales().length);
 
     /**
      * Peek at the stamp (changetime) for a locale. May be null, meaning we don't know what the stamp is.
@@ -1719,8 +2031,11 @@ public class STFactory extends Factory implements BallotBoxFactory<UserRegistry.
     public MutableStamp mintLocaleStamp(CLDRLocale locale) {
         MutableStamp s = localeStamps.get(locale);
         if (s == null) {
-            s = MutableStamp.getInstance();
-            localeStamps.put(locale, s);
+            MutableStamp newStamp = MutableStamp.getInstance();
+            s = localeStamps.putIfAbsent(locale, newStamp);
+            if (s == null) {
+                s = newStamp;
+            }
         }
         return s;
     }
@@ -1740,28 +2055,19 @@ public class STFactory extends Factory implements BallotBoxFactory<UserRegistry.
      * @param locale
      * @return
      */
-    private synchronized final PerLocaleData get(CLDRLocale locale) {
-        PerLocaleData pld = rLocales.get(locale);
-        if (pld == null) {
-            Reference<PerLocaleData> ref = locales.get(locale);
-            if (ref != null) {
-                SurveyLog.debug("STFactory: " + locale + " was not in LRUMap.");
-                pld = ref.get();
-                if (pld == null) {
-                    SurveyLog.debug("STFactory: " + locale + " was GC'ed." + SurveyMain.freeMem());
-                    ref.clear();
-                }
-            }
-            if (pld == null) {
-                pld = new PerLocaleData(locale);
-                rLocales.put(locale, pld);
-                locales.put(locale, (new SoftReference<PerLocaleData>(pld)));
-                // update the locale display name cache.
-                OutputFileManager.updateLocaleDisplayName(pld.getFile(true), locale);
-            } else {
-                rLocales.put(locale, pld); // keep it in the lru
+    private final PerLocaleData get(CLDRLocale locale) {
+        LocaleEntry entry = locales.get(locale);
+        if (entry == null) {
+            LocaleEntry newEntry = new LocaleEntry(locale);
+            entry = locales.putIfAbsent(locale, newEntry);
+            if (entry == null) {
+                entry = newEntry;
             }
         }
+        PerLocaleData pld = entry.get();
+        synchronized (rLocales) {
+            rLocales.put(locale, pld); // keep it in the lru
+        }
         return pld;
     }
 
@@ -1769,6 +2075,45 @@ public class STFactory extends Factory implements BallotBoxFactory<UserRegistry.
         return get(CLDRLocale.getInstance(locale));
     }
 
+    /**
+     * Load and resolve the votes of all the writable locales, so that the first request for each locale
+     * doesn't wait for it. Runs at most the given number of locales at once; each locale's parents are
+     * loaded first, under their own locks, so locales sharing a parent wait for it rather than loading it twice.
+     * Returns when all are loaded.
+     *
+     * @param threads how many locales to load at once
+     */
+    public void warmUp(int threads) {
+        ElapsedTimer et = new ElapsedTimer("STFactory warm-up on " + threads + " threads");
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<?>> loads = new ArrayList<Future<?>>();
+        try {
+            for (final CLDRLocale locale : new TreeSet<CLDRLocale>(SurveyMain.getLocalesSet())) {
+                if (isReadOnlyLocale(locale)) {
+                    continue;
+                }
+                loads.add(pool.submit(new Runnable() {
+                    @Override
+                    public void run() {
+                        get(locale);
+                    }
+                }));
+            }
+            for (Future<?> load : loads) {
+                try {
+                    load.get();
+                } catch (ExecutionException e) {
+                    SurveyLog.logException(e.getCause(), "STFactory warm-up");
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            pool.shutdownNow();
+        }
+        SurveyLog.logger.info(et + " - loaded " + loads.size() + " locales." + SurveyMain.freeMem());
+    }
+
     public TestCache.TestResultBundle getTestResult(CLDRLocale loc, CheckCLDR.Options options) {
 //        System.err.println("Fetching: " + options);
         return get(loc).getTestResultData(options);
@@ -2137,7 +2482,15 @@ public class STFactory extends Factory implements BallotBoxFactory<UserRegistry.
 
     @Override
     public synchronized void handleUserChanged(User u) {
-        VoteResolver.setVoterToInfo(sm.reg.getVoterToInfo());
+        Map<Integer, VoterInfo> voterToInfo = sm.reg.getVoterToInfo();
+        VoteResolver.setVoterToInfo(voterToInfo);
+        if (snapshots != null) {
+            StringBuilder voters = new StringBuilder();
+            for (Entry<Integer, VoterInfo> e : new TreeMap<Integer, VoterInfo>(voterToInfo).entrySet()) {
+                voters.append(e.getKey()).append(e.getValue()).append(e.getValue().getLocales()).append(';');
+            }
+            voterFingerprint = VoteStateSnapshot.fingerprint(voters);
+        }
     }
 
     public final PathHeader getPathHeader(String xpath) {
@@ -2356,6 +2709,7 @@ public class STFactory extends Factory implements BallotBoxFactory<UserRegistry.
             }
 
             conn.commit();
+            VoteStatistics.getInstance().forget();
         } catch (SQLException e) {
             SurveyLog.logException(e, "importing locale data from files");
         } finally {
@@ -23,9 +23,6 @@ public class StatisticsUtils {
 
     public static final int NO_LIMIT = -1;
 
-    public static final String QUERY_ALL_VOTES = "select  locale,count(*) as count from " + DBUtils.Table.VOTE_VALUE + "  where submitter is not null " + ""
-        + " group by locale ";
-
     public static String[][] calcSubmits(String[][] v, String[][] d) {
         return calcSubmits(v, d, NO_LIMIT);
     }
@@ -81,13 +78,18 @@ public class StatisticsUtils {
     }
 
     /**
-     * Total items submitted. Updated every few minutes
+     * Total items submitted, from {@link VoteStatistics}
      * @return
      */
     public static int getTotalItems() {
-        final String queryName = "total_items";
-        final String querySql = "select count(*) from " + DBUtils.Table.VOTE_VALUE + " where submitter is not null";
-        return getCachedQuery(queryName, querySql);
+        if (!SurveyMain.isSetup || SurveyMain.isBusted()) {
+            return -2;
+        }
+        try {
+            return VoteStatistics.getInstance().getTotalVotes();
+        } catch (Throwable t) {
+            return -1;
+        }
     }
 
     /**
@@ -108,13 +110,18 @@ public class StatisticsUtils {
     }
 
     /**
-     * Total submitters. Updated every few minutes
+     * Total submitters, from {@link VoteStatistics}
      * @return
      */
     public static int getTotalSubmitters() {
-        final String queryName = "total_submitters";
-        final String querySql = "select count(distinct submitter) from " + DBUtils.Table.VOTE_VALUE + " ";
-        return getCachedQuery(queryName, querySql);
+        if (!SurveyMain.isSetup || SurveyMain.isBusted()) {
+            return -2;
+        }
+        try {
+            return VoteStatistics.getInstance().getTotalSubmitters();
+        } catch (Throwable t) {
+            return -1;
+        }
     }
 
     /**
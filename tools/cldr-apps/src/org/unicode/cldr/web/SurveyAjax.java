@@ -16,6 +16,7 @@ import java.util.Comparator;
 import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -241,6 +242,7 @@ public class SurveyAjax extends HttpServlet {
     public static final String WHAT_RECENT_ITEMS = "recent_items";
     public static final String WHAT_FORUM_FETCH = "forum_fetch";
     public static final String WHAT_FORUM_COUNT = "forum_count";
+    public static final String WHAT_FORUM_COUNTS = "forum_counts";
     public static final String WHAT_FORUM_POST = "forum_post";
     public static final String WHAT_POSS_PROBLEMS = "possibleProblems";
     public static final String WHAT_GET_MENUS = "menus";
@@ -344,8 +346,7 @@ public class SurveyAjax extends HttpServlet {
                 getRow(request, response, out, sm, sess, l, xpath);
             } else if (what.equals(WHAT_STATS_BYLOC)) {
                 JSONWriter r = newJSONStatusQuick(sm);
-                JSONObject query = DBUtils.queryToCachedJSON(what, 5 * 60 * 1000, StatisticsUtils.QUERY_ALL_VOTES);
-                r.put(what, query);
+                r.put(what, VoteStatistics.getInstance().getByLocaleJSON());
                 addGeneralStats(r);
                 send(r, out);
             } else if (what.equals(WHAT_FLAGGED)) {
@@ -357,26 +358,12 @@ public class SurveyAjax extends HttpServlet {
             } else if (what.equals(WHAT_STATS_BYDAYUSERLOC)) {
                 String votesAfterString = SurveyMain.getVotesAfterString();
                 JSONWriter r = newJSONStatus(sm);
-                final String day = DBUtils.db_Mysql ? "DATE_FORMAT(last_mod, '%Y-%m-%d')" : "last_mod ";
-                final String sql = "select submitter," + day + " as day,locale,count(*) as count from " + DBUtils.Table.VOTE_VALUE
-                    + " group by submitter,locale,YEAR(last_mod),MONTH(last_mod),DAYOFMONTH(last_mod)  order by day desc";
-                JSONObject query = DBUtils.queryToCachedJSON(what, 5 * 60 * 1000,
-                    sql);
-                r.put(what, query);
+                r.put(what, VoteStatistics.getInstance().getByDayUserLocaleJSON());
                 r.put("after", votesAfterString);
                 send(r, out);
-                // select submitter,DATE_FORMAT(last_mod, '%Y-%m-%d') as day,locale,count(*) from "+DBUtils.Table.VOTE_VALUE+" group by submitter,locale,YEAR(last_mod),MONTH(last_mod),DAYOFMONTH(last_mod) order by day desc limit 10000;
             } else if (what.equals(WHAT_STATS_BYDAY)) {
                 JSONWriter r = newJSONStatus(sm);
-                {
-                    final String sql = DBUtils.db_Mysql ? ("select count(*) as count ,last_mod from " + DBUtils.Table.VOTE_VALUE
-                        + " group by Year(last_mod) desc ,Month(last_mod) desc,Date(last_mod) desc") // mysql
-                        : ("select count(*) as count ,Date(" + DBUtils.Table.VOTE_VALUE + ".last_mod) as last_mod from " + DBUtils.Table.VOTE_VALUE
-                            + " group by Date(" + DBUtils.Table.VOTE_VALUE + ".last_mod)"); // derby
-                    final JSONObject query = DBUtils
-                        .queryToCachedJSON(what, (5 * 60 * 1000), sql);
-                    r.put("byday", query);
-                }
+                r.put("byday", VoteStatistics.getInstance().getByDayJSON());
                 {
                     // exclude old votes
                     final String sql2 = DBUtils.db_Mysql ? ("select count(*) as count ,last_mod from " + DBUtils.Table.VOTE_VALUE
@@ -687,6 +674,15 @@ public class SurveyAjax extends HttpServlet {
                         int id = Integer.parseInt(xpath);
                         r.put(what, sm.fora.postCountFor(locale, id));
                         send(r, out);
+                    } else if (what.equals(WHAT_FORUM_COUNTS)) {
+                        // the counts for every item in the locale, for a whole page at once
+                        mySession.userDidAction();
+                        JSONWriter r = newJSONStatus(sm);
+                        r.put("what", what);
+                        r.put("loc", loc);
+                        CLDRLocale locale = CLDRLocale.getInstance(loc);
+                        r.put(what, sm.fora.postCountsToJSON(locale));
+                        send(r, out);
                     } else if (what.equals(WHAT_FORUM_FETCH)) {
                         JSONWriter r = newJSONStatus(sm);
                         CLDRLocale locale = CLDRLocale.getInstance(loc);
@@ -2170,7 +2166,7 @@ public class SurveyAjax extends HttpServlet {
             + "and " + oldVotesTable + ".submitter=" + newVotesTable + ".submitter)";
         Map<String, Object> rows[] = DBUtils.queryToArrayAssoc(sqlStr, user.id);
 
-        int confirmations = 0;
+        Map<CLDRLocale, Map<String, String>> votesByLocale = new LinkedHashMap<CLDRLocale, Map<String, String>>();
         for (Map<String, Object> m : rows) {
             Object obj = m.get("value");
             String value = (obj == null) ? null : obj.toString();
@@ -2203,22 +2199,54 @@ public class SurveyAjax extends HttpServlet {
                      * "for a later version".
                      */
                     if (box.getVoteValue(user, xpathString) == null) {
-                        box.voteForValue(user, xpathString, value);
-                        confirmations++;
+                        Map<String, String> votes = votesByLocale.get(locale);
+                        if (votes == null) {
+                            votesByLocale.put(locale, votes = new LinkedHashMap<String, String>());
+                        }
+                        votes.put(xpathString, value);
                     }
                 }
-            } catch (InvalidXPathException ix) {
-                /* Silently catch InvalidXPathException, otherwise logs grow too fast with useless warnings */
-            } catch (VoteNotAcceptedException ix) {
-                /* Silently catch VoteNotAcceptedException, otherwise logs grow too fast with useless warnings */
             } catch (IllegalByDtdException ix) {
                 /* Silently catch IllegalByDtdException, otherwise logs grow too fast with useless warnings */
             }
         }
+        int confirmations = 0;
+        for (Map.Entry<CLDRLocale, Map<String, String>> e : votesByLocale.entrySet()) {
+            confirmations += importVotes(fac.ballotBoxForLocale(e.getKey()), user, e.getValue());
+        }
         // System.out.println("importAllOldWinningVotes: imported " + confirmations + " votes in " + oldVotesTable);
         return confirmations;
     }
 
+    /**
+     * Import the given votes of one user in one locale, all at once. If that fails because one of them
+     * is not accepted, import them one at a time, skipping the ones not accepted.
+     *
+     * @param box the BallotBox, specific to the locale
+     * @param user the User
+     * @param votes map from path to value
+     * @return how many votes imported
+     */
+    private int importVotes(BallotBox<User> box, User user, Map<String, String> votes) {
+        try {
+            box.voteForValues(user, votes);
+            return votes.size();
+        } catch (InvalidXPathException | VoteNotAcceptedException batchRejected) {
+            int count = 0;
+            for (Map.Entry<String, String> e : votes.entrySet()) {
+                try {
+                    box.voteForValue(user, e.getKey(), e.getValue());
+                    count++;
+                } catch (InvalidXPathException ix) {
+                    /* Silently catch InvalidXPathException, otherwise logs grow too fast with useless warnings */
+                } catch (VoteNotAcceptedException ix) {
+                    /* Silently catch VoteNotAcceptedException, otherwise logs grow too fast with useless warnings */
+                }
+            }
+            return count;
+        }
+    }
+
     /**
      * Does the value in question either match or inherent the current value?
      * 
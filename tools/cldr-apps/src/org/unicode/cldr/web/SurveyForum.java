@@ -21,6 +21,7 @@ import java.util.Date;
 import java.util.HashSet;
 import java.util.Hashtable;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import javax.servlet.ServletException;
@@ -823,6 +824,7 @@ public class SurveyForum {
             SurveyLog.logException(se, complaint);
             throw new SurveyException(ErrorCode.E_INTERNAL, complaint);
         }
+        postIndex.postAdded(locale, postId, replyTo, base_xpath);
         emailNotify(user, locale, base_xpath, subj, text, postId);
         return postId;
     }
@@ -1234,6 +1236,11 @@ public class SurveyForum {
         return reg;
     }
 
+    /**
+     * Post counts and thread heads of each locale, so that the counts don't need a query per item
+     */
+    private final ForumPostIndex postIndex = new ForumPostIndex();
+
     public SurveyForum(java.util.logging.Logger xlogger, SurveyMain ourSm) {
         logger = xlogger;
         sm = ourSm;
@@ -1872,25 +1879,37 @@ public class SurveyForum {
     }
 
     public int postCountFor(CLDRLocale locale, int xpathId) {
-        Connection conn = null;
-        PreparedStatement ps = null;
-        String tableName = DBUtils.Table.FORUM_POSTS.toString();
         try {
-            conn = DBUtils.getInstance().getDBConnection();
-
-            ps = DBUtils.prepareForwardReadOnly(conn, "select count(*) from " + tableName + " where loc=? and xpath=?");
-            ps.setString(1, locale.getBaseName());
-            ps.setInt(2, xpathId);
-
-            return DBUtils.sqlCount(null, conn, ps);
+            return postIndex.get(locale).getCount(xpathId);
         } catch (SQLException e) {
-            SurveyLog.logException(e, "postCountFor for " + tableName + " " + locale + ":" + xpathId);
+            SurveyLog.logException(e, "postCountFor for " + DBUtils.Table.FORUM_POSTS + " " + locale + ":" + xpathId);
             return 0;
-        } finally {
-            DBUtils.close(ps, conn);
         }
     }
 
+    /**
+     * Get the post counts of all the items in a locale at once, so that a page needs one request instead of one per row.
+     *
+     * @param locale
+     * @return an object with "posts" and "threads", each mapping xpath id to count, for the xpaths with posts
+     */
+    public JSONObject postCountsToJSON(CLDRLocale locale) throws JSONException {
+        JSONObject posts = new JSONObject();
+        JSONObject threads = new JSONObject();
+        try {
+            ForumPostIndex.LocalePosts localePosts = postIndex.get(locale);
+            for (Map.Entry<Integer, Integer> e : localePosts.getCounts().entrySet()) {
+                posts.put(e.getKey().toString(), e.getValue());
+            }
+            for (Map.Entry<Integer, Integer> e : localePosts.getThreadCounts().entrySet()) {
+                threads.put(e.getKey().toString(), e.getValue());
+            }
+        } catch (SQLException e) {
+            SurveyLog.logException(e, "postCountsToJSON for " + DBUtils.Table.FORUM_POSTS + " " + locale);
+        }
+        return new JSONObject().put("posts", posts).put("threads", threads);
+    }
+
     /**
      * Gather forum post information into a JSONArray, in preparation for
      * displaying it to the user (which is done by parseForumContent in survey.js).
@@ -498,7 +498,7 @@ public class SurveyMain extends HttpServlet implements CLDRProgressIndicator, Ex
             // cldr-tools
             // is
             // functioning.
-            startupThread.addTask(new SurveyThread.SurveyTask("startup") {
+            startupThread.addTask(new SurveyThread.SurveyTask("startup", SurveyThread.SurveyTask.Priority.HIGH) {
                 public void run() throws Throwable {
                     doStartup();
                 }
@@ -5054,12 +5054,37 @@ public class SurveyMain extends HttpServlet implements CLDRProgressIndicator, Ex
             SurveyLog.logger.info("------- SurveyTool ready for requests after " + setupTime + "/" + uptime + ". Memory in use: " + usedK()
                 + "----------------------------\n\n\n");
             isSetup = true;
+            startWarmUp();
         } else {
             SurveyLog.logger.info("------- SurveyTool FAILED TO STARTUP, " + setupTime + "/" + uptime + ". Memory in use: " + usedK()
                 + "----------------------------\n\n\n");
         }
     }
 
+    /**
+     * Load the writable locales in the background, on CLDR_WARMUP_THREADS threads (0 to not warm up),
+     * so that the first users of each locale don't wait for it.
+     */
+    private void startWarmUp() {
+        final int threads = CLDRConfig.getInstance().getProperty("CLDR_WARMUP_THREADS", 2);
+        if (threads <= 0) {
+            return;
+        }
+        Thread warmUp = new Thread("STFactory warm-up") {
+            @Override
+            public void run() {
+                try {
+                    getSTFactory().warmUp(threads);
+                } catch (Throwable t) {
+                    SurveyLog.logException(t, "STFactory warm-up");
+                }
+            }
+        };
+        warmUp.setDaemon(true);
+        warmUp.setPriority(Thread.MIN_PRIORITY);
+        warmUp.start();
+    }
+
     public static void stopIfMaintenance() {
         stopIfMaintenance(null);
     }
@@ -3,15 +3,34 @@
  */
 package org.unicode.cldr.web;
 
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.unicode.cldr.util.CLDRConfig;
 
 /**
  * @author srl
  *
- *         A worker thread that performs various SurveyTool tasks, starting with
+ *         A pool of worker threads that perform various SurveyTool tasks, starting with
  *         booting.
+ *
+ *         Tasks are taken highest {@link SurveyTask.Priority} first, and in the order added within a priority.
+ *         The number of workers is set by the CLDR_SURVEYTHREADS property (default 2).
  */
-public class SurveyThread extends Thread {
+public class SurveyThread {
+
+    /**
+     * Thrown from the progress of a task which has been asked to stop.
+     */
+    public static class TaskStoppedException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        TaskStoppedException(SurveyTask t) {
+            super("Task stopped: " + t.name);
+        }
+    }
 
     public static boolean shouldStop() {
         SurveyTask ct = currentTask();
@@ -23,20 +42,13 @@ public class SurveyThread extends Thread {
     }
 
     public static boolean inTask() {
-        Thread th = Thread.currentThread();
-        if (th instanceof SurveyThread) {
-            return true;
-        } else {
-            return false;
-        }
+        return (Thread.currentThread() instanceof Worker);
     }
 
     public static SurveyTask currentTask() {
         Thread th = Thread.currentThread();
-        if (th instanceof SurveyThread) {
-            SurveyThread st = (SurveyThread) th;
-
-            return st.current;
+        if (th instanceof Worker) {
+            return ((Worker) th).current;
         } else {
             return null;
         }
@@ -45,7 +57,7 @@ public class SurveyThread extends Thread {
     /**
      * Are we still running?
      */
-    boolean surveyThreadIsRunning = true;
+    volatile boolean surveyThreadIsRunning = true;
 
     boolean mainThreadRunning() {
         return surveyThreadIsRunning;
@@ -61,12 +73,32 @@ public class SurveyThread extends Thread {
      *
      */
     public static abstract class SurveyTask implements CLDRProgressIndicator {
+        public enum Priority {
+            HIGH, NORMAL, LOW
+        }
+
         /**
          * Name of the task.
          */
         public String name;
 
-        private boolean taskRunning = true;
+        private volatile boolean taskRunning = true;
+
+        private final Priority priority;
+
+        /**
+         * Order in which the task was added, for FIFO order within a priority
+         */
+        private long sequence;
+
+        private volatile long addedAt = -1;
+        private volatile long startedAt = -1;
+        private volatile long endedAt = -1;
+
+        /**
+         * The worker running this task, or null
+         */
+        private volatile Worker worker = null;
 
         /**
          * Request this task to stop.
@@ -81,7 +113,10 @@ public class SurveyThread extends Thread {
          */
         public void kill() {
             stop();
-            theThread.interrupt();
+            Worker w = worker;
+            if (w != null) {
+                w.interrupt();
+            }
         }
 
         protected SurveyThread theThread = null;
@@ -103,7 +138,22 @@ public class SurveyThread extends Thread {
          * @param taskName
          */
         public SurveyTask(String taskName) {
+            this(taskName, Priority.NORMAL);
+        }
+
+        /**
+         * C'tor.
+         *
+         * @param taskName the initial name of the task
+         * @param priority tasks of higher priority are started first
+         */
+        public SurveyTask(String taskName, Priority priority) {
             name = taskName;
+            this.priority = priority;
+        }
+
+        public Priority getPriority() {
+            return priority;
         }
 
         void setName(String taskName) {
@@ -111,9 +161,37 @@ public class SurveyThread extends Thread {
 
             // if possible, update current thread name.
             Thread th = Thread.currentThread();
-            if (th instanceof SurveyThread) {
-                SurveyThread st = (SurveyThread) th;
-                st.setName();
+            if (th instanceof Worker) {
+                ((Worker) th).setName();
+            }
+        }
+
+        /**
+         * How long the task waited in the queue before a worker started it, in ms, or -1 if not yet started.
+         */
+        public long getQueueWaitMillis() {
+            if (startedAt < 0) {
+                return -1;
+            }
+            return startedAt - addedAt;
+        }
+
+        /**
+         * How long the task has run (or ran, if done), in ms, or -1 if not yet started.
+         */
+        public long getRunMillis() {
+            if (startedAt < 0) {
+                return -1;
+            }
+            return (endedAt < 0 ? System.currentTimeMillis() : endedAt) - startedAt;
+        }
+
+        /**
+         * Throw a TaskStoppedException if this task has been asked to stop.
+         */
+        public void checkRunning() {
+            if (!running()) {
+                throw new TaskStoppedException(this);
             }
         }
 
@@ -138,19 +216,54 @@ public class SurveyThread extends Thread {
         abstract public void run() throws Throwable;
 
         // ----- CLDRProgressIndicator overrides. For now, delegate to
-        // theThread.sm
+        // theThread.sm. Each update checks whether the task has been asked to stop,
+        // and if so throws TaskStoppedException.
         @Override
         public CLDRProgressTask openProgress(String what) {
-            if (running())
-                return theThread.sm.openProgress(what);
-            return null;
+            checkRunning();
+            return new StoppableProgress(theThread.sm.openProgress(what));
         }
 
         @Override
         public CLDRProgressTask openProgress(String what, int max) {
-            if (running())
-                return theThread.sm.openProgress(what, max);
-            return null;
+            checkRunning();
+            return new StoppableProgress(theThread.sm.openProgress(what, max));
+        }
+
+        private class StoppableProgress implements CLDRProgressTask {
+            private final CLDRProgressTask progress;
+
+            StoppableProgress(CLDRProgressTask progress) {
+                this.progress = progress;
+            }
+
+            @Override
+            public void close() {
+                progress.close();
+            }
+
+            @Override
+            public void update(int count) {
+                checkRunning();
+                progress.update(count);
+            }
+
+            @Override
+            public void update(int count, String what) {
+                checkRunning();
+                progress.update(count, what);
+            }
+
+            @Override
+            public void update(String what) {
+                checkRunning();
+                progress.update(what);
+            }
+
+            @Override
+            public long startTime() {
+                return progress.startTime();
+            }
         }
     }
 
@@ -181,23 +294,53 @@ public class SurveyThread extends Thread {
         return ret;
     }
 
+    /**
+     * How many waiting tasks of a certain kind will be started before this one?
+     *
+     * @return the count, or 0 if the task is not waiting
+     */
+    public int tasksAhead(SurveyTask task, @SuppressWarnings("rawtypes") Class ofClass) {
+        if (task.startedAt >= 0 || !tasks.contains(task)) {
+            return 0;
+        }
+        int ret = 0;
+        for (SurveyTask t : tasks) {
+            if (ofClass.isInstance(t) && compare(t, task) < 0) {
+                ret++;
+            }
+        }
+        return ret;
+    }
+
+    private static int compare(SurveyTask a, SurveyTask b) {
+        int diff = a.priority.compareTo(b.priority);
+        if (diff == 0) {
+            diff = Long.compare(a.sequence, b.sequence);
+        }
+        return diff;
+    }
+
     /**
      * The current state of the thread.
      */
     public String toString() {
-        return "{ST Threads: Tasks waiting:" + tasksRemaining() + ", Current:" + current + ", Running:" + surveyThreadIsRunning
-            + "}";
+        return "{ST Threads: Tasks waiting:" + tasksRemaining() + ", Current:" + currentTasks() + ", Running:" + surveyThreadIsRunning
+            + ", " + getStatistics() + "}";
     }
 
     /**
      * The status, as HTML
      */
     public String htmlStatus() {
-        if (tasksRemaining() == 0 && current == null)
+        List<SurveyTask> current = currentTasks();
+        if (tasksRemaining() == 0 && current.isEmpty())
             return null;
         StringBuffer sb = new StringBuffer();
-        if (current != null) {
-            sb.append(current);
+        for (SurveyTask t : current) {
+            if (sb.length() > 0) {
+                sb.append(" * ");
+            }
+            sb.append(t);
         }
         if (tasksRemaining() > 0) {
             if (sb.length() > 0) {
@@ -209,49 +352,135 @@ public class SurveyThread extends Thread {
     }
 
     /**
-     * The current task, or null if none.
+     * The tasks being run right now
      */
-    SurveyTask current = null;
+    public List<SurveyTask> currentTasks() {
+        List<SurveyTask> ret = new ArrayList<SurveyTask>();
+        for (Worker w : workers) {
+            SurveyTask t = w.current;
+            if (t != null) {
+                ret.add(t);
+            }
+        }
+        return ret;
+    }
+
+    private final AtomicLong tasksCompleted = new AtomicLong();
+    private final AtomicLong tasksFailed = new AtomicLong();
+    private final AtomicLong tasksStopped = new AtomicLong();
+    private final AtomicLong totalQueueWait = new AtomicLong();
+    private final AtomicLong maxQueueWait = new AtomicLong();
+    private final AtomicLong totalRunTime = new AtomicLong();
+    private final AtomicLong maxRunTime = new AtomicLong();
 
     /**
-     * The main run loop. Perform tasks or wait.
+     * Queue wait and run times of the tasks finished so far
      */
-    public void run() {
+    public String getStatistics() {
+        long n = tasksCompleted.get();
+        return "completed:" + n + ", failed:" + tasksFailed.get() + ", stopped:" + tasksStopped.get()
+            + ", avgWait:" + (n == 0 ? 0 : totalQueueWait.get() / n) + "ms, maxWait:" + maxQueueWait.get()
+            + "ms, avgRun:" + (n == 0 ? 0 : totalRunTime.get() / n) + "ms, maxRun:" + maxRunTime.get() + "ms";
+    }
+
+    private static void updateMax(AtomicLong max, long value) {
+        long old;
+        while (value > (old = max.get()) && !max.compareAndSet(old, value))
+            ;
+    }
+
+    private void taskDone(SurveyTask t) {
+        long wait = t.getQueueWaitMillis();
+        long run = t.getRunMillis();
+        tasksCompleted.incrementAndGet();
+        totalQueueWait.addAndGet(wait);
+        updateMax(maxQueueWait, wait);
+        totalRunTime.addAndGet(run);
+        updateMax(maxRunTime, run);
         if (DEBUG)
-            System.err.println("SurveyThread: Bootation.");
-        setName();
-        while (this.surveyThreadIsRunning) {
-            try {
-                if (DEBUG)
-                    System.err.println("SurveyThread: About to take from queue (count:" + tasksRemaining() + "):");
-                current = tasks.take();
-                setName();
-                if (DEBUG)
-                    System.err.println("SurveyThread: Got: " + current);
-                current.theThread = this; // set the back pointer
-            } catch (InterruptedException e) {
-                if (DEBUG)
-                    System.err.println("SurveyThread: Interrupted- running=" + surveyThreadIsRunning);
-            }
-            if (current != null)
+            System.err.println("SurveyThread: " + t.name + " waited " + wait + "ms, ran " + run + "ms");
+    }
+
+    /**
+     * One of the threads taking tasks from the queue.
+     */
+    private class Worker extends Thread {
+        /**
+         * The current task, or null if none.
+         */
+        volatile SurveyTask current = null;
+        private final int number;
+
+        Worker(int number) {
+            this.number = number;
+            setName();
+        }
+
+        private void setName() {
+            SurveyTask t = current;
+            this.setName("SurveyThread-" + number + (t == null ? "" : " " + t.name));
+        }
+
+        /**
+         * The main run loop. Perform tasks or wait.
+         */
+        public void run() {
+            if (DEBUG)
+                System.err.println(getName() + ": Bootation.");
+            while (surveyThreadIsRunning) {
                 try {
-                if (DEBUG)
-                    System.err.println("SurveyThread(count:" + tasksRemaining() + "): About to run: " + current);
-                current.run();
-                if (DEBUG)
-                    System.err.println("SurveyThread(count:" + tasksRemaining() + "): Done running : " + current);
-                } catch (Throwable t) {
-                if (DEBUG)
-                    System.err.println("SurveyThread(count:" + tasksRemaining() + "): Got exception on: " + current + " - "
-                        + t.toString());
-                t.printStackTrace();
-                SurveyMain.busted("While working on task " + current + " - " + t.toString(), t);
+                    if (DEBUG)
+                        System.err.println(getName() + ": About to take from queue (count:" + tasksRemaining() + "):");
+                    current = tasks.take();
+                    current.worker = this;
+                    current.startedAt = System.currentTimeMillis();
+                    setName();
+                    if (DEBUG)
+                        System.err.println(getName() + ": Got: " + current);
+                } catch (InterruptedException e) {
+                    if (DEBUG)
+                        System.err.println(getName() + ": Interrupted- running=" + surveyThreadIsRunning);
                 }
-            current = null; /* done. */
-            setName();
+                if (current != null) {
+                    try {
+                        if (DEBUG)
+                            System.err.println(getName() + "(count:" + tasksRemaining() + "): About to run: " + current);
+                        current.run();
+                        if (DEBUG)
+                            System.err.println(getName() + "(count:" + tasksRemaining() + "): Done running : " + current);
+                    } catch (TaskStoppedException t) {
+                        tasksStopped.incrementAndGet();
+                        if (DEBUG)
+                            System.err.println(getName() + ": stopped: " + current);
+                    } catch (Throwable t) {
+                        tasksFailed.incrementAndGet();
+                        if (DEBUG)
+                            System.err.println(getName() + "(count:" + tasksRemaining() + "): Got exception on: " + current + " - "
+                                + t.toString());
+                        t.printStackTrace();
+                        SurveyMain.busted("While working on task " + current + " - " + t.toString(), t);
+                    } finally {
+                        current.endedAt = System.currentTimeMillis();
+                        current.worker = null;
+                        taskDone(current);
+                    }
+                }
+                current = null; /* done. */
+                Thread.interrupted(); // clear any interrupt meant for the last task
+                setName();
+            }
+            if (DEBUG)
+                System.err.println(getName() + "(count:" + tasksRemaining() + "): exitting!");
+        }
+    }
+
+    /**
+     * Start the workers.
+     */
+    public void start() {
+        for (Worker w : workers) {
+            w.start();
         }
-        if (DEBUG)
-            System.err.println("SurveyThread(count:" + tasksRemaining() + "): exitting!");
     }
 
     /**
@@ -267,6 +496,8 @@ public class SurveyThread extends Thread {
         this.addTask(t);
     }
 
+    private final AtomicLong sequence = new AtomicLong();
+
     /**
      * Add a task, use the default name. Throws an internal error if for some
      * reason it couldn't be added.
@@ -274,6 +505,9 @@ public class SurveyThread extends Thread {
      * @param t
      */
     public void addTask(SurveyTask t) {
+        t.theThread = this; // set the back pointer
+        t.sequence = sequence.incrementAndGet();
+        t.addedAt = System.currentTimeMillis();
         if (!tasks.offer(t)) {
             String complaint = "SurveyThread: can't add task " + t.name;
             System.err.println(complaint);
@@ -290,12 +524,14 @@ public class SurveyThread extends Thread {
      */
     public void requestStop() {
         surveyThreadIsRunning = false; // shutdown the next time through
-        addTask(new SurveyTask("shutdown") {
-            public void run() throws Throwable {
-                System.err.println("Shutdown task: stop requested!");
-                // add other items here.
-            }
-        });
+        for (int i = 0; i < workers.size(); i++) { // wake up every worker
+            addTask(new SurveyTask("shutdown", SurveyTask.Priority.HIGH) {
+                public void run() throws Throwable {
+                    System.err.println("Shutdown task: stop requested!");
+                    // add other items here.
+                }
+            });
+        }
     }
 
     /**
@@ -303,34 +539,54 @@ public class SurveyThread extends Thread {
      */
     public void interruptStop() {
         surveyThreadIsRunning = false;
-        this.interrupt();
+        for (Worker w : workers) {
+            w.interrupt();
+        }
     }
 
     /**
-     * Construct the thread. Needs a pointer to the SurveyTool..
+     * Construct the threads. Needs a pointer to the SurveyTool..
      *
      * @param sm
      */
     SurveyThread(SurveyMain sm) {
-        this.sm = sm;
-        current = null;
-        setName();
+        this(sm, CLDRConfig.getInstance().getProperty("CLDR_SURVEYTHREADS", 2));
     }
 
-    private void setName() {
-        this.setName(toString());
+    /**
+     * Construct the threads.
+     *
+     * @param sm the SurveyTool, used for progress
+     * @param workerCount the number of tasks that may run at once
+     */
+    public SurveyThread(SurveyMain sm, int workerCount) {
+        this.sm = sm;
+        for (int i = 0; i < Math.max(1, workerCount); i++) {
+            workers.add(new Worker(i));
+        }
     }
 
     /**
      * Main list of tasks.
      */
-    LinkedBlockingQueue<SurveyTask> tasks = new LinkedBlockingQueue<SurveyTask>();
+    final PriorityBlockingQueue<SurveyTask> tasks = new PriorityBlockingQueue<SurveyTask>(11, SurveyThread::compare);
+
+    private final List<Worker> workers = new ArrayList<Worker>();
 
     /**
      * Back-pointer.
      */
     SurveyMain sm;
 
+    private boolean isAlive() {
+        for (Worker w : workers) {
+            if (w.isAlive()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Try to shut down the threads cleanly.
      */
@@ -347,18 +603,22 @@ public class SurveyThread extends Thread {
             if (!this.isAlive())
                 return;
 
-            SurveyTask aCurrent = current;
-            if (aCurrent != null) {
-                System.err.println("Attempting task stop on " + aCurrent + "..");
-                aCurrent.stop();
+            List<SurveyTask> current = currentTasks();
+            if (!current.isEmpty()) {
+                for (SurveyTask aCurrent : current) {
+                    System.err.println("Attempting task stop on " + aCurrent + "..");
+                    aCurrent.stop();
+                }
                 Thread.sleep(1000);
                 if (!this.isAlive())
                     return;
             }
-            aCurrent = current; // in case it changed
-            if (aCurrent != null) {
-                System.err.println("Attempting task kill on " + aCurrent + "..");
-                aCurrent.kill();
+            current = currentTasks(); // in case it changed
+            if (!current.isEmpty()) {
+                for (SurveyTask aCurrent : current) {
+                    System.err.println("Attempting task kill on " + aCurrent + "..");
+                    aCurrent.kill();
+                }
                 Thread.sleep(1000);
                 if (!this.isAlive())
                     return;
@@ -371,7 +631,7 @@ public class SurveyThread extends Thread {
                 return;
 
             clean = false;
-            System.err.println("Give up. Could not stop thread in time.");
+            System.err.println("Give up. Could not stop threads in time.");
         } catch (Throwable t) {
             clean = false;
             System.err.println("Trying to do a shutdown in SurveyThread: got " + t.toString());
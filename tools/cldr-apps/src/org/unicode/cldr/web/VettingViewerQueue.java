@@ -16,10 +16,15 @@ import java.util.Map.Entry;
 import java.util.Set;
 import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
+import org.unicode.cldr.util.CLDRConfig;
 import org.unicode.cldr.util.CLDRFile;
 import org.unicode.cldr.util.CLDRLocale;
 import org.unicode.cldr.util.CldrUtility;
@@ -73,6 +78,43 @@ public class VettingViewerQueue {
 
     static int gMax = -1;
 
+    /**
+     * Per-locale results of the summary, kept until the locale gets a vote. STFactory adds this as a listener
+     * to each locale's source.
+     */
+    private final VettingViewer.SummaryCache summaryCache = new VettingViewer.SummaryCache();
+
+    public VettingViewer.SummaryCache getSummaryCache() {
+        return summaryCache;
+    }
+
+    /**
+     * Workers that compute the locales of the summary. Shared by all summary runs, so that concurrent runs
+     * don't multiply the load.
+     */
+    private static final ExecutorService summaryExecutor = Executors.newFixedThreadPool(
+        CLDRConfig.getInstance().getProperty("CLDR_VV_THREADS", Runtime.getRuntime().availableProcessors()),
+        new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread t = new Thread(r, "VettingViewerSummary-" + count.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            }
+        });
+
+    /**
+     * Make a VettingViewer for the ST, using the shared summary cache and workers
+     */
+    private VettingViewer<Organization> makeVettingViewer(SurveyMain sm) {
+        return new VettingViewer<Organization>(sm.getSupplementalDataInfo(), sm.getSTFactory(),
+            sm.getOldFactory(), getUsersChoice(sm), "CLDR " + SurveyMain.getOldVersion(), "Winning " + SurveyMain.getNewVersion())
+                .setSummaryCache(summaryCache)
+                .setExecutor(summaryExecutor);
+    }
+
     /**
      * Count the # of paths in this CLDRFile
      *
@@ -162,9 +204,6 @@ public class VettingViewerQueue {
 
 //    public static QueueEntry summaryEntry = null;
 
-    private static final Object OnlyOneVetter = new Object() {
-    }; // TODO: remove.
-
     public class Task extends SurveyThread.SurveyTask {
 
         public CLDRLocale locale;
@@ -200,7 +239,7 @@ public class VettingViewerQueue {
 
         public Task(QueueEntry entry, CLDRLocale locale, SurveyMain sm, String baseUrl, Level usersLevel,
             Organization usersOrg, final String st_org) {
-            super("VettingTask:" + locale.toString());
+            super("VettingTask:" + locale.toString(), locale == SUMMARY_LOCALE ? Priority.LOW : Priority.NORMAL);
             isSummary = isSummary(locale);
             if (DEBUG)
                 System.err.println("Creating task " + locale.toString());
@@ -245,6 +284,11 @@ public class VettingViewerQueue {
         @Override
         public void run() throws Throwable {
             statusCode = Status.WAITING;
+            if (!running()) {
+                status = "Stopped on request.";
+                statusCode = Status.STOPPED;
+                return;
+            }
             final CLDRProgressTask progress = openProgress("vv:" + locale, maxn + 100);
 
             VettingViewer<Organization> vv = null;
@@ -255,100 +299,98 @@ public class VettingViewerQueue {
             try {
                 status = "Waiting...";
                 progress.update("Waiting...");
-                synchronized (OnlyOneVetter) {
-                    if (!running()) {
-                        status = "Stopped on request.";
-                        statusCode = Status.STOPPED;
-                        return;
-                    }
-                    status = "Beginning Process, Calculating";
-
-                    vv = new VettingViewer<Organization>(sm.getSupplementalDataInfo(), sm.getSTFactory(),
-                        sm.getOldFactory(), getUsersChoice(sm), "CLDR " + SurveyMain.getOldVersion(), "Winning " + SurveyMain.getNewVersion());
-                    progress.update("Got VettingViewer");
-                    statusCode = Status.PROCESSING;
-                    start = System.currentTimeMillis();
-                    last = start;
-                    n = 0;
-                    vv.setProgressCallback(new VettingViewer.ProgressCallback() {
-                        public String setRemStr(long now) {
-                            double per = (double) (now - start) / (double) n;
-                            rem = (long) ((maxn - n) * per);
-                            String remStr = ElapsedTimer.elapsedTime(now, now + rem) + " " + "remaining";
-                            if (rem <= 1500) {
-                                remStr = "Finishing...";
-                            }
-                            setStatus(remStr);
-                            return remStr;
+                if (!running()) {
+                    status = "Stopped on request.";
+                    statusCode = Status.STOPPED;
+                    return;
+                }
+                status = "Beginning Process, Calculating";
+
+                vv = makeVettingViewer(sm);
+                progress.update("Got VettingViewer");
+                statusCode = Status.PROCESSING;
+                start = System.currentTimeMillis();
+                last = start;
+                n = 0;
+                vv.setProgressCallback(new VettingViewer.ProgressCallback() {
+                    public String setRemStr(long now) {
+                        double per = (double) (now - start) / (double) n;
+                        rem = (long) ((maxn - n) * per);
+                        String remStr = ElapsedTimer.elapsedTime(now, now + rem) + " " + "remaining";
+                        if (rem <= 1500) {
+                            remStr = "Finishing...";
                         }
+                        setStatus(remStr);
+                        return remStr;
+                    }
 
-                        public void nudge() {
-                            if (!running()) {
-                                throw new RuntimeException("Not Running- stop now.");
-                            }
-                            long now = System.currentTimeMillis();
-                            n++;
-                            // System.err.println("Nudged: " + n);
-                            if (n > (maxn - 5)) {
-                                maxn = n + 10;
-                                if (!isSummary && n > gMax) {
-                                    gMax = n;
-                                }
-                            }
-
-                            if ((now - last) > 1200) {
-                                last = now;
-                                // StringBuffer bar =
-                                // SurveyProgressManager.appendProgressBar(new
-                                // StringBuffer(),n,ourmax);
-                                // String remStr="";
-                                if (n > 500) {
-                                    progress.update(n, setRemStr(now));
-                                } else {
-                                    progress.update(n);
-                                }
-                                // try {
-                                // mout.println("<script type=\"text/javascript\">document.getElementById('LoadingBar').innerHTML=\""+bar+
-                                // " ("+n+" items loaded" + remStr + ")" +
-                                // "\";</script>");
-                                // mout.flush();
-                                // } catch (java.io.IOException e) {
-                                // System.err.println("Nudge: got IOException  "
-                                // + e.toString() + " after " + n);
-                                // throw new RuntimeException(e); // stop
-                                // processing
-                                // }
+                    public void nudge() {
+                        checkRunning();
+                        long now = System.currentTimeMillis();
+                        n++;
+                        // System.err.println("Nudged: " + n);
+                        if (n > (maxn - 5)) {
+                            maxn = n + 10;
+                            if (!isSummary && n > gMax) {
+                                gMax = n;
                             }
                         }
 
-                        public void done() {
-                            progress.update("Done!");
+                        if ((now - last) > 1200) {
+                            last = now;
+                            // StringBuffer bar =
+                            // SurveyProgressManager.appendProgressBar(new
+                            // StringBuffer(),n,ourmax);
+                            // String remStr="";
+                            if (n > 500) {
+                                progress.update(n, setRemStr(now));
+                            } else {
+                                progress.update(n);
+                            }
+                            // try {
+                            // mout.println("<script type=\"text/javascript\">document.getElementById('LoadingBar').innerHTML=\""+bar+
+                            // " ("+n+" items loaded" + remStr + ")" +
+                            // "\";</script>");
+                            // mout.flush();
+                            // } catch (java.io.IOException e) {
+                            // System.err.println("Nudge: got IOException  "
+                            // + e.toString() + " after " + n);
+                            // throw new RuntimeException(e); // stop
+                            // processing
+                            // }
                         }
-                    });
-
-                    EnumSet<VettingViewer.Choice> choiceSet = EnumSet.allOf(VettingViewer.Choice.class);
-                    if (usersOrg.equals(Organization.surveytool)) {
-                        choiceSet = EnumSet.of(
-                            VettingViewer.Choice.error,
-                            VettingViewer.Choice.warning,
-                            VettingViewer.Choice.hasDispute,
-                            VettingViewer.Choice.notApproved);
                     }
 
-                    if (!isSummary(locale)) {
-                        vv.generateHtmlErrorTables(aBuffer, choiceSet, locale.getBaseName(), usersOrg, usersLevel, true, false);
-                    } else {
-                        if (DEBUG)
-                            System.err.println("Starting summary gen..");
-                        vv.generateSummaryHtmlErrorTables(aBuffer, choiceSet, getLocalesWithVotes(st_org), usersOrg);
-                    }
-                    if (running()) {
-                        aBuffer.append("<hr/>" + PRE + "Processing time: " + ElapsedTimer.elapsedTime(start) + POST);
-                        entry.output.put(new Pair<CLDRLocale, Organization>(locale, usersOrg), new VVOutput(aBuffer));
+                    public void done() {
+                        progress.update("Done!");
                     }
+                });
+
+                EnumSet<VettingViewer.Choice> choiceSet = EnumSet.allOf(VettingViewer.Choice.class);
+                if (usersOrg.equals(Organization.surveytool)) {
+                    choiceSet = EnumSet.of(
+                        VettingViewer.Choice.error,
+                        VettingViewer.Choice.warning,
+                        VettingViewer.Choice.hasDispute,
+                        VettingViewer.Choice.notApproved);
+                }
+
+                if (!isSummary(locale)) {
+                    vv.generateHtmlErrorTables(aBuffer, choiceSet, locale.getBaseName(), usersOrg, usersLevel, true, false);
+                } else {
+                    if (DEBUG)
+                        System.err.println("Starting summary gen..");
+                    vv.generateSummaryHtmlErrorTables(aBuffer, choiceSet, getLocalesWithVotes(st_org), usersOrg);
+                }
+                if (running()) {
+                    aBuffer.append("<hr/>" + PRE + "Processing time: " + ElapsedTimer.elapsedTime(start) + POST);
+                    entry.output.put(new Pair<CLDRLocale, Organization>(locale, usersOrg), new VVOutput(aBuffer));
                 }
                 status = "Finished.";
                 statusCode = Status.READY;
+            } catch (SurveyThread.TaskStoppedException tse) {
+                status = "Stopped on request.";
+                statusCode = Status.STOPPED;
             } catch (RuntimeException re) {
                 SurveyLog.logException(re, "While VettingViewer processing " + locale);
                 status = "Exception! " + re.toString();
@@ -696,8 +738,7 @@ public class VettingViewerQueue {
         Organization usersOrg, Level usersLevel, UserRegistry.User user, boolean quick, WebContext ctx, boolean rJson) {
         final String st_org = user.org;
         SurveyMain sm = CookieSession.sm;
-        VettingViewer<Organization> vv = new VettingViewer<Organization>(sm.getSupplementalDataInfo(), sm.getSTFactory(),
-            sm.getOldFactory(), getUsersChoice(sm), "CLDR " + SurveyMain.getOldVersion(), "Winning " + SurveyMain.getNewVersion());
+        VettingViewer<Organization> vv = makeVettingViewer(sm);
         // progress.update("Got VettingViewer");
         // statusCode = Status.PROCESSING;
 
@@ -786,7 +827,7 @@ public class VettingViewerQueue {
         CLDRLocale didKill = null;
 
         if (t != null) {
-            String waiting = waitingString(t.sm.startupThread);
+            String waiting = waitingString(t);
             putTaskStatus(jStatus, t);
             if (t.locale.equals(locale)) {
                 status[0] = Status.PROCESSING;
@@ -841,7 +882,7 @@ public class VettingViewerQueue {
             killMsg = " (Note: Stopped loading: " + didKill.toULocale().getDisplayName(SurveyMain.BASELINE_LOCALE) + ")";
         }
         putTaskStatus(jStatus, t);
-        return PRE + "Started new task: " + waitingString(t.sm.startupThread) + t.status() + "<hr/>" + killMsg + POST;
+        return PRE + "Started new task: " + waitingString(t) + t.status() + "<hr/>" + killMsg + POST;
     }
 
     /**
@@ -850,7 +891,7 @@ public class VettingViewerQueue {
      * @throws JSONException
      */
     public void putTaskStatus(JSONObject jStatus, Task t) throws JSONException {
-        jStatus.put("t_waiting", totalUsersWaiting(t.sm.startupThread));
+        jStatus.put("t_waiting", totalUsersWaiting(t));
         jStatus.put("t_locale", t.locale);
         jStatus.put("t_running", t.running());
         jStatus.put("t_statuscode", t.statusCode);
@@ -859,8 +900,8 @@ public class VettingViewerQueue {
         jStatus.put("t_progressmax", t.maxn);
     }
 
-    private String waitingString(SurveyThread startupThread) {
-        int aheadOfMe = (totalUsersWaiting(startupThread));
+    private String waitingString(Task t) {
+        int aheadOfMe = (totalUsersWaiting(t));
         String waiting = (aheadOfMe > 0) ? ("" + aheadOfMe + " users waiting - ") : "";
         return waiting;
     }
@@ -895,7 +936,10 @@ public class VettingViewerQueue {
 
     LruMap<CLDRLocale, BallotBox<UserRegistry.User>> ballotBoxes = new LruMap<CLDRLocale, BallotBox<User>>(8);
 
-    BallotBox<UserRegistry.User> getBox(SurveyMain sm, CLDRLocale loc) {
+    /**
+     * Synchronized, as tasks may run at the same time
+     */
+    synchronized BallotBox<UserRegistry.User> getBox(SurveyMain sm, CLDRLocale loc) {
         BallotBox<User> box = ballotBoxes.get(loc);
         if (box == null) {
             box = sm.getSTFactory().ballotBoxForLocale(loc);
@@ -943,7 +987,10 @@ public class VettingViewerQueue {
 
     }
 
-    private static int totalUsersWaiting(SurveyThread st) {
-        return (st.tasksRemaining(Task.class));
+    /**
+     * How many users' vetting tasks will be started before this one?
+     */
+    private static int totalUsersWaiting(Task t) {
+        return (t.sm.startupThread.tasksAhead(t, Task.class));
     }
 }
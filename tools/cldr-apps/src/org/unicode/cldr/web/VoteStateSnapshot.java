@@ -0,0 +1,182 @@
+package org.unicode.cldr.web;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.unicode.cldr.util.CLDRLocale;
+
+/**
+ * On-disk snapshots of the resolved vote state of each locale: for each path that STFactory resolved
+ * when loading the locale's votes, the winning full path and value. A restart can apply a snapshot instead
+ * of resolving all the paths again, if the snapshot's fingerprint matches. The fingerprint is made by
+ * {@link #localeFingerprint} from the locale's votes (their count and latest last_mod), its parent's fingerprint,
+ * the voters, and the file on disk, so anything that could change the resolution makes the snapshot stale.
+ * Read-only locales have no votes, but still have a fingerprint, so that their children's snapshots go stale
+ * when their files change.
+ *
+ * Enabled with CLDR_VOTE_SNAPSHOTS=true.
+ */
+public class VoteStateSnapshot {
+    private static final int MAGIC = 0x56535331; // "VSS1"
+    /**
+     * Increment when the resolution or the format changes, to ignore the old snapshots.
+     */
+    private static final int VERSION = 1;
+
+    /**
+     * The resolved value of one path.
+     */
+    public static final class Entry {
+        final String path;
+        /**
+         * the full path of the value, or null if the path has no value
+         */
+        final String fullPath;
+        /**
+         * the value, or null if the path has no value
+         */
+        final String value;
+
+        public Entry(String path, String fullPath, String value) {
+            this.path = path;
+            this.fullPath = fullPath;
+            this.value = value;
+        }
+    }
+
+    private final File dir;
+
+    /**
+     * @param dir the directory holding the snapshots; created if needed
+     */
+    public VoteStateSnapshot(File dir) {
+        this.dir = dir;
+        dir.mkdirs();
+    }
+
+    /**
+     * Read the snapshot of a locale.
+     *
+     * @param locale
+     * @param fingerprint the fingerprint of the locale's current state
+     * @return the entries, or null if there is no snapshot or it has a different fingerprint
+     */
+    public List<Entry> read(CLDRLocale locale, String fingerprint) {
+        File file = getFile(locale);
+        if (!file.exists()) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION || !in.readUTF().equals(fingerprint)) {
+                return null; // stale
+            }
+            int count = in.readInt();
+            List<Entry> entries = new ArrayList<Entry>(count);
+            for (int i = 0; i < count; i++) {
+                String path = in.readUTF();
+                if (in.readBoolean()) {
+                    entries.add(new Entry(path, in.readUTF(), readString(in)));
+                } else {
+                    entries.add(new Entry(path, null, null));
+                }
+            }
+            return entries;
+        } catch (IOException e) {
+            SurveyLog.logException(e, "Reading vote state snapshot " + file);
+            return null;
+        }
+    }
+
+    /**
+     * Write the snapshot of a locale, replacing any previous one.
+     */
+    public void write(CLDRLocale locale, String fingerprint, List<Entry> entries) {
+        File file = getFile(locale);
+        File tmp = new File(dir, file.getName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeUTF(fingerprint);
+            out.writeInt(entries.size());
+            for (Entry e : entries) {
+                out.writeUTF(e.path);
+                out.writeBoolean(e.value != null);
+                if (e.value != null) {
+                    out.writeUTF(e.fullPath);
+                    writeString(out, e.value);
+                }
+            }
+        } catch (IOException e) {
+            SurveyLog.logException(e, "Writing vote state snapshot " + file);
+            tmp.delete();
+            return;
+        }
+        file.delete();
+        if (!tmp.renameTo(file)) {
+            SurveyLog.warnOnce("Could not rename " + tmp + " to " + file);
+        }
+    }
+
+    /**
+     * Make the fingerprint of a locale's vote state.
+     *
+     * @param locale
+     * @param version the Survey Tool's CLDR version
+     * @param rows the number of votes; 0 for a read-only locale
+     * @param maxLastMod the latest last_mod of the votes
+     * @param rowHash a hash of the votes
+     * @param parentFingerprint the parent locale's fingerprint, or "" for root
+     * @param voterFingerprint the fingerprint of the voters
+     * @param baseFile the locale's file on disk, or null if there is none
+     */
+    public static String localeFingerprint(CLDRLocale locale, String version, int rows, long maxLastMod, long rowHash,
+        String parentFingerprint, String voterFingerprint, File baseFile) {
+        return fingerprint(locale, version, rows, maxLastMod, rowHash, parentFingerprint, voterFingerprint,
+            baseFile == null ? null : baseFile.lastModified() + "/" + baseFile.length());
+    }
+
+    /**
+     * Make a fingerprint from the string forms of the parts.
+     */
+    static String fingerprint(Object... parts) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            for (Object part : parts) {
+                digest.update(String.valueOf(part).getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+            }
+            return CookieSession.cheapEncode(digest.digest());
+        } catch (NoSuchAlgorithmException nsa) {
+            throw new InternalError(nsa.toString());
+        }
+    }
+
+    private File getFile(CLDRLocale locale) {
+        return new File(dir, locale.getBaseName() + ".votestate");
+    }
+
+    // values may be longer than writeUTF allows
+
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
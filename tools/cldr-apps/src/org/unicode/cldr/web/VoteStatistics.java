@@ -0,0 +1,318 @@
+package org.unicode.cldr.web;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.unicode.cldr.util.CLDRLocale;
+
+import com.ibm.icu.dev.util.ElapsedTimer;
+
+/**
+ * Vote counts by locale, by day, and by submitter, day and locale, kept in memory so that the statistics pages
+ * don't run aggregate queries over the whole vote table.
+ *
+ * The counts are read from the vote table the first time they are needed, or by {@link #rebuild()}, and
+ * STFactory keeps them up to date by calling {@link #voteRecorded(CLDRLocale, int, boolean, Date, Date)} as votes are
+ * recorded. As with the queries they replace, each row of the vote table (one per locale, path and submitter) is
+ * counted once, on the day it was last modified. Changes made to the vote table some other way aren't seen
+ * until the next rebuild.
+ *
+ * STFactory brackets each vote transaction and its call to voteRecorded with {@link #beginVotes()} and
+ * {@link #endVotes()}, and a rebuild waits for the votes in progress and holds off new ones while it reads the table,
+ * so that a vote committed during the read isn't counted twice (by the read and by voteRecorded).
+ *
+ * The counts are synchronized on the instance. To avoid deadlock, the vote lock is always taken before the
+ * instance's monitor, never while holding it.
+ */
+public class VoteStatistics {
+    private static final VoteStatistics instance = new VoteStatistics();
+
+    public static VoteStatistics getInstance() {
+        return instance;
+    }
+
+    /**
+     * The count for one submitter, day and locale
+     */
+    private static final class DayUserLocale {
+        final String day;
+        final int submitter;
+        final String locale;
+
+        DayUserLocale(String day, int submitter, String locale) {
+            this.day = day;
+            this.submitter = submitter;
+            this.locale = locale;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof DayUserLocale)) {
+                return false;
+            }
+            DayUserLocale other = (DayUserLocale) obj;
+            return submitter == other.submitter && day.equals(other.day) && locale.equals(other.locale);
+        }
+
+        @Override
+        public int hashCode() {
+            return (day.hashCode() * 31 + submitter) * 31 + locale.hashCode();
+        }
+    }
+
+    private final ReadWriteLock voteLock = new ReentrantReadWriteLock();
+    private volatile boolean loaded = false;
+    private final Map<String, Integer> byLocale = new TreeMap<String, Integer>();
+    private final Map<String, Integer> byDay = new TreeMap<String, Integer>(Collections.reverseOrder());
+    private final Map<Integer, Integer> bySubmitter = new HashMap<Integer, Integer>();
+    private final Map<DayUserLocale, Integer> byDayUserLocale = new HashMap<DayUserLocale, Integer>();
+    private int total = 0;
+
+    private final SimpleDateFormat dayFormat = new SimpleDateFormat("yyyy-MM-dd");
+
+    private VoteStatistics() {
+    }
+
+    /**
+     * Call before starting a transaction that writes to the vote table, and call {@link #endVotes()} in a finally
+     * block after calling voteRecorded for its votes. Any number of vote transactions may be in progress at once.
+     */
+    public void beginVotes() {
+        voteLock.readLock().lock();
+    }
+
+    public void endVotes() {
+        voteLock.readLock().unlock();
+    }
+
+    /**
+     * Note that a row of the vote table has been written, in a transaction that has been committed.
+     * Nothing is done if the counts haven't been loaded; the row will be read along with the others when they are.
+     *
+     * @param locale
+     * @param submitter
+     * @param existed true if the row was already there, false if it is new
+     * @param oldLastMod when the row was last modified before, if it was there
+     * @param lastMod when the row was modified
+     */
+    public synchronized void voteRecorded(CLDRLocale locale, int submitter, boolean existed, Date oldLastMod, Date lastMod) {
+        if (!loaded) {
+            return;
+        }
+        if (existed) {
+            add(locale.getBaseName(), submitter, getDay(oldLastMod), -1);
+        }
+        add(locale.getBaseName(), submitter, getDay(lastMod), 1);
+    }
+
+    /**
+     * Forget the counts, so that they are read from the vote table again when next needed.
+     */
+    public synchronized void forget() {
+        loaded = false;
+    }
+
+    /**
+     * Read all the counts from the vote table again.
+     *
+     * @return how many votes were counted
+     * @throws SQLException
+     */
+    public int rebuild() throws SQLException {
+        return load(true);
+    }
+
+    private void ensureLoaded() throws SQLException {
+        if (!loaded) {
+            load(false);
+        }
+    }
+
+    /**
+     * Wait for the votes in progress and read the counts, holding off new votes until done.
+     *
+     * @param always false to read only if not already loaded by another thread
+     */
+    private int load(boolean always) throws SQLException {
+        voteLock.writeLock().lock();
+        try {
+            synchronized (this) {
+                if (always || !loaded) {
+                    read();
+                }
+                return total;
+            }
+        } finally {
+            voteLock.writeLock().unlock();
+        }
+    }
+
+    private void read() throws SQLException {
+        ElapsedTimer et = new ElapsedTimer("VoteStatistics rebuild");
+        loaded = false;
+        byLocale.clear();
+        byDay.clear();
+        bySubmitter.clear();
+        byDayUserLocale.clear();
+        total = 0;
+        Connection conn = null;
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+        try {
+            conn = DBUtils.getInstance().getDBConnection();
+            ps = DBUtils.prepareForwardReadOnly(conn, "select locale,submitter,last_mod from " + DBUtils.Table.VOTE_VALUE
+                + " where submitter is not null");
+            rs = ps.executeQuery();
+            while (rs.next()) {
+                add(rs.getString(1), rs.getInt(2), getDay(rs.getTimestamp(3)), 1);
+            }
+        } finally {
+            DBUtils.close(rs, ps, conn);
+        }
+        loaded = true;
+        SurveyLog.debug(et + " - " + total + " votes");
+    }
+
+    /**
+     * @return the day of the date, or "" if it is null
+     */
+    private String getDay(Date date) {
+        return date == null ? "" : dayFormat.format(date);
+    }
+
+    private void add(String locale, int submitter, String day, int delta) {
+        total += delta;
+        add(byLocale, locale, delta);
+        add(byDay, day, delta);
+        add(bySubmitter, submitter, delta);
+        add(byDayUserLocale, new DayUserLocale(day, submitter, locale), delta);
+    }
+
+    private static <K> void add(Map<K, Integer> counts, K key, int delta) {
+        Integer count = counts.get(key);
+        int newCount = (count == null ? 0 : count) + delta;
+        if (newCount > 0) {
+            counts.put(key, newCount);
+        } else {
+            counts.remove(key);
+        }
+    }
+
+    /**
+     * @return the number of votes
+     */
+    public int getTotalVotes() throws SQLException {
+        ensureLoaded();
+        synchronized (this) {
+            return total;
+        }
+    }
+
+    /**
+     * @return the number of users who have voted
+     */
+    public int getTotalSubmitters() throws SQLException {
+        ensureLoaded();
+        synchronized (this) {
+            return bySubmitter.size();
+        }
+    }
+
+    /**
+     * The votes in each locale, in the form of {@link DBUtils#queryToJSON(String, Object...)}, with
+     * the columns LOCALE, COUNT and LOCALE_NAME
+     */
+    public JSONObject getByLocaleJSON() throws SQLException, JSONException {
+        ensureLoaded();
+        synchronized (this) {
+            JSONArray data = new JSONArray();
+            for (Map.Entry<String, Integer> e : byLocale.entrySet()) {
+                data.put(new JSONArray().put(e.getKey()).put(e.getValue().intValue())
+                    .put(CLDRLocale.getInstance(e.getKey()).getDisplayName()));
+            }
+            return toJSON(data, "LOCALE", "COUNT", "LOCALE_NAME");
+        }
+    }
+
+    /**
+     * The votes on each day, newest first, in the form of {@link DBUtils#queryToJSON(String, Object...)}, with
+     * the columns COUNT and LAST_MOD (the start of the day, in milliseconds)
+     */
+    public JSONObject getByDayJSON() throws SQLException, JSONException {
+        ensureLoaded();
+        synchronized (this) {
+            JSONArray data = new JSONArray();
+            for (Map.Entry<String, Integer> e : byDay.entrySet()) {
+                data.put(new JSONArray().put(e.getValue().intValue()).put(dayToMillis(e.getKey())));
+            }
+            return toJSON(data, "COUNT", "LAST_MOD");
+        }
+    }
+
+    /**
+     * The votes of each submitter in each locale on each day, newest first, in the form of
+     * {@link DBUtils#queryToJSON(String, Object...)}, with the columns SUBMITTER, DAY, LOCALE, COUNT and LOCALE_NAME
+     */
+    public JSONObject getByDayUserLocaleJSON() throws SQLException, JSONException {
+        ensureLoaded();
+        synchronized (this) {
+            List<Map.Entry<DayUserLocale, Integer>> entries = new ArrayList<Map.Entry<DayUserLocale, Integer>>(byDayUserLocale.entrySet());
+            Collections.sort(entries, new Comparator<Map.Entry<DayUserLocale, Integer>>() {
+                @Override
+                public int compare(Map.Entry<DayUserLocale, Integer> o1, Map.Entry<DayUserLocale, Integer> o2) {
+                    DayUserLocale k1 = o1.getKey();
+                    DayUserLocale k2 = o2.getKey();
+                    int rc = k2.day.compareTo(k1.day);
+                    if (rc == 0) {
+                        rc = Integer.compare(k1.submitter, k2.submitter);
+                    }
+                    if (rc == 0) {
+                        rc = k1.locale.compareTo(k2.locale);
+                    }
+                    return rc;
+                }
+            });
+            JSONArray data = new JSONArray();
+            for (Map.Entry<DayUserLocale, Integer> e : entries) {
+                DayUserLocale k = e.getKey();
+                data.put(new JSONArray().put(k.submitter).put(k.day).put(k.locale).put(e.getValue().intValue())
+                    .put(CLDRLocale.getInstance(k.locale).getDisplayName()));
+            }
+            return toJSON(data, "SUBMITTER", "DAY", "LOCALE", "COUNT", "LOCALE_NAME");
+        }
+    }
+
+    private long dayToMillis(String day) {
+        try {
+            return day.isEmpty() ? 0 : dayFormat.parse(day).getTime();
+        } catch (ParseException e) {
+            throw new IllegalArgumentException(day, e);
+        }
+    }
+
+    private static JSONObject toJSON(JSONArray data, String... columns) throws JSONException {
+        JSONObject header = new JSONObject();
+        for (int i = 0; i < columns.length; i++) {
+            header.put(columns[i], i);
+        }
+        return new JSONObject().put("header", header).put("data", data)
+            .put("birth", System.currentTimeMillis());
+    }
+}
@@ -0,0 +1,206 @@
+package org.unicode.cldr.web;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * The in-memory maps behind {@link XPathTable}: xpath to xpid, xpid to xpath, and StringID to xpath.
+ *
+ * Entries are only ever added. Lookups take no lock and don't box their keys; additions are synchronized.
+ * The maps are open-addressed arrays which are grown by copying and then published, and within a slot
+ * the key (or, for StringIDs, the xpath) is written last, so a reader sees either a whole entry or none.
+ */
+public class XPathIdTable {
+    private static final int INITIAL_CAPACITY = 1 << 14; // power of 2
+
+    /**
+     * Open-addressed map from xpath to xpid
+     */
+    private static final class XpathToId {
+        final AtomicReferenceArray<String> xpaths;
+        final int[] ids;
+        final int mask;
+
+        XpathToId(int capacity) {
+            xpaths = new AtomicReferenceArray<String>(capacity);
+            ids = new int[capacity];
+            mask = capacity - 1;
+        }
+
+        int get(String xpath) {
+            int i = spread(xpath.hashCode()) & mask;
+            String k;
+            while ((k = xpaths.get(i)) != null) {
+                if (k.equals(xpath)) {
+                    return ids[i];
+                }
+                i = (i + 1) & mask;
+            }
+            return XPathTable.NO_XPATH;
+        }
+
+        /**
+         * @return true if the xpath was not already present
+         */
+        boolean put(String xpath, int id) {
+            int i = spread(xpath.hashCode()) & mask;
+            String k;
+            while ((k = xpaths.get(i)) != null) {
+                if (k.equals(xpath)) {
+                    ids[i] = id;
+                    return false;
+                }
+                i = (i + 1) & mask;
+            }
+            ids[i] = id;
+            xpaths.set(i, xpath); // publishes ids[i]
+            return true;
+        }
+    }
+
+    /**
+     * Open-addressed map from StringID to xpath
+     */
+    private static final class StringIdToXpath {
+        final long[] sids;
+        final AtomicReferenceArray<String> xpaths;
+        final int mask;
+
+        StringIdToXpath(int capacity) {
+            sids = new long[capacity];
+            xpaths = new AtomicReferenceArray<String>(capacity);
+            mask = capacity - 1;
+        }
+
+        String get(long sid) {
+            int i = spread((int) (sid ^ (sid >>> 32))) & mask;
+            String v;
+            while ((v = xpaths.get(i)) != null) {
+                if (sids[i] == sid) {
+                    return v;
+                }
+                i = (i + 1) & mask;
+            }
+            return null;
+        }
+
+        void put(long sid, String xpath) {
+            int i = spread((int) (sid ^ (sid >>> 32))) & mask;
+            while (xpaths.get(i) != null) {
+                if (sids[i] == sid) {
+                    return; // StringIDs are unique per xpath
+                }
+                i = (i + 1) & mask;
+            }
+            sids[i] = sid;
+            xpaths.set(i, xpath); // publishes sids[i]
+        }
+    }
+
+    private static int spread(int h) {
+        h ^= (h >>> 16);
+        h *= 0x85ebca6b;
+        return h ^ (h >>> 13);
+    }
+
+    private volatile XpathToId xpathToId = new XpathToId(INITIAL_CAPACITY);
+    private volatile StringIdToXpath sidToXpath = new StringIdToXpath(INITIAL_CAPACITY);
+    private volatile AtomicReferenceArray<String> idToXpath = new AtomicReferenceArray<String>(INITIAL_CAPACITY);
+    private volatile int size = 0;
+    private int resizes = 0;
+
+    /**
+     * @return the xpid of the xpath, or {@link XPathTable#NO_XPATH} if not present
+     */
+    public int getId(String xpath) {
+        return xpathToId.get(xpath);
+    }
+
+    /**
+     * @return the xpath with this xpid, or null if not present
+     */
+    public String getXpath(int id) {
+        AtomicReferenceArray<String> table = idToXpath;
+        if (id < 0 || id >= table.length()) {
+            return null;
+        }
+        return table.get(id);
+    }
+
+    /**
+     * @return the xpath with this StringID, or null if not present
+     */
+    public String getXpathByStringId(long sid) {
+        return sidToXpath.get(sid);
+    }
+
+    /**
+     * Add a mapping. Adding the same xpath again with a different id replaces its id.
+     *
+     * @param id the xpid
+     * @param xpath the xpath
+     * @param sid the StringID of the xpath
+     */
+    public synchronized void put(int id, String xpath, long sid) {
+        if (id < 0) {
+            throw new IllegalArgumentException("Bad xpid " + id + " for " + xpath);
+        }
+        if ((size + 1) * 2 > xpathToId.ids.length) {
+            grow();
+        }
+        AtomicReferenceArray<String> table = idToXpath;
+        if (id >= table.length()) {
+            int newLength = table.length();
+            while (id >= newLength) {
+                newLength *= 2;
+            }
+            AtomicReferenceArray<String> newTable = new AtomicReferenceArray<String>(newLength);
+            for (int i = 0; i < table.length(); i++) {
+                newTable.set(i, table.get(i));
+            }
+            idToXpath = table = newTable;
+        }
+        table.set(id, xpath);
+        sidToXpath.put(sid, xpath);
+        if (xpathToId.put(xpath, id)) {
+            size++;
+        }
+    }
+
+    /**
+     * Double the capacity of the hashed maps. Readers continue to use the old maps until the new ones are published.
+     */
+    private void grow() {
+        XpathToId oldIds = xpathToId;
+        StringIdToXpath oldSids = sidToXpath;
+        int capacity = oldIds.ids.length * 2;
+        XpathToId newIds = new XpathToId(capacity);
+        for (int i = 0; i < oldIds.ids.length; i++) {
+            String xpath = oldIds.xpaths.get(i);
+            if (xpath != null) {
+                newIds.put(xpath, oldIds.ids[i]);
+            }
+        }
+        StringIdToXpath newSids = new StringIdToXpath(capacity);
+        for (int i = 0; i < oldSids.sids.length; i++) {
+            String xpath = oldSids.xpaths.get(i);
+            if (xpath != null) {
+                newSids.put(oldSids.sids[i], xpath);
+            }
+        }
+        xpathToId = newIds;
+        sidToXpath = newSids;
+        resizes++;
+    }
+
+    /**
+     * @return the number of xpaths in the table
+     */
+    public int size() {
+        return size;
+    }
+
+    public synchronized String stats() {
+        return "XPathIdTable size:" + size + ", capacity:" + xpathToId.ids.length + ", idCapacity:" + idToXpath.length()
+            + ", resizes:" + resizes;
+    }
+}
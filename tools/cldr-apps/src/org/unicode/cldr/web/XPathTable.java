@@ -14,15 +14,17 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
-import java.util.Hashtable;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
 import org.unicode.cldr.icu.LDMLConstants;
 import org.unicode.cldr.util.CLDRConfig;
 import org.unicode.cldr.util.CLDRConfig.Environment;
+import org.unicode.cldr.util.DistinguishedXPathBuilder;
 import org.unicode.cldr.util.LDMLUtilities;
 import org.unicode.cldr.util.PrettyPath;
 import org.unicode.cldr.util.StringId;
@@ -78,13 +80,14 @@ public class XPathTable {
     }
 
     private void loadXPaths(Connection conn) throws SQLException {
-        if (stringToId.size() != 0) { // Only load the entire stringToId map
+        if (ids.size() != 0) { // Only load the entire table
             // once.
             return;
         }
         ElapsedTimer et = new ElapsedTimer("XPathTable: load all xpaths");
         int ixpaths = 0;
         PreparedStatement queryStmt = DBUtils.prepareForwardReadOnly(conn, "SELECT id,xpath FROM " + CLDR_XPATHS);
+        queryStmt.setFetchSize(BATCH_SIZE);
         // First, try to query it back from the DB.
         ResultSet rs = queryStmt.executeQuery();
         while (rs.next()) {
@@ -148,12 +151,19 @@ public class XPathTable {
         }
     }
 
-    public Hashtable<String, Integer> stringToId = new Hashtable<String, Integer>(4096); // public for statistics only
-    public Hashtable<Long, String> sidToString = new Hashtable<Long, String>(4096); // public for statistics only
+    /**
+     * xpath to id, id to xpath, and StringID to xpath. Lookups don't lock.
+     */
+    private final XPathIdTable ids = new XPathIdTable();
+
+    /**
+     * Number of rows per JDBC batch when adding xpaths
+     */
+    private static final int BATCH_SIZE = 500;
 
     public String statistics() {
         return "DB: " + stat_dbAdd + "add/" + stat_dbFetch + "fetch/"
-            + (stat_dbAdd + stat_dbFetch) + "total." + "-" + idStats();
+            + (stat_dbAdd + stat_dbFetch) + "total." + "-" + ids.stats();
     }
 
     private static int stat_dbAdd = 0;
@@ -162,37 +172,22 @@ public class XPathTable {
     public XPathTable() {
     }
 
-    /**
-     * SpecialTable implementation
-     */
-    IntHash<String> xptHash = new IntHash<String>();
-
-    String idToString_put(int id, String str) {
-        return xptHash.put(id, str);
-    }
-
-    String idToString_get(int id) {
-        return xptHash.get(id);
-    }
-
-    String idStats() {
-        return xptHash.stats();
-    }
-
-    /** END specialtable implementation */
-
     /**
      * Loads all xpath-id mappings from the database. If there are any xpaths in
      * the specified XMLSource which are not already in the database, they will
      * be created here.
      */
-    public synchronized void loadXPaths(XMLSource source) {
+    public void loadXPaths(XMLSource source) {
         // Get list of xpaths that aren't already loaded.
         Set<String> unloadedXpaths = new HashSet<String>();
         for (String xpath : source) {
-            unloadedXpaths.add(xpath);
+            if (ids.getId(xpath) == NO_XPATH) {
+                unloadedXpaths.add(xpath);
+            }
+        }
+        if (unloadedXpaths.isEmpty()) {
+            return;
         }
-        unloadedXpaths.removeAll(stringToId.keySet());
 
         Connection conn = null;
         PreparedStatement queryStmt = null;
@@ -220,53 +215,84 @@ public class XPathTable {
     }
 
     /**
-     * Add a set of xpaths to the database.
+     * Add a set of xpaths to the database, BATCH_SIZE rows per JDBC batch, and then read back their ids.
      *
      * @param xpaths
      * @param conn
      * @throws SQLException
      */
     private synchronized void addXpaths(Set<String> xpaths, Connection conn) throws SQLException {
-        if (xpaths.size() == 0)
+        // another thread may have added some of them while we waited
+        List<String> toAdd = new ArrayList<String>(xpaths.size());
+        for (String xpath : xpaths) {
+            if (ids.getId(xpath) == NO_XPATH) {
+                toAdd.add(xpath);
+            }
+        }
+        if (toAdd.size() == 0)
             return;
 
-        PreparedStatement queryStmt = null;
         PreparedStatement insertStmt = null;
-        // Insert new xpaths.
-        insertStmt = conn.prepareStatement("INSERT INTO " + CLDR_XPATHS + " (xpath) " + " values ("
-            + " ?)");
-        for (String xpath : xpaths) {
-            insertStmt.setString(1, Utility.escape(xpath));
-            insertStmt.addBatch();
-            stat_dbAdd++;
+        try {
+            // Insert new xpaths.
+            insertStmt = conn.prepareStatement("INSERT INTO " + CLDR_XPATHS + " (xpath) " + " values ("
+                + " ?)");
+            int batched = 0;
+            for (String xpath : toAdd) {
+                insertStmt.setString(1, Utility.escape(xpath));
+                insertStmt.addBatch();
+                stat_dbAdd++;
+                if (++batched == BATCH_SIZE) {
+                    insertStmt.executeBatch();
+                    batched = 0;
+                }
+            }
+            if (batched > 0) {
+                insertStmt.executeBatch();
+            }
+            conn.commit();
+        } finally {
+            DBUtils.close(insertStmt);
         }
-        insertStmt.executeBatch();
-        conn.commit();
-        insertStmt.close();
 
-        // PreparedStatement.getGeneratedKeys() only returns the ID of the
-        // last INSERT statement, so we have to improvise here by performing
+        // PreparedStatement.getGeneratedKeys() isn't reliable for batches,
+        // so we have to improvise here by performing
         // another SELECT to get the newly-inserted IDs.
-        queryStmt = conn.prepareStatement("SELECT id,xpath FROM " + CLDR_XPATHS + " ORDER BY id DESC");
-        queryStmt.setMaxRows(xpaths.size());
-        queryStmt.setFetchSize(xpaths.size());
-        ResultSet rs = queryStmt.executeQuery();
-        while (rs.next()) {
-            int id = rs.getInt(1);
-            String xpath = Utility.unescape(rs.getString(2));
-            setById(id, xpath);
+        for (int start = 0; start < toAdd.size(); start += BATCH_SIZE) {
+            List<String> chunk = toAdd.subList(start, Math.min(start + BATCH_SIZE, toAdd.size()));
+            StringBuilder sql = new StringBuilder("SELECT id,xpath FROM " + CLDR_XPATHS + " WHERE xpath IN (");
+            for (int i = 0; i < chunk.size(); i++) {
+                sql.append(i == 0 ? "?" : ",?");
+            }
+            sql.append(")");
+            PreparedStatement queryStmt = null;
+            ResultSet rs = null;
+            try {
+                queryStmt = conn.prepareStatement(sql.toString());
+                for (int i = 0; i < chunk.size(); i++) {
+                    queryStmt.setString(i + 1, Utility.escape(chunk.get(i)));
+                }
+                rs = queryStmt.executeQuery();
+                while (rs.next()) {
+                    int id = rs.getInt(1);
+                    String xpath = Utility.unescape(rs.getString(2));
+                    setById(id, xpath);
+                }
+            } finally {
+                DBUtils.close(rs, queryStmt);
+            }
         }
-        queryStmt.close();
     }
 
     /**
      * @return the xpath's id (as an Integer)
      */
     private synchronized Integer addXpath(String xpath, boolean addIfNotFound, Connection inConn) {
-        Integer nid = (Integer) stringToId.get(xpath); // double check
-        if (nid != null) {
-            return nid;
+        int xpid = ids.getId(xpath); // double check
+        if (xpid != NO_XPATH) {
+            return xpid;
         }
+        Integer nid;
 
         Connection conn = null;
         PreparedStatement queryStmt = null;
@@ -351,7 +377,7 @@ public class XPathTable {
         if (id == -1) {
             return null;
         }
-        String s = idToString_get(id);
+        String s = ids.getXpath(id);
         if (s != null) {
             return s;
         }
@@ -366,8 +392,7 @@ public class XPathTable {
      * @param xpath
      */
     public final void setById(int id, String xpath) {
-        stringToId.put(idToString_put(id, xpath), id);
-        sidToString.put(getStringID(xpath), xpath);
+        ids.put(id, xpath, getStringID(xpath));
     }
 
     /**
@@ -378,9 +403,9 @@ public class XPathTable {
      * @return the id for the specified path
      */
     public final int getByXpath(String xpath) {
-        Integer nid = (Integer) stringToId.get(xpath);
-        if (nid != null) {
-            return nid.intValue();
+        int nid = ids.getId(xpath);
+        if (nid != NO_XPATH) {
+            return nid;
         } else {
             return addXpath(xpath, true, null).intValue();
         }
@@ -393,9 +418,9 @@ public class XPathTable {
      * @return id, or -1 if not found
      */
     public final int peekByXpath(String xpath) {
-        Integer nid = (Integer) stringToId.get(xpath);
-        if (nid != null) {
-            return nid.intValue();
+        int nid = ids.getId(xpath);
+        if (nid != NO_XPATH) {
+            return nid;
         } else {
             return addXpath(xpath, false, null).intValue();
         }
@@ -409,9 +434,9 @@ public class XPathTable {
      * @return the id for the specified path
      */
     public final int getByXpath(String xpath, Connection conn) {
-        Integer nid = (Integer) stringToId.get(xpath);
-        if (nid != null) {
-            return nid.intValue();
+        int nid = ids.getId(xpath);
+        if (nid != NO_XPATH) {
+            return nid;
         } else {
             return addXpath(xpath, true, conn).intValue();
         }
@@ -424,9 +449,9 @@ public class XPathTable {
      * @return id, or -1 if not found
      */
     public final int peekByXpath(String xpath, Connection conn) {
-        Integer nid = (Integer) stringToId.get(xpath);
-        if (nid != null) {
-            return nid.intValue();
+        int nid = ids.getId(xpath);
+        if (nid != NO_XPATH) {
+            return nid;
         } else {
             return addXpath(xpath, false, conn).intValue();
         }
@@ -512,24 +537,7 @@ public class XPathTable {
      * This is NOT the same as the two-parameter xpathToBaseXpath elsewhere in this file
      */
     public static String xpathToBaseXpath(String xpath) {
-        XPathParts xpp = XPathParts.getInstance(xpath); // not frozen, for removeAttribute
-        Map<String, String> lastAtts = xpp.getAttributes(-1);
-        String oldAlt = (String) lastAtts.get(LDMLConstants.ALT);
-        if (oldAlt == null) {
-            return xpath; // no change
-        }
-
-        String newAlt = LDMLUtilities.parseAlt(oldAlt)[0]; // #0 : altType
-        if (newAlt == null) {
-            xpp.removeAttribute(-1, LDMLConstants.ALT); // alt dropped out existence
-        } else if (newAlt.equals(oldAlt)) {
-            return xpath; // No change
-        } else {
-            xpp.putAttributeValue(-1, LDMLConstants.ALT, newAlt);
-        }
-        String newXpath = xpp.toString();
-        // SurveyLog.logger.warning("xp2Bxp: " + xpath + " --> " + newXpath);
-        return newXpath;
+        return DistinguishedXPathBuilder.getInstance().set(xpath).getBaseXPath();
     }
 
     /**
@@ -685,7 +693,7 @@ public class XPathTable {
      * @return Number of xpaths in the table
      */
     public int count() {
-        return stringToId.size();
+        return ids.size();
     }
 
     /**
@@ -744,19 +752,13 @@ public class XPathTable {
 
     public String getByStringID(String id) {
         if (id == null) return null;
-        Long l = Long.parseLong(id, 16);
-        String s = sidToString.get(l);
+        long l = Long.parseLong(id, 16);
+        String s = ids.getXpathByStringId(l);
         if (s != null)
             return s;
-        // slow way
-        for (String x : stringToId.keySet()) {
-            if (getStringID(x) == l) {
-                sidToString.put(l, x);
-                return x;
-            }
-        }
+        // every xpath in the table is also in the StringID map, so there's no slow way
         if (SurveyMain.isUnofficial())
-            System.err.println("xpt: Couldn't find stringid " + id + " - sid has " + sidToString.size());
+            System.err.println("xpt: Couldn't find stringid " + id + " - sid has " + ids.size());
         // it may be
         return null;
     }
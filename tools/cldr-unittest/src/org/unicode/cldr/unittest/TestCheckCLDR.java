@@ -165,6 +165,60 @@ public class TestCheckCLDR extends TestFmwk {
         }
     }
 
+    /**
+     * Test that a change to one path only invalidates the cached results that read it
+     */
+    public void TestTestCacheInvalidation() {
+        String localeString = "fr";
+        CLDRLocale locale = CLDRLocale.getInstance(localeString);
+        CheckCLDR.Options checkCldrOptions = new Options(locale, Phase.SUBMISSION, "default", "basic");
+        TestCache testCache = new TestCache();
+        // the checks that the Survey Tool runs
+        testCache.setFactory(testInfo.getCldrFactory(), "(?!.*(CheckCoverage).*).*");
+        TestResultBundle bundle = testCache.getBundle(checkCldrOptions);
+        final CLDRFile cldrFile = testInfo.getCLDRFile(localeString, true);
+        final String changedPath = "//ldml/localeDisplayNames/languages/language[@type=\"de\"]";
+        final String otherPath = "//ldml/numbers/currencies/currency[@type=\"EUR\"]/displayName";
+
+        List<CheckStatus> result = new ArrayList<CheckStatus>();
+        bundle.check(changedPath, result, cldrFile.getStringValue(changedPath));
+        List<CheckStatus> firstResult = new ArrayList<CheckStatus>(result);
+        bundle.check(otherPath, result, cldrFile.getStringValue(otherPath));
+        bundle.check(changedPath, result, cldrFile.getStringValue(changedPath));
+        Map<String, Long> stats = testCache.getStatistics();
+        assertEquals("misses before change", 2L, (long) stats.get("misses"));
+        assertEquals("hits before change", 1L, (long) stats.get("hits"));
+
+        // neither the setup nor a check with derived state reads a language name
+        SimpleXMLSource changedSource = new SimpleXMLSource(localeString);
+        changedSource.putValueAtDPath(changedPath, cldrFile.getStringValue(changedPath));
+        testCache.valueChanged(changedPath, changedSource);
+        stats = testCache.getStatistics();
+        assertEquals("changes", 1L, (long) stats.get("changes"));
+        assertEquals("bundles invalidated", 0L, (long) stats.get("bundlesInvalidated"));
+        assertTrue("changed path's result invalidated", stats.get("entriesInvalidated") > 0);
+        assertTrue("bundle kept", bundle == testCache.getBundle(checkCldrOptions));
+
+        bundle.check(changedPath, result, cldrFile.getStringValue(changedPath));
+        assertEquals("changed path is checked again", 3L, (long) testCache.getStatistics().get("misses"));
+        assertEquals("same result after recheck", firstResult.toString(), result.toString());
+        bundle.check(otherPath, result, cldrFile.getStringValue(otherPath));
+        assertEquals("unrelated path still cached", 2L, (long) testCache.getStatistics().get("hits"));
+
+        // CheckNumbers caches the decimal symbols it reads while checking a pattern,
+        // so a change to one of them must drop the whole bundle
+        final String patternPath = "//ldml/numbers/decimalFormats[@numberSystem=\"latn\"]/decimalFormatLength/decimalFormat[@type=\"standard\"]/pattern[@type=\"standard\"]";
+        final String decimalPath = "//ldml/numbers/symbols[@numberSystem=\"latn\"]/decimal";
+        bundle.check(patternPath, result, cldrFile.getStringValue(patternPath));
+        changedSource.putValueAtDPath(decimalPath, cldrFile.getStringValue(decimalPath));
+        testCache.valueChanged(decimalPath, changedSource);
+        assertEquals("bundles invalidated by derived state", 1L, (long) testCache.getStatistics().get("bundlesInvalidated"));
+        TestResultBundle newBundle = testCache.getBundle(checkCldrOptions);
+        assertTrue("bundle rebuilt", bundle != newBundle);
+        newBundle.check(otherPath, result, cldrFile.getStringValue(otherPath));
+        assertEquals("rebuilt bundle checks again", 5L, (long) testCache.getStatistics().get("misses"));
+    }
+
     /**
      * Test the "collisionless" error/warning messages.
      */
@@ -1,5 +1,6 @@
 package org.unicode.cldr.unittest;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Date;
 import java.util.EnumSet;
@@ -21,6 +22,7 @@ import org.unicode.cldr.util.CLDRPaths;
 import org.unicode.cldr.util.ChainedMap;
 import org.unicode.cldr.util.ChainedMap.M4;
 import org.unicode.cldr.util.Counter2;
+import org.unicode.cldr.util.CoverageLevelTable;
 import org.unicode.cldr.util.DtdData;
 import org.unicode.cldr.util.DtdData.Element;
 import org.unicode.cldr.util.DtdType;
@@ -622,6 +624,21 @@ public class TestCoverageLevel extends TestFmwkPlus {
         }
     }
 
+    public void testCoverageLevelTable() {
+        List<String> paths = new ArrayList<String>();
+        for (String path : ENGLISH.fullIterable()) {
+            paths.add(path);
+        }
+        CoverageLevel2 coverageLevel = CoverageLevel2.getInstance(SDI, "de");
+        CoverageLevelTable table = coverageLevel.getLevels(paths);
+        assertEquals("language", "de", table.getLanguage());
+        assertEquals("size", new HashSet<String>(paths).size(), table.size());
+        for (String path : paths) {
+            assertEquals(path, coverageLevel.getLevel(path), table.getLevel(path));
+        }
+        assertNull("missing path", table.getLevel("//ldml/not/a/path"));
+    }
+
     public void testBreakingLogicalGrouping() {
         checkBreakingLogicalGrouping("en");
         checkBreakingLogicalGrouping("ar");
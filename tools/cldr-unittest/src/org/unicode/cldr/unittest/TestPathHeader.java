@@ -220,6 +220,20 @@ public class TestPathHeader extends TestFmwkPlus {
         }
     }
 
+    public void TestFromPaths() {
+        Set<String> paths = new HashSet<>();
+        CollectionUtilities.addAll(english.fullIterable().iterator(), paths);
+        Map<String, PathHeader> bulk = pathHeaderFactory.fromPaths(paths);
+        for (String path : paths) {
+            PathHeader pathHeader = pathHeaderFactory.fromPath(path);
+            if (pathHeader == null) {
+                assertFalse("no header expected for " + path, bulk.containsKey(path));
+            } else {
+                assertEquals(path, pathHeader, bulk.get(path));
+            }
+        }
+    }
+
     public void Test6170() {
         String p1 = "//ldml/units/unitLength[@type=\"narrow\"]/unit[@type=\"speed-kilometer-per-hour\"]/unitPattern[@count=\"other\"]";
         String p2 = "//ldml/units/unitLength[@type=\"narrow\"]/unit[@type=\"area-square-meter\"]/unitPattern[@count=\"other\"]";
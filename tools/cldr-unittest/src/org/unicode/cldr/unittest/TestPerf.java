@@ -1,18 +1,43 @@
 package org.unicode.cldr.unittest;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import org.unicode.cldr.icu.IcuData;
+import org.unicode.cldr.icu.LocaleMapper;
+import org.unicode.cldr.icu.NewLdml2IcuConverter;
 import org.unicode.cldr.util.CLDRConfig;
 import org.unicode.cldr.util.CLDRFile;
+import org.unicode.cldr.util.CLDRPaths;
+import org.unicode.cldr.util.DistinguishedXPathBuilder;
 import org.unicode.cldr.util.DtdData;
 import org.unicode.cldr.util.DtdData.AttributeValueComparator;
 import org.unicode.cldr.util.DtdType;
+import org.unicode.cldr.util.Factory;
+import org.unicode.cldr.util.LDMLUtilities;
+import org.unicode.cldr.util.PathHeader;
+import org.unicode.cldr.util.RegexLookup;
+import org.unicode.cldr.util.RegexLookup.LookupType;
+import org.unicode.cldr.util.SupplementalDataInfo;
 import org.unicode.cldr.util.Timer;
+import org.unicode.cldr.util.XPathCursor;
 import org.unicode.cldr.util.XPathParts;
 
 import com.ibm.icu.dev.util.CollectionUtilities;
@@ -133,6 +158,96 @@ public class TestPerf extends TestFmwkPlus {
         assertEquals("", elementSize, size / ITERATIONS);
     }
 
+    public void TestConcurrentFrozenXPathParts() throws Exception {
+        final int threads = Math.max(2, Runtime.getRuntime().availableProcessors());
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            Timer t = new Timer();
+            t.start();
+            Set<Future<Integer>> futures = new HashSet<Future<Integer>>();
+            for (int j = 0; j < threads; ++j) {
+                futures.add(pool.submit(() -> {
+                    int size = 0;
+                    for (String p : testPaths) {
+                        for (int i = 0; i < ITERATIONS; ++i) {
+                            size += XPathParts.getFrozenInstance(p).size();
+                        }
+                    }
+                    return size;
+                }));
+            }
+            for (Future<Integer> future : futures) {
+                assertEquals("", elementSize, future.get() / ITERATIONS);
+            }
+            long duration = t.stop();
+            logln("threads: " + threads + "\t" + t.toString(threads * ITERATIONS * testPaths.size()));
+            assertRelation("", true, duration / ITERATIONS / 1000000.0, LEQ, 50.0 * threads);
+        } finally {
+            pool.shutdown();
+            pool.awaitTermination(1, TimeUnit.MINUTES);
+        }
+    }
+
+    public void TestRegexLookupTypes() throws Exception {
+        RegexLookup<String> tree = RegexLookup.<String> of(LookupType.OPTIMIZED_DIRECTORY_PATTERN_LOOKUP, RegexLookup.RegexFinderTransformPath)
+            .loadFromFile(PathHeader.class, "data/PathHeader.txt");
+        RegexLookup<String> trie = RegexLookup.<String> of(LookupType.PREFIX_TRIE_LOOKUP, RegexLookup.RegexFinderTransformPath)
+            .loadFromFile(PathHeader.class, "data/PathHeader.txt");
+        assertEquals("size", tree.size(), trie.size());
+
+        // same results, including the arguments
+        Output<String[]> treeArgs = new Output<String[]>();
+        Output<String[]> trieArgs = new Output<String[]>();
+        for (String path : sortedArray) {
+            String treeValue = tree.get(path, null, treeArgs);
+            String trieValue = trie.get(path, null, trieArgs);
+            if (!assertEquals(path, treeValue, trieValue) || treeValue == null) {
+                continue;
+            }
+            assertEquals(path, Arrays.asList(treeArgs.value), Arrays.asList(trieArgs.value));
+        }
+
+        // warmup done above
+        double treeSeconds = timeRegexLookup(tree, 1);
+        double trieSeconds = timeRegexLookup(trie, 1);
+        final int threads = Math.max(2, Runtime.getRuntime().availableProcessors());
+        double trieThreadedSeconds = timeRegexLookup(trie, threads);
+        logln("RegexLookup seconds per pass over " + sortedArray.length + " paths:"
+            + "\tOPTIMIZED_DIRECTORY_PATTERN_LOOKUP: " + treeSeconds
+            + "\tPREFIX_TRIE_LOOKUP: " + trieSeconds
+            + "\tPREFIX_TRIE_LOOKUP with " + threads + " threads: " + trieThreadedSeconds
+            + "\tratio: " + trieSeconds / treeSeconds);
+    }
+
+    /**
+     * Time ITERATIONS passes over the sorted paths, split across the given number of threads; returns seconds per pass.
+     */
+    private double timeRegexLookup(final RegexLookup<String> lookup, int threads) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            Timer timer = new Timer();
+            Set<Future<?>> futures = new HashSet<Future<?>>();
+            for (int j = 0; j < threads; ++j) {
+                final int start = j;
+                final int step = threads;
+                futures.add(pool.submit(() -> {
+                    for (int i = 0; i < ITERATIONS; ++i) {
+                        for (int k = start; k < sortedArray.length; k += step) {
+                            lookup.get(sortedArray[k], null, null);
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            timer.stop();
+            return timer.getSeconds() / ITERATIONS;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
     public void TestXPathPartsWithComparators() {
         for (String path : sortedArray) {
             XPathParts newParts = XPathParts.getFrozenInstance(path);
@@ -141,6 +256,174 @@ public class TestPerf extends TestFmwkPlus {
         }
     }
 
+    public void TestXPathCursor() {
+        XPathCursor cursor = new XPathCursor();
+        for (String path : sortedArray) {
+            String fullPath = CLDRConfig.getInstance().getEnglish().getFullXPath(path);
+            XPathParts parts = XPathParts.getFrozenInstance(fullPath);
+            cursor.set(fullPath);
+            assertEquals(fullPath, parts.size(), cursor.getElementCount());
+            for (int e = 0; e < parts.size(); ++e) {
+                assertEquals(fullPath, parts.getElement(e), cursor.getElement(e));
+                assertEquals(fullPath, parts.getAttributeCount(e), cursor.getAttributeCount(e));
+                for (int a = cursor.getFirstAttribute(e); a < cursor.getLimitAttribute(e); ++a) {
+                    assertEquals(fullPath, parts.getAttributeValue(e, cursor.getAttributeName(a)), cursor.getAttributeValue(a));
+                }
+            }
+        }
+    }
+
+    public void TestDistinguishedXPathBuilder() {
+        List<String> fullPaths = new ArrayList<String>();
+        for (String path : sortedArray) {
+            fullPaths.add(CLDRConfig.getInstance().getEnglish().getFullXPath(path));
+        }
+        fullPaths.add("//ldml/foo[@alt=\"short\"][@draft=\"unconfirmed\"]/bar[@alt=\"variant-proposed-x333\"]");
+        fullPaths.add("//ldml/localeDisplayNames/languages/language[@type=\"en\"][@alt=\"proposed-x222\"][@draft=\"provisional\"]");
+        fullPaths.add("//ldml/localeDisplayNames/languages/language[@alt=\"short-proposed-x222\"][@type=\"en\"]");
+        DistinguishedXPathBuilder builder = new DistinguishedXPathBuilder();
+        String[] normalized = new String[1];
+        for (String fullPath : fullPaths) {
+            builder.set(fullPath);
+            if (!fullPath.startsWith("//ldml/foo")) {
+                String[] expectedNormalized = new String[1];
+                assertEquals("distinguishing " + fullPath, xpathPartsDistinguishing(fullPath, expectedNormalized),
+                    builder.getDistinguishingXPath(normalized));
+                assertEquals("normalized " + fullPath, expectedNormalized[0], normalized[0]);
+            }
+            assertEquals("nondraft nonalt " + fullPath, xpathPartsNondraftNonalt(fullPath), builder.getNondraftNonaltXPath());
+            assertEquals("base " + fullPath, xpathPartsBase(fullPath), builder.getBaseXPath());
+        }
+        assertEquals("unchanged path is returned as is", true, builder.set(sortedArray[0]).getBaseXPath() == sortedArray[0]);
+
+        // warmup
+        timeXPathForms(fullPaths, true, 1);
+        timeXPathForms(fullPaths, false, 1);
+        double builderSeconds = timeXPathForms(fullPaths, true, ITERATIONS);
+        double xpathPartsSeconds = timeXPathForms(fullPaths, false, ITERATIONS);
+        logln("seconds per pass computing the distinguishing, nondraft-nonalt and base forms of " + fullPaths.size()
+            + " paths:\tDistinguishedXPathBuilder: " + builderSeconds + "\tXPathParts: " + xpathPartsSeconds
+            + "\tratio: " + builderSeconds / xpathPartsSeconds);
+    }
+
+    private double timeXPathForms(List<String> paths, boolean useBuilder, int iterations) {
+        DistinguishedXPathBuilder builder = new DistinguishedXPathBuilder();
+        int length = 0;
+        Timer timer = new Timer();
+        for (int i = 0; i < iterations; ++i) {
+            for (String path : paths) {
+                if (useBuilder) {
+                    builder.set(path);
+                    length += builder.getDistinguishingXPath(null).length();
+                    length += builder.getNondraftNonaltXPath().length();
+                    length += builder.getBaseXPath().length();
+                } else {
+                    length += xpathPartsDistinguishing(path, null).length();
+                    length += xpathPartsNondraftNonalt(path).length();
+                    length += xpathPartsBase(path).length();
+                }
+            }
+        }
+        timer.stop();
+        assertRelation("length", true, length, GEQ, 0);
+        return timer.getSeconds() / iterations;
+    }
+
+    /**
+     * The distinguishing path computed with XPathParts, as CLDRFile used to do
+     */
+    private static String xpathPartsDistinguishing(String xpath, String[] normalizedPath) {
+        XPathParts parts = XPathParts.getInstance(xpath);
+        DtdData dtdData = parts.getDtdData();
+        String draft = null;
+        String alt = null;
+        String references = "";
+        for (int i = 0; i < parts.size() - 1; ++i) {
+            Map<String, String> attributes = parts.getAttributes(i);
+            Set<String> toRemove = new HashSet<String>();
+            for (Entry<String, String> entry : attributes.entrySet()) {
+                String attribute = entry.getKey();
+                if (attribute.equals("draft")) {
+                    draft = entry.getValue();
+                } else if (attribute.equals("alt")) {
+                    alt = entry.getValue();
+                } else if (attribute.equals("references")) {
+                    references += (references.isEmpty() ? "" : " ") + entry.getValue();
+                } else {
+                    continue;
+                }
+                toRemove.add(attribute);
+            }
+            parts.removeAttributes(i, toRemove);
+        }
+        if (normalizedPath != null) {
+            normalizedPath[0] = null;
+        }
+        if (draft != null || alt != null || !references.isEmpty()) {
+            int placementIndex = parts.size() - 1;
+            while (dtdData.isOrdered(parts.getElement(placementIndex))) {
+                --placementIndex;
+            }
+            if (draft != null) {
+                parts.putAttributeValue(placementIndex, "draft", draft);
+            }
+            if (alt != null) {
+                parts.putAttributeValue(placementIndex, "alt", alt);
+            }
+            if (!references.isEmpty()) {
+                parts.putAttributeValue(placementIndex, "references", references);
+            }
+            if (normalizedPath != null && !parts.toString().equals(xpath)) {
+                normalizedPath[0] = parts.toString();
+            }
+        }
+        for (int i = 0; i < parts.size(); ++i) {
+            Set<String> toRemove = new HashSet<String>();
+            for (String attribute : parts.getAttributeKeys(i)) {
+                if (!dtdData.isDistinguishing(parts.getElement(i), attribute)) {
+                    toRemove.add(attribute);
+                }
+            }
+            parts.removeAttributes(i, toRemove);
+        }
+        return parts.toString();
+    }
+
+    /**
+     * The nondraft-nonalt path computed with XPathParts, as CLDRFile used to do
+     */
+    private static String xpathPartsNondraftNonalt(String xpath) {
+        XPathParts parts = XPathParts.getInstance(xpath);
+        for (int i = 0; i < parts.size(); ++i) {
+            parts.removeAttribute(i, "draft");
+            String alt = parts.getAttributeValue(i, "alt");
+            if (alt != null) {
+                int proposedPos = alt.indexOf("proposed");
+                if (proposedPos >= 0) {
+                    parts.putAttributeValue(i, "alt", proposedPos > 0 ? alt.substring(0, proposedPos - 1) : null);
+                }
+            }
+        }
+        return parts.toString();
+    }
+
+    /**
+     * The base path computed with XPathParts, as XPathTable used to do
+     */
+    private static String xpathPartsBase(String xpath) {
+        XPathParts parts = XPathParts.getInstance(xpath);
+        String oldAlt = parts.getAttributeValue(-1, "alt");
+        if (oldAlt == null) {
+            return xpath;
+        }
+        String newAlt = LDMLUtilities.parseAlt(oldAlt)[0];
+        if (oldAlt.equals(newAlt)) {
+            return xpath;
+        }
+        parts.putAttributeValue(-1, "alt", newAlt);
+        return parts.toString();
+    }
+
     public void TestPathComparison() {
         DtdData dtdData = DtdData.getInstance(DtdType.ldml);
         AttributeValueComparator avc = new AttributeValueComparator() {
@@ -196,6 +479,126 @@ public class TestPerf extends TestFmwkPlus {
         return timer.getSeconds() / iterations;
     }
 
+    public void TestLdml2IcuPipeline() throws IOException {
+        // A few locales with parents, to keep the test small.
+        String locales = "(de|fr)(_CH)?";
+        final int workers = Math.max(2, Runtime.getRuntime().availableProcessors());
+        Path warmupDir = Files.createTempDirectory("ldml2icu-warmup");
+        Path serialDir = Files.createTempDirectory("ldml2icu-serial");
+        Path pipelinedDir = Files.createTempDirectory("ldml2icu-pipelined");
+        try {
+            // warmup, so neither timing includes the loading of the shared data
+            timeLdml2Icu(warmupDir, 1, "de");
+            timeLdml2Icu(warmupDir, workers, "de");
+
+            double serialSeconds = timeLdml2Icu(serialDir, 1, locales);
+            double pipelinedSeconds = timeLdml2Icu(pipelinedDir, workers, locales);
+            logln("NewLdml2IcuConverter seconds for " + locales + ":\tserial: " + serialSeconds
+                + "\tpipelined with " + workers + " workers: " + pipelinedSeconds
+                + "\tratio: " + pipelinedSeconds / serialSeconds);
+
+            // the output must be the same
+            List<Path> serialFiles = listFiles(serialDir);
+            assertEquals("files", serialFiles, listFiles(pipelinedDir));
+            for (Path file : serialFiles) {
+                assertTrue(file.toString(), Arrays.equals(Files.readAllBytes(serialDir.resolve(file)),
+                    Files.readAllBytes(pipelinedDir.resolve(file))));
+            }
+        } finally {
+            deleteAll(warmupDir);
+            deleteAll(serialDir);
+            deleteAll(pipelinedDir);
+        }
+    }
+
+    public void TestLocaleMapperMemoization() {
+        String[] locales = { "de", "de_AT", "de_CH", "fr", "fr_CA", "es", "es_419", "es_MX", "ar", "ar_EG" };
+        Factory factory = CLDRConfig.getInstance().getCldrFactory();
+        SupplementalDataInfo sdi = CLDRConfig.getInstance().getSupplementalDataInfo();
+        // a RegexLookup of all the matchers per locale, as before the converters were shared
+        LocaleMapper perLocale = new LocaleMapper(factory, null, sdi, false, null);
+        perLocale.setPerLocaleLookup(true);
+        perLocale.setMemoizePaths(false);
+        LocaleMapper unmemoized = new LocaleMapper(factory, null, sdi, false, null);
+        unmemoized.setMemoizePaths(false);
+        LocaleMapper memoized = new LocaleMapper(factory, null, sdi, false, null);
+
+        // warmup, and the output must be the same
+        for (String locale : locales) {
+            IcuData expected = perLocale.fillFromCldr(locale)[0];
+            assertSameIcuData(locale + " unmemoized", expected, unmemoized.fillFromCldr(locale)[0]);
+            assertSameIcuData(locale + " memoized", expected, memoized.fillFromCldr(locale)[0]);
+        }
+
+        double perLocaleSeconds = timeLocaleMapper(perLocale, locales);
+        double unmemoizedSeconds = timeLocaleMapper(unmemoized, locales);
+        double memoizedSeconds = timeLocaleMapper(memoized, locales);
+        logln("LocaleMapper seconds per locale:\tper-locale lookup: " + perLocaleSeconds
+            + "\tshared, unmemoized: " + unmemoizedSeconds
+            + "\tshared, memoized: " + memoizedSeconds
+            + "\tratio to per-locale: " + memoizedSeconds / perLocaleSeconds);
+    }
+
+    private void assertSameIcuData(String message, IcuData expected, IcuData actual) {
+        if (!assertEquals(message, expected.keySet(), actual.keySet())) {
+            return;
+        }
+        for (String rbPath : expected.keySet()) {
+            assertEquals(message + " " + rbPath, toStrings(expected.get(rbPath)), toStrings(actual.get(rbPath)));
+        }
+    }
+
+    private double timeLocaleMapper(LocaleMapper mapper, String[] locales) {
+        Timer timer = new Timer();
+        for (String locale : locales) {
+            mapper.fillFromCldr(locale);
+        }
+        timer.stop();
+        return timer.getSeconds() / locales.length;
+    }
+
+    private List<List<String>> toStrings(List<String[]> values) {
+        List<List<String>> result = new ArrayList<List<String>>();
+        for (String[] value : values) {
+            result.add(Arrays.asList(value));
+        }
+        return result;
+    }
+
+    /**
+     * Convert the locales to ICU text files end to end, including the writing; returns seconds.
+     * The locale data is split into sibling directories of the locales directory.
+     */
+    private double timeLdml2Icu(Path outputDir, int workers, String locales) {
+        Timer timer = new Timer();
+        new NewLdml2IcuConverter().processArgs(new String[] {
+            "-s", CLDRPaths.MAIN_DIRECTORY,
+            "-m", CLDRConfig.getInstance().getSupplementalDataInfo().getDirectory().getPath(),
+            "-d", outputDir.resolve("locales").toString(),
+            "-t", "locales",
+            "-w", String.valueOf(workers),
+            locales });
+        timer.stop();
+        return timer.getSeconds();
+    }
+
+    private List<Path> listFiles(final Path dir) throws IOException {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            return paths.filter(Files::isRegularFile)
+                .map(dir::relativize)
+                .sorted()
+                .collect(Collectors.toList());
+        }
+    }
+
+    private void deleteAll(Path dir) throws IOException {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+                Files.delete(path);
+            }
+        }
+    }
+
     public void TestUnused() {
 
     }
@@ -12,6 +12,7 @@ import java.text.NumberFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -20,12 +21,16 @@ import java.util.Random;
 import java.util.Set;
 import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.regex.Matcher;
 
+import org.unicode.cldr.test.CheckCLDR;
 import org.unicode.cldr.tool.ConvertLanguageData.InverseComparator;
 import org.unicode.cldr.util.CLDRConfig;
 import org.unicode.cldr.util.CLDRFile;
 import org.unicode.cldr.util.CLDRLocale;
+import org.unicode.cldr.util.CLDRPaths;
 import org.unicode.cldr.util.CLDRURLS;
 import org.unicode.cldr.util.CldrUtility;
 import org.unicode.cldr.util.Counter;
@@ -37,11 +42,14 @@ import org.unicode.cldr.util.PathHeader;
 import org.unicode.cldr.util.PathHeader.PageId;
 import org.unicode.cldr.util.PatternCache;
 import org.unicode.cldr.util.PluralSamples;
+import org.unicode.cldr.util.SimpleXMLSource;
 import org.unicode.cldr.util.SpecialLocales;
 import org.unicode.cldr.util.StringId;
 import org.unicode.cldr.util.SupplementalDataInfo;
 import org.unicode.cldr.util.SupplementalDataInfo.PluralInfo.Count;
+import org.unicode.cldr.util.VettingViewer;
 import org.unicode.cldr.util.VettingViewer.Choice;
+import org.unicode.cldr.util.VettingViewer.UsersChoice;
 import org.unicode.cldr.util.VettingViewer.VoteStatus;
 import org.unicode.cldr.util.VoteResolver;
 import org.unicode.cldr.util.VoteResolver.CandidateInfo;
@@ -223,6 +231,63 @@ public class TestUtilities extends TestFmwkPlus {
         assertEquals("otherCounter weLost", 0, otherCounter.get(Choice.weLost));
     }
 
+    public void TestVettingViewerSummaryCache() {
+        Factory cldrFactory = Factory.make(CLDRPaths.MAIN_DIRECTORY, "(root|en|de|de_CH|fr|fr_CA)");
+        CheckCLDR.setDisplayInformation(cldrFactory.make("en", true));
+        EnumSet<Choice> choices = EnumSet.of(Choice.error, Choice.warning);
+        VettingViewer.SummaryCache cache = new VettingViewer.SummaryCache();
+        VettingViewer<Organization> serial = makeVettingViewer(cldrFactory);
+        VettingViewer<Organization> cached = makeVettingViewer(cldrFactory).setSummaryCache(cache);
+
+        String expected = getVettingSummary(serial, choices);
+        assertEquals("first cached summary", expected, getVettingSummary(cached, choices));
+        final long computed = cache.getMisses();
+        assertTrue("summaries computed", computed > 0);
+        assertEquals("summaries reused", 0, cache.getHits());
+
+        assertEquals("second cached summary", expected, getVettingSummary(cached, choices));
+        assertEquals("summaries computed again", computed, cache.getMisses());
+        assertEquals("summaries reused", computed, cache.getHits());
+
+        // a change to fr recomputes fr and fr_CA, but not de
+        cache.valueChanged("//ldml/localeDisplayNames/languages/language[@type=\"de\"]", new SimpleXMLSource("fr"));
+        assertEquals("summary after a change", expected, getVettingSummary(cached, choices));
+        final long recomputed = cache.getMisses() - computed;
+        assertTrue("fr summaries recomputed", recomputed > 0);
+        assertTrue("de summaries reused", recomputed < computed);
+        assertEquals("summaries reused after a change", computed + (computed - recomputed), cache.getHits());
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            VettingViewer<Organization> parallel = makeVettingViewer(cldrFactory).setExecutor(executor);
+            assertEquals("parallel summary", expected, getVettingSummary(parallel, choices));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private VettingViewer<Organization> makeVettingViewer(Factory cldrFactory) {
+        UsersChoice<Organization> usersChoice = new UsersChoice<Organization>() {
+            @Override
+            public String getWinningValueForUsersOrganization(CLDRFile cldrFile, String path, Organization user) {
+                return null;
+            }
+
+            @Override
+            public VoteStatus getStatusForUsersOrganization(CLDRFile cldrFile, String path, Organization user) {
+                return VoteStatus.ok;
+            }
+        };
+        return new VettingViewer<Organization>(SUPPLEMENTAL_DATA_INFO, cldrFactory, cldrFactory, usersChoice,
+            "last", "current");
+    }
+
+    private String getVettingSummary(VettingViewer<Organization> vettingViewer, EnumSet<Choice> choices) {
+        StringBuilder output = new StringBuilder();
+        vettingViewer.generateSummaryHtmlErrorTables(output, choices, null, Organization.surveytool);
+        return output.toString();
+    }
+
     public void TestCounter() {
         Counter<String> counter = new Counter<String>(true);
         Comparator<String> uca = new Comparator<String>() {
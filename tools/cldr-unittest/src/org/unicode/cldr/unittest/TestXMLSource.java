@@ -1,14 +1,25 @@
 package org.unicode.cldr.unittest;
 
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeSet;
 
 import org.unicode.cldr.util.CLDRConfig;
 import org.unicode.cldr.util.CLDRFile;
+import org.unicode.cldr.util.CLDRPaths;
 import org.unicode.cldr.util.CldrUtility;
+import org.unicode.cldr.util.Factory;
+import org.unicode.cldr.util.SimpleXMLSource;
+import org.unicode.cldr.util.SnapshotFactory;
+import org.unicode.cldr.util.XMLSnapshot;
 import org.unicode.cldr.util.XMLSource;
 import org.unicode.cldr.util.XPathParts.Comments;
 
@@ -134,4 +145,127 @@ public class TestXMLSource extends TestFmwk {
         }
 
     }
+
+    public void TestSnapshot() throws IOException {
+        Factory factory = CLDRConfig.getInstance().getCldrFactory();
+        File file = File.createTempFile("cldr", ".snapshot");
+        file.deleteOnExit();
+        XMLSnapshot.write(factory, Arrays.asList("en_GB", "fr"), file);
+        SnapshotFactory snapshotFactory = SnapshotFactory.make(file);
+        assertEquals("available", new TreeSet<String>(Arrays.asList("root", "en", "en_001", "en_GB", "fr")),
+            new TreeSet<String>(snapshotFactory.getAvailable()));
+
+        for (String localeID : Arrays.asList("en_GB", "fr")) {
+            for (boolean resolved : Arrays.asList(false, true)) {
+                CLDRFile expected = factory.make(localeID, resolved);
+                CLDRFile actual = snapshotFactory.make(localeID, resolved);
+                Set<String> expectedPaths = new TreeSet<String>();
+                for (String path : expected) {
+                    expectedPaths.add(path);
+                }
+                Set<String> actualPaths = new TreeSet<String>();
+                for (String path : actual) {
+                    actualPaths.add(path);
+                }
+                assertEquals(localeID + " paths", expectedPaths, actualPaths);
+                for (String path : expectedPaths) {
+                    assertEquals(localeID + " value " + path, expected.getStringValue(path), actual.getStringValue(path));
+                    assertEquals(localeID + " full path " + path, expected.getFullXPath(path), actual.getFullXPath(path));
+                }
+            }
+        }
+
+        // prefix iteration only returns the paths with the prefix, in order
+        CLDRFile fr = snapshotFactory.make("fr", false);
+        String prefix = "//ldml/localeDisplayNames/languages/";
+        Set<String> expected = new TreeSet<String>();
+        for (String path : fr) {
+            if (path.startsWith(prefix)) {
+                expected.add(path);
+            }
+        }
+        Set<String> actual = new LinkedHashSet<String>();
+        for (Iterator<String> it = fr.iterator(prefix); it.hasNext();) {
+            actual.add(it.next());
+        }
+        assertEquals("prefix", expected, actual);
+        assertEquals("prefix order", expected.toString(), actual.toString());
+    }
+
+    /**
+     * Prefix iteration over a resolved file that hasn't collected all its paths must give the same paths,
+     * including those only present through aliases, as filtering the full iteration.
+     */
+    public void TestResolvedPrefixIterator() {
+        Factory factory = CLDRConfig.getInstance().getCldrFactory();
+        Factory fresh = Factory.make(CLDRPaths.MAIN_DIRECTORY, ".*");
+        String[] prefixes = {
+            "//ldml/dates/calendars/calendar[@type=\"buddhist\"]/",
+            "//ldml/dates/calendars/calendar[@type=\"japanese\"]/months/",
+            "//ldml/dates/calendars/calendar[@type=\"gregorian\"]/dayPeriods/dayPeriodContext[@type=\"stand-alone\"]",
+            "//ldml/localeDisplayNames/languages/",
+            "//ldml/units/unitLength[@type=\"narrow\"]",
+            "//ldml/numbers/symbols[@numberSystem=\"arab",
+        };
+        for (String localeID : Arrays.asList("de", "ja", "sr_Latn")) {
+            List<String> all = new ArrayList<String>();
+            for (String path : factory.make(localeID, true)) {
+                all.add(path);
+            }
+            assertEquals(localeID + " paths sorted and unique", new TreeSet<String>(all).toString(), all.toString());
+            for (String path : factory.make(localeID, false)) {
+                if (!all.contains(path)) {
+                    errln(localeID + " resolved file is missing " + path);
+                }
+            }
+
+            CLDRFile lazy = fresh.make(localeID, true);
+            for (String prefix : prefixes) {
+                List<String> expected = new ArrayList<String>();
+                for (String path : all) {
+                    if (path.startsWith(prefix)) {
+                        expected.add(path);
+                    }
+                }
+                List<String> actual = new ArrayList<String>();
+                for (Iterator<String> it = lazy.iterator(prefix); it.hasNext();) {
+                    actual.add(it.next());
+                }
+                assertEquals(localeID + " " + prefix, expected.toString(), actual.toString());
+            }
+        }
+    }
+
+    /**
+     * Cached locations of values, including those found through an alias, must be dropped when the value changes.
+     */
+    public void TestResolutionCache() {
+        String gregorian = "//ldml/dates/calendars/calendar[@type=\"gregorian\"]/months/monthContext[@type=\"format\"]/monthWidth[@type=\"wide\"]/month[@type=\"1\"]";
+        String buddhist = gregorian.replace("gregorian", "buddhist");
+        SimpleXMLSource root = new SimpleXMLSource("root");
+        root.putValueAtPath("//ldml/dates/calendars/calendar[@type=\"buddhist\"]/months/alias[@source=\"locale\"][@path=\"../../calendar[@type='gregorian']/months\"]", "");
+        root.putValueAtDPath(gregorian, "M01");
+        SimpleXMLSource xx = new SimpleXMLSource("xx");
+        SimpleXMLSource xx_YY = new SimpleXMLSource("xx_YY");
+        XMLSource.ResolvingSource resolving = new XMLSource.ResolvingSource(Arrays.<XMLSource> asList(xx_YY, xx, root));
+
+        for (int i = 0; i < 2; i++) { // second time from the cache
+            assertEquals("buddhist from root", "M01", resolving.getValueAtDPath(buddhist));
+            assertEquals("buddhist found in", "root", resolving.getSourceLocaleID(buddhist, null));
+            assertEquals("bailey from root", "M01", resolving.getBaileyValue(gregorian, null, null));
+        }
+        assertTrue("cache hits", resolving.getResolutionCacheStats().hitCount() > 0);
+
+        xx.putValueAtDPath(gregorian, "Jan");
+        resolving.valueChanged(gregorian, xx);
+        assertEquals("buddhist from xx", "Jan", resolving.getValueAtDPath(buddhist));
+        assertEquals("buddhist found in", "xx", resolving.getSourceLocaleID(buddhist, null));
+        assertEquals("bailey from xx", "Jan", resolving.getBaileyValue(gregorian, null, null));
+
+        xx_YY.putValueAtDPath(buddhist, "B01");
+        resolving.valueChanged(buddhist, xx_YY);
+        assertEquals("buddhist from xx_YY", "B01", resolving.getValueAtDPath(buddhist));
+        assertEquals("gregorian unchanged", "Jan", resolving.getValueAtDPath(gregorian));
+        logln("cache size " + resolving.getResolutionCacheSize() + ", " + resolving.getResolutionCacheStats());
+    }
 }
@@ -8,12 +8,14 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import org.unicode.cldr.icu.RegexManager.CldrArray;
-import org.unicode.cldr.icu.RegexManager.PathValueInfo;
-import org.unicode.cldr.icu.RegexManager.RegexResult;
+import org.unicode.cldr.icu.RegexManager.PathConverter;
+import org.unicode.cldr.icu.RegexManager.PathMatch;
+import org.unicode.cldr.icu.RegexManager.PathValueMatch;
 import org.unicode.cldr.test.DisplayAndInputProcessor.NumericType;
 import org.unicode.cldr.tool.FilterFactory;
 import org.unicode.cldr.util.Builder;
@@ -23,13 +25,9 @@ import org.unicode.cldr.util.Factory;
 import org.unicode.cldr.util.LanguageTagParser;
 import org.unicode.cldr.util.LocaleIDParser;
 import org.unicode.cldr.util.PatternCache;
-import org.unicode.cldr.util.RegexLookup;
-import org.unicode.cldr.util.RegexLookup.Finder;
 import org.unicode.cldr.util.SupplementalDataInfo;
 //import org.unicode.cldr.util.SupplementalDataInfo.MeasurementType;
 
-import com.ibm.icu.util.Output;
-
 /**
  * A mapper that converts locale data from CLDR to the ICU data structure.
  *
@@ -185,7 +183,7 @@ public class LocaleMapper extends Mapper {
      * @return the set of deprecated territories to be ignored. Remove when no longer
      *         present in CLDR data.
      */
-    private Set<String> getDeprecatedTerritories() {
+    private synchronized Set<String> getDeprecatedTerritories() {
         if (deprecatedTerritories == null) {
             deprecatedTerritories = Builder.with(
                 supplementalDataInfo.getLocaleAliasInfo().get("territory").keySet())
@@ -203,12 +201,52 @@ public class LocaleMapper extends Mapper {
      */
     @Override
     public IcuData[] fillFromCldr(String locale) {
-        Set<String> deprecatedTerritories = getDeprecatedTerritories();
+        return load(locale).call();
+    }
+
+    /**
+     * LocaleMapper keeps no per-locale state, so locales can be converted concurrently.
+     */
+    @Override
+    protected boolean canFillConcurrently() {
+        return true;
+    }
+
+    /**
+     * Makes the CLDRFiles for the specified locale; the returned task fills the IcuData object from them.
+     */
+    @Override
+    protected LocaleConverter load(String locale) {
         CLDRFile resolvedCldr = resolvedFactory.make(locale, true);
-        RegexLookup<RegexResult> pathConverter = manager.getPathConverter(resolvedCldr);
+        CLDRFile cldr = unresolvedFactory.make(locale, false);
+        CLDRFile specialCldrFile = hasSpecialFile(locale) ? specialFactory.make(locale, false) : null;
+        return new LocaleConverter(locale, resolvedCldr, cldr, specialCldrFile);
+    }
+
+    private class LocaleConverter implements Callable<IcuData[]> {
+        private final String locale;
+        private final CLDRFile resolvedCldr;
+        private final CLDRFile cldr;
+        private final CLDRFile specialCldrFile;
+
+        LocaleConverter(String locale, CLDRFile resolvedCldr, CLDRFile cldr, CLDRFile specialCldrFile) {
+            this.locale = locale;
+            this.resolvedCldr = resolvedCldr;
+            this.cldr = cldr;
+            this.specialCldrFile = specialCldrFile;
+        }
+
+        @Override
+        public IcuData[] call() {
+            return fillFromCldr(locale, resolvedCldr, cldr, specialCldrFile);
+        }
+    }
+
+    private IcuData[] fillFromCldr(String locale, CLDRFile resolvedCldr, CLDRFile cldr, CLDRFile specialCldrFile) {
+        Set<String> deprecatedTerritories = getDeprecatedTerritories();
+        PathConverter pathConverter = manager.getPathConverter(resolvedCldr);
 
         // First pass through the unresolved CLDRFile to get all icu paths.
-        CLDRFile cldr = unresolvedFactory.make(locale, false);
         Map<String, CldrArray> pathValueMap = new HashMap<String, CldrArray>();
         Set<String> validRbPaths = new HashSet<String>();
         for (String xpath : cldr) {
@@ -222,14 +260,10 @@ public class LocaleMapper extends Mapper {
             }
 
             // Add rb paths.
-            Output<Finder> matcherFound = new Output<Finder>();
-            Output<String[]> firstInfo = new Output<>();
-            RegexResult regexResult = matchXPath(pathConverter, cldr, xpath, matcherFound, firstInfo);
-            if (regexResult == null) continue;
-//            String[] arguments = matcherFound.value.getInfo();
-            String[] arguments = firstInfo.value;
-            for (PathValueInfo info : regexResult) {
-                String rbPath = info.processRbPath(arguments);
+            PathMatch pathMatch = matchXPath(pathConverter, cldr, xpath);
+            if (pathMatch == null) continue;
+            for (PathValueMatch info : pathMatch) {
+                String rbPath = info.getRbPath();
                 validRbPaths.add(rbPath);
                 // The immediate parent of every path should also exist.
                 validRbPaths.add(rbPath.substring(0, rbPath.lastIndexOf('/')));
@@ -248,9 +282,8 @@ public class LocaleMapper extends Mapper {
         manager.addFallbackValues(resolvedCldr, pathValueMap);
 
         // Add special values to file.
-        boolean hasSpecial = hasSpecialFile(locale);
+        boolean hasSpecial = specialCldrFile != null;
         if (hasSpecial) {
-            CLDRFile specialCldrFile = specialFactory.make(locale, false);
             for (String xpath : specialCldrFile) {
                 if (resolvedCldr.isHere(xpath)) continue;
                 addMatchesForPath(xpath, specialCldrFile, null, pathConverter, pathValueMap);
@@ -309,27 +342,21 @@ public class LocaleMapper extends Mapper {
     /**
      * @param cldr
      * @param path
-     * @param matcherFound
-     * @param firstInfo
      * @return the result of converting an xpath into an ICU-style path
      */
-    private RegexResult matchXPath(RegexLookup<RegexResult> lookup,
-        CLDRFile cldr, String path,
-        Output<Finder> matcherFound, Output<String[]> firstInfo) {
+    private PathMatch matchXPath(PathConverter pathConverter,
+        CLDRFile cldr, String path) {
         String fullPath = cldr.getFullXPath(path);
         fullPath = fullPath == null ? path : DRAFT_PATTERN.matcher(fullPath).replaceAll("");
-        List<String> debugResults = isDebugXPath(fullPath) ? new ArrayList<String>() : null;
-        Output<String[]> info = new Output<>();
-        RegexResult result = lookup.get(fullPath, null, info, matcherFound, debugResults);
-        if (debugResults != null) {
-            if (result == null) {
-                RegexManager.printLookupResults(fullPath, debugResults);
-            } else {
-                System.out.println(fullPath + " successfully matched");
-            }
+        if (!isDebugXPath(fullPath)) {
+            return pathConverter.get(fullPath);
         }
-        if (firstInfo != null && info.value != null) {
-            firstInfo.value = info.value;
+        List<String> debugResults = new ArrayList<String>();
+        PathMatch result = pathConverter.get(fullPath, debugResults);
+        if (result == null) {
+            RegexManager.printLookupResults(fullPath, debugResults);
+        } else {
+            System.out.println(fullPath + " successfully matched");
         }
         return result;
     }
@@ -349,24 +376,19 @@ public class LocaleMapper extends Mapper {
      *            the map that the results will be added to
      */
     private void addMatchesForPath(String xpath, CLDRFile cldrFile,
-        Set<String> validRbPaths, RegexLookup<RegexResult> pathConverter,
+        Set<String> validRbPaths, PathConverter pathConverter,
         Map<String, CldrArray> pathValueMap) {
-        Output<Finder> matcher = new Output<Finder>();
-        Output<String[]> firstInfo = new Output<>();
-        RegexResult regexResult = matchXPath(pathConverter,
-            cldrFile, xpath, matcher, firstInfo);
-        if (regexResult == null) return;
-//        String[] arguments = matcher.value.getInfo();
-        String[] arguments = firstInfo.value;
+        PathMatch pathMatch = matchXPath(pathConverter, cldrFile, xpath);
+        if (pathMatch == null) return;
         String cldrValue = getStringValue(cldrFile, xpath);
-        for (PathValueInfo info : regexResult) {
-            String rbPath = info.processRbPath(arguments);
+        for (PathValueMatch info : pathMatch) {
+            String rbPath = info.getRbPath();
             // Don't add additional paths at this stage.
             if (validRbPaths != null && !validRbPaths.contains(rbPath)) continue;
             CldrArray valueList = RegexManager.getCldrArray(rbPath, pathValueMap);
-            List<String> values = info.processValues(arguments, cldrValue);
-            String baseXPath = info.processXPath(arguments, xpath);
-            String groupKey = info.processGroupKey(arguments);
+            List<String> values = info.processValues(cldrValue);
+            String baseXPath = info.getXPath(xpath);
+            String groupKey = info.getGroupKey();
             valueList.put(baseXPath, values, groupKey);
         }
     }
@@ -473,6 +495,25 @@ public class LocaleMapper extends Mapper {
         this.debugXPath = debugXPath;
     }
 
+    /**
+     * Turns on or off the memoization of xpath matches across locales (on by default),
+     * eg to compare the conversion time.
+     * @param memoizePaths
+     */
+    public void setMemoizePaths(boolean memoizePaths) {
+        manager.setMemoizePaths(memoizePaths);
+    }
+
+    /**
+     * Turns on or off matching each locale's xpaths with a RegexLookup built
+     * for that locale, as before the path converters were shared (off by
+     * default), eg to compare the conversion time.
+     * @param perLocaleLookup
+     */
+    public void setPerLocaleLookup(boolean perLocaleLookup) {
+        manager.setPerLocaleLookup(perLocaleLookup);
+    }
+
     /**
      * @param xpath
      * @return true if the xpath is to be debugged
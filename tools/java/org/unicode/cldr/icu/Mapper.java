@@ -1,9 +1,17 @@
 package org.unicode.cldr.icu;
 
+import java.util.ArrayDeque;
 import java.util.Collection;
+import java.util.Deque;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.NoSuchElementException;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * Superclass for mappers that convert CLDR data to ICU text files.
@@ -28,6 +36,40 @@ public abstract class Mapper {
         return iterator;
     }
 
+    /**
+     * Like {@link #iterator(Filter)}, but the locales are converted as a pipeline: the CLDR data for each locale is
+     * loaded on one thread, converted on {@code workers} others, and the IcuData objects are returned in the same
+     * order as the serial iterator. Falls back to the serial iterator if the mapper can't convert locales
+     * concurrently.
+     */
+    public Iterator<IcuData> iterator(final Filter filter, int workers) {
+        if (workers <= 1 || !canFillConcurrently()) {
+            return iterator(filter);
+        }
+        return new PipelinedIterator(filter, workers);
+    }
+
+    /**
+     * Returns true if fillFromCldr may be called for different locales at the same time.
+     */
+    protected boolean canFillConcurrently() {
+        return false;
+    }
+
+    /**
+     * Loads the CLDR data for the specified locale and returns a task that converts it, so that the loading and
+     * the conversion can be done on different threads. By default nothing is loaded ahead and the task just calls
+     * fillFromCldr.
+     */
+    protected Callable<IcuData[]> load(final String locale) {
+        return new Callable<IcuData[]>() {
+            @Override
+            public IcuData[] call() {
+                return fillFromCldr(locale);
+            }
+        };
+    }
+
     private class IcuDataIterator implements Iterator<IcuData> {
         private Filter filter;
         private Iterator<String> localeIterator = getAvailable().iterator();
@@ -87,6 +129,113 @@ public abstract class Mapper {
         }
     }
 
+    private class PipelinedIterator implements Iterator<IcuData> {
+        private final Filter filter;
+        private final Iterator<String> localeIterator = getAvailable().iterator();
+        private final int maxPending;
+        private final ExecutorService loader = Executors.newSingleThreadExecutor();
+        private final ExecutorService mappers;
+        // The conversions that have been started, in locale order.
+        private final Deque<Future<IcuData[]>> pending = new ArrayDeque<Future<IcuData[]>>();
+        private IcuData[] curArray = new IcuData[0];
+        private int curIndex = 0;
+
+        private PipelinedIterator(Filter filter, int workers) {
+            this.filter = filter;
+            // Don't load too far ahead, since each loaded locale holds its CLDRFiles in memory.
+            maxPending = 2 * workers;
+            mappers = Executors.newFixedThreadPool(workers);
+            fillPipeline();
+            loadNextPos();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return curIndex < curArray.length;
+        }
+
+        @Override
+        public IcuData next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            IcuData icuData = curArray[curIndex++];
+            sources.add(icuData.getName());
+            loadNextPos();
+            return icuData;
+        }
+
+        /**
+         * Starts loading and converting locales until enough are in progress.
+         */
+        private void fillPipeline() {
+            while (pending.size() < maxPending && localeIterator.hasNext()) {
+                final String locale = localeIterator.next();
+                if (!filter.includes(locale)) {
+                    continue;
+                }
+                final Future<Callable<IcuData[]>> loaded = loader.submit(new Callable<Callable<IcuData[]>>() {
+                    @Override
+                    public Callable<IcuData[]> call() {
+                        return load(locale);
+                    }
+                });
+                pending.add(mappers.submit(new Callable<IcuData[]>() {
+                    @Override
+                    public IcuData[] call() throws Exception {
+                        return loaded.get().call();
+                    }
+                }));
+            }
+        }
+
+        /**
+         * Moves to the next IcuData object that passes the filter, waiting for its locale to be converted if
+         * necessary. Shuts down the threads once everything has been converted.
+         */
+        private void loadNextPos() {
+            while (true) {
+                for (; curIndex < curArray.length; curIndex++) {
+                    if (filter.includes(curArray[curIndex].getName())) {
+                        return;
+                    }
+                }
+                if (pending.isEmpty()) {
+                    shutdown();
+                    return;
+                }
+                try {
+                    curArray = pending.remove().get();
+                } catch (InterruptedException e) {
+                    shutdown();
+                    throw new IllegalStateException(e);
+                } catch (ExecutionException e) {
+                    shutdown();
+                    Throwable cause = e.getCause();
+                    if (cause instanceof ExecutionException) {
+                        cause = cause.getCause(); // failed while loading
+                    }
+                    if (cause instanceof RuntimeException) {
+                        throw (RuntimeException) cause;
+                    }
+                    throw new IllegalStateException(cause);
+                }
+                curIndex = 0;
+                fillPipeline();
+            }
+        }
+
+        private void shutdown() {
+            loader.shutdownNow();
+            mappers.shutdownNow();
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
     /**
      * @return the set of IcuData objects that were generated by the mapper.
      */
@@ -75,6 +75,8 @@ public class NewLdml2IcuConverter extends CLDRConverterTool {
                 .add("makefile", 'g', ".*", null, "If set, generates makefiles and alias files for the specified type. " +
                     "The value to set should be the name of the makefile.")
                 .add("depgraphfile", 'e', ".*", null, "If set, generates a dependency graph file in JSON form summarizing parent and alias mappings between locale files. Only works when --type=locales.")
+                .add("workers", 'w', "[1-9][0-9]*", "1", "The number of threads that convert locales. " +
+                    "With more than one, locales are loaded, converted and written in a pipeline; the output is the same.")
                 .add("verbose", 'v', null, null, "Debugging aids");
 
     private static final String LOCALES_DIR = "locales";
@@ -337,11 +339,13 @@ public class NewLdml2IcuConverter extends CLDRConverterTool {
     }
 
     /**
-     * Converts CLDR XML files using the specified mapper.
+     * Converts CLDR XML files using the specified mapper. The IcuData objects are
+     * written on this thread, in order, while the mapper converts the following locales.
      */
     private void convert(Mapper mapper) {
         IcuData icuData;
-        Iterator<IcuData> iterator = mapper.iterator(filter);
+        int workers = Integer.parseInt(options.get("workers").getValue());
+        Iterator<IcuData> iterator = mapper.iterator(filter, workers);
         final Type type = Type.valueOf(options.get("type").getValue());
         while (iterator.hasNext()) {
             long time = System.currentTimeMillis();
@@ -12,6 +12,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -21,6 +22,7 @@ import org.unicode.cldr.util.FileReaders;
 import org.unicode.cldr.util.PatternCache;
 import org.unicode.cldr.util.RegexLookup;
 import org.unicode.cldr.util.RegexLookup.Finder;
+import org.unicode.cldr.util.RegexLookup.LookupType;
 import org.unicode.cldr.util.RegexLookup.Merger;
 import org.unicode.cldr.util.RegexLookup.RegexFinder;
 
@@ -49,7 +51,6 @@ class RegexManager {
     private String converterFile;
     private Map<String, RegexResult> unprocessedMatchers;
     private Map<String, String> xpathVariables;
-    private VariableReplacer cldrVariables;
 
     /**
      * Wrapper class for functions that need to be performed on CLDR values as
@@ -408,6 +409,13 @@ class RegexManager {
     RegexLookup<FallbackInfo> fallbackConverter;
     RegexLookup<RegexResult> xpathConverter;
 
+    private static final PathMatch NO_MATCH = new PathMatch(new RegexResult(), null);
+    // Matches of the xpathConverter, shared by all locales.
+    private final Map<String, PathMatch> baseMatches = new ConcurrentHashMap<String, PathMatch>();
+    private final ConcurrentHashMap<String, PathConverter> pathConverters = new ConcurrentHashMap<String, PathConverter>();
+    private volatile boolean memoizePaths = true;
+    private volatile boolean perLocaleLookup = false;
+
     // One FallbackInfo object for every type of rbPath.
     class FallbackInfo implements Iterable<R3<Finder, String, List<String>>> {
         // Fallback info in the order: xpath matcher, fallback xpath, fallback values.
@@ -487,7 +495,7 @@ class RegexManager {
      * @return a RegexLookup for matching rb paths that may require fallback
      *         values.
      */
-    RegexLookup<FallbackInfo> getFallbackConverter() {
+    synchronized RegexLookup<FallbackInfo> getFallbackConverter() {
         if (fallbackConverter == null) {
             loadConverters();
         }
@@ -497,36 +505,213 @@ class RegexManager {
     /**
      * @return a RegexLookup for matching xpaths
      */
-    RegexLookup<RegexResult> getPathConverter() {
+    synchronized RegexLookup<RegexResult> getPathConverter() {
         if (xpathConverter == null) {
             loadConverters();
         }
         return xpathConverter;
     }
 
-    RegexLookup<RegexResult> getPathConverter(CLDRFile cldrFile) {
-        RegexLookup<RegexResult> basePathConverter = getPathConverter();
-
-        RegexLookup<RegexResult> processedPathConverter = new RegexLookup<RegexResult>()
-            .setPatternTransform(regexTransform);
-        cldrVariables = new VariableReplacer();
+    /**
+     * @return the converter for the xpaths of the specified CLDRFile. Files with
+     *         the same values for the xpath variables share a converter.
+     */
+    PathConverter getPathConverter(CLDRFile cldrFile) {
+        getPathConverter();
+        VariableReplacer cldrVariables = new VariableReplacer();
+        StringBuilder key = new StringBuilder();
         for (Entry<String, String> entry : xpathVariables.entrySet()) {
-            cldrVariables.add(entry.getKey(), cldrFile.getStringValue(entry.getValue()));
+            String value = cldrFile.getStringValue(entry.getValue());
+            cldrVariables.add(entry.getKey(), value);
+            key.append(entry.getKey()).append('=').append(value).append('\n');
+        }
+        if (perLocaleLookup) {
+            RegexLookup<RegexResult> processedPathConverter = new RegexLookup<RegexResult>()
+                .setPatternTransform(regexTransform);
+            for (Map.Entry<Finder, RegexResult> entry : xpathConverter) {
+                processedPathConverter.add(entry.getKey(), entry.getValue());
+            }
+            for (Entry<String, RegexResult> entry : unprocessedMatchers.entrySet()) {
+                processedPathConverter.add(cldrVariables.replace(entry.getKey()),
+                    entry.getValue());
+            }
+            return new PathConverter(null, processedPathConverter);
+        }
+        PathConverter converter = pathConverters.get(key.toString());
+        if (converter == null) {
+            RegexLookup<RegexResult> variableConverter = new RegexLookup<RegexResult>(LookupType.PREFIX_TRIE_LOOKUP)
+                .setPatternTransform(regexTransform);
+            for (Entry<String, RegexResult> entry : unprocessedMatchers.entrySet()) {
+                variableConverter.add(cldrVariables.replace(entry.getKey()),
+                    entry.getValue());
+            }
+            PathConverter newConverter = new PathConverter(xpathConverter, variableConverter);
+            converter = pathConverters.putIfAbsent(key.toString(), newConverter);
+            if (converter == null) {
+                converter = newConverter;
+            }
+        }
+        return converter;
+    }
+
+    /**
+     * Turns on or off the memoization of path matches; with it off, every
+     * xpath is matched against the regexes each time. On by default.
+     */
+    void setMemoizePaths(boolean memoizePaths) {
+        this.memoizePaths = memoizePaths;
+    }
+
+    /**
+     * Turns on or off building a RegexLookup of all the matchers, with the
+     * variables filled in, for each CLDRFile, as was done before the
+     * converters were shared. Off by default.
+     */
+    void setPerLocaleLookup(boolean perLocaleLookup) {
+        this.perLocaleLookup = perLocaleLookup;
+    }
+
+    /**
+     * Converts the xpaths of the CLDRFiles with the same values for the xpath
+     * variables. The matchers without variables are tried first, then the
+     * matchers with the variables filled in, which is the order they were added
+     * to a single RegexLookup before.
+     * <p>
+     * The matches are memoized by full xpath: those of the matchers without
+     * variables are shared by all locales, the others by the locales using this
+     * converter. Both lookups are reentrant, so a converter may be used by
+     * several threads at once.
+     * <p>
+     * A per-locale converter has no base lookup: all the matchers are in the
+     * variable lookup.
+     */
+    class PathConverter {
+        private final RegexLookup<RegexResult> baseConverter;
+        private final RegexLookup<RegexResult> variableConverter;
+        private final Map<String, PathMatch> variableMatches = new ConcurrentHashMap<String, PathMatch>();
+
+        private PathConverter(RegexLookup<RegexResult> baseConverter, RegexLookup<RegexResult> variableConverter) {
+            this.baseConverter = baseConverter;
+            this.variableConverter = variableConverter;
         }
-        for (Map.Entry<Finder, RegexResult> entry : basePathConverter) {
-            processedPathConverter.add(entry.getKey(), entry.getValue());
+
+        /**
+         * @param fullPath
+         *            the full xpath, without draft attributes
+         * @return the match for the xpath, or null if there is none
+         */
+        PathMatch get(String fullPath) {
+            PathMatch match = baseConverter == null ? NO_MATCH : getMatch(baseConverter, baseMatches, fullPath);
+            if (match == NO_MATCH) {
+                match = getMatch(variableConverter, variableMatches, fullPath);
+            }
+            return match == NO_MATCH ? null : match;
         }
-        for (Entry<String, RegexResult> entry : unprocessedMatchers.entrySet()) {
-            processedPathConverter.add(cldrVariables.replace(entry.getKey()),
-                entry.getValue());
+
+        /**
+         * Matches the xpath without memoizing it, for debugging.
+         *
+         * @param failures
+         *            a list to add the failed matches to
+         */
+        PathMatch get(String fullPath, List<String> failures) {
+            Output<String[]> arguments = new Output<String[]>();
+            RegexResult result = baseConverter == null ? null
+                : baseConverter.get(fullPath, null, arguments, null, failures);
+            if (result == null) {
+                result = variableConverter.get(fullPath, null, arguments, null, failures);
+            }
+            return result == null ? null : new PathMatch(result, arguments.value);
+        }
+
+        private PathMatch getMatch(RegexLookup<RegexResult> lookup, Map<String, PathMatch> matches,
+            String fullPath) {
+            PathMatch match = memoizePaths ? matches.get(fullPath) : null;
+            if (match == null) {
+                Output<String[]> arguments = new Output<String[]>();
+                RegexResult result = lookup.get(fullPath, null, arguments);
+                match = result == null ? NO_MATCH : new PathMatch(result, arguments.value);
+                if (memoizePaths) {
+                    matches.put(fullPath, match);
+                }
+            }
+            return match;
+        }
+    }
+
+    /**
+     * The result of matching an xpath: the PathValueInfos of the RegexResult,
+     * with their rb paths, group keys and base xpaths filled out from the
+     * arguments of the match. Only the values depend on the locale.
+     */
+    static class PathMatch implements Iterable<PathValueMatch> {
+        private final List<PathValueMatch> infos;
+
+        PathMatch(RegexResult result, String[] arguments) {
+            infos = new ArrayList<PathValueMatch>();
+            for (PathValueInfo info : result) {
+                infos.add(new PathValueMatch(info, arguments));
+            }
+        }
+
+        @Override
+        public Iterator<PathValueMatch> iterator() {
+            return infos.iterator();
+        }
+    }
+
+    static class PathValueMatch {
+        private final PathValueInfo info;
+        private final String[] arguments;
+        private final String rbPath;
+        private final String groupKey;
+        private final String baseXPath;
+
+        private PathValueMatch(PathValueInfo info, String[] arguments) {
+            this.info = info;
+            this.arguments = arguments;
+            rbPath = info.processRbPath(arguments);
+            groupKey = info.processGroupKey(arguments);
+            baseXPath = info.processXPath(arguments, null);
+        }
+
+        public String getRbPath() {
+            return rbPath;
+        }
+
+        public String getGroupKey() {
+            return groupKey;
+        }
+
+        /**
+         * @return the base xpath, or the specified xpath if there is none
+         */
+        public String getXPath(String xpath) {
+            return baseXPath == null ? xpath : baseXPath;
+        }
+
+        public List<String> processValues(String cldrValue) {
+            return info.processValues(arguments, cldrValue);
+        }
+    }
+
+    /**
+     * @return the values of the xpath variables in the specified CLDRFile
+     */
+    private VariableReplacer getCldrVariables(CLDRFile cldrFile) {
+        VariableReplacer cldrVariables = new VariableReplacer();
+        for (Entry<String, String> entry : xpathVariables.entrySet()) {
+            cldrVariables.add(entry.getKey(), cldrFile.getStringValue(entry.getValue()));
         }
-        return processedPathConverter;
+        return cldrVariables;
     }
 
     private void loadConverters() {
-        xpathConverter = new RegexLookup<RegexResult>()
+        // Compiled once and shared by all locales.
+        xpathConverter = new RegexLookup<RegexResult>(LookupType.PREFIX_TRIE_LOOKUP)
             .setPatternTransform(regexTransform);
-        fallbackConverter = new RegexLookup<FallbackInfo>()
+        // Shared by the locales being converted at the same time, so the lookup must be reentrant.
+        fallbackConverter = new RegexLookup<FallbackInfo>(LookupType.PREFIX_TRIE_LOOKUP)
             .setValueMerger(new Merger<FallbackInfo>() {
                 @Override
                 public FallbackInfo merge(FallbackInfo a, FallbackInfo into) {
@@ -700,6 +885,7 @@ class RegexManager {
      */
     void addFallbackValues(CLDRFile cldrFile, Map<String, CldrArray> pathValueMap) {
         RegexLookup<FallbackInfo> fallbackConverter = getFallbackConverter();
+        VariableReplacer cldrVariables = cldrFile == null ? null : getCldrVariables(cldrFile);
         for (String rbPath : pathValueMap.keySet()) {
             Output<String[]> arguments = new Output<String[]>();
             FallbackInfo fallbackInfo = fallbackConverter.get(rbPath, null, arguments);
@@ -1,7 +1,9 @@
 package org.unicode.cldr.json;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.PrintStream;
 import java.io.PrintWriter;
 import java.text.ParseException;
 import java.util.ArrayList;
@@ -13,6 +15,11 @@ import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -26,6 +33,7 @@ import org.unicode.cldr.util.CLDRFile.DraftStatus;
 import org.unicode.cldr.util.CLDRPaths;
 import org.unicode.cldr.util.CLDRTool;
 import org.unicode.cldr.util.CldrUtility;
+import org.unicode.cldr.util.Counter;
 import org.unicode.cldr.util.CoverageInfo;
 import org.unicode.cldr.util.DtdData;
 import org.unicode.cldr.util.DtdType;
@@ -98,7 +106,9 @@ public class Ldml2JsonConverter {
                     "Whether to group data files into installable packages")
                 .add("identity", 'i', "(true|false)", "true",
                     "Whether to copy the identity info into all sections containing data")
-                .add("konfig", 'k', ".*", null, "LDML to JSON configuration file");
+                .add("konfig", 'k', ".*", null, "LDML to JSON configuration file")
+                .add("threads", 'T', "[1-9][0-9]*", "1",
+                    "Number of files to convert at once; the output is the same as with one thread");
 
     public static void main(String[] args) throws Exception {
         options.parse(args, true);
@@ -140,7 +150,7 @@ public class Ldml2JsonConverter {
 
     private class JSONSection implements Comparable<JSONSection> {
         public String section;
-        public Matcher matcher;
+        public Pattern pattern;
         public String packageName;
 
         public int compareTo(JSONSection other) {
@@ -149,7 +159,8 @@ public class Ldml2JsonConverter {
 
     }
 
-    private Map<JSONSection, List<CldrItem>> sectionItems = new TreeMap<JSONSection, List<CldrItem>>();
+    // Time spent writing each package, in nanoseconds
+    private Counter<String> packageTimes = new Counter<String>();
 
     private Map<String, String> dependencies;
     private List<JSONSection> sections;
@@ -203,7 +214,7 @@ public class Ldml2JsonConverter {
                 if (hasSection && hasPath) {
                     JSONSection j = new JSONSection();
                     j.section = section;
-                    j.matcher = PatternCache.get(path).matcher("");
+                    j.pattern = PatternCache.get(path);
                     if (hasPackage) {
                         j.packageName = packageName;
                     }
@@ -239,9 +250,15 @@ public class Ldml2JsonConverter {
         // Add a section at the end of the list that will match anything not already matched.
         JSONSection j = new JSONSection();
         j.section = "other";
-        j.matcher = PatternCache.get(".*").matcher("");
+        j.pattern = PatternCache.get(".*");
         sections.add(j);
 
+        if (writePackages && type == RunType.rbnf) {
+            for (JSONSection js : sections) {
+                js.packageName = "rbnf";
+            }
+        }
+
     }
 
     /**
@@ -289,13 +306,30 @@ public class Ldml2JsonConverter {
         return result;
     }
 
-    private void mapPathsToSections(CLDRFile file, String pathPrefix, SupplementalDataInfo sdi)
-        throws IOException, ParseException {
+    /**
+     * Receives the items of a file, with the section that each one belongs to.
+     */
+    private interface ItemHandler {
+        void handle(JSONSection js, CldrItem item) throws IOException, ParseException;
+    }
+
+    /**
+     * Map the paths of the file to CldrItems, and pass each to the handler in order with its section.
+     *
+     * @param versionInfoOnly
+     *            If true, only paths containing /identity or /version are mapped.
+     */
+    private void mapPathsToSections(CLDRFile file, String pathPrefix, SupplementalDataInfo sdi, boolean versionInfoOnly,
+        ItemHandler handler) throws IOException, ParseException {
 
         String locID = file.getLocaleID();
         Matcher noNumberingSystemMatcher = LdmlConvertRules.NO_NUMBERING_SYSTEM_PATTERN.matcher("");
         Matcher numberingSystemMatcher = LdmlConvertRules.NUMBERING_SYSTEM_PATTERN.matcher("");
         Matcher rootIdentityMatcher = LdmlConvertRules.ROOT_IDENTITY_PATTERN.matcher("");
+        Matcher[] sectionMatchers = new Matcher[sections.size()];
+        for (int i = 0; i < sectionMatchers.length; i++) {
+            sectionMatchers[i] = sections.get(i).pattern.matcher("");
+        }
         Set<String> activeNumberingSystems = new TreeSet<String>();
         activeNumberingSystems.add("latn"); // Always include latin script numbers
         for (String np : LdmlConvertRules.ACTIVE_NUMBERING_SYSTEM_XPATHS) {
@@ -314,6 +348,9 @@ public class Ldml2JsonConverter {
         for (Iterator<String> it = file.iterator("", DtdData.getInstance(fileDtdType).getDtdComparator(null)); it.hasNext();) {
             int cv = Level.UNDETERMINED.getLevel();
             String path = it.next();
+            if (versionInfoOnly && !path.contains("/identity") && !path.contains("/version")) {
+                continue;
+            }
             String fullPath = file.getFullXPath(path);
             String value = file.getWinningValue(path);
             if (path.startsWith("//ldml/localeDisplayNames/languages") &&
@@ -361,278 +398,399 @@ public class Ldml2JsonConverter {
             String transformedPath = transformPath(path, pathPrefix);
             String transformedFullPath = transformPath(fullPath, pathPrefix);
 
-            for (JSONSection js : sections) {
-                js.matcher.reset(transformedPath);
-                if (js.matcher.matches()) {
+            for (int i = 0; i < sectionMatchers.length; i++) {
+                sectionMatchers[i].reset(transformedPath);
+                if (sectionMatchers[i].matches()) {
                     CldrItem item = new CldrItem(transformedPath, transformedFullPath, path, fullPath, value);
-
-                    List<CldrItem> cldrItems = sectionItems.get(js);
-                    if (cldrItems == null) {
-                        cldrItems = new ArrayList<CldrItem>();
-                    }
-                    cldrItems.add(item);
-                    sectionItems.put(js, cldrItems);
+                    handler.handle(sections.get(i), item);
                     break;
                 }
             }
         }
-
-        Matcher versionInfoMatcher = PatternCache.get(".*/(identity|version).*").matcher("");
-        // Automatically copy the version info to any sections that had real data in them.
-        JSONSection otherSection = sections.get(sections.size() - 1);
-        List<CldrItem> others = sectionItems.get(otherSection);
-        if (others == null) {
-            return;
-        }
-        List<CldrItem> otherSectionItems = new ArrayList<CldrItem>(others);
-        int addedItemCount = 0;
-        boolean copyIdentityInfo = Boolean.parseBoolean(options.get("identity").getValue());
-
-        for (CldrItem item : otherSectionItems) {
-            String thisPath = item.getPath();
-            versionInfoMatcher.reset(thisPath);
-            if (versionInfoMatcher.matches()) {
-                for (JSONSection js : sections) {
-                    if (sectionItems.get(js) != null && !js.section.equals("other") && copyIdentityInfo) {
-                        List<CldrItem> hit = sectionItems.get(js);
-                        hit.add(addedItemCount, item);
-                        sectionItems.put(js, hit);
-                    }
-                    if (js.section.equals("other")) {
-                        List<CldrItem> hit = sectionItems.get(js);
-                        hit.remove(item);
-                        sectionItems.put(js, hit);
-                    }
-                }
-                addedItemCount++;
-            }
-        }
     }
 
+    private static final Pattern VERSION_INFO_PATTERN = PatternCache.get(".*/(identity|version).*");
+
     /**
-     * Convert CLDR's XML data to JSON format.
+     * Convert CLDR's XML data to JSON format, streaming the items of each section to its files as they are mapped.
      *
      * @param file
      *            CLDRFile object.
-     * @param outFilename
-     *            The file name used to save JSON data.
+     * @param log
+     *            Where the progress messages go.
+     * @return The time spent writing, in nanoseconds.
      * @throws IOException
      * @throws ParseException
      */
-    private void convertCldrItems(String dirName, String filename, String pathPrefix)
-        throws IOException, ParseException {
-        // zone and timezone items are queued for sorting first before they are
-        // processed.
+    private long convertCldrItems(CLDRFile file, String dirName, String filename, String pathPrefix, SupplementalDataInfo sdi,
+        PrintStream log) throws IOException, ParseException {
+        final JSONSection otherSection = sections.get(sections.size() - 1);
+        final Matcher versionInfoMatcher = VERSION_INFO_PATTERN.matcher("");
+
+        // The version info that isn't in any section is moved from the "other" section to the start of
+        // each section with data in it. Find it first, so that the sections can be written as they are mapped.
+        final List<CldrItem> versionInfoItems = new ArrayList<CldrItem>();
+        mapPathsToSections(file, pathPrefix, sdi, true, new ItemHandler() {
+            @Override
+            public void handle(JSONSection js, CldrItem item) {
+                if (js == otherSection && versionInfoMatcher.reset(item.getPath()).matches()) {
+                    versionInfoItems.add(item);
+                }
+            }
+        });
+        final boolean copyIdentityInfo = Boolean.parseBoolean(options.get("identity").getValue());
 
+        final Map<JSONSection, SectionOutput> outputs = new HashMap<JSONSection, SectionOutput>();
         for (JSONSection js : sections) {
-            String outFilename;
-            if (type == RunType.rbnf) {
-                outFilename = filename.replaceAll("_", "-") + ".json";
-            } else {
-                outFilename = js.section + ".json";
+            List<String> outputDirs = getOutputDirs(js, dirName, filename);
+            if (outputDirs != null) {
+                outputs.put(js, new SectionOutput(js, outputDirs, filename));
             }
-            String tier = "";
-            boolean writeOther = Boolean.parseBoolean(options.get("other").getValue());
-            if (js.section.equals("other") && !writeOther) {
-                continue;
-            } else {
-                StringBuilder outputDirname = new StringBuilder(outputDir);
-                if (writePackages) {
-                    if (type != RunType.supplemental && type != RunType.rbnf) {
-                        LocaleIDParser lp = new LocaleIDParser();
-                        lp.set(filename);
-                        if (defaultContentLocales.contains(filename) &&
-                            lp.getRegion().length() > 0) {
-                            if (type == RunType.main) {
-                                skippedDefaultContentLocales.add(filename.replaceAll("_", "-"));
+        }
+
+        long writeNanos = 0;
+        try {
+            mapPathsToSections(file, pathPrefix, sdi, false, new ItemHandler() {
+                @Override
+                public void handle(JSONSection js, CldrItem item) throws IOException, ParseException {
+                    if (js == otherSection && versionInfoMatcher.reset(item.getPath()).matches()) {
+                        return; // already handled
+                    }
+                    SectionOutput output = outputs.get(js);
+                    if (output == null) {
+                        return;
+                    }
+                    if (!output.isOpen()) {
+                        output.open();
+                        if (copyIdentityInfo && js != otherSection) {
+                            for (CldrItem versionInfoItem : versionInfoItems) {
+                                output.add(versionInfoItem);
                             }
-                            continue;
                         }
-                        Level localeCoverageLevel = sc.getLocaleCoverageLevel("Cldr", filename);
-                        if (localeCoverageLevel == Level.MODERN || filename.equals("root")) {
-                            tier = "-modern";
-                            if (type == RunType.main) {
-                                avl.modern.add(filename.replaceAll("_", "-"));
-                            }
-                        } else {
-                            tier = "-full";
+                    }
+                    output.add(item);
+                }
+            });
+        } finally {
+            for (JSONSection js : sections) {
+                SectionOutput output = outputs.get(js);
+                if (output != null && output.isOpen()) {
+                    writeNanos += output.close(log);
+                }
+            }
+        }
+        return writeNanos;
+    }
+
+    /**
+     * Returns the directories that the section's file for this locale is written to, creating them,
+     * or null if the section isn't written. Also records the locale and package for the packaging files.
+     */
+    private List<String> getOutputDirs(JSONSection js, String dirName, String filename) {
+        String tier = "";
+        boolean writeOther = Boolean.parseBoolean(options.get("other").getValue());
+        if (js.section.equals("other") && !writeOther) {
+            return null;
+        }
+        StringBuilder outputDirname = new StringBuilder(outputDir);
+        if (writePackages) {
+            if (type != RunType.supplemental && type != RunType.rbnf) {
+                LocaleIDParser lp = new LocaleIDParser();
+                lp.set(filename);
+                if (defaultContentLocales.contains(filename) &&
+                    lp.getRegion().length() > 0) {
+                    if (type == RunType.main) {
+                        synchronized (skippedDefaultContentLocales) {
+                            skippedDefaultContentLocales.add(filename.replaceAll("_", "-"));
                         }
+                    }
+                    return null;
+                }
+                Level localeCoverageLevel = sc.getLocaleCoverageLevel("Cldr", filename);
+                synchronized (avl) {
+                    if (localeCoverageLevel == Level.MODERN || filename.equals("root")) {
+                        tier = "-modern";
                         if (type == RunType.main) {
-                            avl.full.add(filename.replaceAll("_", "-"));
+                            avl.modern.add(filename.replaceAll("_", "-"));
                         }
-                    } else if (type == RunType.rbnf) {
-                        js.packageName = "rbnf";
-                        tier = "";
-                    }
-                    if (js.packageName != null) {
-                        String packageName = "cldr-" + js.packageName + tier;
-                        outputDirname.append("/" + packageName);
-                        packages.add(packageName);
+                    } else {
+                        tier = "-full";
                     }
-                    outputDirname.append("/" + dirName + "/");
-                    if (type != RunType.supplemental && type != RunType.rbnf) {
-                        outputDirname.append(filename.replaceAll("_", "-"));
-                    }
-                    if (DEBUG) {
-                        System.out.println("outDir: " + outputDirname);
-                        System.out.println("pack: " + js.packageName);
-                        System.out.println("dir: " + dirName);
+                    if (type == RunType.main) {
+                        avl.full.add(filename.replaceAll("_", "-"));
                     }
                 }
-
-                File dir = new File(outputDirname.toString());
-                if (!dir.exists()) {
-                    dir.mkdirs();
+            }
+            if (js.packageName != null) {
+                String packageName = "cldr-" + js.packageName + tier;
+                outputDirname.append("/" + packageName);
+                synchronized (packages) {
+                    packages.add(packageName);
                 }
+            }
+            outputDirname.append("/" + dirName + "/");
+            if (type != RunType.supplemental && type != RunType.rbnf) {
+                outputDirname.append(filename.replaceAll("_", "-"));
+            }
+            if (DEBUG) {
+                System.out.println("outDir: " + outputDirname);
+                System.out.println("pack: " + js.packageName);
+                System.out.println("dir: " + dirName);
+            }
+        }
 
-                List<String> outputDirs = new ArrayList<String>();
-                outputDirs.add(outputDirname.toString());
-                if (writePackages && type == RunType.main && tier.equals("-modern")) {
-                    outputDirs.add(outputDirname.toString().replaceFirst("-modern", "-full"));
-                }
+        File dir = new File(outputDirname.toString());
+        if (!dir.exists()) {
+            dir.mkdirs();
+        }
 
-                for (String outputDir : outputDirs) {
-                    List<CldrItem> theItems = sectionItems.get(js);
-                    if (theItems == null || theItems.size() == 0) {
-                        continue;
-                    }
-                    PrintWriter outf = FileUtilities.openUTF8Writer(outputDir, outFilename);
-                    JsonWriter out = new JsonWriter(outf);
-                    out.setIndent("  ");
-
-                    ArrayList<CldrItem> sortingItems = new ArrayList<CldrItem>();
-                    ArrayList<CldrItem> arrayItems = new ArrayList<CldrItem>();
-
-                    ArrayList<CldrNode> nodesForLastItem = new ArrayList<CldrNode>();
-                    String lastLeadingArrayItemPath = null;
-                    String leadingArrayItemPath = "";
-                    int valueCount = 0;
-                    String previousIdentityPath = null;
-                    for (CldrItem item : theItems) {
-
-                        if (type == RunType.rbnf) {
-                            item.setValue(item.getValue().replace('→', '>'));
-                            item.setValue(item.getValue().replace('←', '<'));
-                            if (item.getFullPath().contains("@value")) {
-                                int indexStart = item.getFullPath().indexOf("@value") + 8;
-                                int indexEnd = item.getFullPath().indexOf("]", indexStart) - 1;
-                                if (indexStart >= 0 && indexEnd >= 0 && indexEnd > indexStart) {
-                                    String sub = item.getFullPath().substring(indexStart, indexEnd);
-                                    /* System.out.println("sub: " + sub);
-                                    System.out.println("full: " + item.getFullPath());
-                                    System.out.println("val: " + item.getValue());*/
-                                    item.setFullPath(item.getFullPath().replace(sub, item.getValue()));
-                                    item.setFullPath(item.getFullPath().replaceAll("@value", "@" + sub));
-                                    //System.out.println("modifyfull: " + item.getFullPath());
-                                    item.setValue("");
-                                }
-                            }
+        List<String> outputDirs = new ArrayList<String>();
+        outputDirs.add(outputDirname.toString());
+        if (writePackages && type == RunType.main && tier.equals("-modern")) {
+            outputDirs.add(outputDirname.toString().replaceFirst("-modern", "-full"));
+        }
+        return outputDirs;
+    }
 
-                        }
-                        // ADJUST ACCESS=PRIVATE/PUBLIC BASED ON ICU RULE -- START
-                        if (type == RunType.rbnf) {
-                            String fullpath = item.getFullPath();
-                            if (fullpath.contains("/ruleset")) {
-                                int ruleStartIndex = fullpath.indexOf("/ruleset[");
-                                String checkString = fullpath.substring(ruleStartIndex);
-
-                                int ruleEndIndex = 0;
-                                if (checkString.contains("/")) {
-                                    ruleEndIndex = fullpath.indexOf("/", ruleStartIndex + 1);
-                                }
-                                if (ruleEndIndex > ruleStartIndex) {
-                                    String oldRulePath = fullpath.substring(ruleStartIndex, ruleEndIndex);
-
-                                    String newRulePath = oldRulePath;
-                                    if (newRulePath.contains("@type")) {
-                                        int typeIndexStart = newRulePath.indexOf("\"", newRulePath.indexOf("@type"));
-                                        int typeIndexEnd = newRulePath.indexOf("\"", typeIndexStart + 1);
-                                        String type = newRulePath.substring(typeIndexStart + 1, typeIndexEnd);
-
-                                        String newType = "";
-                                        if (newRulePath.contains("@access")) {
-                                            newType = "%%" + type;
-                                        } else {
-                                            newType = "%" + type;
-                                        }
-                                        newRulePath = newRulePath.replace(type, newType);
-                                        item.setPath(item.getPath().replace(type, newType));
-                                    }
-                                    fullpath = fullpath.replace(oldRulePath, newRulePath);
-                                    item.setFullPath(fullpath);
-
-                                }
-                            }
-                        }
-                        // ADJUST ACCESS=PRIVATE/PUBLIC BASED ON ICU RULE -- END
-
-                        // items in the identity section of a file should only ever contain the lowest level, even if using
-                        // resolving source, so if we have duplicates ( caused by attributes used as a value ) then suppress
-                        // them here.
-                        if (item.getPath().contains("/identity/")) {
-                            String[] parts = item.getPath().split("\\[");
-                            if (parts[0].equals(previousIdentityPath)) {
-                                continue;
-                            } else {
-                                XPathParts xpp = XPathParts.getFrozenInstance(item.getPath());
-                                String territory = xpp.findAttributeValue("territory", "type");
-                                LocaleIDParser lp = new LocaleIDParser().set(filename);
-                                if (territory != null && territory.length() > 0 && !territory.equals(lp.getRegion())) {
-                                    continue;
-                                }
-                                previousIdentityPath = parts[0];
-                            }
-                        }
+    /**
+     * The files that one section of a locale is written to. They are only opened when the first item arrives,
+     * so that no file is written for a section without data.
+     */
+    private class SectionOutput {
+        private final JSONSection js;
+        private final List<String> outputDirs;
+        private final String outFilename;
+        private final String filename;
+        private List<SectionWriter> writers = null;
+
+        SectionOutput(JSONSection js, List<String> outputDirs, String filename) {
+            this.js = js;
+            this.outputDirs = outputDirs;
+            this.filename = filename;
+            if (type == RunType.rbnf) {
+                outFilename = filename.replaceAll("_", "-") + ".json";
+            } else {
+                outFilename = js.section + ".json";
+            }
+        }
 
-                        // some items need to be split to multiple item before processing. None
-                        // of those items need to be sorted.
-                        CldrItem[] items = item.split();
-                        if (items == null) {
-                            items = new CldrItem[1];
-                            items[0] = item;
-                        }
-                        valueCount += items.length;
+        boolean isOpen() {
+            return writers != null;
+        }
 
-                        for (CldrItem newItem : items) {
-                            // alias will be dropped in conversion, don't count it.
-                            if (newItem.isAliasItem()) {
-                                valueCount--;
-                            }
+        void open() throws IOException {
+            writers = new ArrayList<SectionWriter>();
+            for (String outputDir : outputDirs) {
+                writers.add(new SectionWriter(outputDir, outFilename, filename));
+            }
+        }
+
+        void add(CldrItem item) throws IOException, ParseException {
+            for (SectionWriter writer : writers) {
+                writer.add(item);
+            }
+        }
+
+        long close(PrintStream log) throws IOException, ParseException {
+            long nanos = 0;
+            for (SectionWriter writer : writers) {
+                writer.close(log);
+                addPackageTime(js.packageName == null ? js.section : js.packageName, writer.nanos);
+                nanos += writer.nanos;
+            }
+            return nanos;
+        }
+    }
+
+    /**
+     * Writes the items of one section to one JSON file, as they arrive.
+     */
+    private class SectionWriter {
+        private final String outFilename;
+        private final String filename;
+        private final PrintWriter outf;
+        private final JsonWriter out;
+
+        private final ArrayList<CldrItem> sortingItems = new ArrayList<CldrItem>();
+        private final ArrayList<CldrItem> arrayItems = new ArrayList<CldrItem>();
+
+        private final ArrayList<CldrNode> nodesForLastItem = new ArrayList<CldrNode>();
+        private String lastLeadingArrayItemPath = null;
+        private String leadingArrayItemPath = "";
+        private int valueCount = 0;
+        private String previousIdentityPath = null;
+        private long nanos = 0;
+
+        SectionWriter(String outputDir, String outFilename, String filename) throws IOException {
+            this.outFilename = outFilename;
+            this.filename = filename;
+            outf = FileUtilities.openUTF8Writer(outputDir, outFilename);
+            out = new JsonWriter(outf);
+            out.setIndent("  ");
+        }
+
+        void add(CldrItem item) throws IOException, ParseException {
+            long start = System.nanoTime();
+            if (type == RunType.rbnf) {
+                item.setValue(item.getValue().replace('→', '>'));
+                item.setValue(item.getValue().replace('←', '<'));
+                if (item.getFullPath().contains("@value")) {
+                    int indexStart = item.getFullPath().indexOf("@value") + 8;
+                    int indexEnd = item.getFullPath().indexOf("]", indexStart) - 1;
+                    if (indexStart >= 0 && indexEnd >= 0 && indexEnd > indexStart) {
+                        String sub = item.getFullPath().substring(indexStart, indexEnd);
+                        /* System.out.println("sub: " + sub);
+                        System.out.println("full: " + item.getFullPath());
+                        System.out.println("val: " + item.getValue());*/
+                        item.setFullPath(item.getFullPath().replace(sub, item.getValue()));
+                        item.setFullPath(item.getFullPath().replaceAll("@value", "@" + sub));
+                        //System.out.println("modifyfull: " + item.getFullPath());
+                        item.setValue("");
+                    }
+                }
 
-                            // Items like zone items need to be sorted first before write them out.
-                            if (newItem.needsSort()) {
-                                resolveArrayItems(out, nodesForLastItem, arrayItems);
-                                sortingItems.add(newItem);
+            }
+            // ADJUST ACCESS=PRIVATE/PUBLIC BASED ON ICU RULE -- START
+            if (type == RunType.rbnf) {
+                String fullpath = item.getFullPath();
+                if (fullpath.contains("/ruleset")) {
+                    int ruleStartIndex = fullpath.indexOf("/ruleset[");
+                    String checkString = fullpath.substring(ruleStartIndex);
+
+                    int ruleEndIndex = 0;
+                    if (checkString.contains("/")) {
+                        ruleEndIndex = fullpath.indexOf("/", ruleStartIndex + 1);
+                    }
+                    if (ruleEndIndex > ruleStartIndex) {
+                        String oldRulePath = fullpath.substring(ruleStartIndex, ruleEndIndex);
+
+                        String newRulePath = oldRulePath;
+                        if (newRulePath.contains("@type")) {
+                            int typeIndexStart = newRulePath.indexOf("\"", newRulePath.indexOf("@type"));
+                            int typeIndexEnd = newRulePath.indexOf("\"", typeIndexStart + 1);
+                            String type = newRulePath.substring(typeIndexStart + 1, typeIndexEnd);
+
+                            String newType = "";
+                            if (newRulePath.contains("@access")) {
+                                newType = "%%" + type;
                             } else {
-                                Matcher matcher = LdmlConvertRules.ARRAY_ITEM_PATTERN.matcher(
-                                    newItem.getPath());
-                                if (matcher.matches()) {
-                                    resolveSortingItems(out, nodesForLastItem, sortingItems);
-                                    leadingArrayItemPath = matcher.group(1);
-                                    if (lastLeadingArrayItemPath != null &&
-                                        !lastLeadingArrayItemPath.equals(leadingArrayItemPath)) {
-                                        resolveArrayItems(out, nodesForLastItem, arrayItems);
-                                    }
-                                    lastLeadingArrayItemPath = leadingArrayItemPath;
-                                    arrayItems.add(newItem);
-                                } else {
-                                    resolveSortingItems(out, nodesForLastItem, sortingItems);
-                                    resolveArrayItems(out, nodesForLastItem, arrayItems);
-                                    outputCldrItem(out, nodesForLastItem, newItem);
-                                    lastLeadingArrayItemPath = "";
-                                }
+                                newType = "%" + type;
                             }
+                            newRulePath = newRulePath.replace(type, newType);
+                            item.setPath(item.getPath().replace(type, newType));
                         }
+                        fullpath = fullpath.replace(oldRulePath, newRulePath);
+                        item.setFullPath(fullpath);
+
                     }
+                }
+            }
+            // ADJUST ACCESS=PRIVATE/PUBLIC BASED ON ICU RULE -- END
+
+            // items in the identity section of a file should only ever contain the lowest level, even if using
+            // resolving source, so if we have duplicates ( caused by attributes used as a value ) then suppress
+            // them here.
+            if (item.getPath().contains("/identity/")) {
+                String[] parts = item.getPath().split("\\[");
+                if (parts[0].equals(previousIdentityPath)) {
+                    nanos += System.nanoTime() - start;
+                    return;
+                } else {
+                    XPathParts xpp = XPathParts.getFrozenInstance(item.getPath());
+                    String territory = xpp.findAttributeValue("territory", "type");
+                    LocaleIDParser lp = new LocaleIDParser().set(filename);
+                    if (territory != null && territory.length() > 0 && !territory.equals(lp.getRegion())) {
+                        nanos += System.nanoTime() - start;
+                        return;
+                    }
+                    previousIdentityPath = parts[0];
+                }
+            }
+
+            // some items need to be split to multiple item before processing. None
+            // of those items need to be sorted.
+            CldrItem[] items = item.split();
+            if (items == null) {
+                items = new CldrItem[1];
+                items[0] = item;
+            }
+            valueCount += items.length;
+
+            for (CldrItem newItem : items) {
+                // alias will be dropped in conversion, don't count it.
+                if (newItem.isAliasItem()) {
+                    valueCount--;
+                }
 
-                    resolveSortingItems(out, nodesForLastItem, sortingItems);
+                // Items like zone items need to be sorted first before write them out.
+                if (newItem.needsSort()) {
                     resolveArrayItems(out, nodesForLastItem, arrayItems);
-                    System.out.println(String.format("  %s = %d values", outFilename, valueCount));
-                    closeNodes(out, nodesForLastItem.size() - 2, 0);
-                    outf.println();
-                    out.close();
+                    sortingItems.add(newItem);
+                } else {
+                    Matcher matcher = LdmlConvertRules.ARRAY_ITEM_PATTERN.matcher(
+                        newItem.getPath());
+                    if (matcher.matches()) {
+                        resolveSortingItems(out, nodesForLastItem, sortingItems);
+                        leadingArrayItemPath = matcher.group(1);
+                        if (lastLeadingArrayItemPath != null &&
+                            !lastLeadingArrayItemPath.equals(leadingArrayItemPath)) {
+                            resolveArrayItems(out, nodesForLastItem, arrayItems);
+                        }
+                        lastLeadingArrayItemPath = leadingArrayItemPath;
+                        arrayItems.add(newItem);
+                    } else {
+                        resolveSortingItems(out, nodesForLastItem, sortingItems);
+                        resolveArrayItems(out, nodesForLastItem, arrayItems);
+                        outputCldrItem(out, nodesForLastItem, newItem);
+                        lastLeadingArrayItemPath = "";
+                    }
                 }
             }
+            nanos += System.nanoTime() - start;
+        }
+
+        void close(PrintStream log) throws IOException, ParseException {
+            long start = System.nanoTime();
+            resolveSortingItems(out, nodesForLastItem, sortingItems);
+            resolveArrayItems(out, nodesForLastItem, arrayItems);
+            log.println(String.format("  %s = %d values", outFilename, valueCount));
+            closeNodes(out, nodesForLastItem.size() - 2, 0);
+            outf.println();
+            out.close();
+            nanos += System.nanoTime() - start;
+        }
+    }
+
+    private void processFile(Factory cldrFactory, String dirName, String filename, DraftStatus minimalDraftStatus,
+        SupplementalDataInfo sdi, PrintStream log) throws IOException, ParseException {
+        long start = System.nanoTime();
+        log.println("Processing file " + dirName + "/" + filename);
+        String pathPrefix;
+        CLDRFile file = cldrFactory.make(filename, resolve && type == RunType.main, minimalDraftStatus);
+
+        if (type == RunType.main) {
+            pathPrefix = "/cldr/" + dirName + "/" + filename.replaceAll("_", "-") + "/";
+        } else {
+            pathPrefix = "/cldr/" + dirName + "/";
+        }
+        long writeNanos = convertCldrItems(file, dirName, filename, pathPrefix, sdi, log);
+        addPackageTime(READING_TIME, System.nanoTime() - start - writeNanos);
+    }
+
+    private static final String READING_TIME = "(reading and mapping)";
+
+    private synchronized void addPackageTime(String packageName, long nanos) {
+        packageTimes.add(packageName, nanos);
+    }
+
+    /**
+     * Show where the time went: writing each package, and reading and mapping the data. With several threads,
+     * the times add up to more than the elapsed time.
+     */
+    private synchronized void showPackageTimes() {
+        for (String packageName : packageTimes.getKeysetSortedByCount(false)) {
+            System.out.println(String.format("Package time:\t%s\t%.3fs", packageName,
+                packageTimes.getCount(packageName) / 1000000000.0));
         }
     }
 
@@ -1199,12 +1357,13 @@ public class Ldml2JsonConverter {
      * @throws IOException
      * @throws ParseException
      */
-    public void processDirectory(String dirName, DraftStatus minimalDraftStatus)
+    public void processDirectory(final String dirName, final DraftStatus minimalDraftStatus)
         throws IOException, ParseException {
-        SupplementalDataInfo sdi = SupplementalDataInfo.getInstance(cldrCommonDir + "supplemental");
-        Factory cldrFactory = Factory.make(
+        final SupplementalDataInfo sdi = SupplementalDataInfo.getInstance(cldrCommonDir + "supplemental");
+        final Factory cldrFactory = Factory.make(
             cldrCommonDir + dirName + "/", ".*");
         Set<String> files = cldrFactory.getAvailable();
+        List<String> filesToProcess = new ArrayList<String>();
         for (String filename : files) {
             if (LdmlConvertRules.IGNORE_FILE_SET.contains(filename)) {
                 continue;
@@ -1212,22 +1371,51 @@ public class Ldml2JsonConverter {
             if (!filename.matches(match)) {
                 continue;
             }
+            filesToProcess.add(filename);
+        }
 
-            System.out.println("Processing file " + dirName + "/" + filename);
-            String pathPrefix;
-            CLDRFile file = cldrFactory.make(filename, resolve && type == RunType.main, minimalDraftStatus);
-
-            sectionItems.clear();
-            if (type == RunType.main) {
-                pathPrefix = "/cldr/" + dirName + "/" + filename.replaceAll("_", "-") + "/";
-            } else {
-                pathPrefix = "/cldr/" + dirName + "/";
+        int threads = Integer.parseInt(options.get("threads").getValue());
+        if (threads <= 1) {
+            for (String filename : filesToProcess) {
+                processFile(cldrFactory, dirName, filename, minimalDraftStatus, sdi, System.out);
+            }
+        } else {
+            // Files are converted concurrently, but each one's messages are buffered and printed in order.
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+            try {
+                List<Future<ByteArrayOutputStream>> results = new ArrayList<Future<ByteArrayOutputStream>>();
+                for (final String filename : filesToProcess) {
+                    results.add(executor.submit(new Callable<ByteArrayOutputStream>() {
+                        @Override
+                        public ByteArrayOutputStream call() throws IOException, ParseException {
+                            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+                            PrintStream log = new PrintStream(buffer, true, "UTF-8");
+                            processFile(cldrFactory, dirName, filename, minimalDraftStatus, sdi, log);
+                            log.close();
+                            return buffer;
+                        }
+                    }));
+                }
+                for (Future<ByteArrayOutputStream> result : results) {
+                    System.out.print(result.get().toString("UTF-8"));
+                }
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof IOException) {
+                    throw (IOException) cause;
+                } else if (cause instanceof ParseException) {
+                    throw (ParseException) cause;
+                } else if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                throw new IllegalStateException(cause);
+            } finally {
+                executor.shutdownNow();
             }
-            mapPathsToSections(file, pathPrefix, sdi);
-
-            convertCldrItems(dirName, filename, pathPrefix);
-
         }
+        showPackageTimes();
 
         if (writePackages) {
             for (String currentPackage : packages) {
@@ -14,6 +14,11 @@ public class CheckAlt extends CheckCLDR {
     // CLDRFile.Status status = new CLDRFile.Status();
     Set<String> seenSoFar = new HashSet<String>();
 
+    @Override
+    public boolean isStatelessCheck() {
+        return true;
+    }
+
     // determine if we have an alt=...proposed
     // if we have one, and there is not a non-proposed version -- in this same file, unaliased, there's a problem.
     public CheckCLDR handleCheck(String path, String fullPath, String value,
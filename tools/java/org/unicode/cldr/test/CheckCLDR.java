@@ -20,6 +20,7 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -29,12 +30,14 @@ import org.unicode.cldr.util.CLDRInfo.CandidateInfo;
 import org.unicode.cldr.util.CLDRInfo.PathValueInfo;
 import org.unicode.cldr.util.CLDRInfo.UserInfo;
 import org.unicode.cldr.util.CLDRLocale;
+import org.unicode.cldr.util.Counter;
 import org.unicode.cldr.util.CldrUtility;
 import org.unicode.cldr.util.Factory;
 import org.unicode.cldr.util.InternalCldrException;
 import org.unicode.cldr.util.Level;
 import org.unicode.cldr.util.PathHeader;
 import org.unicode.cldr.util.PathHeader.SurveyToolStatus;
+import org.unicode.cldr.util.PathReadRecorder;
 import org.unicode.cldr.util.PatternCache;
 import org.unicode.cldr.util.RegexFileParser;
 import org.unicode.cldr.util.RegexFileParser.RegexLineParser;
@@ -582,6 +585,16 @@ abstract public class CheckCLDR {
         this.skipTest = skipTest;
     }
 
+    /**
+     * Does the result of checking a path depend only on what is read in setCldrFileToCheck and while checking
+     * that path? A check that builds up state while checking, such as the formats that an ICUServiceBuilder
+     * caches, must return false (the default), so that a cache of results such as TestCache drops all of them
+     * when something that state was built from changes.
+     */
+    public boolean isStatelessCheck() {
+        return false;
+    }
+
     /**
      * Here is where the list of all checks is found.
      *
@@ -1198,6 +1211,13 @@ abstract public class CheckCLDR {
         private Matcher filter;
         private List<CheckCLDR> checkList = new ArrayList<CheckCLDR>();
         private List<CheckCLDR> filteredCheckList = new ArrayList<CheckCLDR>();
+        private Counter<String> checkTimes = null;
+        /**
+         * What the checks that aren't stateless read while checking or getting examples, while a
+         * PathReadRecorder was active.
+         */
+        private final Set<String> statefulPaths = ConcurrentHashMap.newKeySet();
+        private final Set<String> statefulPrefixes = ConcurrentHashMap.newKeySet();
 
         public CompoundCheckCLDR add(CheckCLDR item) {
             checkList.add(item);
@@ -1228,6 +1248,8 @@ abstract public class CheckCLDR {
                         continue;
                     }
                 }
+                long startTime = checkTimes == null ? 0 : System.nanoTime();
+                PathReadRecorder recorder = startStatefulRecording(item);
                 try {
                     if (!item.isSkipTest()) {
                         item.handleCheck(path, fullPath, value, options, result);
@@ -1235,11 +1257,65 @@ abstract public class CheckCLDR {
                 } catch (Exception e) {
                     addError(result, item, e);
                     return this;
+                } finally {
+                    stopStatefulRecording(recorder);
+                    addCheckTime(item, startTime);
+                }
+            }
+            return this;
+        }
+
+        private PathReadRecorder startStatefulRecording(CheckCLDR item) {
+            return item.isStatelessCheck() || !PathReadRecorder.isRecording() ? null : PathReadRecorder.startNested();
+        }
+
+        private void stopStatefulRecording(PathReadRecorder recorder) {
+            if (recorder != null) {
+                PathReadRecorder.Reads reads = recorder.stop();
+                statefulPaths.addAll(reads.getPaths());
+                statefulPrefixes.addAll(reads.getPrefixes());
+                statefulPrefixes.addAll(reads.getIterationPrefixes());
+            }
+        }
+
+        /**
+         * Could a change to the given path change the state built up by the checks that aren't stateless?
+         * Only what they read while a PathReadRecorder was active on the checking thread is known.
+         */
+        public boolean statefulChecksDependOn(String path) {
+            if (statefulPaths.contains(path)) {
+                return true;
+            }
+            for (String prefix : statefulPrefixes) {
+                if (path.startsWith(prefix)) {
+                    return true;
                 }
             }
+            return false;
+        }
+
+        private void addCheckTime(CheckCLDR item, long startTime) {
+            if (checkTimes != null) {
+                checkTimes.add(item.getClass().getSimpleName(), System.nanoTime() - startTime);
+            }
+        }
+
+        /**
+         * Turn on (or off) adding up the time spent in each check, in setCldrFileToCheck and check.
+         * Each CompoundCheckCLDR has its own times, so it should only be used on one thread at a time.
+         */
+        public CompoundCheckCLDR setRecordCheckTimes(boolean recordCheckTimes) {
+            checkTimes = recordCheckTimes ? new Counter<String>(true) : null;
             return this;
         }
 
+        /**
+         * Returns the nanoseconds spent in each check (by simple class name), or null if not recorded.
+         */
+        public Counter<String> getCheckTimes() {
+            return checkTimes;
+        }
+
         @Override
         public void handleFinish() {
             for (Iterator<CheckCLDR> it = filteredCheckList.iterator(); it.hasNext();) {
@@ -1253,11 +1329,14 @@ abstract public class CheckCLDR {
             result.clear();
             for (Iterator<CheckCLDR> it = filteredCheckList.iterator(); it.hasNext();) {
                 CheckCLDR item = it.next();
+                PathReadRecorder recorder = startStatefulRecording(item);
                 try {
                     item.handleGetExamples(path, fullPath, value, options, result);
                 } catch (Exception e) {
                     addError(result, item, e);
                     return this;
+                } finally {
+                    stopStatefulRecording(recorder);
                 }
             }
             return this;
@@ -1288,6 +1367,7 @@ abstract public class CheckCLDR {
                 CheckCLDR item = (CheckCLDR) it.next();
                 if (SHOW_TIMES)
                     testTime = new ElapsedTimer("Test setup time for " + item.getClass().toString() + ": {0}");
+                long startTime = checkTimes == null ? 0 : System.nanoTime();
                 try {
                     item.setPhase(getPhase());
                     item.setCldrFileToCheck(cldrFileToCheck, options, possibleErrors);
@@ -1301,6 +1381,8 @@ abstract public class CheckCLDR {
                 } catch (RuntimeException e) {
                     addError(possibleErrors, item, e);
                     if (SHOW_TIMES) System.out.println("ERR: " + testTime + " - " + e.toString());
+                } finally {
+                    addCheckTime(item, startTime);
                 }
             }
             if (SHOW_TIMES) System.out.println("Overall: " + testOverallTime + ": {0}");
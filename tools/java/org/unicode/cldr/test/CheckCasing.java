@@ -34,6 +34,11 @@ public class CheckCasing extends CheckCLDR {
         return this;
     }
 
+    @Override
+    public boolean isStatelessCheck() {
+        return true;
+    }
+
     // If you don't need any file initialization or postprocessing, you only need this one routine
     public CheckCLDR handleCheck(String path, String fullPath, String value, Options options,
         List<CheckStatus> result) {
@@ -20,6 +20,11 @@ public class CheckChildren extends FactoryCheckCLDR {
         super(factory);
     }
 
+    @Override
+    public boolean isStatelessCheck() {
+        return true;
+    }
+
     public CheckCLDR handleCheck(String path, String fullPath, String value,
         Options options, List<CheckStatus> result) {
         if (immediateChildren == null) return this; // skip - test isn't even relevant
@@ -82,6 +82,11 @@ public class CheckConsistentCasing extends FactoryCheckCLDR {
         return this;
     }
 
+    @Override
+    public boolean isStatelessCheck() {
+        return true;
+    }
+
     // If you don't need any file initialization or postprocessing, you only need this one routine
     public CheckCLDR handleCheck(String path, String fullPath, String value, Options options,
         List<CheckStatus> result) {
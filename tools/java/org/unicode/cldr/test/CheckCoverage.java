@@ -50,6 +50,11 @@ public class CheckCoverage extends FactoryCheckCLDR {
         super(factory);
     }
 
+    @Override
+    public boolean isStatelessCheck() {
+        return true;
+    }
+
     public CheckCLDR handleCheck(String path, String fullPath, String value,
         Options options, List<CheckStatus> result) {
 
@@ -13,6 +13,11 @@ public class CheckCurrencies extends CheckCLDR {
 
     XPathParts parts = new XPathParts(); // used to parse out a path
 
+    @Override
+    public boolean isStatelessCheck() {
+        return true;
+    }
+
     // If you don't need any file initialization or postprocessing, you only need this one routine
     public CheckCLDR handleCheck(String path, String fullPath, String value, Options options,
         List<CheckStatus> result) {
@@ -18,6 +18,7 @@ import org.unicode.cldr.util.CldrUtility;
 import org.unicode.cldr.util.Factory;
 import org.unicode.cldr.util.PathHeader;
 import org.unicode.cldr.util.PatternCache;
+import org.unicode.cldr.util.RegexLookup;
 import org.unicode.cldr.util.SimpleXMLSource;
 import org.unicode.cldr.util.XMLSource;
 import org.unicode.cldr.util.XPathParts;
@@ -82,11 +83,13 @@ public class CheckDisplayCollisions extends FactoryCheckCLDR {
         private MatchType matchType;
         private String basePrefix;
         private Pattern basePattern;
+        private String literalPrefix;
 
         private Type(String basePrefix, MatchType matchType, int index) {
             this.matchType = matchType;
             this.basePrefix = basePrefix;
             this.basePattern = PatternCache.get("^" + basePrefix + ".*");
+            this.literalPrefix = matchType == MatchType.PREFIX ? basePrefix : RegexLookup.getLiteralPrefix("^" + basePrefix);
         }
 
         /**
@@ -247,6 +250,11 @@ public class CheckDisplayCollisions extends FactoryCheckCLDR {
         super(factory);
     }
 
+    @Override
+    public boolean isStatelessCheck() {
+        return true;
+    }
+
     @SuppressWarnings("unused")
     public CheckCLDR handleCheck(String path, String fullPath, String value, Options options,
         List<CheckStatus> result) {
@@ -564,7 +572,8 @@ public class CheckDisplayCollisions extends FactoryCheckCLDR {
         if (myType.matchType == MatchType.PREFIX) {
             file.getPathsWithValue(value, myPrefix, matcher, retrievedPaths);
         } else {
-            file.getPathsWithValue(value, "//ldml", myType.getPattern().matcher(""), retrievedPaths);
+            // only look at the paths that could match, so fewer paths are read
+            file.getPathsWithValue(value, myType.literalPrefix, myType.getPattern().matcher(""), retrievedPaths);
         }
 
         String normValue = null;
@@ -633,6 +642,10 @@ public class CheckDisplayCollisions extends FactoryCheckCLDR {
         List<CheckStatus> possibleErrors) {
         if (cldrFileToCheck == null) return this;
         super.setCldrFileToCheck(cldrFileToCheck, options, possibleErrors);
+        if (exceptions == null) {
+            // load these here rather than while checking, so that checking is stateless
+            loadRegionExceptions();
+        }
         // pick up the 3 subdivisions
 //        nameToSubdivisionId = EmojiSubdivisionNames.getNameToSubdivisionPath(cldrFileToCheck.getLocaleID());
         return this;
@@ -664,11 +677,13 @@ public class CheckDisplayCollisions extends FactoryCheckCLDR {
      *         the specified region code
      */
     public String getRegionException(String regionCode) {
-        if (exceptions != null) {
-            String lookup = exceptions.get(regionCode);
-            return lookup;
+        if (exceptions == null) {
+            loadRegionExceptions();
         }
+        return exceptions.get(regionCode);
+    }
 
+    private void loadRegionExceptions() {
         CLDRFile english = getEnglishFile();
         // Pick up all instances in English where the exemplarCity and territory match
         // and include them as exceptions.
@@ -706,7 +721,6 @@ public class CheckDisplayCollisions extends FactoryCheckCLDR {
         // pairs because the city is in the territory and sounds too similar.
         addRegionException("Africa/Algiers", "DZ"); // Algeria
         addRegionException("Africa/Tunis", "TN"); // Tunisia
-        return exceptions.get(regionCode);
     }
 
     /**
@@ -146,6 +146,11 @@ public class CheckExemplars extends FactoryCheckCLDR {
         return this;
     }
 
+    @Override
+    public boolean isStatelessCheck() {
+        return true;
+    }
+
     public CheckCLDR handleCheck(String path, String fullPath, String value, Options options,
         List<CheckStatus> result) {
         if (fullPath == null) return this; // skip paths that we don't have
@@ -142,6 +142,11 @@ public class CheckForCopy extends FactoryCheckCLDR {
         ok, same_as_english, same_as_code
     }
 
+    @Override
+    public boolean isStatelessCheck() {
+        return true;
+    }
+
     public CheckCLDR handleCheck(String path, String fullPath, String value,
         Options options, List<CheckStatus> result) {
 
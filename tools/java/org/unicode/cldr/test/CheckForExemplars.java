@@ -257,6 +257,11 @@ public class CheckForExemplars extends FactoryCheckCLDR {
         return result;
     }
 
+    @Override
+    public boolean isStatelessCheck() {
+        return true;
+    }
+
     public CheckCLDR handleCheck(String path, String fullPath, String value,
         Options options, List<CheckStatus> result) {
         if (fullPath == null) return this; // skip paths that we don't have
@@ -7,6 +7,11 @@ import org.unicode.cldr.util.CldrUtility;
 
 public class CheckForInheritanceMarkers extends CheckCLDR {
 
+    @Override
+    public boolean isStatelessCheck() {
+        return true;
+    }
+
     @Override
     public CheckCLDR handleCheck(String path, String fullPath, String value, Options options,
         List<CheckStatus> result) {
@@ -13,6 +13,11 @@ public class CheckNames extends CheckCLDR {
         .compile(
             "//ldml/localeDisplayNames/(languages|currencies|scripts|territories|measurementSystemNames|transformNames)/.*");
 
+    @Override
+    public boolean isStatelessCheck() {
+        return true;
+    }
+
     @Override
     public CheckCLDR handleCheck(String path, String fullPath, String value, Options options,
         List<CheckStatus> result) {
@@ -36,6 +36,11 @@ public class CheckNew extends FactoryCheckCLDR {
         return this;
     }
 
+    @Override
+    public boolean isStatelessCheck() {
+        return true;
+    }
+
     @Override
     public CheckCLDR handleCheck(String path, String fullPath, String value, Options options,
         List<CheckStatus> result) {
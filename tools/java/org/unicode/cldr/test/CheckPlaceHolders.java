@@ -13,6 +13,11 @@ public class CheckPlaceHolders extends CheckCLDR {
     private static final Pattern SKIP_PATH_LIST = Pattern
         .compile("//ldml/characters/(exemplarCharacters|parseLenient).*");
 
+    @Override
+    public boolean isStatelessCheck() {
+        return true;
+    }
+
     @Override
     public CheckCLDR handleCheck(String path, String fullPath, String value, Options options,
         List<CheckStatus> result) {
@@ -21,6 +21,11 @@ public class CheckQuotes extends CheckCLDR {
         .add(0x00AB)
         .add(0x00BB);
 
+    @Override
+    public boolean isStatelessCheck() {
+        return true;
+    }
+
     @Override
     public CheckCLDR handleCheck(String path, String fullPath, String value, Options options,
         List<CheckStatus> result) {
@@ -11,6 +11,7 @@ import org.unicode.cldr.util.CLDRFile;
 import org.unicode.cldr.util.Level;
 import org.unicode.cldr.util.PatternCache;
 import org.unicode.cldr.util.RegexLookup;
+import org.unicode.cldr.util.RegexLookup.LookupType;
 import org.unicode.cldr.util.SupplementalDataInfo;
 
 public class CheckWidths extends CheckCLDR {
@@ -190,7 +191,8 @@ public class CheckWidths extends CheckCLDR {
 
     static final String ALLOW_LONGEST = "consumption-liter-per-100kilometers";
 
-    static RegexLookup<Limit[]> lookup = new RegexLookup<Limit[]>()
+    // reentrant, since ConsoleCheckCLDR can check several locales at once
+    static RegexLookup<Limit[]> lookup = new RegexLookup<Limit[]>(LookupType.PREFIX_TRIE_LOOKUP)
         .setPatternTransform(RegexLookup.RegexFinderTransformPath)
         .addVariable("%A", "\"[^\"]+\"")
         .addVariable("%P", "\"[ap]m\"")
@@ -323,6 +325,11 @@ public class CheckWidths extends CheckCLDR {
 
     Set<Limit> found = new LinkedHashSet<Limit>();
 
+    @Override
+    public boolean isStatelessCheck() {
+        return true;
+    }
+
     @Override
     public CheckCLDR handleCheck(String path, String fullPath, String value, Options options, List<CheckStatus> result) {
         if (value == null) {
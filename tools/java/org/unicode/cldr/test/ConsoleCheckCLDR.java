@@ -1,7 +1,9 @@
 package org.unicode.cldr.test;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.PrintStream;
 import java.io.PrintWriter;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -13,11 +15,20 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import org.unicode.cldr.draft.FileUtilities;
 import org.unicode.cldr.test.CheckCLDR.CheckStatus;
@@ -41,7 +52,7 @@ import org.unicode.cldr.util.CLDRPaths;
 import org.unicode.cldr.util.CLDRTool;
 import org.unicode.cldr.util.CldrUtility;
 import org.unicode.cldr.util.Counter;
-import org.unicode.cldr.util.CoverageInfo;
+import org.unicode.cldr.util.CoverageLevelTable;
 import org.unicode.cldr.util.Factory;
 import org.unicode.cldr.util.LanguageTagParser;
 import org.unicode.cldr.util.Level;
@@ -157,7 +168,9 @@ public class ConsoleCheckCLDR {
             "Partially qualified directories. Standard subdirectories added if not specified (/main, /annotations, /subdivisions). (Conflicts with -s.)")
             .setMatch(".*").setFlag('S').setDefault("common,seed,exemplars")), //, 'S', <changed>),
         bailey(new Params().setHelp("check bailey values (" + CldrUtility.INHERITANCE_MARKER + ")")), //, 'b', UOption.NO_ARG)
-        exemplarError(new Params().setFlag('E').setHelp("include to force strict Exemplar check"));
+        exemplarError(new Params().setFlag('E').setHelp("include to force strict Exemplar check")),
+        threads(new Params().setHelp("Number of locales to check concurrently, eg -T 8. Output is the same as with one thread.")
+            .setDefault("1").setMatch("[1-9][0-9]*").setFlag('T'));
 
         // BOILERPLATE TO COPY
         final Option option;
@@ -201,7 +214,8 @@ public class ConsoleCheckCLDR {
         UOption.create("subtype_filter", 'y', UOption.REQUIRES_ARG),
         UOption.create("source_all", 'S', UOption.OPTIONAL_ARG).setDefault("common,seed,exemplars"),
         UOption.create("bailey", 'b', UOption.NO_ARG),
-        UOption.create("exemplarError", 'E', UOption.NO_ARG)
+        UOption.create("exemplarError", 'E', UOption.NO_ARG),
+        UOption.create("threads", 'T', UOption.REQUIRES_ARG).setDefault("1")
         // UOption.create("vote resolution2", 'w', UOption.OPTIONAL_ARG).setDefault(Utility.BASE_DIRECTORY +
         // "incoming/vetted/main/votes/"),
     };
@@ -240,9 +254,9 @@ public class ConsoleCheckCLDR {
         "-u \t User, eg -uu148",
         "-y \t error/warning subtype filter, eg unexpectedOrderOfEraYear",
         "-b \t check bailey values (" + CldrUtility.INHERITANCE_MARKER + ")",
+        "-T \t Number of locales to check concurrently, eg -T 8",
     };
 
-    static Counter<ErrorType> subtotalCount = new Counter<ErrorType>(true); // new ErrorCount();
     static Counter<ErrorType> totalCount = new Counter<ErrorType>(true);
 
     /**
@@ -272,7 +286,7 @@ public class ConsoleCheckCLDR {
         }
         String checkFilter = options[TEST_FILTER].value;
         String subtypeFilterString = options[SUBTYPE_FILTER].value;
-        EnumSet<Subtype> subtypeFilter = null;
+        subtypeFilter = null;
         if (subtypeFilterString != null) {
             subtypeFilter = EnumSet.noneOf(Subtype.class);
             Matcher m = PatternCache.get(subtypeFilterString).matcher("");
@@ -293,17 +307,17 @@ public class ConsoleCheckCLDR {
         // }
 
         SHOW_EXAMPLES = options[EXAMPLES].doesOccur;
-        boolean showAll = options[SHOWALL].doesOccur;
-        boolean checkFlexibleDates = options[DATE_FORMATS].doesOccur;
+        showAll = options[SHOWALL].doesOccur;
+        checkFlexibleDates = options[DATE_FORMATS].doesOccur;
         String pathFilterString = options[PATH_FILTER].value;
-        Matcher pathFilter = null;
+        pathFilter = null;
         if (!pathFilterString.equals(".*")) {
-            pathFilter = PatternCache.get(pathFilterString).matcher("");
+            pathFilter = PatternCache.get(pathFilterString);
         }
-        boolean checkOnSubmit = options[CHECK_ON_SUBMIT].doesOccur;
+        checkOnSubmit = options[CHECK_ON_SUBMIT].doesOccur;
         boolean noaliases = options[NO_ALIASES].doesOccur;
 
-        Level coverageLevel = null;
+        coverageLevel = null;
         String coverageLevelInput = options[COVERAGE].value;
         if (coverageLevelInput != null) {
             coverageLevel = Level.get(coverageLevelInput);
@@ -313,7 +327,7 @@ public class ConsoleCheckCLDR {
             }
         }
 
-        Organization organization = options[ORGANIZATION].value == null ? null : Organization.fromString(options[ORGANIZATION].value);
+        organization = options[ORGANIZATION].value == null ? null : Organization.fromString(options[ORGANIZATION].value);
         if (organization != null) {
             Set<Organization> organizations = StandardCodes.make().getLocaleCoverageOrganizations();
             if (!organizations.contains(organization)) {
@@ -325,7 +339,6 @@ public class ConsoleCheckCLDR {
         // set the envronment to UNITTEST as suggested
         cldrConf.setEnvironment(Environment.UNITTEST);
         // get the Phase from CLDRConfig object
-        final Phase phase;
         //   Phase phase = Phase.BUILD;
         if (options[PHASE].doesOccur) {
             String phaseVal = options[PHASE].value;
@@ -360,7 +373,7 @@ public class ConsoleCheckCLDR {
             phase = cldrConf.getPhase();
         }
 
-        boolean baileyTest = options[BAILEY].doesOccur;
+        baileyTest = options[BAILEY].doesOccur;
 
         File sourceDirectories[] = null;
 
@@ -406,7 +419,13 @@ public class ConsoleCheckCLDR {
         // System.out.println(cc.compare("Antarctica/Rothera", "America/Cordoba"));
         // System.out.println(cc.compare("Antarctica/Rothera", "America/Indianapolis"));
 
-        String user = options[USER].value;
+        user = options[USER].value;
+
+        int threads = Integer.parseInt(MyOptions.threads.option.getValue());
+        if (threads > 1 && (checkFlexibleDates || ErrorFile.generated_html_directory != null
+            || resolveVotesDirectory != null)) {
+            throw new IllegalArgumentException("-d, -g, and -v can't be used with -T: they don't write their output per locale.");
+        }
 
         System.out.println("Source directories:\n");
         for (File f : sourceDirectories) {
@@ -432,7 +451,7 @@ public class ConsoleCheckCLDR {
 //        System.out.println("subtype filter: " + subtypeFilter);
 
         // set up the test
-        Factory cldrFactory = SimpleFactory.make(sourceDirectories, factoryFilter)
+        cldrFactory = SimpleFactory.make(sourceDirectories, factoryFilter)
             .setSupplementalDirectory(new File(CLDRPaths.SUPPLEMENTAL_DIRECTORY));
         CompoundCheckCLDR checkCldr = CheckCLDR.getCheckAll(cldrFactory, checkFilter);
         if (checkCldr.getFilteredTestList().size() == 0) {
@@ -446,415 +465,552 @@ public class ConsoleCheckCLDR {
         checkCldr.setDisplayInformation(english);
         checkCldr.setEnglishFile(english);
         setExampleGenerator(new ExampleGenerator(english, english, CLDRPaths.SUPPLEMENTAL_DIRECTORY));
-        PathShower pathShower = new PathShower();
 
         // call on the files
         Set<String> locales = new TreeSet<String>(baseFirstCollator);
         locales.addAll(cldrFactory.getAvailable());
 
-        List<CheckStatus> result = new ArrayList<CheckStatus>();
-        Set<PathHeader> paths = new TreeSet<PathHeader>(); // CLDRFile.ldmlComparator);
-        Map m = new TreeMap();
-        // double testNumber = 0;
-        Map<String, String> options = new HashMap<String, String>();
-        FlexibleDateFromCLDR fset = new FlexibleDateFromCLDR();
-        Set<String> englishPaths = null;
-
         Set<String> fatalErrors = new TreeSet<String>();
 
         showHeaderLine();
 
         supplementalDataInfo = SupplementalDataInfo.getInstance(CLDRPaths.SUPPLEMENTAL_DIRECTORY);
 
-        LocaleIDParser localeIDParser = new LocaleIDParser();
-        String lastBaseLanguage = "";
-        PathHeader.Factory pathHeaderFactory = PathHeader.getFactory(english);
-
-        final List<String> specialPurposeLocales = new ArrayList<String>(Arrays.asList("en_US_POSIX", "en_ZZ", "und", "und_ZZ"));
-        for (String localeID : locales) {
-            if (CLDRFile.isSupplementalName(localeID)) continue;
-            if (supplementalDataInfo.getDefaultContentLocales().contains(localeID)) {
-                System.out.println("# Skipping default content locale: " + localeID);
-                continue;
-            }
+        pathHeaderFactory = PathHeader.getFactory(english);
 
-            // We don't really need to check the POSIX locale, as it is a special purpose locale
-            if (specialPurposeLocales.contains(localeID)) {
-                System.out.println("# Skipping special purpose locale: " + localeID);
-                continue;
-            }
+        // initialize once, before any locale is checked.
+        Set<String> englishPaths = new HashSet<String>();
+        final CLDRFile displayFile = CheckCLDR.getDisplayInformation();
+        Matcher englishPathFilter = pathFilter == null ? null : pathFilter.matcher("");
+        addPrettyPaths(displayFile, englishPathFilter, pathHeaderFactory, noaliases, true, englishPaths);
+        addPrettyPaths(displayFile, displayFile.getExtraPaths(), englishPathFilter, pathHeaderFactory, noaliases,
+            true, englishPaths);
+        englishPaths = Collections.unmodifiableSet(englishPaths); // for robustness
 
-            boolean isLanguageLocale = localeID.equals(localeIDParser.set(localeID).getLanguageScript());
-            options.clear();
+        if (checkFlexibleDates) {
+            fset = new FlexibleDateFromCLDR();
+        }
 
-            if (MyOptions.exemplarError.option.doesOccur()) {
-                options.put(Options.Option.exemplarErrors.toString(), "true");
-            }
+        // each thread checks with its own set of CheckCLDR instances
+        List<CompoundCheckCLDR> checkers = new ArrayList<CompoundCheckCLDR>();
+        checkers.add(checkCldr);
+        for (int i = 1; i < threads; ++i) {
+            CompoundCheckCLDR checker = CheckCLDR.getCheckAll(cldrFactory, checkFilter);
+            checker.setEnglishFile(english);
+            checkers.add(checker);
+        }
+        for (CompoundCheckCLDR checker : checkers) {
+            checker.setRecordCheckTimes(true);
+        }
 
-            // if the organization is set, skip any locale that doesn't have a value in Locales.txt
-            Level level = coverageLevel;
-            if (level == null) {
-                level = Level.BASIC;
+        Counter<String> localeTimes = new Counter<String>(true);
+        if (threads == 1) {
+            for (String localeID : locales) {
+                addLocaleResult(checkLocale(checkCldr, localeID, false), fatalErrors, localeTimes);
             }
-            if (organization != null) {
-                Map<String, Level> locale_status = StandardCodes.make().getLocaleToLevel(organization);
-                if (locale_status == null) continue;
-                level = locale_status.get(localeID);
-                if (level == null) continue;
-                if (level.compareTo(Level.BASIC) <= 0) continue;
-            } else if (!isLanguageLocale) {
-                // otherwise, skip all language locales
-                options.put(Options.Option.CheckCoverage_skip.getKey(), "true");
+        } else {
+            final BlockingQueue<CompoundCheckCLDR> idleCheckers = new ArrayBlockingQueue<CompoundCheckCLDR>(threads, false,
+                checkers);
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+            List<Future<LocaleResult>> futures = new ArrayList<Future<LocaleResult>>();
+            for (final String localeID : locales) {
+                futures.add(executor.submit(new Callable<LocaleResult>() {
+                    @Override
+                    public LocaleResult call() throws Exception {
+                        CompoundCheckCLDR checker = idleCheckers.take();
+                        try {
+                            return checkLocale(checker, localeID, true);
+                        } finally {
+                            idleCheckers.add(checker);
+                        }
+                    }
+                }));
             }
+            executor.shutdown();
+            // merge in locale order, so that the output doesn't depend on the number of threads
+            try {
+                for (Future<LocaleResult> future : futures) {
+                    addLocaleResult(future.get(), fatalErrors, localeTimes);
+                }
+            } catch (InterruptedException e) {
+                executor.shutdownNow();
+                throw new IllegalStateException(e);
+            } catch (ExecutionException e) {
+                executor.shutdownNow();
+                throw new IllegalStateException("Failure checking locales", e.getCause());
+            }
+        }
 
-            // if (coverageLevel != null) options.put("CoverageLevel.requiredLevel", coverageLevel.toString());
-            if (organization != null) options.put(Options.Option.CoverageLevel_localeType.getKey(), organization.toString());
-            options.put(Options.Option.phase.getKey(), phase.toString());
-            //options.put(Options.Option.SHOW_TIMES.getKey(), "true");
-
-            if (SHOW_LOCALE) System.out.println();
+        if (ErrorFile.errorFileWriter != null) {
+            ErrorFile.closeErrorFile();
+        }
 
-            // options.put("CheckCoverage.requiredLevel","comprehensive");
+        if (ErrorFile.generated_html_directory != null) {
+            ErrorFile.writeErrorCountsText();
+            ErrorFile.writeErrorFileIndex();
+        }
+        System.out.println();
+        for (ErrorType type : totalCount.keySet()) {
+            System.out.println("# Total " + type + ":\t" + totalCount.getCount(type));
+        }
 
-            CLDRFile file;
-            CLDRFile englishFile = english;
-            CLDRFile parent = null;
+        Counter<String> checkTimes = new Counter<String>(true);
+        for (CompoundCheckCLDR checker : checkers) {
+            checkTimes.addAll(checker.getCheckTimes());
+        }
+        showTimes("Locale", localeTimes);
+        showTimes("Check", checkTimes);
 
-            ElapsedTimer timer = new ElapsedTimer();
-            try {
-                file = cldrFactory.make(localeID, true);
-                if (ErrorFile.voteFactory != null) {
-                    ErrorFile.voteFile = ErrorFile.voteFactory.make(localeID, true);
-                }
-                final String parentID = LocaleIDParser.getParent(localeID);
-                if (parentID != null) {
-                    parent = cldrFactory.make(parentID, true);
-                }
-                //englishFile = cldrFactory.make("en", true);
-            } catch (RuntimeException e) {
-                fatalErrors.add(localeID);
-                System.out.println("FATAL ERROR: " + localeID);
-                e.printStackTrace(System.out);
-                continue;
+        System.out.println();
+        System.out.println("# Total elapsed time: " + totalTimer);
+        if (fatalErrors.size() != 0) {
+            System.out.println("# FATAL ERRORS:");
+        }
+        long errorCount = totalCount.getCount(ErrorType.error) + fatalErrors.size();
+        if (errorCount != 0) {
+            //            System.exit((int) errorCount); // cast is safe; we'll never have that many errors
+            System.out.println();
+            System.out.println("<< FAILURE - Error count is " + errorCount + " . >>");
+            System.exit(-1);
+        } else {
+            System.out.println();
+            System.out.println("<< SUCCESS - No errors found. >>");
+        }
+        if (LogicalGrouping.GET_TYPE_COUNTS) {
+            for (String s : LogicalGrouping.typeCount.keySet()) {
+                System.out.println(s + "=" + LogicalGrouping.typeCount.get(s));
             }
+        }
+        for (CompoundCheckCLDR checker : checkers) {
+            checker.handleFinish();
+        }
+    }
 
-            // generate HTML if asked for
-            if (ErrorFile.generated_html_directory != null) {
-                String baseLanguage = localeIDParser.set(localeID).getLanguageScript();
+    /**
+     * The output and error counts from checking one locale.
+     */
+    private static class LocaleResult {
+        final String localeID;
+        final ByteArrayOutputStream buffer;
+        final PrintStream out;
+        final Counter<ErrorType> subtotalCount = new Counter<ErrorType>(true);
+        boolean checked = false;
+        boolean fatal = false;
+        long nanos;
+
+        /**
+         * If buffered, the output is held until {@link #addLocaleResult} copies it to System.out.
+         */
+        LocaleResult(String localeID, boolean buffered) {
+            this.localeID = localeID;
+            buffer = buffered ? new ByteArrayOutputStream() : null;
+            out = buffered ? new PrintStream(buffer) : System.out;
+        }
+    }
 
-                if (!baseLanguage.equals(lastBaseLanguage)) {
-                    lastBaseLanguage = baseLanguage;
-                    ErrorFile.openErrorFile(localeID, baseLanguage);
-                }
+    /**
+     * The result for the locale being checked on the current thread; showValue etc. write to it.
+     */
+    private static final ThreadLocal<LocaleResult> currentResult = new ThreadLocal<LocaleResult>();
 
-            }
+    private static PrintStream out() {
+        LocaleResult result = currentResult.get();
+        return result == null ? System.out : result.out;
+    }
 
-            if (user != null) {
-                file = new CLDRFile.TestUser(file, user, isLanguageLocale);
-                if (parent != null) {
-                    parent = new CLDRFile.TestUser(parent, user, isLanguageLocale);
-                }
+    private static final List<String> specialPurposeLocales = Arrays.asList("en_US_POSIX", "en_ZZ", "und", "und_ZZ");
+
+    /**
+     * Run the checks on one locale. Safe to call on different threads as long as each has its own checkCldr,
+     * and the output is buffered.
+     */
+    private static LocaleResult checkLocale(CompoundCheckCLDR checkCldr, String localeID, boolean buffered)
+        throws IOException {
+        LocaleResult localeResult = new LocaleResult(localeID, buffered);
+        currentResult.set(localeResult);
+        try {
+            checkLocale(checkCldr, localeResult);
+        } finally {
+            currentResult.remove();
+            localeResult.out.flush();
+        }
+        return localeResult;
+    }
+
+    private static void checkLocale(CompoundCheckCLDR checkCldr, LocaleResult localeResult) throws IOException {
+        final String localeID = localeResult.localeID;
+        if (CLDRFile.isSupplementalName(localeID)) return;
+        if (supplementalDataInfo.getDefaultContentLocales().contains(localeID)) {
+            out().println("# Skipping default content locale: " + localeID);
+            return;
+        }
+
+        // We don't really need to check the POSIX locale, as it is a special purpose locale
+        if (specialPurposeLocales.contains(localeID)) {
+            out().println("# Skipping special purpose locale: " + localeID);
+            return;
+        }
+
+        LocaleIDParser localeIDParser = new LocaleIDParser();
+        boolean isLanguageLocale = localeID.equals(localeIDParser.set(localeID).getLanguageScript());
+        Map<String, String> options = new HashMap<String, String>();
+
+        if (MyOptions.exemplarError.option.doesOccur()) {
+            options.put(Options.Option.exemplarErrors.toString(), "true");
+        }
+
+        // if the organization is set, skip any locale that doesn't have a value in Locales.txt
+        Level level = coverageLevel;
+        if (level == null) {
+            level = Level.BASIC;
+        }
+        if (organization != null) {
+            Map<String, Level> locale_status = StandardCodes.make().getLocaleToLevel(organization);
+            if (locale_status == null) return;
+            level = locale_status.get(localeID);
+            if (level == null) return;
+            if (level.compareTo(Level.BASIC) <= 0) return;
+        } else if (!isLanguageLocale) {
+            // otherwise, skip all language locales
+            options.put(Options.Option.CheckCoverage_skip.getKey(), "true");
+        }
+
+        // if (coverageLevel != null) options.put("CoverageLevel.requiredLevel", coverageLevel.toString());
+        if (organization != null) options.put(Options.Option.CoverageLevel_localeType.getKey(), organization.toString());
+        options.put(Options.Option.phase.getKey(), phase.toString());
+        //options.put(Options.Option.SHOW_TIMES.getKey(), "true");
+
+        if (SHOW_LOCALE) out().println();
+
+        // options.put("CheckCoverage.requiredLevel","comprehensive");
+
+        CLDRFile file;
+        CLDRFile englishFile = english;
+        CLDRFile parent = null;
+
+        localeResult.checked = true;
+        long startTime = System.nanoTime();
+        ElapsedTimer timer = new ElapsedTimer();
+        try {
+            file = cldrFactory.make(localeID, true);
+            if (ErrorFile.voteFactory != null) {
+                ErrorFile.voteFile = ErrorFile.voteFactory.make(localeID, true);
+            }
+            final String parentID = LocaleIDParser.getParent(localeID);
+            if (parentID != null) {
+                parent = cldrFactory.make(parentID, true);
             }
-            checkCldr.setCldrFileToCheck(file, options, result);
+            //englishFile = cldrFactory.make("en", true);
+        } catch (RuntimeException e) {
+            localeResult.fatal = true;
+            out().println("FATAL ERROR: " + localeID);
+            e.printStackTrace(out());
+            return;
+        }
 
-            subtotalCount.clear();
+        // generate HTML if asked for
+        if (ErrorFile.generated_html_directory != null) {
+            String baseLanguage = localeIDParser.set(localeID).getLanguageScript();
 
-            for (Iterator<CheckStatus> it3 = result.iterator(); it3.hasNext();) {
-                CheckStatus status = it3.next();
-                String statusString = status.toString(); // com.ibm.icu.impl.Utility.escape(
-                CheckStatus.Type statusType = status.getType();
+            if (!baseLanguage.equals(lastBaseLanguage)) {
+                lastBaseLanguage = baseLanguage;
+                ErrorFile.openErrorFile(localeID, baseLanguage);
+            }
 
-                if (errorsOnly) {
-                    if (!statusType.equals(CheckStatus.errorType)) continue;
-                }
+        }
 
-                if (subtypeFilter != null) {
-                    if (!subtypeFilter.contains(status.getSubtype())) {
-                        continue;
-                    }
-                }
+        if (user != null) {
+            file = new CLDRFile.TestUser(file, user, isLanguageLocale);
+            if (parent != null) {
+                parent = new CLDRFile.TestUser(parent, user, isLanguageLocale);
+            }
+        }
+        List<CheckStatus> result = new ArrayList<CheckStatus>();
+        checkCldr.setCldrFileToCheck(file, options, result);
 
-                if (checkOnSubmit) {
-                    if (!status.isCheckOnSubmit() || !statusType.equals(CheckStatus.errorType)) continue;
-                }
-                showValue(file, null, localeID, null, null, null, null, statusString, status.getSubtype(), null);
-                // showSummary(checkCldr, localeID, level, statusString);
+        for (Iterator<CheckStatus> it3 = result.iterator(); it3.hasNext();) {
+            CheckStatus status = it3.next();
+            String statusString = status.toString(); // com.ibm.icu.impl.Utility.escape(
+            CheckStatus.Type statusType = status.getType();
+
+            if (errorsOnly) {
+                if (!statusType.equals(CheckStatus.errorType)) continue;
             }
-            paths.clear();
-            // CollectionUtilities.addAll(file.iterator(pathFilter), paths);
-            CoverageInfo covInfo = cldrConf.getCoverageInfo();
-            for (String path : file.fullIterable()) {
-                if (pathFilter != null && !pathFilter.reset(path).find()) {
+
+            if (subtypeFilter != null) {
+                if (!subtypeFilter.contains(status.getSubtype())) {
                     continue;
                 }
-                if (coverageLevel != null) {
-                    Level currentLevel = covInfo.getCoverageLevel(path, localeID);
-                    if (currentLevel.compareTo(coverageLevel) > 0) {
-                        continue;
-                    }
-                }
-                paths.add(pathHeaderFactory.fromPath(path));
-            }
-            // addPrettyPaths(file, pathFilter, prettyPathMaker, noaliases, false, paths);
-            // addPrettyPaths(file, file.getExtraPaths(), pathFilter, prettyPathMaker, noaliases, false, paths);
-
-            // also add the English paths
-            // CollectionUtilities.addAll(checkCldr.getDisplayInformation().iterator(pathFilter), paths);
-            // initialize the first time in.
-            if (englishPaths == null) {
-                englishPaths = new HashSet<String>();
-                final CLDRFile displayFile = CheckCLDR.getDisplayInformation();
-                addPrettyPaths(displayFile, pathFilter, pathHeaderFactory, noaliases, true, englishPaths);
-                addPrettyPaths(displayFile, displayFile.getExtraPaths(), pathFilter, pathHeaderFactory, noaliases,
-                    true, englishPaths);
-                englishPaths = Collections.unmodifiableSet(englishPaths); // for robustness
             }
-            // paths.addAll(englishPaths);
 
-            UnicodeSet missingExemplars = new UnicodeSet();
-            UnicodeSet missingCurrencyExemplars = new UnicodeSet();
-            if (checkFlexibleDates) {
-                fset.set(file);
+            if (checkOnSubmit) {
+                if (!status.isCheckOnSubmit() || !statusType.equals(CheckStatus.errorType)) continue;
+            }
+            showValue(file, null, localeID, null, null, null, null, statusString, status.getSubtype(), null);
+            // showSummary(checkCldr, localeID, level, statusString);
+        }
+        Matcher pathFilterMatcher = pathFilter == null ? null : pathFilter.matcher("");
+        Set<PathHeader> paths = new TreeSet<PathHeader>(); // CLDRFile.ldmlComparator);
+        // CollectionUtilities.addAll(file.iterator(pathFilter), paths);
+        List<String> filteredPaths = new ArrayList<String>();
+        for (String path : file.fullIterable()) {
+            if (pathFilterMatcher != null && !pathFilterMatcher.reset(path).find()) {
+                continue;
+            }
+            filteredPaths.add(path);
+        }
+        CoverageLevelTable levels = coverageLevel == null ? null
+            : CLDRConfig.getInstance().getSupplementalDataInfo().getCoverageLevelTable(localeID, filteredPaths);
+        for (String path : filteredPaths) {
+            if (levels != null && levels.getLevel(path).compareTo(coverageLevel) > 0) {
+                continue;
             }
-            pathShower.set(localeID);
+            paths.add(pathHeaderFactory.fromPath(path));
+        }
+        // addPrettyPaths(file, pathFilter, prettyPathMaker, noaliases, false, paths);
+        // addPrettyPaths(file, file.getExtraPaths(), pathFilter, prettyPathMaker, noaliases, false, paths);
 
-            // only create if we are going to use
-            ExampleGenerator exampleGenerator = SHOW_EXAMPLES ? new ExampleGenerator(file, englishFile,
-                CLDRPaths.DEFAULT_SUPPLEMENTAL_DIRECTORY) : null;
-            ExampleContext exampleContext = new ExampleContext();
+        // also add the English paths
+        // CollectionUtilities.addAll(checkCldr.getDisplayInformation().iterator(pathFilter), paths);
+        // paths.addAll(englishPaths);
 
-            // Status pathStatus = new Status();
-            int pathCount = 0;
-            Status otherPath = new Status();
+        UnicodeSet missingExemplars = new UnicodeSet();
+        UnicodeSet missingCurrencyExemplars = new UnicodeSet();
+        if (checkFlexibleDates) {
+            fset.set(file);
+        }
 
-            for (PathHeader pathHeader : paths) {
-                pathCount++;
-                String path = pathHeader.getOriginalPath();
-                String prettyPath = pathHeader.toString().replace('\t', '|').replace(' ', '_');
-                // String prettyPath = it2.next();
-                // String path = prettyPathMaker.getOriginal(prettyPath);
-                // if (path == null) {
-                // prettyPathMaker.getOriginal(prettyPath);
-                // }
+        // only create if we are going to use
+        ExampleGenerator exampleGenerator = SHOW_EXAMPLES ? new ExampleGenerator(file, englishFile,
+            CLDRPaths.DEFAULT_SUPPLEMENTAL_DIRECTORY) : null;
+        ExampleContext exampleContext = new ExampleContext();
+        Map m = new TreeMap();
 
-                if (!showAll && !file.isWinningPath(path)) {
-                    continue;
-                }
-                if (!isLanguageLocale && !baileyTest) {
-                    final String sourceLocaleID = file.getSourceLocaleID(path, otherPath);
-                    if (!localeID.equals(sourceLocaleID)) {
-                        continue;
-                    }
-                    // also skip aliases
-                    if (!path.equals(otherPath.pathWhereFound)) {
-                        continue;
-                    }
-                }
+        // Status pathStatus = new Status();
+        int pathCount = 0;
+        Status otherPath = new Status();
+
+        for (PathHeader pathHeader : paths) {
+            pathCount++;
+            String path = pathHeader.getOriginalPath();
+            String prettyPath = pathHeader.toString().replace('\t', '|').replace(' ', '_');
+            // String prettyPath = it2.next();
+            // String path = prettyPathMaker.getOriginal(prettyPath);
+            // if (path == null) {
+            // prettyPathMaker.getOriginal(prettyPath);
+            // }
 
-                if (path.contains("@alt")) {
-                    if (path.contains("proposed")) continue;
+            if (!showAll && !file.isWinningPath(path)) {
+                continue;
+            }
+            if (!isLanguageLocale && !baileyTest) {
+                final String sourceLocaleID = file.getSourceLocaleID(path, otherPath);
+                if (!localeID.equals(sourceLocaleID)) {
+                    continue;
                 }
-                String value = file.getStringValue(path);
-                if (baileyTest) {
-                    value = CldrUtility.INHERITANCE_MARKER;
+                // also skip aliases
+                if (!path.equals(otherPath.pathWhereFound)) {
+                    continue;
                 }
-                String fullPath = file.getFullXPath(path);
+            }
 
-                String example = "";
+            if (path.contains("@alt")) {
+                if (path.contains("proposed")) continue;
+            }
+            String value = file.getStringValue(path);
+            if (baileyTest) {
+                value = CldrUtility.INHERITANCE_MARKER;
+            }
+            String fullPath = file.getFullXPath(path);
 
-                if (SHOW_EXAMPLES) {
-                    example = ExampleGenerator.simplify(exampleGenerator.getExampleHtml(path, value, exampleContext,
-                        ExampleType.NATIVE));
-                    showExamples(checkCldr, prettyPath, localeID, path, value, fullPath, example,
-                        exampleContext);
-                    // continue; // don't show problems
-                }
+            String example = "";
 
-                if (checkFlexibleDates) {
-                    fset.checkFlexibles(path, value, fullPath);
-                }
+            if (SHOW_EXAMPLES) {
+                example = ExampleGenerator.simplify(exampleGenerator.getExampleHtml(path, value, exampleContext,
+                    ExampleType.NATIVE));
+                showExamples(checkCldr, prettyPath, localeID, path, value, fullPath, example,
+                    exampleContext);
+                // continue; // don't show problems
+            }
 
-                if (path.contains("duration-century")) {
-                    int debug = 0;
-                }
+            if (checkFlexibleDates) {
+                fset.checkFlexibles(path, value, fullPath);
+            }
 
-                int limit = 1;
-                for (int jj = 0; jj < limit; ++jj) {
-                    if (jj == 0) {
-                        checkCldr.check(path, fullPath, value, new Options(options), result);
-                    } else {
-                        checkCldr.getExamples(path, fullPath, value, new Options(options), result);
-                    }
+            if (path.contains("duration-century")) {
+                int debug = 0;
+            }
 
-                    boolean showedOne = false;
-                    for (Iterator<CheckStatus> it3 = result.iterator(); it3.hasNext();) {
-                        CheckStatus status = it3.next();
-                        String statusString = status.toString(); // com.ibm.icu.impl.Utility.escape(
-                        CheckStatus.Type statusType = status.getType();
-                        if (errorsOnly && !statusType.equals(CheckStatus.errorType)) continue;
+            int limit = 1;
+            for (int jj = 0; jj < limit; ++jj) {
+                if (jj == 0) {
+                    checkCldr.check(path, fullPath, value, new Options(options), result);
+                } else {
+                    checkCldr.getExamples(path, fullPath, value, new Options(options), result);
+                }
 
-                        if (subtypeFilter != null) {
-                            if (!subtypeFilter.contains(status.getSubtype())) {
-                                continue;
-                            }
-                        }
-                        if (checkOnSubmit) {
-                            if (!status.isCheckOnSubmit() || !statusType.equals(status.errorType)) continue;
-                        }
-                        // pathShower.showHeader(path, value);
+                boolean showedOne = false;
+                for (Iterator<CheckStatus> it3 = result.iterator(); it3.hasNext();) {
+                    CheckStatus status = it3.next();
+                    String statusString = status.toString(); // com.ibm.icu.impl.Utility.escape(
+                    CheckStatus.Type statusType = status.getType();
+                    if (errorsOnly && !statusType.equals(CheckStatus.errorType)) continue;
 
-                        // System.out.print("Locale:\t" + getLocaleAndName(localeID) + "\t");
-                        if (statusType.equals(CheckStatus.demoType)) {
-                            SimpleDemo d = status.getDemo();
-                            if (d != null && d instanceof FormatDemo) {
-                                FormatDemo fd = (FormatDemo) d;
-                                m.clear();
-                                // m.put("pattern", fd.getPattern());
-                                // m.put("input", fd.getRandomInput());
-                                if (d.processPost(m)) System.out.println("\tDemo:\t" + fd.getPlainText(m));
-                            }
+                    if (subtypeFilter != null) {
+                        if (!subtypeFilter.contains(status.getSubtype())) {
                             continue;
                         }
-                        showValue(file, prettyPath, localeID, example, path, value, fullPath, statusString,
-                            status.getSubtype(), exampleContext);
-                        showedOne = true;
-
-                        Object[] parameters = status.getParameters();
-                        if (parameters != null) {
-                            if (parameters.length >= 1 && status.getCause().getClass() == CheckForExemplars.class) {
-                                try {
-                                    UnicodeSet set = new UnicodeSet(parameters[0].toString());
-                                    if (status.getMessage().contains("currency")) {
-                                        missingCurrencyExemplars.addAll(set);
-                                    } else {
-                                        missingExemplars.addAll(set);
-                                    }
-                                } catch (RuntimeException e) {
-                                } // skip if not parseable as set
-                            }
-                            for (int i = 0; i < parameters.length; ++i) {
-                                if (showStackTrace && parameters[i] instanceof Throwable) {
-                                    ((Throwable) parameters[i]).printStackTrace();
+                    }
+                    if (checkOnSubmit) {
+                        if (!status.isCheckOnSubmit() || !statusType.equals(status.errorType)) continue;
+                    }
+                    // pathShower.showHeader(path, value);
+
+                    // System.out.print("Locale:\t" + getLocaleAndName(localeID) + "\t");
+                    if (statusType.equals(CheckStatus.demoType)) {
+                        SimpleDemo d = status.getDemo();
+                        if (d != null && d instanceof FormatDemo) {
+                            FormatDemo fd = (FormatDemo) d;
+                            m.clear();
+                            // m.put("pattern", fd.getPattern());
+                            // m.put("input", fd.getRandomInput());
+                            if (d.processPost(m)) out().println("\tDemo:\t" + fd.getPlainText(m));
+                        }
+                        continue;
+                    }
+                    showValue(file, prettyPath, localeID, example, path, value, fullPath, statusString,
+                        status.getSubtype(), exampleContext);
+                    showedOne = true;
+
+                    Object[] parameters = status.getParameters();
+                    if (parameters != null) {
+                        if (parameters.length >= 1 && status.getCause().getClass() == CheckForExemplars.class) {
+                            try {
+                                UnicodeSet set = new UnicodeSet(parameters[0].toString());
+                                if (status.getMessage().contains("currency")) {
+                                    missingCurrencyExemplars.addAll(set);
+                                } else {
+                                    missingExemplars.addAll(set);
                                 }
+                            } catch (RuntimeException e) {
+                            } // skip if not parseable as set
+                        }
+                        for (int i = 0; i < parameters.length; ++i) {
+                            if (showStackTrace && parameters[i] instanceof Throwable) {
+                                ((Throwable) parameters[i]).printStackTrace();
                             }
                         }
-                        // survey tool will use: if (status.hasHTMLMessage())
-                        // System.out.println(status.getHTMLMessage());
                     }
-                    if (!showedOne && phase != Phase.FINAL_TESTING) {
-                        // if (fullPath != null && draftStatusMatcher.reset(fullPath).find() &&
-                        // localeID.equals(sourceLocaleID) && path.equals(otherPath.pathWhereFound)) {
-                        // final String draftStatus = draftStatusMatcher.group(1);
-                        // // see if value is same as parents, then skip
-                        // String parentValue = parent == null ? null : parent.getStringValue(path);
-                        // if (parentValue == null || !parentValue.equals(value)) {
-                        // showValue(file, prettyPath, localeID, example, path, value, fullPath, draftStatus,
-                        // Subtype.none, exampleContext);
-                        // showedOne = true;
-                        // }
-                        // }
-                        if (!showedOne && showAll) {
-                            showValue(file, prettyPath, localeID, example, path, value, fullPath, "ok", Subtype.none,
-                                exampleContext);
-                            showedOne = true;
-                            // pathShower.showHeader(path, value);
-                        }
+                    // survey tool will use: if (status.hasHTMLMessage())
+                    // System.out.println(status.getHTMLMessage());
+                }
+                if (!showedOne && phase != Phase.FINAL_TESTING) {
+                    // if (fullPath != null && draftStatusMatcher.reset(fullPath).find() &&
+                    // localeID.equals(sourceLocaleID) && path.equals(otherPath.pathWhereFound)) {
+                    // final String draftStatus = draftStatusMatcher.group(1);
+                    // // see if value is same as parents, then skip
+                    // String parentValue = parent == null ? null : parent.getStringValue(path);
+                    // if (parentValue == null || !parentValue.equals(value)) {
+                    // showValue(file, prettyPath, localeID, example, path, value, fullPath, draftStatus,
+                    // Subtype.none, exampleContext);
+                    // showedOne = true;
+                    // }
+                    // }
+                    if (!showedOne && showAll) {
+                        showValue(file, prettyPath, localeID, example, path, value, fullPath, "ok", Subtype.none,
+                            exampleContext);
+                        showedOne = true;
+                        // pathShower.showHeader(path, value);
                     }
-
                 }
-            }
 
-            if (resolveVotesDirectory != null) {
-                LocaleVotingData.resolveErrors(localeID);
             }
+        }
+
+        if (resolveVotesDirectory != null) {
+            LocaleVotingData.resolveErrors(localeID);
+        }
 
-            showSummary(checkCldr, localeID, level, "Items (including inherited):\t" + pathCount);
+        showSummary(checkCldr, localeID, level, "Items (including inherited):\t" + pathCount);
+        if (missingExemplars.size() != 0) {
+            missingExemplars.removeAll(new UnicodeSet("[[:Uppercase:]-[İ]]")); // remove uppercase #4670
             if (missingExemplars.size() != 0) {
-                missingExemplars.removeAll(new UnicodeSet("[[:Uppercase:]-[İ]]")); // remove uppercase #4670
-                if (missingExemplars.size() != 0) {
-                    Collator col = Collator.getInstance(new ULocale(localeID));
-                    showSummary(checkCldr, localeID, level, "Total missing from general exemplars:\t" + new UnicodeSetPrettyPrinter()
-                        .setOrdering(col != null ? col : Collator.getInstance(ULocale.ROOT))
-                        .setSpaceComparator(col != null ? col : Collator.getInstance(ULocale.ROOT)
-                            .setStrength2(Collator.PRIMARY))
-                        .setCompressRanges(true)
-                        .format(missingExemplars));
-                }
-            }
-            if (missingCurrencyExemplars.size() != 0) {
                 Collator col = Collator.getInstance(new ULocale(localeID));
-                showSummary(checkCldr, localeID, level, "Total missing from currency exemplars:\t"
-                    + new UnicodeSetPrettyPrinter()
-                        .setOrdering(col != null ? col : Collator.getInstance(ULocale.ROOT))
-                        .setSpaceComparator(col != null ? col : Collator.getInstance(ULocale.ROOT)
-                            .setStrength2(Collator.PRIMARY))
-                        .setCompressRanges(true)
-                        .format(missingCurrencyExemplars));
-            }
-            for (ErrorType type : subtotalCount.keySet()) {
-                showSummary(checkCldr, localeID, level, "Subtotal " + type + ":\t" + subtotalCount.getCount(type));
-            }
-            if (checkFlexibleDates) {
-                fset.showFlexibles();
+                showSummary(checkCldr, localeID, level, "Total missing from general exemplars:\t" + new UnicodeSetPrettyPrinter()
+                    .setOrdering(col != null ? col : Collator.getInstance(ULocale.ROOT))
+                    .setSpaceComparator(col != null ? col : Collator.getInstance(ULocale.ROOT)
+                        .setStrength2(Collator.PRIMARY))
+                    .setCompressRanges(true)
+                    .format(missingExemplars));
             }
-            if (SHOW_EXAMPLES) {
-                // ldml/dates/timeZoneNames/zone[@type="America/Argentina/San_Juan"]/exemplarCity
-                for (String zone : StandardCodes.make().getGoodAvailableCodes("tzid")) {
-                    String path = "//ldml/dates/timeZoneNames/zone[@type=\"" + zone + "\"]/exemplarCity";
-                    // String prettyPath = prettyPathMaker.getPrettyPath(path, false);
-                    PathHeader pathHeader = pathHeaderFactory.fromPath(path);
-                    String prettyPath = pathHeader.toString().replace('\t', '|').replace(' ', '_');
-                    if (pathFilter != null && !pathFilter.reset(path).matches()) {
-                        continue;
-                    }
-                    String fullPath = file.getStringValue(path);
-                    if (fullPath != null) {
-                        continue;
-                    }
-                    String example = ExampleGenerator.simplify(exampleGenerator.getExampleHtml(path, null,
-                        exampleContext, ExampleType.NATIVE));
-                    showExamples(checkCldr, prettyPath, localeID, path, null, fullPath, example,
-                        exampleContext);
+        }
+        if (missingCurrencyExemplars.size() != 0) {
+            Collator col = Collator.getInstance(new ULocale(localeID));
+            showSummary(checkCldr, localeID, level, "Total missing from currency exemplars:\t"
+                + new UnicodeSetPrettyPrinter()
+                    .setOrdering(col != null ? col : Collator.getInstance(ULocale.ROOT))
+                    .setSpaceComparator(col != null ? col : Collator.getInstance(ULocale.ROOT)
+                        .setStrength2(Collator.PRIMARY))
+                    .setCompressRanges(true)
+                    .format(missingCurrencyExemplars));
+        }
+        for (ErrorType type : localeResult.subtotalCount.keySet()) {
+            showSummary(checkCldr, localeID, level, "Subtotal " + type + ":\t" + localeResult.subtotalCount.getCount(type));
+        }
+        if (checkFlexibleDates) {
+            fset.showFlexibles();
+        }
+        if (SHOW_EXAMPLES) {
+            // ldml/dates/timeZoneNames/zone[@type="America/Argentina/San_Juan"]/exemplarCity
+            for (String zone : StandardCodes.make().getGoodAvailableCodes("tzid")) {
+                String path = "//ldml/dates/timeZoneNames/zone[@type=\"" + zone + "\"]/exemplarCity";
+                // String prettyPath = prettyPathMaker.getPrettyPath(path, false);
+                PathHeader pathHeader = pathHeaderFactory.fromPath(path);
+                String prettyPath = pathHeader.toString().replace('\t', '|').replace(' ', '_');
+                if (pathFilterMatcher != null && !pathFilterMatcher.reset(path).matches()) {
+                    continue;
                 }
+                String fullPath = file.getStringValue(path);
+                if (fullPath != null) {
+                    continue;
+                }
+                String example = ExampleGenerator.simplify(exampleGenerator.getExampleHtml(path, null,
+                    exampleContext, ExampleType.NATIVE));
+                showExamples(checkCldr, prettyPath, localeID, path, null, fullPath, example,
+                    exampleContext);
             }
-            System.out.println("# Elapsed time: " + timer);
-            System.out.flush();
-        }
-
-        if (ErrorFile.errorFileWriter != null) {
-            ErrorFile.closeErrorFile();
         }
+        localeResult.nanos = System.nanoTime() - startTime;
+        out().println("# Elapsed time: " + timer);
+        out().flush();
+    }
 
-        if (ErrorFile.generated_html_directory != null) {
-            ErrorFile.writeErrorCountsText();
-            ErrorFile.writeErrorFileIndex();
+    /**
+     * Copy the result's output to System.out (if buffered), and add its counts to the totals.
+     */
+    private static void addLocaleResult(LocaleResult result, Set<String> fatalErrors, Counter<String> localeTimes)
+        throws IOException {
+        if (result.buffer != null) {
+            result.buffer.writeTo(System.out);
+            System.out.flush();
         }
-        System.out.println();
-        for (ErrorType type : totalCount.keySet()) {
-            System.out.println("# Total " + type + ":\t" + totalCount.getCount(type));
+        totalCount.addAll(result.subtotalCount);
+        if (result.fatal) {
+            fatalErrors.add(result.localeID);
+        } else if (result.checked) {
+            localeTimes.add(result.localeID, result.nanos);
         }
+    }
 
+    /**
+     * Show the wall times of the items in seconds, slowest first.
+     */
+    private static void showTimes(String title, Counter<String> nanoTimes) {
         System.out.println();
-        System.out.println("# Total elapsed time: " + totalTimer);
-        if (fatalErrors.size() != 0) {
-            System.out.println("# FATAL ERRORS:");
+        for (String item : nanoTimes.getKeysetSortedByCount(false)) {
+            System.out.println("# " + title + " time:\t" + item + "\t"
+                + String.format(Locale.ENGLISH, "%.3f", nanoTimes.getCount(item) / 1000000000.0) + "s");
         }
-        long errorCount = totalCount.getCount(ErrorType.error) + fatalErrors.size();
-        if (errorCount != 0) {
-            //            System.exit((int) errorCount); // cast is safe; we'll never have that many errors
-            System.out.println();
-            System.out.println("<< FAILURE - Error count is " + errorCount + " . >>");
-            System.exit(-1);
-        } else {
-            System.out.println();
-            System.out.println("<< SUCCESS - No errors found. >>");
-        }
-        if (LogicalGrouping.GET_TYPE_COUNTS) {
-            for (String s : LogicalGrouping.typeCount.keySet()) {
-                System.out.println(s + "=" + LogicalGrouping.typeCount.get(s));
-            }
-        }
-        checkCldr.handleFinish();
     }
 
     static class LocaleVotingData {
@@ -1437,7 +1593,7 @@ public class ConsoleCheckCLDR {
 
     private static void showSummary(CheckCLDR checkCldr, String localeID, Level level, String value) {
         String line = "# " + getLocaleAndName(localeID) + "\tSummary\t" + level + "\t" + value;
-        System.out.println(line);
+        out().println(line);
         // if (generated_html != null) {
         // line = TransliteratorUtilities.toHTML.transform(line);
         // line = line.replace("\t", "</td><td>");
@@ -1533,7 +1689,7 @@ public class ConsoleCheckCLDR {
 
     private static PathDescription pathDescription = null;
 
-    private static String getIdString(CLDRFile cldrFile, String path, String value) {
+    private static synchronized String getIdString(CLDRFile cldrFile, String path, String value) {
         if (pathDescription == null) {
             pathDescription = new PathDescription(supplementalDataInfo, english, null, null,
                 PathDescription.ErrorHandling.CONTINUE);
@@ -1546,8 +1702,7 @@ public class ConsoleCheckCLDR {
         String path, String value, String fullPath, String statusString,
         Subtype subType, ExampleContext exampleContext) {
         ErrorType shortStatus = ErrorType.fromStatusString(statusString);
-        subtotalCount.add(shortStatus, 1);
-        totalCount.add(shortStatus, 1);
+        currentResult.get().subtotalCount.add(shortStatus, 1); // added to totalCount when the locale is done
         if (subType == null) {
             subType = Subtype.none;
         }
@@ -1557,8 +1712,11 @@ public class ConsoleCheckCLDR {
             String englishExample = null;
             final String englishPathValue = path == null ? null : getEnglishPathValue(path);
             if (SHOW_EXAMPLES && path != null) {
-                englishExample = ExampleGenerator.simplify(getExampleGenerator().getExampleHtml(path, englishPathValue,
-                    exampleContext, ExampleType.ENGLISH));
+                ExampleGenerator englishExampleGenerator = getExampleGenerator();
+                synchronized (englishExampleGenerator) { // shared by all the threads
+                    englishExample = ExampleGenerator.simplify(englishExampleGenerator.getExampleHtml(path,
+                        englishPathValue, exampleContext, ExampleType.ENGLISH));
+                }
             }
             englishExample = englishExample == null ? "" : englishExample;
             String cleanPrettyPath = path == null ? null : prettyPath; // prettyPathMaker.getOutputForm(prettyPath);
@@ -1575,7 +1733,7 @@ public class ConsoleCheckCLDR {
                     : "\t" + status.pathWhereFound);
 
             String idViewString = idView ? (path == null ? "\tNO_ID" : getIdString(cldrFile, path, value)) : "";
-            System.out.println(
+            out().println(
                 getLocaleAndName(localeID)
                     + (idViewString.isEmpty() ?
                     // + "\t" + subtotalCount.getCount(shortStatus)
@@ -1636,6 +1794,22 @@ public class ConsoleCheckCLDR {
     private static SupplementalDataInfo supplementalDataInfo;
     private static CLDRFile english;
 
+    // settings from the command line, used by checkLocale
+    private static Factory cldrFactory;
+    private static Level coverageLevel;
+    private static Organization organization;
+    private static Phase phase;
+    private static String user;
+    private static Pattern pathFilter;
+    private static EnumSet<Subtype> subtypeFilter;
+    private static boolean showAll;
+    private static boolean checkOnSubmit;
+    private static boolean baileyTest;
+    private static boolean checkFlexibleDates;
+    private static PathHeader.Factory pathHeaderFactory;
+    private static FlexibleDateFromCLDR fset;
+    private static String lastBaseLanguage = "";
+
     public static class PathShower {
         String localeID;
         boolean newLocale = true;
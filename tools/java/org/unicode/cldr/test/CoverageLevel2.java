@@ -1,6 +1,7 @@
 package org.unicode.cldr.test;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Set;
 import java.util.TreeSet;
@@ -10,6 +11,7 @@ import org.unicode.cldr.util.Builder;
 import org.unicode.cldr.util.CLDRConfig;
 import org.unicode.cldr.util.CLDRFile;
 import org.unicode.cldr.util.CLDRPaths;
+import org.unicode.cldr.util.CoverageLevelTable;
 import org.unicode.cldr.util.LanguageTagParser;
 import org.unicode.cldr.util.Level;
 import org.unicode.cldr.util.RegexLookup;
@@ -171,6 +173,24 @@ public class CoverageLevel2 {
         }
     }
 
+    /**
+     * Compute the levels of many paths at once, taking the lookup lock only once. The result is immutable, and is
+     * good for any locale with the same language as this one.
+     *
+     * @param paths the paths; may contain duplicates
+     */
+    public CoverageLevelTable getLevels(Collection<String> paths) {
+        String[] sortedPaths = CoverageLevelTable.sortedPaths(paths);
+        CoverageLevelTable.Builder builder = new CoverageLevelTable.Builder(myInfo.targetLanguage, sortedPaths);
+        synchronized (lookup) {
+            for (int i = 0; i < sortedPaths.length; i++) {
+                Level result = lookup.get(sortedPaths[i], myInfo, null);
+                builder.set(i, result == null ? Level.COMPREHENSIVE : result);
+            }
+        }
+        return builder.build();
+    }
+
     public int getIntLevel(String path) {
         return getLevel(path).getLevel();
     }
@@ -1,9 +1,17 @@
 package org.unicode.cldr.test;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.unicode.cldr.test.CheckCLDR.CheckStatus;
 import org.unicode.cldr.test.CheckCLDR.Options;
@@ -13,6 +21,7 @@ import org.unicode.cldr.util.CLDRLocale;
 import org.unicode.cldr.util.CLDRLocale.SublocaleProvider;
 import org.unicode.cldr.util.Factory;
 import org.unicode.cldr.util.Pair;
+import org.unicode.cldr.util.PathReadRecorder;
 import org.unicode.cldr.util.XMLSource;
 
 import com.google.common.cache.Cache;
@@ -22,23 +31,70 @@ import com.google.common.collect.ImmutableList;
 /**
  * Caches tests
  * Call XMLSource.addListener() on the instance to notify it of changes to the XMLSource.
+ * <p>
+ * Each cached result remembers which paths were read (via {@link PathReadRecorder}) while computing it,
+ * including inherited, aliased and cross-path reads such as those of CheckDisplayCollisions.
+ * When a value changes, only the results that read the changed path are dropped. If the path was read
+ * while setting up the checks for a locale, or by a check that isn't {@link CheckCLDR#isStatelessCheck() stateless},
+ * the whole bundle for that locale is dropped instead. Iterating over paths only depends on which paths there are,
+ * so it matters only when a path is added or removed.
  *
  * @author srl
  * @see XMLSource#addListener(org.unicode.cldr.util.XMLSource.Listener)
  */
 public class TestCache implements XMLSource.Listener {
+    /**
+     * The result of checking one path and value, with the paths that were read to compute it.
+     */
+    private static class CachedResult {
+        final List<CheckStatus> result;
+        final PathReadRecorder.Reads reads;
+
+        CachedResult(List<CheckStatus> result, PathReadRecorder.Reads reads) {
+            this.result = result;
+            this.reads = reads;
+        }
+    }
+
     public class TestResultBundle {
-        final private CheckCLDR cc = CheckCLDR.getCheckAll(getFactory(), nameMatcher);
+        final private CheckCLDR.CompoundCheckCLDR cc = CheckCLDR.getCheckAll(getFactory(), nameMatcher);
         final CLDRFile file;
         final private CheckCLDR.Options options;
-        final private ConcurrentHashMap<Pair<String, String>, List<CheckStatus>> pathCache;
+        final private ConcurrentHashMap<Pair<String, String>, CachedResult> pathCache;
         final protected List<CheckStatus> possibleProblems = new ArrayList<CheckStatus>();
-        
+        /**
+         * Locale IDs of this bundle's locale and its parents; reads from other locales aren't recorded.
+         */
+        final private Set<String> localeIDs = new HashSet<String>();
+        /**
+         * Paths read by setCldrFileToCheck; a change to one of them invalidates the whole bundle.
+         */
+        final private PathReadRecorder.Reads setupReads;
+        /**
+         * The paths in the file, to tell whether a changed path was added.
+         */
+        final private Set<String> knownPaths = ConcurrentHashMap.newKeySet();
+        /**
+         * Incremented by each invalidation, so that a result computed concurrently with it isn't kept.
+         */
+        final private AtomicLong generation = new AtomicLong();
+
         protected TestResultBundle(CheckCLDR.Options cldrOptions) {
             options = cldrOptions;
-            pathCache = new ConcurrentHashMap<Pair<String, String>, List<CheckStatus>>();
+            pathCache = new ConcurrentHashMap<Pair<String, String>, CachedResult>();
+            for (CLDRLocale locale = options.getLocale(); locale != null; locale = locale.getParent()) {
+                localeIDs.add(locale.getBaseName());
+            }
             file = getFactory().make(options.getLocale().getBaseName(), true);
-            cc.setCldrFileToCheck(file, options, possibleProblems);
+            for (String path : file) {
+                knownPaths.add(path);
+            }
+            PathReadRecorder recorder = PathReadRecorder.start(localeIDs);
+            try {
+                cc.setCldrFileToCheck(file, options, possibleProblems);
+            } finally {
+                setupReads = recorder.stop();
+            }
         }
 
         /**
@@ -59,23 +115,83 @@ public class TestCache implements XMLSource.Listener {
               */
              result.clear();
              Pair<String, String> key = new Pair<String, String>(path, value);
-             List<CheckStatus> cachedResult = pathCache.get(key);
+             CachedResult cachedResult = pathCache.get(key);
              if (cachedResult != null) {
-                 result.addAll(cachedResult);
+                 hits.incrementAndGet();
+                 result.addAll(cachedResult.result);
              }
              else {
-                 cc.check(path, file.getFullXPath(path), value, options, result);
-                 pathCache.put(key, ImmutableList.copyOf(result));
+                 misses.incrementAndGet();
+                 long startGeneration = generation.get();
+                 PathReadRecorder.Reads reads;
+                 PathReadRecorder recorder = PathReadRecorder.start(localeIDs);
+                 try {
+                     cc.check(path, file.getFullXPath(path), value, options, result);
+                 } finally {
+                     reads = recorder.stop();
+                 }
+                 CachedResult newResult = new CachedResult(ImmutableList.copyOf(result), reads);
+                 pathCache.put(key, newResult);
+                 if (generation.get() != startGeneration) {
+                     // a value changed while checking; the result may be stale, so don't keep it
+                     pathCache.remove(key, newResult);
+                 }
              }
          }
 
          public void getExamples(String path, String value, List<CheckStatus> result) {
-             cc.getExamples(path, file.getFullXPath(path), value, options, result);
+             // record, so that what the checks that aren't stateless read here is known
+             PathReadRecorder recorder = PathReadRecorder.start(localeIDs);
+             try {
+                 cc.getExamples(path, file.getFullXPath(path), value, options, result);
+             } finally {
+                 recorder.stop();
+             }
          }
 
          public List<CheckStatus> getPossibleProblems() {
              return possibleProblems;
          }
+
+         /**
+          * Drop the cached results that depend on any of the given paths.
+          *
+          * @param removedXpaths the paths among xpaths that no longer have a value in the changed source
+          * @return false if the setup or the state of this bundle depends on one of the paths, so that the whole bundle must be dropped
+          */
+         private boolean invalidate(Collection<String> xpaths, Set<String> removedXpaths) {
+             generation.incrementAndGet();
+             Set<String> addedOrRemoved = new HashSet<String>();
+             for (String xpath : xpaths) {
+                 if (removedXpaths.contains(xpath)) {
+                     // it may still be inherited, but counting it as removed is safe
+                     knownPaths.remove(xpath);
+                     addedOrRemoved.add(xpath);
+                 } else if (knownPaths.add(xpath)) {
+                     addedOrRemoved.add(xpath);
+                 }
+                 if (setupReads.dependsOn(xpath) || cc.statefulChecksDependOn(xpath)
+                     || addedOrRemoved.contains(xpath) && setupReads.iteratesOver(xpath)) {
+                     return false;
+                 }
+             }
+             int removed = 0;
+             for (Iterator<CachedResult> it = pathCache.values().iterator(); it.hasNext();) {
+                 PathReadRecorder.Reads reads = it.next().reads;
+                 for (String xpath : xpaths) {
+                     if (reads.dependsOn(xpath) || addedOrRemoved.contains(xpath) && reads.iteratesOver(xpath)) {
+                         it.remove();
+                         ++removed;
+                         break;
+                     }
+                 }
+             }
+             entriesInvalidated.addAndGet(removed);
+             if (DEBUG) {
+                 System.err.println("BundInval " + options + " @ " + xpaths + ": " + removed + " of " + (removed + pathCache.size()));
+             }
+             return true;
+         }
     }
 
     private static final boolean DEBUG = false;
@@ -87,6 +203,12 @@ public class TestCache implements XMLSource.Listener {
 
     private String nameMatcher = null;
 
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong changes = new AtomicLong();
+    private final AtomicLong entriesInvalidated = new AtomicLong();
+    private final AtomicLong bundlesInvalidated = new AtomicLong();
+
     /**
      * Get the bundle for this test
      */
@@ -148,10 +270,24 @@ public class TestCache implements XMLSource.Listener {
             }
             total++;
         }
-        stats.append(" " + good + "/" + total + "}");
+        stats.append(" " + good + "/" + total + ") " + getStatistics() + "}");
         return stats.toString();
     }
 
+    /**
+     * Get the hit and invalidation counts of this cache, for display on the admin page.
+     */
+    public Map<String, Long> getStatistics() {
+        Map<String, Long> result = new LinkedHashMap<String, Long>();
+        result.put("bundles", cache.size());
+        result.put("hits", hits.get());
+        result.put("misses", misses.get());
+        result.put("changes", changes.get());
+        result.put("entriesInvalidated", entriesInvalidated.get());
+        result.put("bundlesInvalidated", bundlesInvalidated.get());
+        return result;
+    }
+
     /**
      * Update the cache as needed, given that the value has changed for this xpath and source.
      *
@@ -160,42 +296,61 @@ public class TestCache implements XMLSource.Listener {
      */
     @Override
     public void valueChanged(String xpath, XMLSource source) {
+        valuesChanged(Collections.singleton(xpath), source);
+    }
+
+    /**
+     * Update the cache as needed, given that the values have changed for these xpaths and source.
+     * Each bundle is examined once for all the paths.
+     *
+     * @param xpaths the xpaths
+     * @param source the XMLSource
+     */
+    @Override
+    public void valuesChanged(Collection<String> xpaths, XMLSource source) {
+        changes.addAndGet(xpaths.size());
+        Set<String> removedXpaths = new HashSet<String>();
+        for (String xpath : xpaths) {
+            if (source.getValueAtDPath(xpath) == null) {
+                removedXpaths.add(xpath);
+            }
+        }
         CLDRLocale locale = CLDRLocale.getInstance(source.getLocaleID());
-        valueChangedInvalidateRecursively(xpath, locale);
+        valueChangedInvalidateRecursively(xpaths, removedXpaths, locale);
     }
 
     /**
-     * Update the cache as needed, given that the value has changed for this xpath and locale.
+     * Update the cache as needed, given that the values have changed for these xpaths and locale.
      * 
-     * Called by valueChanged(String xpath, XMLSource source),
+     * Called by valuesChanged(Collection<String> xpaths, XMLSource source),
      * and also calls itself recursively for sublocales
      *
-     * @param xpath the xpath
+     * @param xpaths the xpaths
+     * @param removedXpaths the xpaths that no longer have a value in the changed source
      * @param locale the CLDRLocale
      *
-     * There is room for improvement of performance. Currently we invalidate all paths for any affected locale.
-     * Ideally, cache invalidation should only be done for each locale+path whose test results potentially depend
-     * on the given locale+path, due to inheritance, aliasing, logical groups, etc. That could be done using a mapping
-     * between paths that are related by such dependencies; that mapping would be constant for as long as the
-     * paths and tests don't change.
+     * Only the results that read one of the paths (directly, by inheritance, through an alias, or by iterating
+     * over paths with a matching prefix when a path is added or removed) are invalidated; bundles whose setup or
+     * stateful checks read one are invalidated entirely.
      */
-    private void valueChangedInvalidateRecursively(String xpath, final CLDRLocale locale) {
+    private void valueChangedInvalidateRecursively(Collection<String> xpaths, Set<String> removedXpaths, final CLDRLocale locale) {
         if (DEBUG) {
-            System.err.println("BundDelLoc " + locale + " @ " + xpath);
+            System.err.println("BundDelLoc " + locale + " @ " + xpaths);
         }
         for (CLDRLocale sub : ((SublocaleProvider) getFactory()).subLocalesOf(locale)) {
-            valueChangedInvalidateRecursively(xpath, sub);
+            valueChangedInvalidateRecursively(xpaths, removedXpaths, sub);
         }
         if (cache.asMap().isEmpty()) {
             return;
         }
-        // Filter the cache to only remove the items where the locale matches
+        // Filter the cache to only remove the items where the locale matches and the setup depends on the path
         List<Options> toRemove = new ArrayList<>();
-        for (Options k : cache.asMap().keySet()) {
-            if (k.getLocale().equals(locale)) {
-                toRemove.add(k);
+        for (Entry<Options, TestResultBundle> k : cache.asMap().entrySet()) {
+            if (k.getKey().getLocale().equals(locale) && !k.getValue().invalidate(xpaths, removedXpaths)) {
+                toRemove.add(k.getKey());
             }
         }
+        bundlesInvalidated.addAndGet(toRemove.size());
         if (!DEBUG) {
             // no logging is done, simply invalidate all items
             cache.invalidateAll(toRemove);
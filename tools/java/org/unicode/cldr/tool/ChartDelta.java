@@ -3,6 +3,7 @@ package org.unicode.cldr.tool;
 import java.io.File;
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.io.StringWriter;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -73,6 +74,7 @@ public class ChartDelta extends Chart {
     enum MyOptions {
         fileFilter(new Params().setHelp("filter by dir/locale, eg: ^main/en$ or .*/en").setDefault(".*").setMatch(".*")),
         verbose(new Params().setHelp("verbose debugging messages")),
+        incremental(new Params().setHelp("only recompute the locales whose files, or their parents' files, changed since the last incremental run")),
         ;
 
         // BOILERPLATE TO COPY
@@ -96,10 +98,20 @@ public class ChartDelta extends Chart {
 
     private Matcher fileFilter;
     private boolean verbose;
+    private boolean incremental;
 
     public ChartDelta(Matcher fileFilter, boolean verbose) {
+        this(fileFilter, verbose, false);
+    }
+
+    /**
+     * @param incremental if true, reuse the stored results of each group of locales whose files haven't changed; see
+     *        {@link ChartDeltaCache}
+     */
+    public ChartDelta(Matcher fileFilter, boolean verbose, boolean incremental) {
         this.fileFilter = fileFilter;
         this.verbose = verbose;
+        this.incremental = incremental;
     }
 
     public static void main(String[] args) {
@@ -107,7 +119,8 @@ public class ChartDelta extends Chart {
         MyOptions.parse(args, true);
         Matcher fileFilter = !MyOptions.fileFilter.option.doesOccur() ? null : PatternCache.get(MyOptions.fileFilter.option.getValue()).matcher("");
         boolean verbose = MyOptions.verbose.option.doesOccur();
-        ChartDelta temp = new ChartDelta(fileFilter, verbose);
+        boolean incremental = MyOptions.incremental.option.doesOccur();
+        ChartDelta temp = new ChartDelta(fileFilter, verbose, incremental);
         temp.writeChart(null);
         temp.showTotals();
     }
@@ -183,8 +196,13 @@ public class ChartDelta extends Chart {
     Counter<ChangeType> counter = new Counter<>();
     Map<String, Counter<ChangeType>> fileCounters = new TreeMap<>();
     Set<String> badHeaders = new TreeSet<>();
+    /** while computing a group of locales in incremental mode, its results to store */
+    private ChartDeltaCache.GroupResult currentGroup;
 
-    private void addChange(String file, ChangeType changeType, int count) {
+    private void addChange(String file, ChangeType changeType, long count) {
+        if (currentGroup != null) {
+            currentGroup.addChange(file, changeType.toString(), count);
+        }
         counter.add(changeType, count); // unified add
         Counter<ChangeType> fileCounter = fileCounters.get(file);
         if (fileCounter == null) {
@@ -312,9 +330,23 @@ public class ChartDelta extends Chart {
             Set<String> paths = new HashSet<>();
 
             Relation<PathHeader, String> diffAll = Relation.of(new TreeMap<PathHeader, Set<String>>(), TreeSet.class);
+            ChartDeltaCache cache = !incremental ? null
+                : new ChartDeltaCache(getTsvDir(DIR, DIR_NAME) + "incremental/",
+                    ToolConstants.LAST_CHART_VERSION, ToolConstants.PREVIOUS_CHART_VERSION,
+                    fileFilter == null ? null : fileFilter.pattern().pattern(), fileMatcher.pattern());
 //        XPathParts pathPlain = new XPathParts();
             for (Entry<String, Set<String>> baseNLocale : baseToLocales.keyValuesSet()) {
                 String base = baseNLocale.getKey();
+                String fingerprint = null;
+                if (cache != null) {
+                    fingerprint = cache.getFingerprint(baseNLocale.getValue(), factories, oldFactories);
+                    ChartDeltaCache.GroupResult stored = cache.get(base, fingerprint);
+                    if (stored != null) {
+                        replay(anchors, base, stored, tsvFile, counts);
+                        continue;
+                    }
+                    currentGroup = new ChartDeltaCache.GroupResult(fingerprint);
+                }
 //            int qCount = 0;
                 for (int i = 0; i < factories.size(); ++i) {
                     Factory factory = factories.get(i);
@@ -404,9 +436,32 @@ public class ChartDelta extends Chart {
                         }
                     }
                 }
-                writeDiffs(anchors, base, diff, tsvFile, counts);
+                if (currentGroup == null) {
+                    writeDiffs(anchors, base, diff, tsvFile, counts);
+                } else {
+                    currentGroup.title = diff.isEmpty() ? null : ENGLISH.getName(base) + " Delta";
+                    StringWriter groupTsv = new StringWriter();
+                    Counter<PathHeader> groupCounts = new Counter<>();
+                    try (PrintWriter groupTsvFile = new PrintWriter(groupTsv)) {
+                        writeDiffs(anchors, base, diff, groupTsvFile, groupCounts);
+                    }
+                    currentGroup.tsv = groupTsv.toString();
+                    for (PathHeader ph : groupCounts) {
+                        currentGroup.pathCounts.put(ph.getOriginalPath(), groupCounts.getCount(ph));
+                    }
+                    tsvFile.print(currentGroup.tsv);
+                    counts.addAll(groupCounts);
+                    if (currentGroup.title == null) {
+                        new File(DIR, base + ".html").delete(); // from an earlier run
+                    }
+                    cache.put(base, currentGroup);
+                    currentGroup = null;
+                }
                 diff.clear();
             }
+            if (cache != null) {
+                System.out.println(cache);
+            }
             writeDiffs(anchors, diffAll);
 
             writeCounter(tsvCountFile, "Count", counts);
@@ -416,6 +471,25 @@ public class ChartDelta extends Chart {
 
     }
 
+    /**
+     * Use the stored results of a group of locales instead of computing them. The group's chart page is still there
+     * from the run that stored them.
+     */
+    private void replay(Anchors anchors, String base, ChartDeltaCache.GroupResult stored, PrintWriter tsvFile,
+        Counter<PathHeader> counts) {
+        for (String[] change : stored.changes) {
+            addChange(change[0], ChangeType.valueOf(change[1]), Long.parseLong(change[2]));
+        }
+        for (Entry<String, Long> entry : stored.pathCounts.entrySet()) {
+            counts.add(phf.fromPath(entry.getKey()), entry.getValue());
+        }
+        badHeaders.addAll(stored.badHeaders);
+        tsvFile.print(stored.tsv);
+        if (stored.title != null) {
+            anchors.add(stored.title, base + ".html", null);
+        }
+    }
+
     private String getReformattedPath(Status oldStatus, CLDRFile old, String path, Output<String> value, Output<Boolean> hasReformattedValue) {
         if (SKIP_REFORMAT_ANNOTATIONS || !path.startsWith("//ldml/annotations/")) {
             hasReformattedValue.value = Boolean.FALSE;
@@ -454,19 +528,24 @@ public class ChartDelta extends Chart {
         try {
             PathHeader ph = phf.fromPath(path);
             if (ph.getPageId() == PageId.Unknown) {
-                String star = starrer.set(path);
-                badHeaders.add(star);
+                addBadHeader(starrer.set(path));
                 return null;
             }
             return ph;
         } catch (Exception e) {
-            String star = starrer.set(path);
-            badHeaders.add(star);
+            addBadHeader(starrer.set(path));
             // System.err.println("Skipping path with bad PathHeader: " + path);
             return null;
         }
     }
 
+    private void addBadHeader(String star) {
+        badHeaders.add(star);
+        if (currentGroup != null) {
+            currentGroup.badHeaders.add(star);
+        }
+    }
+
     private CLDRFile makeWithFallback(Factory oldFactory, String locale, boolean resolving) {
         if (oldFactory == null) {
             return EMPTY_CLDR;
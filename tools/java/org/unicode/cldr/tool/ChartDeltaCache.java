@@ -0,0 +1,235 @@
+package org.unicode.cldr.tool;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.unicode.cldr.util.CLDRConfig;
+import org.unicode.cldr.util.CLDRPaths;
+import org.unicode.cldr.util.Factory;
+import org.unicode.cldr.util.LocaleIDParser;
+
+import com.ibm.icu.util.ICUUncheckedIOException;
+
+/**
+ * The results of {@link ChartDelta} for each group of locales (the locales with the same base language or
+ * language_script, which share one chart page), kept between runs for its incremental mode.
+ * <p>
+ * Each group's results are stored with a fingerprint of everything they were computed from: the current and old
+ * files of each locale in the group and of all its parents, the supplemental data, English, and the options. A
+ * group whose fingerprint hasn't changed since the last run can reuse its results, and its chart page, as they are.
+ */
+class ChartDeltaCache {
+    private static final int MAGIC = 0x43444331; // "CDC1"
+    /**
+     * Increment when ChartDelta's output changes, to invalidate the stored results.
+     */
+    private static final int VERSION = 1;
+
+    private final File directory;
+    private final String globalFingerprint;
+    private final Map<File, String> fileHashes = new HashMap<File, String>();
+    private int reused = 0;
+    private int recomputed = 0;
+
+    /**
+     * The stored results of one group.
+     */
+    static class GroupResult {
+        final String fingerprint;
+        /** The title of the group's chart page, or null if there were no differences to chart */
+        String title;
+        /** The group's rows in the tsv file */
+        String tsv = "";
+        /** file, change type and count, for each call to ChartDelta.addChange */
+        final List<String[]> changes = new ArrayList<String[]>();
+        /** path to count, for the count tsv file */
+        final Map<String, Long> pathCounts = new TreeMap<String, Long>();
+        final TreeSet<String> badHeaders = new TreeSet<String>();
+
+        GroupResult(String fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+
+        void addChange(String file, String changeType, long count) {
+            changes.add(new String[] { file, changeType, String.valueOf(count) });
+        }
+    }
+
+    /**
+     * @param directory where to keep the results
+     * @param settings anything else the results depend on, such as versions and filters
+     */
+    ChartDeltaCache(String directory, String... settings) {
+        this.directory = new File(directory);
+        this.directory.mkdirs();
+        MessageDigest digest = newDigest();
+        update(digest, String.valueOf(VERSION));
+        for (String setting : settings) {
+            update(digest, String.valueOf(setting));
+        }
+        File supplementalDirectory = CLDRConfig.getInstance().getSupplementalDataInfo().getDirectory();
+        String[] supplementalFiles = supplementalDirectory.list();
+        if (supplementalFiles != null) {
+            Arrays.sort(supplementalFiles);
+            for (String file : supplementalFiles) {
+                update(digest, file);
+                update(digest, hashFile(new File(supplementalDirectory, file)));
+            }
+        }
+        update(digest, hashFile(new File(CLDRPaths.MAIN_DIRECTORY, "en.xml")));
+        globalFingerprint = hex(digest.digest());
+    }
+
+    /**
+     * Get the fingerprint of a group of locales. The factories are parallel lists, one per directory; an old factory
+     * may be null.
+     */
+    String getFingerprint(Collection<String> locales, List<Factory> factories, List<Factory> oldFactories) {
+        MessageDigest digest = newDigest();
+        update(digest, globalFingerprint);
+        for (String locale : new TreeSet<String>(locales)) {
+            for (int i = 0; i < factories.size(); ++i) {
+                for (Factory factory : Arrays.asList(factories.get(i), oldFactories.get(i))) {
+                    if (factory == null) {
+                        update(digest, "-");
+                        continue;
+                    }
+                    File sourceDirectory = factory.getSourceDirectories()[0];
+                    for (String parent = locale; parent != null; parent = LocaleIDParser.getParent(parent)) {
+                        update(digest, sourceDirectory.getPath() + "/" + parent);
+                        update(digest, hashFile(new File(sourceDirectory, parent + ".xml")));
+                    }
+                }
+            }
+        }
+        return hex(digest.digest());
+    }
+
+    /**
+     * @return the stored results for the group, if they were computed from the same fingerprint, otherwise null
+     */
+    GroupResult get(String group, String fingerprint) {
+        File file = getFile(group);
+        if (!file.exists()) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION || !in.readUTF().equals(fingerprint)) {
+                return null;
+            }
+            GroupResult result = new GroupResult(fingerprint);
+            result.title = in.readBoolean() ? in.readUTF() : null;
+            byte[] tsv = new byte[in.readInt()];
+            in.readFully(tsv);
+            result.tsv = new String(tsv, StandardCharsets.UTF_8);
+            for (int i = in.readInt(); i > 0; --i) {
+                result.addChange(in.readUTF(), in.readUTF(), in.readLong());
+            }
+            for (int i = in.readInt(); i > 0; --i) {
+                result.pathCounts.put(in.readUTF(), in.readLong());
+            }
+            for (int i = in.readInt(); i > 0; --i) {
+                result.badHeaders.add(in.readUTF());
+            }
+            ++reused;
+            return result;
+        } catch (IOException e) {
+            System.out.println("Recomputing " + group + ", can't read " + file + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    void put(String group, GroupResult result) {
+        ++recomputed;
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(getFile(group))))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeUTF(result.fingerprint);
+            out.writeBoolean(result.title != null);
+            if (result.title != null) {
+                out.writeUTF(result.title);
+            }
+            byte[] tsv = result.tsv.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(tsv.length);
+            out.write(tsv);
+            out.writeInt(result.changes.size());
+            for (String[] change : result.changes) {
+                out.writeUTF(change[0]);
+                out.writeUTF(change[1]);
+                out.writeLong(Long.parseLong(change[2]));
+            }
+            out.writeInt(result.pathCounts.size());
+            for (Map.Entry<String, Long> entry : result.pathCounts.entrySet()) {
+                out.writeUTF(entry.getKey());
+                out.writeLong(entry.getValue());
+            }
+            out.writeInt(result.badHeaders.size());
+            for (String badHeader : result.badHeaders) {
+                out.writeUTF(badHeader);
+            }
+        } catch (IOException e) {
+            throw new ICUUncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "Incremental: reused " + reused + " groups, recomputed " + recomputed + ", results in " + directory;
+    }
+
+    private File getFile(String group) {
+        return new File(directory, group + ".state");
+    }
+
+    private String hashFile(File file) {
+        String result = fileHashes.get(file);
+        if (result == null) {
+            try {
+                result = file.exists() ? hex(newDigest().digest(Files.readAllBytes(file.toPath()))) : "missing";
+            } catch (IOException e) {
+                throw new ICUUncheckedIOException(e);
+            }
+            fileHashes.put(file, result);
+        }
+        return result;
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    private static void update(MessageDigest digest, String s) {
+        digest.update(s.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+    }
+
+    private static String hex(byte[] bytes) {
+        StringBuilder result = new StringBuilder();
+        for (byte b : bytes) {
+            result.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return result.toString();
+    }
+}
@@ -1,29 +1,177 @@
 package org.unicode.cldr.tool;
 
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.unicode.cldr.util.CLDRConfig;
 import org.unicode.cldr.util.CLDRPaths;
+import org.unicode.cldr.util.CldrUtility;
 import org.unicode.cldr.util.DateTimeFormats;
 import org.unicode.cldr.util.FileCopier;
+import org.unicode.cldr.util.Timer;
 import org.unicode.cldr.util.VerifyCompactNumbers;
 import org.unicode.cldr.util.VerifyZones;
 
+/**
+ * Generates all the charts. Independent chart families run concurrently, on CHART_THREADS threads
+ * (by default one per processor); the charts within a family run one after another, in the order listed.
+ * With -DCHART_THREADS=1 everything runs in the original order on the main thread.
+ * At the end, prints the time each family took, and the peak heap seen while it ran.
+ */
 public class GenerateAllCharts {
+    private static final int THREADS = Integer.parseInt(CldrUtility.getProperty("CHART_THREADS",
+        String.valueOf(Runtime.getRuntime().availableProcessors())));
+    private static final long SAMPLE_MILLIS = 100;
+
+    /**
+     * One or more charts that must run in sequence
+     */
+    private interface ChartFamily {
+        void run(String[] args) throws Exception;
+    }
+
     public static void main(String[] args) throws Exception {
         FileCopier.copy(GenerateAllCharts.class, "index.css", CLDRPaths.CHART_DIRECTORY);
         FileCopier.copy(GenerateAllCharts.class, "main-index.html", CLDRPaths.CHART_DIRECTORY, "index.html");
         FormattedFileWriter.copyIncludeHtmls(CLDRPaths.CHART_DIRECTORY);
 
-        ShowLanguages.main(args);
-        new ChartAnnotations().writeChart(null);
-        new ChartSubdivisionNames().writeChart(null);
-        GenerateBcp47Text.main(args);
-        GenerateSidewaysView.main(args);
-        ShowData.main(args);
-        //GenerateTransformCharts.main(args);
-        ShowKeyboards.main(args);
-        ChartDelta.main(args);
-        ChartCollation.main(args);
-        VerifyCompactNumbers.main(args);
-        VerifyZones.main(args);
-        DateTimeFormats.main(args);
+        Map<String, ChartFamily> families = new LinkedHashMap<String, ChartFamily>();
+        families.put("ShowLanguages", a -> ShowLanguages.main(a));
+        families.put("ChartAnnotations, ChartSubdivisionNames", a -> {
+            new ChartAnnotations().writeChart(null);
+            new ChartSubdivisionNames().writeChart(null);
+        });
+        families.put("GenerateBcp47Text", a -> GenerateBcp47Text.main(a));
+        families.put("GenerateSidewaysView", a -> GenerateSidewaysView.main(a));
+        families.put("ShowData", a -> ShowData.main(a));
+        //families.put("GenerateTransformCharts", a -> GenerateTransformCharts.main(a));
+        families.put("ShowKeyboards", a -> ShowKeyboards.main(a));
+        families.put("ChartDelta", a -> ChartDelta.main(a));
+        families.put("ChartCollation", a -> ChartCollation.main(a));
+        // these share the DateTimeFormats helpers
+        families.put("VerifyCompactNumbers, VerifyZones, DateTimeFormats", a -> {
+            VerifyCompactNumbers.main(a);
+            VerifyZones.main(a);
+            DateTimeFormats.main(a);
+        });
+
+        new GenerateAllCharts().run(families, args);
+    }
+
+    private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+    private final Map<String, AtomicLong> runningPeaks = new ConcurrentHashMap<String, AtomicLong>();
+    private final Map<String, Long> finishedPeaks = new ConcurrentHashMap<String, Long>();
+    private final AtomicLong overallPeak = new AtomicLong();
+
+    private void run(Map<String, ChartFamily> families, final String[] args) throws Exception {
+        Timer total = new Timer();
+        // Load the shared data once, before the families race for it.
+        CLDRConfig config = CLDRConfig.getInstance();
+        config.getSupplementalDataInfo();
+        config.getStandardCodes();
+        config.getCldrFactory();
+        config.getEnglish();
+
+        Thread sampler = new Thread("GenerateAllCharts memory sampler") {
+            @Override
+            public void run() {
+                try {
+                    while (true) {
+                        sample();
+                        Thread.sleep(SAMPLE_MILLIS);
+                    }
+                } catch (InterruptedException e) {
+                    // done
+                }
+            }
+        };
+        sampler.setDaemon(true);
+        sampler.start();
+
+        Map<String, Double> seconds = new LinkedHashMap<String, Double>();
+        List<Exception> failures = new ArrayList<Exception>();
+        ExecutorService pool = THREADS > 1 ? Executors.newFixedThreadPool(Math.min(THREADS, families.size())) : null;
+        try {
+            Map<String, Future<Double>> futures = new LinkedHashMap<String, Future<Double>>();
+            for (final Entry<String, ChartFamily> entry : families.entrySet()) {
+                if (pool == null) {
+                    try {
+                        seconds.put(entry.getKey(), runFamily(entry.getKey(), entry.getValue(), args));
+                    } catch (Exception e) {
+                        failures.add(e);
+                    }
+                } else {
+                    futures.put(entry.getKey(), pool.submit(() -> runFamily(entry.getKey(), entry.getValue(), args)));
+                }
+            }
+            for (Entry<String, Future<Double>> entry : futures.entrySet()) {
+                try {
+                    seconds.put(entry.getKey(), entry.getValue().get());
+                } catch (ExecutionException e) {
+                    failures.add(e);
+                }
+            }
+        } finally {
+            if (pool != null) {
+                pool.shutdown();
+            }
+            sampler.interrupt();
+        }
+        System.out.println("\nChart\tSeconds\tPeak heap MB while running");
+        for (String name : families.keySet()) {
+            Double time = seconds.get(name);
+            System.out.println(name + "\t" + (time == null ? "FAILED" : String.format("%.1f", time))
+                + "\t" + finishedPeaks.get(name) / (1024 * 1024));
+        }
+        System.out.println("All charts\t" + String.format("%.1f", total.getSeconds())
+            + "\t" + overallPeak.get() / (1024 * 1024) + "\t(" + (pool == null ? 1 : THREADS) + " threads)");
+
+        if (!failures.isEmpty()) {
+            for (Exception e : failures) {
+                e.printStackTrace();
+            }
+            throw new IllegalArgumentException(failures.size() + " chart families failed", failures.get(0));
+        }
+    }
+
+    private double runFamily(String name, ChartFamily family, String[] args) throws Exception {
+        runningPeaks.put(name, new AtomicLong(memory.getHeapMemoryUsage().getUsed()));
+        Timer timer = new Timer();
+        System.out.println("Starting " + name);
+        try {
+            family.run(args);
+        } finally {
+            timer.stop();
+            sample();
+            finishedPeaks.put(name, runningPeaks.remove(name).get());
+        }
+        System.out.println("Finished " + name + " in " + timer);
+        return timer.getSeconds();
+    }
+
+    private void sample() {
+        long used = memory.getHeapMemoryUsage().getUsed();
+        updateMax(overallPeak, used);
+        for (AtomicLong peak : runningPeaks.values()) {
+            updateMax(peak, used);
+        }
+    }
+
+    private static void updateMax(AtomicLong max, long value) {
+        long old;
+        while ((old = max.get()) < value && !max.compareAndSet(old, value)) {
+            // retry
+        }
     }
 }
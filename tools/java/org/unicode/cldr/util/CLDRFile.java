@@ -591,6 +591,7 @@ public class CLDRFile implements Freezable<CLDRFile>, Iterable<String> {
      * Get a string value from an xpath.
      */
     public String getStringValue(String xpath) {
+        PathReadRecorder.recordPath(getLocaleID(), xpath);
         String result = dataSource.getValueAtPath(xpath);
         if (result == null && dataSource.isResolving()) {
             final String fallbackPath = getFallbackPath(xpath, false);
@@ -606,6 +607,7 @@ public class CLDRFile implements Freezable<CLDRFile>, Iterable<String> {
      * A non-resolving CLDRFile will always return null.
      */
     public String getBaileyValue(String xpath, Output<String> pathWhereFound, Output<String> localeWhereFound) {
+        PathReadRecorder.recordPath(getLocaleID(), xpath);
         String result = dataSource.getBaileyValue(xpath, pathWhereFound, localeWhereFound);
         if ((result == null || result.equals(CldrUtility.INHERITANCE_MARKER)) && dataSource.isResolving()) {
             final String fallbackPath = getFallbackPath(xpath, false);
@@ -683,6 +685,7 @@ public class CLDRFile implements Freezable<CLDRFile>, Iterable<String> {
         if (xpath == null) {
             throw new NullPointerException("Null distinguishing xpath");
         }
+        PathReadRecorder.recordPath(getLocaleID(), xpath);
         String result = dataSource.getFullPath(xpath);
         if (result == null && dataSource.isResolving()) {
             String fallback = getFallbackPath(xpath, true);
@@ -744,6 +747,7 @@ public class CLDRFile implements Freezable<CLDRFile>, Iterable<String> {
      * @return
      */
     public boolean isHere(String path) {
+        PathReadRecorder.recordPath(getLocaleID(), path);
         return dataSource.isHere(path);
     }
 
@@ -1215,18 +1219,22 @@ public class CLDRFile implements Freezable<CLDRFile>, Iterable<String> {
     }
 
     public Iterator<String> iterator() {
+        PathReadRecorder.recordIteration(getLocaleID(), "");
         return dataSource.iterator();
     }
 
     public synchronized Iterator<String> iterator(String prefix) {
+        PathReadRecorder.recordIteration(getLocaleID(), prefix);
         return dataSource.iterator(prefix);
     }
 
     public Iterator<String> iterator(Matcher pathFilter) {
+        PathReadRecorder.recordIteration(getLocaleID(), "");
         return dataSource.iterator(pathFilter);
     }
 
     public Iterator<String> iterator(String prefix, Comparator<String> comparator) {
+        PathReadRecorder.recordIteration(getLocaleID(), prefix);
         Iterator<String> it = (prefix == null || prefix.length() == 0)
             ? dataSource.iterator()
                 : dataSource.iterator(prefix);
@@ -1288,45 +1296,11 @@ public class CLDRFile implements Freezable<CLDRFile>, Iterable<String> {
         return getNondraftNonaltXPath(path1).equals(getNondraftNonaltXPath(path2));
     }
 
-    static XPathParts nondraftParts = new XPathParts();
-
     public static String getNondraftNonaltXPath(String xpath) {
         if (xpath.indexOf("draft=\"") < 0 && xpath.indexOf("alt=\"") < 0) {
             return xpath;
         }
-        synchronized (nondraftParts) {
-            XPathParts parts = XPathParts.getInstance(xpath); // can't be frozen since we call removeAttributes
-            String restore;
-            HashSet<String> toRemove = new HashSet<String>();
-            for (int i = 0; i < parts.size(); ++i) {
-                if (parts.getAttributeCount(i) == 0) {
-                    continue;
-                }
-                Map<String, String> attributes = parts.getAttributes(i);
-                toRemove.clear();
-                restore = null;
-                for (Iterator<String> it = attributes.keySet().iterator(); it.hasNext();) {
-                    String attribute = it.next();
-                    if (attribute.equals("draft")) {
-                        toRemove.add(attribute);
-                    } else if (attribute.equals("alt")) {
-                        String value = (String) attributes.get(attribute);
-                        int proposedPos = value.indexOf("proposed");
-                        if (proposedPos >= 0) {
-                            toRemove.add(attribute);
-                            if (proposedPos > 0) {
-                                restore = value.substring(0, proposedPos - 1); // is of form xxx-proposedyyy
-                            }
-                        }
-                    }
-                }
-                parts.removeAttributes(i, toRemove);
-                if (restore != null) {
-                    attributes.put("alt", restore);
-                }
-            }
-            return parts.toString();
-        }
+        return DistinguishedXPathBuilder.getInstance().set(xpath).getNondraftNonaltXPath();
     }
 
     /**
@@ -2828,82 +2802,10 @@ public class CLDRFile implements Freezable<CLDRFile>, Iterable<String> {
             //     synchronized (distinguishingMap) {
             String result = (String) distinguishingMap.get(xpath);
             if (result == null) {
-                XPathParts distinguishingParts = XPathParts.getInstance(xpath); // not frozen, for removeAttributes
-
-                DtdType type = distinguishingParts.getDtdData().dtdType;
-                Set<String> toRemove = new HashSet<String>();
-
-                // first clean up draft and alt
-                String draft = null;
-                String alt = null;
-                String references = "";
-                // note: we only need to clean up items that are NOT on the last element,
-                // so we go up to size() - 1.
-
-                // note: each successive item overrides the previous one. That's intended
-
-                for (int i = 0; i < distinguishingParts.size() - 1; ++i) {
-                    if (distinguishingParts.getAttributeCount(i) == 0) {
-                        continue;
-                    }
-                    toRemove.clear();
-                    Map<String, String> attributes = distinguishingParts.getAttributes(i);
-                    for (String attribute : attributes.keySet()) {
-                        if (attribute.equals("draft")) {
-                            draft = (String) attributes.get(attribute);
-                            toRemove.add(attribute);
-                        } else if (attribute.equals("alt")) {
-                            alt = (String) attributes.get(attribute);
-                            toRemove.add(attribute);
-                        } else if (attribute.equals("references")) {
-                            if (references.length() != 0) references += " ";
-                            references += (String) attributes.get("references");
-                            toRemove.add(attribute);
-                        }
-                    }
-                    distinguishingParts.removeAttributes(i, toRemove);
-                }
-                if (draft != null || alt != null || references.length() != 0) {
-                    // get the last element that is not ordered.
-                    int placementIndex = distinguishingParts.size() - 1;
-                    while (true) {
-                        String element = distinguishingParts.getElement(placementIndex);
-                        if (!DtdData.getInstance(type).isOrdered(element)) break;
-                        --placementIndex;
-                    }
-                    if (draft != null) {
-                        distinguishingParts.putAttributeValue(placementIndex, "draft", draft);
-                    }
-                    if (alt != null) {
-                        distinguishingParts.putAttributeValue(placementIndex, "alt", alt);
-                    }
-                    if (references.length() != 0) {
-                        distinguishingParts.putAttributeValue(placementIndex, "references", references);
-                    }
-                    String newXPath = distinguishingParts.toString();
-                    if (!newXPath.equals(xpath)) {
-                        normalizedPathMap.put(xpath, newXPath); // store differences
-                    }
-                }
-
-                // now remove non-distinguishing attributes (if non-inheriting)
-                for (int i = 0; i < distinguishingParts.size(); ++i) {
-                    if (distinguishingParts.getAttributeCount(i) == 0) {
-                        continue;
-                    }
-                    String element = distinguishingParts.getElement(i);
-                    toRemove.clear();
-                    for (String attribute : distinguishingParts.getAttributeKeys(i)) {
-                        if (!isDistinguishing(type, element, attribute)) {
-                            toRemove.add(attribute);
-                        }
-                    }
-                    distinguishingParts.removeAttributes(i, toRemove);
-                }
-
-                result = distinguishingParts.toString();
-                if (result.equals(xpath)) { // don't save the copy if we don't have to.
-                    result = xpath;
+                String[] normalized = new String[1];
+                result = DistinguishedXPathBuilder.getInstance().set(xpath).getDistinguishingXPath(normalized);
+                if (normalized[0] != null) {
+                    normalizedPathMap.put(xpath, normalized[0]); // store differences
                 }
                 distinguishingMap.put(xpath, result);
             }
@@ -3046,6 +2948,7 @@ public class CLDRFile implements Freezable<CLDRFile>, Iterable<String> {
      * @return path, perhaps with an alt proposed added.
      */
     public String getWinningPath(String path) {
+        PathReadRecorder.recordPath(getLocaleID(), path);
         return dataSource.getWinningPath(path);
     }
 
@@ -3115,6 +3018,7 @@ public class CLDRFile implements Freezable<CLDRFile>, Iterable<String> {
         if (result == null) {
             result = new HashSet<String>();
         }
+        PathReadRecorder.recordPrefix(getLocaleID(), pathPrefix);
         dataSource.getPathsWithValue(valueToMatch, pathPrefix, result);
         if (pathMatcher == null) {
             return result;
@@ -3140,6 +3044,7 @@ public class CLDRFile implements Freezable<CLDRFile>, Iterable<String> {
         if (result == null) {
             result = new HashSet<String>();
         }
+        PathReadRecorder.recordIteration(getLocaleID(), pathPrefix);
         for (Iterator<String> it = dataSource.iterator(pathPrefix); it.hasNext();) {
             String path = it.next();
             if (pathMatcher != null && !pathMatcher.reset(path).matches()) {
@@ -81,6 +81,10 @@ public class CoverageInfo {
      */
     public Level getCoverageLevel(String xpath, String loc) {
         Level result = null;
+        CoverageLevelTable table = supplementalDataInfo.getCoverageLevelTable(loc);
+        if (table != null && xpath != null && (result = table.getLevel(xpath)) != null) {
+            return result;
+        }
         final XPathWithLocation xpLoc = new XPathWithLocation(xpath, loc);
         try {
             result = coverageCache.get(xpLoc, new Callable<Level>() {
@@ -0,0 +1,127 @@
+package org.unicode.cldr.util;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * The coverage levels of a set of paths for one language, computed at once by
+ * {@link org.unicode.cldr.test.CoverageLevel2#getLevels(Collection)}. Coverage levels only depend on the language
+ * of a locale, so one table serves all the locales of a language.
+ * <p>
+ * The paths are kept sorted, and a path's index in that order is its id; the levels are a byte per path id.
+ * Immutable, so it can be shared between threads.
+ */
+public final class CoverageLevelTable {
+    private static final Level[] LEVELS = Level.values();
+
+    private final String language;
+    private final String[] paths;
+    private final byte[] levels;
+
+    /**
+     * @param language the language the levels were computed for
+     * @param paths sorted, without duplicates; not copied
+     * @param levels the Level ordinal of each path; not copied
+     */
+    public CoverageLevelTable(String language, String[] paths, byte[] levels) {
+        if (paths.length != levels.length) {
+            throw new IllegalArgumentException("Paths and levels differ in length");
+        }
+        this.language = language;
+        this.paths = paths;
+        this.levels = levels;
+    }
+
+    /**
+     * @return the paths, sorted and without duplicates
+     */
+    public static String[] sortedPaths(Collection<String> paths) {
+        return new TreeSet<String>(paths).toArray(new String[0]);
+    }
+
+    public String getLanguage() {
+        return language;
+    }
+
+    /**
+     * @return the number of paths
+     */
+    public int size() {
+        return paths.length;
+    }
+
+    /**
+     * @return the id of the path, or -1 if the path is not in the table
+     */
+    public int getPathId(String path) {
+        int id = Arrays.binarySearch(paths, path);
+        return id < 0 ? -1 : id;
+    }
+
+    public String getPath(int pathId) {
+        return paths[pathId];
+    }
+
+    public Level getLevel(int pathId) {
+        return LEVELS[levels[pathId]];
+    }
+
+    /**
+     * @return the level of the path, or null if the path is not in the table
+     */
+    public Level getLevel(String path) {
+        int id = getPathId(path);
+        return id < 0 ? null : LEVELS[levels[id]];
+    }
+
+    /**
+     * @return true if every one of the paths is in the table
+     */
+    public boolean containsAll(Collection<String> paths) {
+        for (String path : paths) {
+            if (getPathId(path) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public List<String> getPaths() {
+        return Collections.unmodifiableList(Arrays.asList(paths));
+    }
+
+    @Override
+    public String toString() {
+        return "{CoverageLevelTable " + language + ", " + paths.length + " paths}";
+    }
+
+    /**
+     * For building a table from levels computed one at a time.
+     */
+    public static class Builder {
+        private final String language;
+        private final String[] paths;
+        private final byte[] levels;
+
+        /**
+         * @param paths sorted, without duplicates
+         */
+        public Builder(String language, String[] paths) {
+            this.language = language;
+            this.paths = paths;
+            this.levels = new byte[paths.length];
+        }
+
+        public Builder set(int pathId, Level level) {
+            levels[pathId] = (byte) level.ordinal();
+            return this;
+        }
+
+        public CoverageLevelTable build() {
+            return new CoverageLevelTable(language, paths, levels);
+        }
+    }
+}
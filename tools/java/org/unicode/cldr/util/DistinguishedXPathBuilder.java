@@ -0,0 +1,323 @@
+package org.unicode.cldr.util;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+import org.unicode.cldr.icu.LDMLConstants;
+
+/**
+ * Computes the distinguishing, non-draft/non-alt and base forms of an xpath from a single {@link XPathCursor} pass,
+ * writing them into a reusable buffer instead of going through XPathParts. The results are the same as building an
+ * XPathParts, changing its attributes and calling toString(): attributes come out in the DTD's attribute order.
+ * When a form is the same as the path, the path itself is returned, so nothing is allocated.
+ * <p>
+ * Instances are not thread-safe; use {@link #getInstance()} for one per thread.
+ */
+public final class DistinguishedXPathBuilder {
+    private static final ThreadLocal<DistinguishedXPathBuilder> instances = new ThreadLocal<DistinguishedXPathBuilder>() {
+        @Override
+        protected DistinguishedXPathBuilder initialValue() {
+            return new DistinguishedXPathBuilder();
+        }
+    };
+
+    /**
+     * Stands for the references of all the ancestors, joined with spaces, in place of an attribute index.
+     */
+    private static final int JOINED_REFERENCES = -1;
+
+    private final XPathCursor cursor = new XPathCursor();
+    private final StringBuilder buffer = new StringBuilder();
+
+    private DtdType dtdType;
+    private DtdData dtdData;
+    private Comparator<String> comparator;
+
+    // the attributes to write for the current element, in attribute order
+    private String[] slotNames = new String[8];
+    private int[] slotAttributes = new int[8];
+    private int slotCount;
+
+    // where the value of each attribute ends; shorter than in the cursor for a trimmed alt
+    private int[] valueEnds = new int[16];
+
+    // the references attributes on the ancestors of the last element
+    private int[] references = new int[4];
+    private int referenceCount;
+
+    /**
+     * @return the builder for the current thread
+     */
+    public static DistinguishedXPathBuilder getInstance() {
+        return instances.get();
+    }
+
+    /**
+     * Tokenize the path, for the getXxx methods.
+     *
+     * @throws IllegalArgumentException if the path is malformed
+     */
+    public DistinguishedXPathBuilder set(String xpath) {
+        cursor.set(xpath);
+        DtdType type = cursor.getDtdType();
+        if (type != dtdType || dtdData == null) {
+            dtdType = type;
+            dtdData = type == null ? null : DtdData.getInstance(type);
+            comparator = type == null ? null
+                : type == DtdType.ldml ? CLDRFile.getAttributeOrdering()
+                    : dtdData.getAttributeComparator();
+        }
+        int attributeCount = cursor.getAttributeCount();
+        if (valueEnds.length < attributeCount) {
+            valueEnds = new int[Math.max(attributeCount, valueEnds.length * 2)];
+        }
+        for (int a = 0; a < attributeCount; ++a) {
+            valueEnds[a] = cursor.getValueEnd(a);
+        }
+        return this;
+    }
+
+    /**
+     * @return the cursor over the path last set
+     */
+    public XPathCursor getCursor() {
+        return cursor;
+    }
+
+    /**
+     * The path with the draft, alt and references attributes of the ancestors of the last element moved to the
+     * last element that is not ordered, and without any non-distinguishing attributes.
+     * See {@link CLDRFile#getDistinguishingXPath(String, String[])}.
+     *
+     * @param normalizedPath if not null, normalizedPath[0] is set to the path with the attributes moved but none
+     *        removed, or to null if moving attributes made no difference
+     */
+    public String getDistinguishingXPath(String[] normalizedPath) {
+        String xpath = cursor.getPath();
+        int last = cursor.getElementCount() - 1;
+        if (dtdData == null) {
+            throw new IllegalArgumentException("Unknown DTD type in " + xpath);
+        }
+
+        // note: each successive draft or alt overrides the previous one. That's intended
+        int draft = -1;
+        int alt = -1;
+        referenceCount = 0;
+        for (int e = 0; e < last; ++e) {
+            for (int a = cursor.getFirstAttribute(e); a < cursor.getLimitAttribute(e); ++a) {
+                String attribute = cursor.getAttributeName(a);
+                if (attribute.equals("draft")) {
+                    draft = a;
+                } else if (attribute.equals("alt")) {
+                    alt = a;
+                } else if (attribute.equals("references")) {
+                    if (referenceCount == references.length) {
+                        references = Arrays.copyOf(references, referenceCount * 2);
+                    }
+                    references[referenceCount++] = a;
+                }
+            }
+        }
+        boolean moved = draft >= 0 || alt >= 0 || referenceCount > 0;
+        int placement = last;
+        if (moved) {
+            // get the last element that is not ordered.
+            while (placement > 0 && dtdData.isOrdered(cursor.getElement(placement))) {
+                --placement;
+            }
+        }
+        if (normalizedPath != null) {
+            normalizedPath[0] = null;
+            if (moved) {
+                writeDistinguishing(false, placement, draft, alt);
+                if (!xpath.contentEquals(buffer)) {
+                    normalizedPath[0] = buffer.toString();
+                }
+            }
+        }
+        writeDistinguishing(true, placement, draft, alt);
+        return result();
+    }
+
+    private void writeDistinguishing(boolean distinguishingOnly, int placement, int draft, int alt) {
+        int last = cursor.getElementCount() - 1;
+        buffer.setLength(0);
+        buffer.append('/');
+        for (int e = 0; e <= last; ++e) {
+            String element = cursor.getElement(e);
+            slotCount = 0;
+            for (int a = cursor.getFirstAttribute(e); a < cursor.getLimitAttribute(e); ++a) {
+                String attribute = cursor.getAttributeName(a);
+                if (e < last && (attribute.equals("draft") || attribute.equals("alt") || attribute.equals("references"))) {
+                    continue;
+                }
+                if (!distinguishingOnly || dtdData.isDistinguishing(element, attribute)) {
+                    addSlot(attribute, a);
+                }
+            }
+            if (e == placement) {
+                if (draft >= 0 && (!distinguishingOnly || dtdData.isDistinguishing(element, "draft"))) {
+                    addSlot("draft", draft);
+                }
+                if (alt >= 0 && (!distinguishingOnly || dtdData.isDistinguishing(element, "alt"))) {
+                    addSlot("alt", alt);
+                }
+                if (referenceCount > 0 && (!distinguishingOnly || dtdData.isDistinguishing(element, "references"))) {
+                    addSlot("references", JOINED_REFERENCES);
+                }
+            }
+            writeElement(e);
+        }
+    }
+
+    /**
+     * The path without any draft attributes, and without the proposed part of any alt attributes.
+     * See {@link CLDRFile#getNondraftNonaltXPath(String)}.
+     */
+    public String getNondraftNonaltXPath() {
+        buffer.setLength(0);
+        buffer.append('/');
+        for (int e = 0; e < cursor.getElementCount(); ++e) {
+            slotCount = 0;
+            for (int a = cursor.getFirstAttribute(e); a < cursor.getLimitAttribute(e); ++a) {
+                String attribute = cursor.getAttributeName(a);
+                if (attribute.equals("draft")) {
+                    continue;
+                } else if (attribute.equals("alt")) {
+                    int proposedPos = indexOfProposed(a);
+                    if (proposedPos == 0) {
+                        continue;
+                    } else if (proposedPos > 0) {
+                        valueEnds[a] = cursor.getValueStart(a) + proposedPos - 1; // is of form xxx-proposedyyy
+                    }
+                }
+                addSlot(attribute, a);
+            }
+            writeElement(e);
+        }
+        String result = result();
+        resetValueEnds();
+        return result;
+    }
+
+    /**
+     * The path with the proposed part of the alt attribute of the last element removed. Unlike
+     * {@link #getNondraftNonaltXPath()}, doesn't remove draft. Expects a distinguished path.
+     * See XPathTable.xpathToBaseXpath in the Survey Tool.
+     */
+    public String getBaseXPath() {
+        String xpath = cursor.getPath();
+        int last = cursor.getElementCount() - 1;
+        int alt = last < 0 ? -1 : cursor.findAttribute(last, "alt");
+        if (alt < 0) {
+            return xpath; // no change
+        }
+        int proposedPos = indexOfProposed(alt);
+        if (proposedPos < 0) {
+            return xpath; // no change
+        }
+        if (proposedPos > 0 && xpath.charAt(cursor.getValueStart(alt) + proposedPos - 1) != '-') {
+            throw new InternalError("Expected '-' before " + LDMLConstants.PROPOSED + " in "
+                + cursor.getAttributeValue(alt));
+        }
+        // an empty alt type drops out of existence
+        boolean removeAlt = proposedPos <= 1;
+        valueEnds[alt] = cursor.getValueStart(alt) + proposedPos - 1;
+        buffer.setLength(0);
+        buffer.append('/');
+        for (int e = 0; e <= last; ++e) {
+            slotCount = 0;
+            for (int a = cursor.getFirstAttribute(e); a < cursor.getLimitAttribute(e); ++a) {
+                if (e == last && removeAlt && cursor.getAttributeName(a).equals("alt")) {
+                    continue;
+                }
+                addSlot(cursor.getAttributeName(a), a);
+            }
+            writeElement(e);
+        }
+        String result = result();
+        resetValueEnds();
+        return result;
+    }
+
+    /**
+     * @return the position of "proposed" in the value of the attribute, or -1
+     */
+    private int indexOfProposed(int attribute) {
+        String xpath = cursor.getPath();
+        int start = cursor.getValueStart(attribute);
+        int limit = cursor.getValueEnd(attribute) - LDMLConstants.PROPOSED.length();
+        for (int i = start; i <= limit; ++i) {
+            if (xpath.startsWith(LDMLConstants.PROPOSED, i)) {
+                return i - start;
+            }
+        }
+        return -1;
+    }
+
+    private void resetValueEnds() {
+        for (int a = 0; a < cursor.getAttributeCount(); ++a) {
+            valueEnds[a] = cursor.getValueEnd(a);
+        }
+    }
+
+    /**
+     * Add an attribute to write for the current element, keeping them in attribute order. As with a map, an attribute
+     * that is already there gets the new value.
+     */
+    private void addSlot(String attribute, int valueIndex) {
+        int i = slotCount;
+        while (i > 0) {
+            int order = compare(slotNames[i - 1], attribute);
+            if (order == 0) {
+                slotAttributes[i - 1] = valueIndex;
+                return;
+            }
+            if (order < 0) {
+                break;
+            }
+            --i;
+        }
+        if (slotCount == slotNames.length) {
+            slotNames = Arrays.copyOf(slotNames, slotCount * 2);
+            slotAttributes = Arrays.copyOf(slotAttributes, slotCount * 2);
+        }
+        System.arraycopy(slotNames, i, slotNames, i + 1, slotCount - i);
+        System.arraycopy(slotAttributes, i, slotAttributes, i + 1, slotCount - i);
+        slotNames[i] = attribute;
+        slotAttributes[i] = valueIndex;
+        ++slotCount;
+    }
+
+    private int compare(String a, String b) {
+        return comparator == null ? a.compareTo(b) : comparator.compare(a, b);
+    }
+
+    private void writeElement(int elementIndex) {
+        String xpath = cursor.getPath();
+        buffer.append('/').append(cursor.getElement(elementIndex));
+        for (int i = 0; i < slotCount; ++i) {
+            buffer.append("[@").append(slotNames[i]).append("=\"");
+            int a = slotAttributes[i];
+            if (a == JOINED_REFERENCES) {
+                for (int r = 0; r < referenceCount; ++r) {
+                    if (r != 0) {
+                        buffer.append(' ');
+                    }
+                    buffer.append(xpath, cursor.getValueStart(references[r]), valueEnds[references[r]]);
+                }
+            } else {
+                buffer.append(xpath, cursor.getValueStart(a), valueEnds[a]);
+            }
+            buffer.append("\"]");
+        }
+    }
+
+    /**
+     * @return the path, if the buffer holds the same characters, otherwise a new string
+     */
+    private String result() {
+        String xpath = cursor.getPath();
+        return xpath.contentEquals(buffer) ? xpath : buffer.toString();
+    }
+}
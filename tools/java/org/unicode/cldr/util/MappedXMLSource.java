@@ -0,0 +1,224 @@
+package org.unicode.cldr.util;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import org.unicode.cldr.util.XPathParts.Comments;
+
+import com.ibm.icu.impl.Relation;
+import com.ibm.icu.util.VersionInfo;
+
+/**
+ * A read-only XMLSource for one locale of an {@link XMLSnapshot}, serving values straight from the memory-mapped
+ * file. Paths are iterated in sorted order. It is always frozen; use cloneAsThawed() to get a modifiable copy.
+ */
+public class MappedXMLSource extends XMLSource {
+    private final XMLSnapshot snapshot;
+    private final int entriesStart;
+    private final int entryCount;
+    private final VersionInfo dtdVersionInfo;
+    private Comments xpath_comments = new Comments();
+    private Relation<String, String> VALUE_TO_PATH = null;
+    private final Object VALUE_TO_PATH_MUTEX = new Object();
+
+    MappedXMLSource(XMLSnapshot snapshot, String localeID, int entriesStart, int entryCount, boolean nonInheriting,
+        VersionInfo dtdVersionInfo) {
+        this.snapshot = snapshot;
+        this.entriesStart = entriesStart;
+        this.entryCount = entryCount;
+        this.dtdVersionInfo = dtdVersionInfo;
+        setLocaleID(localeID);
+        setNonInheriting(nonInheriting);
+        locked = true;
+    }
+
+    private int getPathNumber(int entry) {
+        return snapshot.getInt(entriesStart + entry * XMLSnapshot.ENTRY_BYTES);
+    }
+
+    /**
+     * Binary search for the entry with the path number; returns -(insertion point) - 1 if not found.
+     */
+    private int findEntry(int pathNumber) {
+        int low = 0;
+        int high = entryCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int midPathNumber = getPathNumber(mid);
+            if (midPathNumber < pathNumber) {
+                low = mid + 1;
+            } else if (midPathNumber > pathNumber) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+
+    private int findEntry(String path) {
+        int pathNumber = snapshot.getPathNumber(path);
+        return pathNumber < 0 ? -1 : findEntry(pathNumber);
+    }
+
+    @Override
+    public String getValueAtDPath(String path) {
+        int entry = findEntry(path);
+        return entry < 0 ? null : snapshot.getString(snapshot.getInt(entriesStart + entry * XMLSnapshot.ENTRY_BYTES + 4));
+    }
+
+    @Override
+    public String getFullPathAtDPath(String path) {
+        int entry = findEntry(path);
+        if (entry < 0) {
+            return null;
+        }
+        int fullPath = snapshot.getInt(entriesStart + entry * XMLSnapshot.ENTRY_BYTES + 8);
+        return fullPath < 0 ? path : snapshot.getString(fullPath);
+    }
+
+    @Override
+    public boolean hasValueAtDPath(String path) {
+        return findEntry(path) >= 0;
+    }
+
+    @Override
+    public Iterator<String> iterator() {
+        return new EntryIterator(0, null);
+    }
+
+    /**
+     * Since the paths are sorted, only the paths with the prefix are visited.
+     */
+    @Override
+    public Iterator<String> iterator(String prefix) {
+        if (prefix == null || prefix.length() == 0) {
+            return iterator();
+        }
+        // binary search for the first path >= prefix
+        int low = 0;
+        int high = entryCount;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (snapshot.getPath(getPathNumber(mid)).compareTo(prefix) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return new EntryIterator(low, prefix);
+    }
+
+    /**
+     * The paths are already sorted.
+     */
+    @Override
+    public Iterator<String> sortedIterator(String prefix) {
+        return iterator(prefix);
+    }
+
+    private class EntryIterator implements Iterator<String> {
+        private int entry;
+        private final String prefix;
+
+        EntryIterator(int start, String prefix) {
+            this.entry = start;
+            this.prefix = prefix;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return entry < entryCount && (prefix == null || snapshot.getPath(getPathNumber(entry)).startsWith(prefix));
+        }
+
+        @Override
+        public String next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return snapshot.getPath(getPathNumber(entry++));
+        }
+    }
+
+    @Override
+    public Comments getXpathComments() {
+        return xpath_comments;
+    }
+
+    @Override
+    public void setXpathComments(Comments comments) {
+        throw new UnsupportedOperationException("Attempt to modify a memory-mapped source");
+    }
+
+    @Override
+    public void putFullPathAtDPath(String distinguishingXPath, String fullxpath) {
+        throw new UnsupportedOperationException("Attempt to modify a memory-mapped source");
+    }
+
+    @Override
+    public void putValueAtDPath(String distinguishingXPath, String value) {
+        throw new UnsupportedOperationException("Attempt to modify a memory-mapped source");
+    }
+
+    @Override
+    public void removeValueAtDPath(String distinguishingXPath) {
+        throw new UnsupportedOperationException("Attempt to modify a memory-mapped source");
+    }
+
+    @Override
+    public XMLSource freeze() {
+        return this;
+    }
+
+    /**
+     * Returns a modifiable SimpleXMLSource with a copy of the data.
+     */
+    @Override
+    public XMLSource cloneAsThawed() {
+        SimpleXMLSource result = new SimpleXMLSource(getLocaleID());
+        for (String path : this) {
+            result.putValueAtDPath(path, getValueAtDPath(path));
+            String fullPath = getFullPathAtDPath(path);
+            if (!fullPath.equals(path)) {
+                result.putFullPathAtDPath(path, fullPath);
+            }
+        }
+        result.setNonInheriting(isNonInheriting());
+        result.setDtdVersionInfo(dtdVersionInfo);
+        return result;
+    }
+
+    @Override
+    public void getPathsWithValue(String valueToMatch, String pathPrefix, Set<String> result) {
+        // build a Relation mapping value to paths, if needed
+        synchronized (VALUE_TO_PATH_MUTEX) {
+            if (VALUE_TO_PATH == null) {
+                VALUE_TO_PATH = Relation.of(new HashMap<String, Set<String>>(), HashSet.class);
+                for (String path : this) {
+                    String value = getValueAtDPath(path);
+                    if (CldrUtility.INHERITANCE_MARKER.equals(value)) {
+                        continue;
+                    }
+                    VALUE_TO_PATH.put(SimpleXMLSource.normalize(value), path);
+                }
+            }
+            Set<String> paths = VALUE_TO_PATH.getAll(SimpleXMLSource.normalize(valueToMatch));
+            if (paths == null) {
+                return;
+            }
+            for (String path : paths) {
+                if (pathPrefix == null || path.startsWith(pathPrefix)) {
+                    result.add(path);
+                }
+            }
+        }
+    }
+
+    @Override
+    public VersionInfo getDtdVersionInfo() {
+        return dtdVersionInfo;
+    }
+}
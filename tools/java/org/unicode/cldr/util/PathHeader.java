@@ -1,6 +1,7 @@
 package org.unicode.cldr.util;
 
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.EnumMap;
 import java.util.HashMap;
@@ -15,6 +16,7 @@ import java.util.Map.Entry;
 import java.util.Set;
 import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -616,8 +618,9 @@ public class PathHeader implements Comparable<PathHeader> {
         static int order;
         static SubstringOrder suborder;
 
-        static final Map<String, PathHeader> cache = new HashMap<String, PathHeader>();
-        // synchronized with cache
+        // lock-free for lookups; new entries are only added while holding lookup
+        static final Map<String, PathHeader> cache = new ConcurrentHashMap<String, PathHeader>();
+        // synchronized with sectionPageToPaths
         static final Map<SectionId, Map<PageId, SectionPage>> sectionToPageToSectionPage = new EnumMap<SectionId, Map<PageId, SectionPage>>(
             SectionId.class);
         static final Relation<SectionPage, String> sectionPageToPaths = Relation
@@ -656,9 +659,7 @@ public class PathHeader implements Comparable<PathHeader> {
          * Use only when trying to find unmatched patterns
          */
         public void clearCache() {
-            synchronized (cache) {
-                cache.clear();
-            }
+            cache.clear();
         }
 
         /**
@@ -683,13 +684,15 @@ public class PathHeader implements Comparable<PathHeader> {
             if (path == null) {
                 throw new NullPointerException("Path cannot be null");
             }
-            synchronized (cache) {
-                PathHeader old = cache.get(path);
+            PathHeader old = cache.get(path);
+            if (old != null) {
+                return old;
+            }
+            synchronized (lookup) {
+                old = cache.get(path); // another thread may have added it while we waited
                 if (old != null) {
                     return old;
                 }
-            }
-            synchronized (lookup) {
                 String cleanPath = path;
                 // special handling for alt
                 String alt = null;
@@ -731,13 +734,8 @@ public class PathHeader implements Comparable<PathHeader> {
                         suborder,
                         data.status,
                         path);
-                    synchronized (cache) {
-                        PathHeader old = cache.get(path);
-                        if (old == null) {
-                            cache.put(path, result);
-                        } else {
-                            result = old;
-                        }
+                    cache.put(path, result);
+                    synchronized (sectionPageToPaths) {
                         Map<PageId, SectionPage> pageToPathHeaders = sectionToPageToSectionPage
                             .get(result.sectionId);
                         if (pageToPathHeaders == null) {
@@ -759,6 +757,22 @@ public class PathHeader implements Comparable<PathHeader> {
             }
         }
 
+        /**
+         * Return the PathHeaders for a collection of paths, such as all the paths in a locale. The paths are resolved
+         * in parallel; those that already have a cached PathHeader don't take any lock. Paths for which there is no
+         * PathHeader are omitted from the result. Thread-safe.
+         */
+        public Map<String, PathHeader> fromPaths(Collection<String> paths) {
+            Map<String, PathHeader> result = new ConcurrentHashMap<String, PathHeader>(paths.size());
+            paths.parallelStream().forEach(path -> {
+                PathHeader pathHeader = fromPath(path);
+                if (pathHeader != null) {
+                    result.put(path, pathHeader);
+                }
+            });
+            return result;
+        }
+
         private static class SectionPage implements Comparable<SectionPage> {
             private final SectionId sectionId;
             private final PageId pageId;
@@ -819,7 +833,7 @@ public class PathHeader implements Comparable<PathHeader> {
          */
         public static Set<String> getCachedPaths(SectionId sectionId, PageId page) {
             Set<String> target = new HashSet<String>();
-            synchronized (cache) {
+            synchronized (sectionPageToPaths) {
                 Map<PageId, SectionPage> pageToSectionPage = sectionToPageToSectionPage
                     .get(sectionId);
                 if (pageToSectionPage == null) {
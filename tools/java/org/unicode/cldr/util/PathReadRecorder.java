@@ -0,0 +1,220 @@
+package org.unicode.cldr.util;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Records which distinguished paths the current thread reads from CLDRFiles, so that a result computed
+ * from those reads can be invalidated only when one of them changes.
+ * <p>
+ * Usage:
+ *
+ * <pre>
+ * PathReadRecorder recorder = PathReadRecorder.start(localeIDs);
+ * try {
+ *     ... compute something from CLDRFiles ...
+ * } finally {
+ *     reads = recorder.stop();
+ * }
+ * if (reads.dependsOn(changedPath)) ...
+ * </pre>
+ *
+ * Recording is per thread, and may be nested; the reads of an inner recorder are also added to the outer one.
+ * When no thread is recording, the record methods return after reading a single counter.
+ * <p>
+ * Iterating over the paths of a file only depends on which paths there are, so it is recorded separately
+ * from reading values: the values are recorded as they are read.
+ */
+public class PathReadRecorder {
+    private static final AtomicInteger activeCount = new AtomicInteger();
+    private static final ThreadLocal<PathReadRecorder> current = new ThreadLocal<PathReadRecorder>();
+
+    private final PathReadRecorder outer;
+    private final Set<String> localeIDs;
+    private final Set<String> paths = new HashSet<String>();
+    private final Set<String> prefixes = new HashSet<String>();
+    private final Set<String> iterationPrefixes = new HashSet<String>();
+    private boolean stopped = false;
+
+    private PathReadRecorder(Set<String> localeIDs, PathReadRecorder outer) {
+        this.localeIDs = localeIDs;
+        this.outer = outer;
+    }
+
+    /**
+     * Start recording reads on this thread.
+     *
+     * @param localeIDs only reads from files with these locale IDs are recorded; null records all
+     */
+    public static PathReadRecorder start(Set<String> localeIDs) {
+        PathReadRecorder result = new PathReadRecorder(localeIDs, current.get());
+        current.set(result);
+        activeCount.incrementAndGet();
+        return result;
+    }
+
+    /**
+     * Start recording reads on this thread, from the same locales as the recorder already active on it.
+     * Used to find out what part of a computation read, while the whole of it is being recorded.
+     *
+     * @throws IllegalStateException if no recorder is active on this thread
+     */
+    public static PathReadRecorder startNested() {
+        PathReadRecorder outer = current.get();
+        if (outer == null) {
+            throw new IllegalStateException("No recorder to nest in");
+        }
+        return start(outer.localeIDs);
+    }
+
+    /**
+     * Is a recorder active on this thread?
+     */
+    public static boolean isRecording() {
+        return activeCount.get() != 0 && current.get() != null;
+    }
+
+    /**
+     * Stop recording, and return what was read since start(). Must be called on the thread that
+     * called start(), in reverse order of nesting.
+     */
+    public Reads stop() {
+        if (stopped) {
+            throw new IllegalStateException("Recorder already stopped");
+        }
+        if (current.get() != this) {
+            throw new IllegalStateException("Recorders must be stopped in reverse order of starting");
+        }
+        stopped = true;
+        activeCount.decrementAndGet();
+        if (outer == null) {
+            current.remove();
+        } else {
+            current.set(outer);
+            outer.paths.addAll(paths);
+            outer.prefixes.addAll(prefixes);
+            outer.iterationPrefixes.addAll(iterationPrefixes);
+        }
+        return new Reads(paths, prefixes, iterationPrefixes);
+    }
+
+    /**
+     * Record that the given distinguished path was read from the file for the given locale.
+     */
+    public static void recordPath(String localeID, String path) {
+        if (activeCount.get() == 0 || path == null) {
+            return;
+        }
+        PathReadRecorder recorder = current.get();
+        if (recorder != null && recorder.accepts(localeID)) {
+            recorder.paths.add(path);
+        }
+    }
+
+    /**
+     * Record that all the paths starting with the given prefix were read (or iterated over) from the file
+     * for the given locale. A null or empty prefix stands for all paths.
+     */
+    public static void recordPrefix(String localeID, String prefix) {
+        if (activeCount.get() == 0) {
+            return;
+        }
+        PathReadRecorder recorder = current.get();
+        if (recorder != null && recorder.accepts(localeID)) {
+            recorder.prefixes.add(prefix == null ? "" : prefix);
+        }
+    }
+
+    /**
+     * Record that the paths starting with the given prefix were iterated over in the file for the given locale,
+     * so that what was computed depends on which of those paths there are, but not (by itself) on their values.
+     * A null or empty prefix stands for all paths.
+     */
+    public static void recordIteration(String localeID, String prefix) {
+        if (activeCount.get() == 0) {
+            return;
+        }
+        PathReadRecorder recorder = current.get();
+        if (recorder != null && recorder.accepts(localeID)) {
+            recorder.iterationPrefixes.add(prefix == null ? "" : prefix);
+        }
+    }
+
+    private boolean accepts(String localeID) {
+        return localeIDs == null || localeIDs.contains(localeID);
+    }
+
+    /**
+     * The paths and path prefixes read while a recorder was active. Immutable.
+     */
+    public static final class Reads {
+        public static final Reads NONE = new Reads(Collections.<String> emptySet(), Collections.<String> emptySet(),
+            Collections.<String> emptySet());
+
+        private final Set<String> paths;
+        private final String[] prefixes;
+        private final String[] iterationPrefixes;
+
+        private Reads(Set<String> paths, Set<String> prefixes, Set<String> iterationPrefixes) {
+            this.paths = paths.isEmpty() ? Collections.<String> emptySet() : Collections.unmodifiableSet(new HashSet<String>(paths));
+            this.prefixes = prefixes.toArray(new String[prefixes.size()]);
+            this.iterationPrefixes = iterationPrefixes.toArray(new String[iterationPrefixes.size()]);
+        }
+
+        /**
+         * Could a change to the value of the given path change a result computed from these reads?
+         */
+        public boolean dependsOn(String path) {
+            if (paths.contains(path)) {
+                return true;
+            }
+            for (String prefix : prefixes) {
+                if (path.startsWith(prefix)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Could adding or removing the given path change a result computed from these reads?
+         * Also true whenever {@link #dependsOn(String)} is.
+         */
+        public boolean iteratesOver(String path) {
+            if (dependsOn(path)) {
+                return true;
+            }
+            for (String prefix : iterationPrefixes) {
+                if (path.startsWith(prefix)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        public Set<String> getPaths() {
+            return paths;
+        }
+
+        public List<String> getPrefixes() {
+            return Collections.unmodifiableList(Arrays.asList(prefixes));
+        }
+
+        public List<String> getIterationPrefixes() {
+            return Collections.unmodifiableList(Arrays.asList(iterationPrefixes));
+        }
+
+        public int getPrefixCount() {
+            return prefixes.length;
+        }
+
+        @Override
+        public String toString() {
+            return "{paths=" + paths.size() + ", prefixes=" + prefixes.length + ", iterations=" + iterationPrefixes.length + "}";
+        }
+    }
+}
@@ -25,7 +25,7 @@ import com.ibm.icu.util.Output;
 
 /**
  * Lookup items according to a set of regex patterns. Returns the value according to the first pattern that matches. Not
- * thread-safe.
+ * thread-safe, except that lookups with LookupType.PREFIX_TRIE_LOOKUP may be done from multiple threads once loading is done.
  *
  * @param <T>
  */
@@ -42,7 +42,7 @@ public class RegexLookup<T> implements Iterable<Map.Entry<Finder, T>> {
     private static PathStarrer pathStarrer = new PathStarrer().setSubstitutionPattern("*");
 
     public enum LookupType {
-        STAR_PATTERN_LOOKUP, OPTIMIZED_DIRECTORY_PATTERN_LOOKUP, STANDARD
+        STAR_PATTERN_LOOKUP, OPTIMIZED_DIRECTORY_PATTERN_LOOKUP, PREFIX_TRIE_LOOKUP, STANDARD
     };
 
     private LookupType _lookupType;
@@ -67,6 +67,17 @@ public class RegexLookup<T> implements Iterable<Map.Entry<Finder, T>> {
      * However regex's no longer need to follow any specific format (Slower but more versatile).
      */
 
+    /*
+     * PREFIX_TRIE_LOOKUP
+     *
+     * Returns the same results as OPTIMIZED_DIRECTORY_PATTERN_LOOKUP, but is reentrant: lookups don't lock and don't
+     * modify any shared state, so many threads can use the same RegexLookup at once.
+     * The literal prefix of each anchored pattern (eg //ldml/dates/calendars/ for ^//ldml/dates/calendars/calendar\[@type="([^"]*)"]...)
+     * is split into XPath segments, and the patterns are compiled into an immutable trie over those segments on the first lookup.
+     * A path is then only matched against the patterns along its own segments, in the order they were added.
+     * Patterns without a usable literal prefix (unanchored, or with a top-level |) are tried for every path.
+     */
+
     public RegexLookup(LookupType type) {
         _lookupType = type;
         switch (type) {
@@ -78,6 +89,9 @@ public class RegexLookup<T> implements Iterable<Map.Entry<Finder, T>> {
             //   RTEntries = new RegexTree<T>();
             storage = new RegexTree<T>();
             break;
+        case PREFIX_TRIE_LOOKUP:
+            storage = new PrefixTrie<T>();
+            break;
         default:
             MEntries = new LinkedHashMap<Finder, T>();
             break;
@@ -111,7 +125,7 @@ public class RegexLookup<T> implements Iterable<Map.Entry<Finder, T>> {
 
     public static class RegexFinder extends Finder {
         /**
-         * The matcher used by this RegexFinder
+         * The matcher used by this RegexFinder for getFailPoint (synchronized)
          */
         private final Matcher matcher;
 
@@ -127,30 +141,30 @@ public class RegexLookup<T> implements Iterable<Map.Entry<Finder, T>> {
 
         /**
          * Call Matches on the pattern, returning additional information in the Info field,
-         * if it is non null
+         * if it is non null. Reentrant: each call uses its own Matcher.
          */
         public boolean matches(String item, Object context, Info info) {
-            synchronized (matcher) {
-                try {
-                    boolean result = matcher.reset(item).matches();
-                    extractInfo(info, result);
-                    return result;
-                } catch (StringIndexOutOfBoundsException e) {
-                    // We don't know what causes this error (cldrbug 5051) so
-                    // make the exception message more detailed.
-                    throw new IllegalArgumentException("Matching error caused by pattern: ["
-                        + matcher.toString() + "] on text: [" + item + "]", e);
-                }
+            Matcher matcher = pattern.matcher(item);
+            try {
+                boolean result = matcher.matches();
+                extractInfo(matcher, info, result);
+                return result;
+            } catch (StringIndexOutOfBoundsException e) {
+                // We don't know what causes this error (cldrbug 5051) so
+                // make the exception message more detailed.
+                throw new IllegalArgumentException("Matching error caused by pattern: ["
+                    + matcher.toString() + "] on text: [" + item + "]", e);
             }
         }
 
         /**
          * Extract match related information into  the info field, if result is true, and info
          * is not null.
+         * @param matcher
          * @param info
          * @param result
          */
-        private void extractInfo(Info info, boolean result) {
+        private static void extractInfo(Matcher matcher, Info info, boolean result) {
             if (result && info != null) {
                 int limit = matcher.groupCount() + 1;
                 String[] value = new String[limit];
@@ -163,20 +177,19 @@ public class RegexLookup<T> implements Iterable<Map.Entry<Finder, T>> {
 
         /**
          * Call find() on the pattern, returning additional information in the info field,
-         * if it is non-null
+         * if it is non-null. Reentrant: each call uses its own Matcher.
          */
         public boolean find(String item, Object context, Info info) {
-            synchronized (matcher) {
-                try {
-                    boolean result = matcher.reset(item).find();
-                    extractInfo(info, result);
-                    return result;
-                } catch (StringIndexOutOfBoundsException e) {
-                    // We don't know what causes this error (cldrbug 5051) so
-                    // make the exception message more detailed.
-                    throw new IllegalArgumentException("Matching error caused by pattern: ["
-                        + matcher.toString() + "] on text: [" + item + "]", e);
-                }
+            Matcher matcher = pattern.matcher(item);
+            try {
+                boolean result = matcher.find();
+                extractInfo(matcher, info, result);
+                return result;
+            } catch (StringIndexOutOfBoundsException e) {
+                // We don't know what causes this error (cldrbug 5051) so
+                // make the exception message more detailed.
+                throw new IllegalArgumentException("Matching error caused by pattern: ["
+                    + matcher.toString() + "] on text: [" + item + "]", e);
             }
         }
 
@@ -661,6 +674,187 @@ public class RegexLookup<T> implements Iterable<Map.Entry<Finder, T>> {
         }
     }
 
+    /**
+     * Storage for PREFIX_TRIE_LOOKUP. Entries are kept in insertion order; the trie is rebuilt on the first lookup
+     * after any put, and is never modified after it is published.
+     */
+    private static class PrefixTrie<T> implements StorageInterfaceBase<T> {
+        private final Map<Finder, PTEntry<T>> entries = new LinkedHashMap<Finder, PTEntry<T>>();
+        private volatile PTNode<T> root = null;
+
+        @Override
+        public synchronized int size() {
+            return entries.size();
+        }
+
+        @Override
+        public synchronized void put(Finder pattern, T value) {
+            PTEntry<T> old = entries.get(pattern);
+            entries.put(pattern, new PTEntry<T>(pattern, value, old == null ? entries.size() : old.rank));
+            root = null;
+        }
+
+        @Override
+        public synchronized T get(Finder finder) {
+            PTEntry<T> entry = entries.get(finder);
+            return entry == null ? null : entry._val;
+        }
+
+        @Override
+        public synchronized Set<Entry<Finder, T>> entrySet() {
+            LinkedHashMap<Finder, T> ret = new LinkedHashMap<Finder, T>();
+            for (PTEntry<T> entry : entries.values()) {
+                ret.put(entry._finder, entry._val);
+            }
+            return ret.entrySet();
+        }
+
+        private PTNode<T> getRoot() {
+            PTNode<T> result = root;
+            if (result == null) {
+                synchronized (this) {
+                    result = root;
+                    if (result == null) {
+                        root = result = compile();
+                    }
+                }
+            }
+            return result;
+        }
+
+        private PTNode<T> compile() {
+            PTNode<T> newRoot = new PTNode<T>();
+            for (PTEntry<T> entry : entries.values()) {
+                PTNode<T> node = newRoot;
+                String prefix = entry._finder instanceof RegexFinder ? getLiteralPrefix(entry._finder.toString()) : "";
+                int start = 0;
+                for (int end = prefix.indexOf('/'); end >= 0; start = end + 1, end = prefix.indexOf('/', start)) {
+                    node = node.getOrAddChild(prefix.substring(start, end));
+                }
+                node.addEntry(entry);
+            }
+            newRoot.freeze();
+            return newRoot;
+        }
+
+        /**
+         * Collect the entries whose literal prefix is a prefix of the path, in rank order.
+         */
+        private List<PTEntry<T>> getCandidates(String path) {
+            List<PTEntry<T>> result = new ArrayList<PTEntry<T>>();
+            PTNode<T> node = getRoot();
+            result.addAll(node.entries);
+            int start = 0;
+            for (int end = path.indexOf('/'); end >= 0 && node.children != null; start = end + 1, end = path.indexOf('/', start)) {
+                node = node.children.get(path.substring(start, end));
+                if (node == null) {
+                    break;
+                }
+                result.addAll(node.entries);
+            }
+            Collections.sort(result);
+            return result;
+        }
+
+        @Override
+        public List<T> getAll(String pattern, Object context, List<Finder> matcherList, Output<String[]> firstInfo) {
+            List<T> retList = new ArrayList<T>();
+            for (PTEntry<T> candidate : getCandidates(pattern)) {
+                Info info = new Info();
+                if (candidate._finder.find(pattern, context, info)) {
+                    if (retList.isEmpty() && firstInfo != null) {
+                        firstInfo.value = info.value;
+                    }
+                    retList.add(candidate._val);
+                    if (matcherList != null) {
+                        matcherList.add(candidate._finder);
+                    }
+                }
+            }
+            return retList;
+        }
+
+        @Override
+        public T get(String pattern, Object context, Output<String[]> arguments, Output<Finder> matcherFound) {
+            for (PTEntry<T> candidate : getCandidates(pattern)) {
+                Info info = new Info();
+                if (candidate._finder.find(pattern, context, info)) {
+                    if (arguments != null) {
+                        arguments.value = info.value;
+                    }
+                    if (matcherFound != null) {
+                        matcherFound.value = candidate._finder;
+                    }
+                    return candidate._val;
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public String toString() {
+            return getRoot().toString("", new StringBuilder()).toString();
+        }
+
+        private static class PTEntry<T> extends NodeBase<T> implements Comparable<PTEntry<T>> {
+            final int rank;
+
+            PTEntry(Finder finder, T value, int rank) {
+                super(finder, value);
+                this.rank = rank;
+            }
+
+            @Override
+            public int compareTo(PTEntry<T> other) {
+                return Integer.compare(rank, other.rank);
+            }
+        }
+
+        private static class PTNode<T> {
+            Map<String, PTNode<T>> children = null;
+            List<PTEntry<T>> entries = new ArrayList<PTEntry<T>>();
+
+            PTNode<T> getOrAddChild(String segment) {
+                if (children == null) {
+                    children = new HashMap<String, PTNode<T>>();
+                }
+                PTNode<T> child = children.get(segment);
+                if (child == null) {
+                    children.put(segment, child = new PTNode<T>());
+                }
+                return child;
+            }
+
+            void addEntry(PTEntry<T> entry) {
+                entries.add(entry);
+            }
+
+            void freeze() {
+                entries = entries.isEmpty() ? Collections.<PTEntry<T>> emptyList()
+                    : Collections.unmodifiableList(new ArrayList<PTEntry<T>>(entries));
+                if (children != null) {
+                    for (PTNode<T> child : children.values()) {
+                        child.freeze();
+                    }
+                    children = Collections.unmodifiableMap(children);
+                }
+            }
+
+            StringBuilder toString(String prefix, StringBuilder result) {
+                for (PTEntry<T> entry : entries) {
+                    result.append(prefix).append(entry._finder.toString()).append("\n");
+                }
+                if (children != null) {
+                    for (Entry<String, PTNode<T>> child : children.entrySet()) {
+                        result.append(prefix).append(child.getKey()).append("/\n");
+                        child.getValue().toString(prefix + "\t", result);
+                    }
+                }
+                return result;
+            }
+        }
+    }
+
     /**
      * The basic class of an information node, featuring a Finder, a value and an Info
      *
@@ -772,7 +966,8 @@ public class RegexLookup<T> implements Iterable<Map.Entry<Finder, T>> {
                     }
                 }
             }
-        } else if (_lookupType == RegexLookup.LookupType.OPTIMIZED_DIRECTORY_PATTERN_LOOKUP) {
+        } else if (_lookupType == RegexLookup.LookupType.OPTIMIZED_DIRECTORY_PATTERN_LOOKUP
+            || _lookupType == RegexLookup.LookupType.PREFIX_TRIE_LOOKUP) {
             //      T ret = RTEntries.get(source, context, arguments, matcherFound);
             T ret = storage.get(source, context, arguments, matcherFound);
             if (ret != null) {
@@ -857,7 +1052,8 @@ public class RegexLookup<T> implements Iterable<Map.Entry<Finder, T>> {
                 }
             }
             return null;
-        } else if (_lookupType == RegexLookup.LookupType.OPTIMIZED_DIRECTORY_PATTERN_LOOKUP) {
+        } else if (_lookupType == RegexLookup.LookupType.OPTIMIZED_DIRECTORY_PATTERN_LOOKUP
+            || _lookupType == RegexLookup.LookupType.PREFIX_TRIE_LOOKUP) {
             Output<String[]> info = new Output<>();
 //            List<T> matches = RTEntries.getAll(source, context, matcherList,info);
             List<T> matches = storage.getAll(source, context, matcherList, info);
@@ -919,6 +1115,9 @@ public class RegexLookup<T> implements Iterable<Map.Entry<Finder, T>> {
 //            entrySet = RTEntries.entrySet();
             entrySet = storage.entrySet();
             break;
+        case PREFIX_TRIE_LOOKUP:
+            entrySet = storage.entrySet();
+            break;
         default:
             entrySet = MEntries.entrySet();
             break;
@@ -1062,7 +1261,8 @@ public class RegexLookup<T> implements Iterable<Map.Entry<Finder, T>> {
         T old;
         switch (_lookupType) {
         case STAR_PATTERN_LOOKUP: // fallthrough
-        case OPTIMIZED_DIRECTORY_PATTERN_LOOKUP:
+        case OPTIMIZED_DIRECTORY_PATTERN_LOOKUP: // fallthrough
+        case PREFIX_TRIE_LOOKUP:
             old = storage.get(pattern);
 //            old = SPEntries.get(pattern);
             break;
@@ -1078,7 +1278,8 @@ public class RegexLookup<T> implements Iterable<Map.Entry<Finder, T>> {
         if (old == null) {
             switch (_lookupType) {
             case STAR_PATTERN_LOOKUP: // fallthrough
-            case OPTIMIZED_DIRECTORY_PATTERN_LOOKUP:
+            case OPTIMIZED_DIRECTORY_PATTERN_LOOKUP: // fallthrough
+            case PREFIX_TRIE_LOOKUP:
                 storage.put(pattern, target);
 //                SPEntries.put(pattern, target);
                 break;
@@ -1103,7 +1304,8 @@ public class RegexLookup<T> implements Iterable<Map.Entry<Finder, T>> {
     public Iterator<Map.Entry<Finder, T>> iterator() {
         switch (_lookupType) {
         case STAR_PATTERN_LOOKUP: // fall through
-        case OPTIMIZED_DIRECTORY_PATTERN_LOOKUP:
+        case OPTIMIZED_DIRECTORY_PATTERN_LOOKUP: // fall through
+        case PREFIX_TRIE_LOOKUP:
 //            return Collections.unmodifiableCollection(SPEntries.entrySet()).iterator();
             return Collections.unmodifiableCollection(storage.entrySet()).iterator();
 //        case OPTIMIZED_DIRECTORY_PATTERN_LOOKUP:
@@ -1114,6 +1316,62 @@ public class RegexLookup<T> implements Iterable<Map.Entry<Finder, T>> {
         }
     }
 
+    /**
+     * Return the text that any match of the regex must start with, or "" if there is none (eg if the regex isn't
+     * anchored with ^). Stops conservatively at the first character with a special meaning.
+     * Note that RegexFinder uses Pattern.COMMENTS, so whitespace and # are also special.
+     */
+    public static String getLiteralPrefix(String regex) {
+        if (!regex.startsWith("^") || hasTopLevelAlternation(regex)) {
+            return "";
+        }
+        StringBuilder result = new StringBuilder();
+        for (int i = 1; i < regex.length(); ++i) {
+            char ch = regex.charAt(i);
+            if (ch == '\\') {
+                if (i + 1 < regex.length() && !Character.isLetterOrDigit(regex.charAt(i + 1))) {
+                    result.append(regex.charAt(++i));
+                    continue;
+                }
+                break; // \d, \Q, back references, etc.
+            }
+            if ("?*{".indexOf(ch) >= 0 || ch == '#' || Character.isWhitespace(ch)) {
+                // the last character may be optional (with COMMENTS, "a ?" is the same as "a?")
+                if (result.length() > 0) {
+                    result.setLength(result.length() - 1);
+                }
+                break;
+            }
+            if ("[](){}.+^$|".indexOf(ch) >= 0) {
+                break;
+            }
+            result.append(ch);
+        }
+        return result.toString();
+    }
+
+    private static boolean hasTopLevelAlternation(String regex) {
+        int depth = 0;
+        boolean inClass = false;
+        for (int i = 0; i < regex.length(); ++i) {
+            char ch = regex.charAt(i);
+            if (ch == '\\') {
+                ++i;
+            } else if (inClass) {
+                inClass = ch != ']';
+            } else if (ch == '[') {
+                inClass = true;
+            } else if (ch == '(') {
+                ++depth;
+            } else if (ch == ')') {
+                --depth;
+            } else if (ch == '|' && depth == 0) {
+                return true;
+            }
+        }
+        return depth != 0 || inClass; // be conservative if we couldn't parse it
+    }
+
     public static String replace(String lookup, String... arguments) {
         StringBuilder result = new StringBuilder();
         int last = 0;
@@ -1142,7 +1400,8 @@ public class RegexLookup<T> implements Iterable<Map.Entry<Finder, T>> {
     public int size() {
         switch (_lookupType) {
         case STAR_PATTERN_LOOKUP: // fall through
-        case OPTIMIZED_DIRECTORY_PATTERN_LOOKUP:
+        case OPTIMIZED_DIRECTORY_PATTERN_LOOKUP: // fall through
+        case PREFIX_TRIE_LOOKUP:
 //            return SPEntries.size();
             return storage.size();
 //        case OPTIMIZED_DIRECTORY_PATTERN_LOOKUP:
@@ -1,11 +1,14 @@
 package org.unicode.cldr.util;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Pattern;
 
 import org.unicode.cldr.util.XPathParts.Comments;
@@ -23,6 +26,12 @@ public class SimpleXMLSource extends XMLSource {
     private Object VALUE_TO_PATH_MUTEX = new Object();
     private VersionInfo dtdVersionInfo;
 
+    /**
+     * Counts changes to xpath_value, so that sortedPaths can tell if it is stale
+     */
+    private AtomicInteger modCount = new AtomicInteger();
+    private volatile SortedPaths sortedPaths = null;
+
     public SimpleXMLSource(String localeID) {
         this.setLocaleID(localeID);
     }
@@ -36,6 +45,7 @@ public class SimpleXMLSource extends XMLSource {
         this.xpath_value = copyAsLockedFrom.xpath_value;
         this.xpath_fullXPath = copyAsLockedFrom.xpath_fullXPath;
         this.xpath_comments = copyAsLockedFrom.xpath_comments;
+        this.modCount = copyAsLockedFrom.modCount;
         this.setLocaleID(copyAsLockedFrom.getLocaleID());
         locked = true;
     }
@@ -77,6 +87,7 @@ public class SimpleXMLSource extends XMLSource {
     public void removeValueAtDPath(String distinguishingXPath) {
         String oldValue = xpath_value.get(distinguishingXPath);
         xpath_value.remove(distinguishingXPath);
+        modCount.incrementAndGet();
         xpath_fullXPath.remove(distinguishingXPath);
         updateValuePathMapping(distinguishingXPath, oldValue, null);
     }
@@ -85,6 +96,59 @@ public class SimpleXMLSource extends XMLSource {
         return Collections.unmodifiableSet(xpath_value.keySet()).iterator();
     }
 
+    /**
+     * The paths in sorted order, as of a modCount
+     */
+    private static final class SortedPaths {
+        final int modCount;
+        final String[] paths;
+
+        SortedPaths(int modCount, String[] paths) {
+            this.modCount = modCount;
+            this.paths = paths;
+        }
+    }
+
+    /**
+     * Iterates over a sorted array of paths kept until the next change, so that ResolvingSource can merge the
+     * sources of a locale without collecting all of their paths.
+     */
+    @Override
+    public Iterator<String> sortedIterator(final String prefix) {
+        SortedPaths sorted = sortedPaths;
+        int currentModCount = modCount.get();
+        if (sorted == null || sorted.modCount != currentModCount) {
+            String[] paths = xpath_value.keySet().toArray(new String[0]);
+            Arrays.sort(paths);
+            sortedPaths = sorted = new SortedPaths(currentModCount, paths);
+        }
+        final String[] paths = sorted.paths;
+        int start = 0;
+        if (prefix != null && prefix.length() != 0) {
+            start = Arrays.binarySearch(paths, prefix);
+            if (start < 0) {
+                start = -start - 1;
+            }
+        }
+        final int first = start;
+        return new Iterator<String>() {
+            private int i = first;
+
+            @Override
+            public boolean hasNext() {
+                return i < paths.length && (prefix == null || paths[i].startsWith(prefix));
+            }
+
+            @Override
+            public String next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return paths[i++];
+            }
+        };
+    }
+
     public XMLSource freeze() {
         locked = true;
         return this;
@@ -95,6 +159,8 @@ public class SimpleXMLSource extends XMLSource {
         result.xpath_comments = (Comments) result.xpath_comments.clone();
         result.xpath_fullXPath = CldrUtility.newConcurrentHashMap(result.xpath_fullXPath);
         result.xpath_value = CldrUtility.newConcurrentHashMap(result.xpath_value);
+        result.modCount = new AtomicInteger();
+        result.sortedPaths = null;
         return result;
     }
 
@@ -105,6 +171,9 @@ public class SimpleXMLSource extends XMLSource {
     public void putValueAtDPath(String distinguishingXPath, String value) {
         String oldValue = xpath_value.get(distinguishingXPath);
         xpath_value.put(distinguishingXPath, value);
+        if (oldValue == null) {
+            modCount.incrementAndGet(); // a new path
+        }
         updateValuePathMapping(distinguishingXPath, oldValue, value);
     }
 
@@ -0,0 +1,72 @@
+package org.unicode.cldr.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.unicode.cldr.util.CLDRFile.DraftStatus;
+
+/**
+ * A Factory that makes CLDRFiles from a memory-mapped {@link XMLSnapshot} instead of parsing XML.
+ * The data is fixed when the snapshot is written, so the draft status passed to make() is ignored;
+ * see {@link #getMinimalDraftStatus()}. Thread-safe.
+ */
+public class SnapshotFactory extends Factory {
+    private final XMLSnapshot snapshot;
+    private final Map<String, CLDRFile> unresolvedCache = new ConcurrentHashMap<String, CLDRFile>();
+    private final Map<String, CLDRFile> resolvedCache = new ConcurrentHashMap<String, CLDRFile>();
+
+    public SnapshotFactory(XMLSnapshot snapshot) {
+        this.snapshot = snapshot;
+    }
+
+    /**
+     * Map the snapshot file and return a factory for it.
+     */
+    public static SnapshotFactory make(File snapshotFile) throws IOException {
+        return new SnapshotFactory(XMLSnapshot.open(snapshotFile));
+    }
+
+    @Override
+    protected CLDRFile handleMake(String localeID, boolean resolved, DraftStatus madeWithMinimalDraftStatus) {
+        if (!snapshot.getAvailable().contains(localeID)) {
+            throw new IllegalArgumentException("Locale not in snapshot: " + localeID);
+        }
+        if (resolved) {
+            return resolvedCache.computeIfAbsent(localeID,
+                key -> new CLDRFile(makeResolvingSource(key, getMinimalDraftStatus())).freeze());
+        }
+        return unresolvedCache.computeIfAbsent(localeID, key -> new CLDRFile(snapshot.makeSource(key)).freeze());
+    }
+
+    /**
+     * Returns the minimal draft status of the factory that the snapshot was written from.
+     */
+    @Override
+    public DraftStatus getMinimalDraftStatus() {
+        return snapshot.getMinimalDraftStatus();
+    }
+
+    @Override
+    protected Set<String> handleGetAvailable() {
+        return snapshot.getAvailable();
+    }
+
+    @Override
+    public File[] getSourceDirectories() {
+        return new File[0];
+    }
+
+    @Override
+    public List<File> getSourceDirectoriesForLocale(String localeName) {
+        return null;
+    }
+
+    @Override
+    public String toString() {
+        return "{" + getClass().getName() + " locales=" + snapshot.getAvailable().size() + "}";
+    }
+}
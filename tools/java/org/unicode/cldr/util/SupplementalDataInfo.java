@@ -2280,6 +2280,10 @@ public class SupplementalDataInfo {
      */
     public Level getCoverageLevel(String xpath, String loc) {
         Level result = null;
+        CoverageLevelTable table = getCoverageLevelTable(loc);
+        if (table != null && xpath != null && (result = table.getLevel(xpath)) != null) {
+            return result;
+        }
         result = coverageCache.get(xpath, loc);
         if (result == null) {
             CoverageLevel2 cov = localeToCoverageLevelInfo.get(loc);
@@ -2294,6 +2298,53 @@ public class SupplementalDataInfo {
         return result;
     }
 
+    /**
+     * Get the coverage levels of all the given paths for a locale at once, computing them if needed. The table is
+     * kept and shared by all the locales of the same language, and {@link #getCoverageLevel(String, String)} uses it
+     * for the paths it contains.
+     *
+     * @param loc
+     * @param paths
+     * @return a table containing at least the given paths
+     */
+    public CoverageLevelTable getCoverageLevelTable(String loc, Collection<String> paths) {
+        String language = getCoverageLanguage(loc);
+        CoverageLevelTable table = languageToCoverageLevelTable.get(language);
+        if (table != null && table.containsAll(paths)) {
+            return table;
+        }
+        synchronized (languageToCoverageLevelTable) {
+            table = languageToCoverageLevelTable.get(language);
+            if (table != null) {
+                if (table.containsAll(paths)) {
+                    return table;
+                }
+                Set<String> union = new HashSet<String>(table.getPaths());
+                union.addAll(paths);
+                paths = union;
+            }
+            table = CoverageLevel2.getInstance(this, language).getLevels(paths);
+            languageToCoverageLevelTable.put(language, table);
+            return table;
+        }
+    }
+
+    /**
+     * @return the coverage level table computed or set for the language of the locale, or null if there is none
+     */
+    public CoverageLevelTable getCoverageLevelTable(String loc) {
+        return languageToCoverageLevelTable.get(getCoverageLanguage(loc));
+    }
+
+    private String getCoverageLanguage(String loc) {
+        String language = localeToCoverageLanguage.get(loc);
+        if (language == null) {
+            language = new LanguageTagParser().set(loc).getLanguage();
+            localeToCoverageLanguage.put(loc, language);
+        }
+        return language;
+    }
+
     /**
      * Cache Data structure with object expiry,
      * List that can hold up to MAX_LOCALES caches of locales, when one locale hasn't been used for a while it will removed and GC'd
@@ -2896,6 +2947,8 @@ public class SupplementalDataInfo {
         DayPeriodInfo.Type.class);
     private Map<String, CoverageLevel2> localeToCoverageLevelInfo = new ConcurrentHashMap<String, CoverageLevel2>();
     private CoverageCache coverageCache = new CoverageCache();
+    private final Map<String, CoverageLevelTable> languageToCoverageLevelTable = new ConcurrentHashMap<String, CoverageLevelTable>();
+    private final Map<String, String> localeToCoverageLanguage = new ConcurrentHashMap<String, String>();
     private transient String lastPluralLocales = "";
     private transient PluralType lastPluralWasOrdinal = null;
     private transient Map<Count, String> lastPluralMap = new EnumMap<Count, String>(Count.class);
@@ -7,6 +7,7 @@ import java.io.StringWriter;
 import java.io.Writer;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.EnumSet;
 import java.util.HashMap;
@@ -19,6 +20,11 @@ import java.util.Objects;
 import java.util.Set;
 import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -38,6 +44,7 @@ import org.unicode.cldr.util.CLDRFile.Status;
 import org.unicode.cldr.util.PathHeader.PageId;
 import org.unicode.cldr.util.PathHeader.SectionId;
 import org.unicode.cldr.util.StandardCodes.LocaleCoverageType;
+import org.unicode.cldr.util.XMLSource.Listener;
 
 import com.ibm.icu.impl.Relation;
 import com.ibm.icu.impl.Row;
@@ -544,17 +551,108 @@ public class VettingViewer<T> {
         return sorted;
     }
 
-    class FileInfo {
+    /**
+     * The problem counts for a locale, as shown in the summary.
+     */
+    public static class LocaleSummary {
         Counter<Choice> problemCounter = new Counter<Choice>();
         Counter<Subtype> errorSubtypeCounter = new Counter<Subtype>();
         Counter<Subtype> warningSubtypeCounter = new Counter<Subtype>();
-        EnumSet<Choice> problems = EnumSet.noneOf(Choice.class);
 
-        public void addAll(FileInfo other) {
+        public void addAll(LocaleSummary other) {
             problemCounter.addAll(other.problemCounter);
             errorSubtypeCounter.addAll(other.errorSubtypeCounter);
             warningSubtypeCounter.addAll(other.warningSubtypeCounter);
         }
+    }
+
+    /**
+     * Caches the LocaleSummary of each locale across summary runs. Add it as a listener to the XMLSources
+     * that get votes; a change to a locale invalidates the summaries of that locale and its sublocales,
+     * and a change to English invalidates them all, since some checks compare against English.
+     */
+    public static class SummaryCache implements Listener {
+        private final Map<String, Map<String, LocaleSummary>> localeToSummaries = new ConcurrentHashMap<String, Map<String, LocaleSummary>>();
+        private final AtomicLong generation = new AtomicLong();
+        private final AtomicLong hits = new AtomicLong();
+        private final AtomicLong misses = new AtomicLong();
+
+        LocaleSummary get(String localeID, String key) {
+            Map<String, LocaleSummary> summaries = localeToSummaries.get(localeID);
+            LocaleSummary result = summaries == null ? null : summaries.get(key);
+            (result == null ? misses : hits).incrementAndGet();
+            return result;
+        }
+
+        long getGeneration() {
+            return generation.get();
+        }
+
+        /**
+         * Keep the summary unless there was a change since getGeneration() returned startGeneration.
+         */
+        void put(String localeID, String key, LocaleSummary summary, long startGeneration) {
+            Map<String, LocaleSummary> summaries = localeToSummaries.get(localeID);
+            if (summaries == null) {
+                localeToSummaries.putIfAbsent(localeID, new ConcurrentHashMap<String, LocaleSummary>());
+                summaries = localeToSummaries.get(localeID);
+            }
+            summaries.put(key, summary);
+            if (generation.get() != startGeneration) {
+                // a change happened while this was computed; it may be stale
+                summaries.remove(key, summary);
+            }
+        }
+
+        /**
+         * Drop the summaries of this locale and its sublocales.
+         */
+        public void invalidate(String localeID) {
+            generation.incrementAndGet();
+            if (localeID.equals("en")) {
+                localeToSummaries.clear();
+                return;
+            }
+            CLDRLocale changed = CLDRLocale.getInstance(localeID);
+            for (String cachedID : localeToSummaries.keySet()) {
+                if (CLDRLocale.getInstance(cachedID).childOf(changed)) {
+                    localeToSummaries.remove(cachedID);
+                }
+            }
+        }
+
+        @Override
+        public void valueChanged(String xpath, XMLSource source) {
+            invalidate(source.getLocaleID());
+        }
+
+        @Override
+        public void valuesChanged(Collection<String> xpaths, XMLSource source) {
+            invalidate(source.getLocaleID());
+        }
+
+        /**
+         * @return how many summaries were found in the cache
+         */
+        public long getHits() {
+            return hits.get();
+        }
+
+        /**
+         * @return how many summaries were not found in the cache, and so were computed
+         */
+        public long getMisses() {
+            return misses.get();
+        }
+
+        @Override
+        public String toString() {
+            return "{SummaryCache locales:" + localeToSummaries.size() + ", hits:" + hits + ", misses:" + misses + "}";
+        }
+    }
+
+    class FileInfo extends LocaleSummary {
+        EnumSet<Choice> problems = EnumSet.noneOf(Choice.class);
 
         private FileInfo getFileInfo(CLDRFile sourceFile, CLDRFile lastSourceFile,
             Relation<R2<SectionId, PageId>, WritingInfo> sorted,
@@ -569,6 +667,18 @@ public class VettingViewer<T> {
             Relation<R2<SectionId, PageId>, WritingInfo> sorted,
             EnumSet<Choice> choices, String localeID, boolean nonVettingPhase,
             T user, Level usersLevel, boolean quick, String xpath) {
+            return this.getFileInfo(sourceFile, lastSourceFile, sorted,
+                choices, localeID, nonVettingPhase,
+                user, usersLevel, quick, xpath, errorChecker);
+        }
+
+        /**
+         * @param errorChecker the checker to use; the VettingViewer's own checker may only be used by one thread at a time
+         */
+        private FileInfo getFileInfo(CLDRFile sourceFile, CLDRFile lastSourceFile,
+            Relation<R2<SectionId, PageId>, WritingInfo> sorted,
+            EnumSet<Choice> choices, String localeID, boolean nonVettingPhase,
+            T user, Level usersLevel, boolean quick, String xpath, ErrorChecker errorChecker) {
 
             Status status = new Status();
             errorChecker.initErrorStatus(sourceFile);
@@ -598,7 +708,9 @@ public class VettingViewer<T> {
                     continue;
                 }
                 seenSoFar.add(path);
-                progressCallback.nudge(); // Let the user know we're moving along.
+                synchronized (progressCallback) { // locales may be processed in parallel
+                    progressCallback.nudge(); // Let the user know we're moving along.
+                }
 
                 PathHeader pretty = pathTransform.fromPath(path);
                 if (pretty.getSurveyToolStatus() == PathHeader.SurveyToolStatus.HIDE) {
@@ -835,41 +947,43 @@ public class VettingViewer<T> {
         output.append("<h2>Level: ").append(desiredLevel.toString()).append("</h2>");
         output.append("<table class='tvs-table'>\n");
         char lastChar = ' ';
-        Map<String, FileInfo> localeNameToFileInfo = new TreeMap();
-        FileInfo totals = new FileInfo();
-
-        for (Entry<String, String> entry : sortedNames.entrySet()) {
-            String name = entry.getKey();
-            String localeID = entry.getValue();
-            // Initialize
+        Map<String, LocaleSummary> localeNameToFileInfo = new TreeMap<String, LocaleSummary>();
+        LocaleSummary totals = new LocaleSummary();
+        final boolean needOldFile = !ourChoicesThatRequireOldFile.isEmpty();
+
+        // Compute the locales across the worker pool, if there is one; the rows are still written in order.
+        Map<String, Future<LocaleSummary>> futures = new HashMap<String, Future<LocaleSummary>>();
+        if (executor != null && newErrorChecker() != null) {
+            for (final String localeID : sortedNames.values()) {
+                futures.put(localeID, executor.submit(() -> getLocaleSummary(localeID, choices, needOldFile, organization, newErrorChecker())));
+            }
+        }
+        try {
+            for (Entry<String, String> entry : sortedNames.entrySet()) {
+                String name = entry.getKey();
+                String localeID = entry.getValue();
+                Future<LocaleSummary> future = futures.get(localeID);
+                LocaleSummary fileInfo = future == null
+                    ? getLocaleSummary(localeID, choices, needOldFile, organization, errorChecker)
+                    : getResult(future);
+                localeNameToFileInfo.put(name, fileInfo);
+                totals.addAll(fileInfo);
+
+                char nextChar = name.charAt(0);
+                if (lastChar != nextChar) {
+                    output.append(header);
+                    lastChar = nextChar;
+                }
 
-            CLDRFile sourceFile = cldrFactory.make(localeID, true);
+                writeSummaryRow(output, choices, fileInfo.problemCounter, name, localeID);
 
-            CLDRFile lastSourceFile = null;
-            if (!ourChoicesThatRequireOldFile.isEmpty()) {
-                try {
-                    lastSourceFile = cldrFactoryOld.make(localeID, true);
-                } catch (Exception e) {
+                if (output instanceof Writer) {
+                    ((Writer) output).flush();
                 }
             }
-            Level level = Level.MODERN;
-            if (organization != null) {
-                level = StandardCodes.make().getLocaleCoverageLevel(organization.toString(), localeID);
-            }
-            FileInfo fileInfo = new FileInfo().getFileInfo(sourceFile, lastSourceFile, null, choices, localeID, true, organization, level, false);
-            localeNameToFileInfo.put(name, fileInfo);
-            totals.addAll(fileInfo);
-
-            char nextChar = name.charAt(0);
-            if (lastChar != nextChar) {
-                output.append(header);
-                lastChar = nextChar;
-            }
-
-            writeSummaryRow(output, choices, fileInfo.problemCounter, name, localeID);
-
-            if (output instanceof Writer) {
-                ((Writer) output).flush();
+        } finally {
+            for (Future<LocaleSummary> future : futures.values()) {
+                future.cancel(true); // no-op unless we're stopping early
             }
         }
         output.append(header);
@@ -881,9 +995,75 @@ public class VettingViewer<T> {
         }
     }
 
+    /**
+     * Get the summary counts for a locale, from the SummaryCache if there is one.
+     *
+     * @param errorChecker the checker to use; not shared with other threads
+     */
+    private LocaleSummary getLocaleSummary(String localeID, EnumSet<Choice> choices, boolean needOldFile, T organization,
+        ErrorChecker errorChecker) {
+        String key = organization + "|" + choices;
+        long generation = 0;
+        if (summaryCache != null) {
+            LocaleSummary cached = summaryCache.get(localeID, key);
+            if (cached != null) {
+                return cached;
+            }
+            generation = summaryCache.getGeneration();
+        }
+        CLDRFile sourceFile = cldrFactory.make(localeID, true);
+
+        CLDRFile lastSourceFile = null;
+        if (needOldFile) {
+            try {
+                lastSourceFile = cldrFactoryOld.make(localeID, true);
+            } catch (Exception e) {
+            }
+        }
+        Level level = Level.MODERN;
+        if (organization != null) {
+            level = StandardCodes.make().getLocaleCoverageLevel(organization.toString(), localeID);
+        }
+        FileInfo fileInfo = new FileInfo().getFileInfo(sourceFile, lastSourceFile, null, choices, localeID, true, organization, level, false,
+            null, errorChecker);
+        if (summaryCache != null) {
+            summaryCache.put(localeID, key, fileInfo, generation);
+        }
+        return fileInfo;
+    }
+
+    private static <V> V getResult(Future<V> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for a locale", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new RuntimeException(cause);
+        }
+    }
+
+    /**
+     * @return a new ErrorChecker like the current one, for another thread, or null if it can't be copied
+     */
+    private ErrorChecker newErrorChecker() {
+        if (errorChecker instanceof DefaultErrorStatus) {
+            return new DefaultErrorStatus(((DefaultErrorStatus) errorChecker).factory);
+        } else if (errorChecker instanceof NoErrorStatus) {
+            return errorChecker; // stateless
+        }
+        return null;
+    }
+
     private void showSubtypes(Appendable output, Map<String, String> sortedNames,
-        Map<String, FileInfo> localeNameToFileInfo,
-        FileInfo totals,
+        Map<String, LocaleSummary> localeNameToFileInfo,
+        LocaleSummary totals,
         boolean errors) throws IOException {
         output.append("<h3>Details: ").append(errors ? "Error Types" : "Warning Types").append("</h3>");
         output.append("<table class='tvs-table'>");
@@ -894,7 +1074,7 @@ public class VettingViewer<T> {
         writeDetailHeader(subtypeCounterTotals, sortedBySize, output);
 
         // items
-        for (Entry<String, FileInfo> entry : localeNameToFileInfo.entrySet()) {
+        for (Entry<String, LocaleSummary> entry : localeNameToFileInfo.entrySet()) {
             Counter<Subtype> counter = errors ? entry.getValue().errorSubtypeCounter : entry.getValue().warningSubtypeCounter;
             if (counter.getTotal() == 0) {
                 continue;
@@ -1194,6 +1374,31 @@ public class VettingViewer<T> {
         return this;
     }
 
+    private ExecutorService executor = null;
+
+    /**
+     * Compute the locales of the summary on this pool. If null (the default), or if the ErrorChecker is
+     * neither a DefaultErrorStatus nor a NoErrorStatus, they are computed one at a time.
+     *
+     * @return this
+     */
+    public VettingViewer<T> setExecutor(ExecutorService executor) {
+        this.executor = executor;
+        return this;
+    }
+
+    private SummaryCache summaryCache = null;
+
+    /**
+     * Reuse the per-locale results of the summary from this cache, which must only be used with the same factories.
+     *
+     * @return this
+     */
+    public VettingViewer<T> setSummaryCache(SummaryCache summaryCache) {
+        this.summaryCache = summaryCache;
+        return this;
+    }
+
     /**
      * Provide the styles for inclusion into the ST &lt;head&gt; element.
      *
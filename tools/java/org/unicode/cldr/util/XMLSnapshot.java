@@ -0,0 +1,355 @@
+package org.unicode.cldr.util;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+
+import org.unicode.cldr.util.CLDRFile.DraftStatus;
+
+import com.ibm.icu.util.VersionInfo;
+
+/**
+ * A compact binary snapshot of the (unresolved) data for a set of locales, written from a Factory and read back
+ * through a memory-mapped file. Opening a snapshot only maps the file, so it takes milliseconds instead of the
+ * time needed to parse the XML; values are decoded on demand, and the operating system's page cache lets several
+ * processes share the same data.
+ * <p>
+ * Use {@link #write(Factory, Collection, File)} to create a snapshot, and {@link SnapshotFactory} to read it: each
+ * locale is served by a read-only {@link MappedXMLSource}, and resolved files are built over those with the normal
+ * ResolvingSource. Comments are not stored.
+ * <p>
+ * Layout (all ints big-endian):
+ * <pre>
+ * header:  magic, version, minimalDraftStatus, stringCount, pathCount, hashSize, localeCount
+ * strings: int[stringCount+1] offsets into the UTF-8 string data; string data, padded to a multiple of 4
+ * paths:   int[pathCount] string number of each distinguished path, sorted by path
+ * hash:    int[hashSize * 2] open-addressing table of (String.hashCode(), path number), with path number -1 if empty
+ * locales: int[localeCount * 2] (string number of the locale ID, offset of the locale record)
+ * records: per locale, flags, dtdVersion string number (or -1), entryCount,
+ *          then entryCount * (path number, value string number, full path string number or -1 if the same as the path),
+ *          sorted by path number
+ * </pre>
+ * Thread-safe once opened.
+ */
+public class XMLSnapshot {
+    private static final int MAGIC = 0x434C4453; // "CLDS"
+    private static final int VERSION = 1;
+    private static final int HEADER_INTS = 7;
+    static final int ENTRY_BYTES = 3 * 4;
+    static final int FLAG_NON_INHERITING = 1;
+
+    private final ByteBuffer buffer;
+    private final DraftStatus minimalDraftStatus;
+    private final int stringOffsetsStart;
+    private final int stringDataStart;
+    private final int pathsStart;
+    private final int pathCount;
+    private final int hashStart;
+    private final int hashMask;
+    private final Map<String, Integer> localeToRecord;
+    // decoded paths, filled on demand; racing writes just store equal strings
+    private final String[] pathStrings;
+
+    private XMLSnapshot(ByteBuffer buffer) {
+        this.buffer = buffer;
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IllegalArgumentException("Not a CLDR snapshot, or wrong version");
+        }
+        minimalDraftStatus = DraftStatus.values()[buffer.getInt(8)];
+        int stringCount = buffer.getInt(12);
+        pathCount = buffer.getInt(16);
+        int hashSize = buffer.getInt(20);
+        int localeCount = buffer.getInt(24);
+        stringOffsetsStart = HEADER_INTS * 4;
+        stringDataStart = stringOffsetsStart + (stringCount + 1) * 4;
+        pathsStart = stringDataStart + pad(buffer.getInt(stringOffsetsStart + stringCount * 4));
+        hashStart = pathsStart + pathCount * 4;
+        hashMask = hashSize - 1;
+        int localesStart = hashStart + hashSize * 8;
+        Map<String, Integer> temp = new LinkedHashMap<String, Integer>();
+        for (int i = 0; i < localeCount; ++i) {
+            temp.put(getString(buffer.getInt(localesStart + i * 8)), buffer.getInt(localesStart + i * 8 + 4));
+        }
+        localeToRecord = Collections.unmodifiableMap(temp);
+        pathStrings = new String[pathCount];
+    }
+
+    /**
+     * Map a snapshot file into memory.
+     */
+    public static XMLSnapshot open(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(MapMode.READ_ONLY, 0, channel.size());
+            return new XMLSnapshot(buffer);
+        }
+    }
+
+    /**
+     * The locales in the snapshot, in the order they were written.
+     */
+    public Set<String> getAvailable() {
+        return localeToRecord.keySet();
+    }
+
+    /**
+     * The minimal draft status of the factory that the snapshot was written from.
+     */
+    public DraftStatus getMinimalDraftStatus() {
+        return minimalDraftStatus;
+    }
+
+    /**
+     * Make a read-only source for the locale, or null if the locale isn't in the snapshot.
+     */
+    public XMLSource makeSource(String localeID) {
+        Integer record = localeToRecord.get(localeID);
+        if (record == null) {
+            return null;
+        }
+        int flags = buffer.getInt(record);
+        int dtdVersion = buffer.getInt(record + 4);
+        return new MappedXMLSource(this, localeID, record + 12, buffer.getInt(record + 8),
+            (flags & FLAG_NON_INHERITING) != 0,
+            dtdVersion < 0 ? null : VersionInfo.getInstance(getString(dtdVersion)));
+    }
+
+    /**
+     * Return the number of the distinguished path in the path table, or -1 if it isn't in the snapshot.
+     */
+    int getPathNumber(String path) {
+        int hash = path.hashCode();
+        for (int slot = mix(hash) & hashMask;; slot = (slot + 1) & hashMask) {
+            int pos = hashStart + slot * 8;
+            int pathNumber = buffer.getInt(pos + 4);
+            if (pathNumber < 0) {
+                return -1;
+            }
+            if (buffer.getInt(pos) == hash && getPath(pathNumber).equals(path)) {
+                return pathNumber;
+            }
+        }
+    }
+
+    /**
+     * Return the distinguished path with the given number. Paths are numbered in sorted order.
+     */
+    String getPath(int pathNumber) {
+        String result = pathStrings[pathNumber];
+        if (result == null) {
+            pathStrings[pathNumber] = result = getString(buffer.getInt(pathsStart + pathNumber * 4));
+        }
+        return result;
+    }
+
+    int getPathCount() {
+        return pathCount;
+    }
+
+    int getInt(int position) {
+        return buffer.getInt(position);
+    }
+
+    String getString(int stringNumber) {
+        int start = buffer.getInt(stringOffsetsStart + stringNumber * 4);
+        int limit = buffer.getInt(stringOffsetsStart + stringNumber * 4 + 4);
+        ByteBuffer slice = buffer.duplicate();
+        slice.position(stringDataStart + start);
+        slice.limit(stringDataStart + limit);
+        return StandardCharsets.UTF_8.decode(slice).toString();
+    }
+
+    private static int pad(int length) {
+        return (length + 3) & ~3;
+    }
+
+    /**
+     * Spread the bits of String.hashCode(), since paths share long prefixes.
+     */
+    private static int mix(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * Write a snapshot of the unresolved data for the given locales from the factory. The parents of each locale
+     * are included too (if the factory has them), so that the snapshot can be resolved on its own.
+     */
+    public static void write(Factory factory, Collection<String> localeIDs, File file) throws IOException {
+        Set<String> available = factory.getAvailable();
+        Set<String> locales = new TreeSet<String>();
+        for (String localeID : localeIDs) {
+            for (String current = localeID; current != null && available.contains(current); current = LocaleIDParser.getParent(current)) {
+                locales.add(current);
+            }
+        }
+        Map<String, XMLSource> sources = new TreeMap<String, XMLSource>();
+        TreeSet<String> sortedPaths = new TreeSet<String>();
+        for (String localeID : locales) {
+            XMLSource source = factory.make(localeID, false).dataSource;
+            sources.put(localeID, source);
+            for (String path : source) {
+                sortedPaths.add(path);
+            }
+        }
+
+        StringPool strings = new StringPool();
+        int[] pathStringNumbers = new int[sortedPaths.size()];
+        Map<String, Integer> pathNumbers = new HashMap<String, Integer>();
+        for (String path : sortedPaths) {
+            pathStringNumbers[pathNumbers.size()] = strings.add(path);
+            pathNumbers.put(path, pathNumbers.size());
+        }
+        int hashSize = Integer.highestOneBit(Math.max(2, sortedPaths.size() * 2 - 1)) << 1;
+        int[] hash = new int[hashSize * 2];
+        for (int i = 1; i < hash.length; i += 2) {
+            hash[i] = -1;
+        }
+        for (Map.Entry<String, Integer> entry : pathNumbers.entrySet()) {
+            int code = entry.getKey().hashCode();
+            int slot = mix(code) & (hashSize - 1);
+            while (hash[slot * 2 + 1] >= 0) {
+                slot = (slot + 1) & (hashSize - 1);
+            }
+            hash[slot * 2] = code;
+            hash[slot * 2 + 1] = entry.getValue();
+        }
+
+        // build the locale records before writing, so that the string pool is complete
+        List<int[]> records = new ArrayList<int[]>();
+        int[] localeIDNumbers = new int[sources.size()];
+        for (Map.Entry<String, XMLSource> entry : sources.entrySet()) {
+            localeIDNumbers[records.size()] = strings.add(entry.getKey());
+            XMLSource source = entry.getValue();
+            TreeMap<Integer, String> sorted = new TreeMap<Integer, String>();
+            for (String path : source) {
+                sorted.put(pathNumbers.get(path), path);
+            }
+            VersionInfo dtdVersion = source.getDtdVersionInfo();
+            int[] record = new int[3 + sorted.size() * 3];
+            record[0] = source.isNonInheriting() ? FLAG_NON_INHERITING : 0;
+            record[1] = dtdVersion == null ? -1 : strings.add(dtdVersion.toString());
+            record[2] = sorted.size();
+            int i = 3;
+            for (Map.Entry<Integer, String> pathEntry : sorted.entrySet()) {
+                String path = pathEntry.getValue();
+                String value = source.getValueAtDPath(path);
+                String fullPath = source.getFullPathAtDPath(path);
+                record[i++] = pathEntry.getKey();
+                record[i++] = strings.add(value == null ? "" : value);
+                record[i++] = fullPath == null || fullPath.equals(path) ? -1 : strings.add(fullPath);
+            }
+            records.add(record);
+        }
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(factory.getMinimalDraftStatus().ordinal());
+            out.writeInt(strings.size());
+            out.writeInt(pathStringNumbers.length);
+            out.writeInt(hashSize);
+            out.writeInt(records.size());
+            byte[] stringData = strings.write(out);
+            out.write(stringData);
+            for (int i = stringData.length; i < pad(stringData.length); ++i) {
+                out.writeByte(0);
+            }
+            writeInts(out, pathStringNumbers);
+            writeInts(out, hash);
+            int recordOffset = out.size() + records.size() * 8;
+            for (int i = 0; i < records.size(); ++i) {
+                out.writeInt(localeIDNumbers[i]);
+                out.writeInt(recordOffset);
+                recordOffset += records.get(i).length * 4;
+            }
+            for (int[] record : records) {
+                writeInts(out, record);
+            }
+        }
+    }
+
+    private static void writeInts(DataOutputStream out, int[] ints) throws IOException {
+        for (int item : ints) {
+            out.writeInt(item);
+        }
+    }
+
+    /**
+     * Interns strings for writing, numbering them in order of first use.
+     */
+    private static class StringPool {
+        private final Map<String, Integer> numbers = new LinkedHashMap<String, Integer>();
+
+        int add(String string) {
+            Integer result = numbers.get(string);
+            if (result == null) {
+                numbers.put(string, result = numbers.size());
+            }
+            return result;
+        }
+
+        int size() {
+            return numbers.size();
+        }
+
+        /**
+         * Write the offsets, and return the string data.
+         */
+        byte[] write(DataOutputStream out) throws IOException {
+            ByteArrayOutputStream data = new ByteArrayOutputStream();
+            for (String string : numbers.keySet()) {
+                out.writeInt(data.size());
+                byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+                data.write(bytes, 0, bytes.length);
+            }
+            out.writeInt(data.size());
+            return data.toByteArray();
+        }
+    }
+
+    /**
+     * Write a snapshot of the main CLDR data.
+     * Arguments: output file, and an optional regex to filter the locale IDs.
+     */
+    public static void main(String[] args) throws IOException {
+        Factory factory = CLDRConfig.getInstance().getCldrFactory();
+        File file = new File(args[0]);
+        Matcher filter = args.length > 1 ? PatternCache.get(args[1]).matcher("") : null;
+        List<String> locales = new ArrayList<String>();
+        for (String localeID : factory.getAvailable()) {
+            if (filter == null || filter.reset(localeID).matches()) {
+                locales.add(localeID);
+            }
+        }
+        Timer timer = new Timer();
+        write(factory, locales, file);
+        System.out.println("Wrote " + locales.size() + " locales to " + file.getCanonicalPath()
+            + " (" + file.length() + " bytes) in " + timer);
+        timer.start();
+        XMLSnapshot snapshot = open(file);
+        SnapshotFactory snapshotFactory = new SnapshotFactory(snapshot);
+        for (String localeID : snapshotFactory.getAvailable()) {
+            snapshotFactory.make(localeID, true).getStringValue("//ldml/identity/version");
+        }
+        System.out.println("Opened and resolved " + snapshot.getAvailable().size() + " locales in " + timer);
+    }
+}
@@ -12,21 +12,28 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.Date;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
 import java.util.Set;
 import java.util.TreeMap;
-import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import org.unicode.cldr.util.XPathParts.Comments;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
 import com.ibm.icu.impl.Utility;
 import com.ibm.icu.util.Freezable;
 import com.ibm.icu.util.Output;
@@ -183,6 +190,21 @@ public abstract class XMLSource implements Freezable<XMLSource>, Iterable<String
          *            back-pointer to the source that changed
          */
         public void valueChanged(String xpath, XMLSource source);
+
+        /**
+         * Called when the source being listened to has changed several values at once. Listeners that
+         * can handle the paths together more cheaply than one at a time should override this.
+         *
+         * @param xpaths
+         *            The xpaths that had their values changed.
+         * @param source
+         *            back-pointer to the source that changed
+         */
+        default void valuesChanged(Collection<String> xpaths, XMLSource source) {
+            for (String xpath : xpaths) {
+                valueChanged(xpath, source);
+            }
+        }
     }
 
     /**
@@ -579,6 +601,19 @@ public abstract class XMLSource implements Freezable<XMLSource>, Iterable<String
         return new com.ibm.icu.dev.util.CollectionUtilities.RegexIterator().set(iterator(), pathFilter);
     }
 
+    /**
+     * @return an iterator over the distinguished paths that start with the prefix, in sorted order.
+     *         SUBCLASSING: Override for efficiency if the paths are kept sorted
+     */
+    public Iterator<String> sortedIterator(String prefix) {
+        List<String> result = new ArrayList<String>();
+        for (Iterator<String> it = iterator(prefix); it.hasNext();) {
+            result.add(it.next());
+        }
+        Collections.sort(result);
+        return Collections.unmodifiableList(result).iterator();
+    }
+
     /**
      * @return returns whether resolving or not
      *         SUBCLASSING: Only changed for resolving subclasses
@@ -730,7 +765,7 @@ public abstract class XMLSource implements Freezable<XMLSource>, Iterable<String
         // }
         // }
 
-        Map<String, String> getFullPathAtDPathCache = new HashMap<String, String>();
+        private transient Cache<String, String> getFullPathAtDPathCache = makeResolutionCache(); // shared by threads reading a frozen file
 
         public String getFullPathAtDPath(String xpath) {
             String result = currentSource.getFullPathAtDPath(xpath);
@@ -740,6 +775,7 @@ public abstract class XMLSource implements Freezable<XMLSource>, Iterable<String
             // This is tricky. We need to find the alias location's path and full path.
             // then we need to the the non-distinguishing elements from them,
             // and add them into the requested path.
+            long generation = changeGeneration.get();
             AliasLocation fullStatus = getCachedFullStatus(xpath, true /* skipInheritanceMarker */);
             if (fullStatus != null) {
                 String fullPathWhereFound = getSource(fullStatus).getFullPathAtDPath(fullStatus.pathWhereFound);
@@ -748,7 +784,7 @@ public abstract class XMLSource implements Freezable<XMLSource>, Iterable<String
                 } else if (fullPathWhereFound.equals(fullStatus.pathWhereFound)) {
                     result = xpath; // no difference
                 } else {
-                    result = getFullPath(xpath, fullStatus, fullPathWhereFound);
+                    result = getFullPath(xpath, fullStatus, fullPathWhereFound, generation);
                 }
             }
             //
@@ -775,8 +811,11 @@ public abstract class XMLSource implements Freezable<XMLSource>, Iterable<String
             return result;
         }
 
-        private String getFullPath(String xpath, AliasLocation fullStatus, String fullPathWhereFound) {
-            String result = getFullPathAtDPathCache.get(xpath);
+        /**
+         * @param generation the changeGeneration from before fullStatus was found
+         */
+        private String getFullPath(String xpath, AliasLocation fullStatus, String fullPathWhereFound, long generation) {
+            String result = getFullPathAtDPathCache.getIfPresent(xpath);
             if (result == null) {
                 // find the differences, and add them into xpath
                 // we do this by walking through each element, adding the corresponding attribute values.
@@ -800,7 +839,7 @@ public abstract class XMLSource implements Freezable<XMLSource>, Iterable<String
                     }
                 }
                 result = xpathParts.toString();
-                getFullPathAtDPathCache.put(xpath, result);
+                putIfUnchanged(getFullPathAtDPathCache, xpath, result, generation);
             }
             return result;
         }
@@ -817,16 +856,70 @@ public abstract class XMLSource implements Freezable<XMLSource>, Iterable<String
          */
         @Override
         public String getBaileyValue(String xpath, Output<String> pathWhereFound, Output<String> localeWhereFound) {
-            AliasLocation fullStatus = getPathLocation(xpath, true /* skipFirst */, true /* skipInheritanceMarker */);
+            AliasLocation fullStatus = getCachedLocation(xpath, Resolution.BAILEY);
             if (localeWhereFound != null) {
                 localeWhereFound.value = fullStatus.localeWhereFound;
             }
+            PathReadRecorder.recordPath(getLocaleID(), fullStatus.pathWhereFound);
             if (pathWhereFound != null) {
                 pathWhereFound.value = fullStatus.pathWhereFound;
             }
             return getSource(fullStatus).getValueAtDPath(fullStatus.pathWhereFound);
         }
 
+        /**
+         * The ways of finding where a path's value comes from, each with its own cache
+         */
+        private enum Resolution {
+            /** getPathLocation(xpath, false, true): the usual case */
+            SKIP_INHERITANCE_MARKER(false, true),
+            /** getPathLocation(xpath, false, false): for getMissingStatus */
+            KEEP_INHERITANCE_MARKER(false, false),
+            /** getPathLocation(xpath, true, true): for getBaileyValue */
+            BAILEY(true, true);
+
+            final boolean skipFirst;
+            final boolean skipInheritanceMarker;
+
+            Resolution(boolean skipFirst, boolean skipInheritanceMarker) {
+                this.skipFirst = skipFirst;
+                this.skipInheritanceMarker = skipInheritanceMarker;
+            }
+        }
+
+        /**
+         * Maximum number of paths in each cache of a ResolvingSource
+         */
+        private static final int RESOLUTION_CACHE_LIMIT = Integer.parseInt(CldrUtility.getProperty("RESOLUTION_CACHE_LIMIT", "100000"));
+
+        private static <V> Cache<String, V> makeResolutionCache() {
+            return CacheBuilder.newBuilder()
+                .maximumSize(RESOLUTION_CACHE_LIMIT)
+                .concurrencyLevel(Math.max(4, Runtime.getRuntime().availableProcessors()))
+                .recordStats()
+                .build();
+        }
+
+        private static EnumMap<Resolution, Cache<String, AliasLocation>> makeLocationCaches() {
+            EnumMap<Resolution, Cache<String, AliasLocation>> result = new EnumMap<Resolution, Cache<String, AliasLocation>>(Resolution.class);
+            for (Resolution resolution : Resolution.values()) {
+                result.put(resolution, XMLSource.ResolvingSource.<AliasLocation> makeResolutionCache());
+            }
+            return result;
+        }
+
+        /**
+         * Where the value of each path comes from, for each kind of resolution.
+         * Paths are cleared in valueChanged.
+         */
+        private transient EnumMap<Resolution, Cache<String, AliasLocation>> locationCaches = makeLocationCaches();
+
+        /**
+         * Incremented by valueChanged before it clears the caches, so that a location found
+         * before the change isn't put in a cache after it has been cleared
+         */
+        private transient final AtomicLong changeGeneration = new AtomicLong();
+
         /**
          * Get the AliasLocation that would be returned by getPathLocation (with skipFirst false),
          * using a cache for efficiency
@@ -836,30 +929,60 @@ public abstract class XMLSource implements Freezable<XMLSource>, Iterable<String
          * @return the AliasLocation
          */
         private AliasLocation getCachedFullStatus(String xpath, boolean skipInheritanceMarker) {
-            /*
-             * Skip the cache in the special and relatively rare cases where skipInheritanceMarker is false.
-             *
-             * TODO: consider using a cache also when skipInheritanceMarker is false.
-             * Can't use the same cache for skipInheritanceMarker true and false.
-             * Could use two caches, or add skipInheritanceMarker to the key (append 'T' or 'F' to xpath).
-             * The situation is complicated by use of getSourceLocaleIDCache also in valueChanged.
-             * 
-             * There is no caching problem with skipFirst, since that is always false here -- though
-             * getBaileyValue could use a cache if there was one for skipFirst true.
-             *
-             * Reference: https://unicode.org/cldr/trac/ticket/11765
-             */
-            if (!skipInheritanceMarker) {
-                return getPathLocation(xpath, false /* skipFirst */, skipInheritanceMarker);
-            }
-            synchronized (getSourceLocaleIDCache) {
-                AliasLocation fullStatus = getSourceLocaleIDCache.get(xpath);
-                if (fullStatus == null) {
-                    fullStatus = getPathLocation(xpath, false /* skipFirst */, skipInheritanceMarker);
-                    getSourceLocaleIDCache.put(xpath, fullStatus); // cache copy
-                }
-                return fullStatus;
+            return getCachedLocation(xpath, skipInheritanceMarker ? Resolution.SKIP_INHERITANCE_MARKER : Resolution.KEEP_INHERITANCE_MARKER);
+        }
+
+        /**
+         * Get the AliasLocation that would be returned by getPathLocation, using a cache for efficiency.
+         * The cache is not locked while the location is found, since finding it may look up other (aliased) paths;
+         * two threads may both find the same location.
+         */
+        private AliasLocation getCachedLocation(String xpath, Resolution resolution) {
+            Cache<String, AliasLocation> cache = locationCaches.get(resolution);
+            AliasLocation fullStatus = cache.getIfPresent(xpath);
+            if (fullStatus == null) {
+                long generation = changeGeneration.get();
+                fullStatus = getPathLocation(xpath, resolution.skipFirst, resolution.skipInheritanceMarker);
+                putIfUnchanged(cache, xpath, fullStatus, generation);
+            }
+            if (resolution != Resolution.BAILEY && !fullStatus.pathWhereFound.equals(xpath)) {
+                // an alias or fallback: the result also depends on the path where the value was found
+                PathReadRecorder.recordPath(getLocaleID(), fullStatus.pathWhereFound);
+            }
+            return fullStatus;
+        }
+
+        /**
+         * Put a value in a cache, unless a value changed since the generation was read, in which case the value may
+         * be out of date. The value is checked after it is put, since valueChanged may clear the cache in between.
+         */
+        private <V> void putIfUnchanged(Cache<String, V> cache, String xpath, V value, long generation) {
+            cache.put(xpath, value);
+            if (changeGeneration.get() != generation) {
+                cache.invalidate(xpath);
+            }
+        }
+
+        /**
+         * @return the combined statistics of the caches of where paths are found
+         */
+        public CacheStats getResolutionCacheStats() {
+            CacheStats result = getFullPathAtDPathCache.stats();
+            for (Cache<String, AliasLocation> cache : locationCaches.values()) {
+                result = result.plus(cache.stats());
+            }
+            return result;
+        }
+
+        /**
+         * @return the number of entries in the caches of where paths are found
+         */
+        public long getResolutionCacheSize() {
+            long result = getFullPathAtDPathCache.size();
+            for (Cache<String, AliasLocation> cache : locationCaches.values()) {
+                result += cache.size();
             }
+            return result;
         }
 
         @Override
@@ -875,8 +998,6 @@ public abstract class XMLSource implements Freezable<XMLSource>, Iterable<String
             return result;
         }
 
-        private transient Map<String, AliasLocation> getSourceLocaleIDCache = new WeakHashMap<String, AliasLocation>();
-
         /**
          * Get the source locale ID for the given path, for this ResolvingSource.
          *
@@ -1004,60 +1125,138 @@ public abstract class XMLSource implements Freezable<XMLSource>, Iterable<String
         static final int MAX_LEVEL = 40; /* Throw an error if it goes past this. */
 
         /**
-         * Initialises the set of xpaths that a fully resolved XMLSource contains.
+         * Returns the xpaths starting with the prefix that a fully resolved XMLSource contains, in sorted order.
          * http://cldr.unicode.org/development/development-process/design-proposals/resolution-of-cldr-files.
-         * Information about the aliased path and source locale ID of each xpath
-         * is not precalculated here since it doesn't appear to improve overall
-         * performance.
+         * <p>
+         * The paths are merged lazily from the sorted paths of each source, plus, for each alias whose path
+         * starts with the prefix (or is an ancestor of it), the resolved paths under its target, with the target
+         * replaced by the alias path. Since replacing a common prefix keeps the order, every part is sorted,
+         * so the full set of paths is never built.
+         *
+         * @param prefix the prefix; empty for all paths
+         * @param level the depth of aliases followed so far
          */
-        private Set<String> fillKeys() {
-            Set<String> paths = findNonAliasedPaths();
-            // Find aliased paths and loop until no more aliases can be found.
-            Set<String> newPaths = paths;
-            int level = 0;
-            boolean newPathsFound = false;
-            do {
-                // Debugging code to protect against an infinite loop.
-                if (TRACE_FILL && DEBUG_PATH == null || level > MAX_LEVEL) {
-                    System.out.println(Utility.repeat(TRACE_INDENT, level) + "# paths waiting to be aliased: "
-                        + newPaths.size());
-                    System.out.println(Utility.repeat(TRACE_INDENT, level) + "# paths found: " + paths.size());
+        private Iterator<String> resolvedIterator(String prefix, int level) {
+            if (TRACE_FILL && DEBUG_PATH == null || level > MAX_LEVEL) {
+                System.out.println(Utility.repeat(TRACE_INDENT, level) + "# resolving paths starting with: " + prefix);
+            }
+            if (level > MAX_LEVEL) throw new IllegalArgumentException("Stack overflow");
+
+            List<Iterator<String>> parts = new ArrayList<Iterator<String>>();
+            for (XMLSource source : sources.values()) {
+                parts.add(source.sortedIterator(prefix));
+            }
+            if (!SKIP_FALLBACKID) {
+                parts.add(constructedItems.sortedIterator(prefix));
+            }
+
+            TreeMap<String, String> aliases = sources.get("root").getAliases();
+            // Aliases at or below the prefix: everything under the target.
+            for (Map.Entry<String, String> alias : aliases.subMap(prefix, true, prefix + '\uFFFF', false).entrySet()) {
+                String target = alias.getValue();
+                parts.add(new AliasedIterator(resolvedIterator(target + "/", level + 1), target, alias.getKey()));
+            }
+            // Aliases above the prefix: what is under the target plus the rest of the prefix.
+            // Suffixes always start with an element and not an attribute, so only split at a '/'.
+            for (int i = prefix.indexOf('/', 2); i > 0; i = prefix.indexOf('/', i + 1)) {
+                String aliasPath = prefix.substring(0, i);
+                String target = aliases.get(aliasPath);
+                if (target != null) {
+                    parts.add(new AliasedIterator(resolvedIterator(target + prefix.substring(i), level + 1), target, aliasPath));
                 }
-                if (level > MAX_LEVEL) throw new IllegalArgumentException("Stack overflow");
+            }
+            return MergedIterator.of(parts);
+        }
 
-                String[] sortedPaths = new String[newPaths.size()];
-                newPaths.toArray(sortedPaths);
-                Arrays.sort(sortedPaths);
+        /**
+         * Maps the sorted paths under an alias target to the same paths under the alias.
+         */
+        private static final class AliasedIterator implements Iterator<String> {
+            private final Iterator<String> targetPaths;
+            private final int targetLength;
+            private final String aliasPath;
+
+            AliasedIterator(Iterator<String> targetPaths, String target, String aliasPath) {
+                this.targetPaths = targetPaths;
+                this.targetLength = target.length();
+                this.aliasPath = aliasPath;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return targetPaths.hasNext();
+            }
 
-                newPaths = getDirectAliases(sortedPaths);
-                newPathsFound = paths.addAll(newPaths);
-                level++;
-            } while (newPathsFound);
-            return paths;
+            @Override
+            public String next() {
+                return aliasPath + targetPaths.next().substring(targetLength);
+            }
         }
 
         /**
-         * Creates the set of resolved paths for this ResolvingSource while
-         * ignoring aliasing.
-         *
-         * @return
+         * Merges sorted iterators into one sorted iterator, dropping duplicates.
          */
-        private Set<String> findNonAliasedPaths() {
-            HashSet<String> paths = new HashSet<String>();
+        private static final class MergedIterator implements Iterator<String> {
+            private static final class Part {
+                String head;
+                final Iterator<String> rest;
+
+                Part(Iterator<String> it) {
+                    head = it.next();
+                    rest = it;
+                }
+            }
 
-            // Get all XMLSources used during resolution.
-            List<XMLSource> sourceList = new ArrayList<XMLSource>(sources.values());
-            if (!SKIP_FALLBACKID) {
-                sourceList.add(constructedItems);
+            private final PriorityQueue<Part> parts;
+
+            static Iterator<String> of(List<Iterator<String>> iterators) {
+                List<Iterator<String>> nonEmpty = new ArrayList<Iterator<String>>(iterators.size());
+                for (Iterator<String> it : iterators) {
+                    if (it.hasNext()) {
+                        nonEmpty.add(it);
+                    }
+                }
+                if (nonEmpty.isEmpty()) {
+                    return Collections.<String> emptyList().iterator();
+                } else if (nonEmpty.size() == 1) {
+                    return nonEmpty.get(0);
+                }
+                return new MergedIterator(nonEmpty);
+            }
+
+            private MergedIterator(List<Iterator<String>> iterators) {
+                parts = new PriorityQueue<Part>(iterators.size(), new Comparator<Part>() {
+                    @Override
+                    public int compare(Part o1, Part o2) {
+                        return o1.head.compareTo(o2.head);
+                    }
+                });
+                for (Iterator<String> it : iterators) {
+                    parts.add(new Part(it));
+                }
+            }
+
+            @Override
+            public boolean hasNext() {
+                return !parts.isEmpty();
             }
 
-            // Make a pass through, filling all the direct paths, excluding aliases, and collecting others
-            for (XMLSource curSource : sourceList) {
-                for (String xpath : curSource) {
-                    paths.add(xpath);
+            @Override
+            public String next() {
+                if (parts.isEmpty()) {
+                    throw new NoSuchElementException();
+                }
+                String result = parts.peek().head;
+                // advance every part at this path
+                while (!parts.isEmpty() && parts.peek().head.equals(result)) {
+                    Part part = parts.poll();
+                    if (part.rest.hasNext()) {
+                        part.head = part.rest.next();
+                        parts.add(part);
+                    }
                 }
+                return result;
             }
-            return paths;
         }
 
         /**
@@ -1109,23 +1308,57 @@ public abstract class XMLSource implements Freezable<XMLSource>, Iterable<String
             return sources.get("root").getReverseAliases();
         }
 
-        private transient Set<String> cachedKeySet = null;
+        /**
+         * All the paths, sorted; filled on the first full iteration, and dropped when a path is added.
+         */
+        private transient volatile String[] cachedKeys = null;
 
         /**
-         * @return an iterator over all the xpaths in this XMLSource.
+         * @return an iterator over all the xpaths in this XMLSource, in sorted order.
          */
         public Iterator<String> iterator() {
-            return getCachedKeySet().iterator();
+            return Collections.unmodifiableList(Arrays.asList(getCachedKeys())).iterator();
+        }
+
+        /**
+         * @return an iterator over the xpaths in this XMLSource that start with the prefix, in sorted order.
+         *         Unless all the paths have already been collected, only the paths with the prefix are visited.
+         */
+        @Override
+        public Iterator<String> iterator(String prefix) {
+            if (prefix == null || prefix.length() == 0) {
+                return iterator();
+            }
+            String[] keys = cachedKeys;
+            if (keys == null) {
+                return resolvedIterator(prefix, 0);
+            }
+            int start = Arrays.binarySearch(keys, prefix);
+            if (start < 0) {
+                start = -start - 1;
+            }
+            int end = start;
+            while (end < keys.length && keys[end].startsWith(prefix)) {
+                end++;
+            }
+            return Collections.unmodifiableList(Arrays.asList(keys).subList(start, end)).iterator();
+        }
+
+        @Override
+        public Iterator<String> sortedIterator(String prefix) {
+            return iterator(prefix);
         }
 
-        private Set<String> getCachedKeySet() {
-            if (cachedKeySet == null) {
-                cachedKeySet = fillKeys();
-                // System.out.println("CachedKeySet: " + cachedKeySet);
-                // cachedKeySet.addAll(constructedItems.keySet());
-                cachedKeySet = Collections.unmodifiableSet(cachedKeySet);
+        private String[] getCachedKeys() {
+            String[] keys = cachedKeys;
+            if (keys == null) {
+                List<String> paths = new ArrayList<String>();
+                for (Iterator<String> it = resolvedIterator("", 0); it.hasNext();) {
+                    paths.add(it.next());
+                }
+                cachedKeys = keys = paths.toArray(new String[paths.size()]);
             }
-            return cachedKeySet;
+            return keys;
         }
 
         public void putFullPathAtDPath(String distinguishingXPath, String fullxpath) {
@@ -1154,22 +1387,62 @@ public abstract class XMLSource implements Freezable<XMLSource>, Iterable<String
 
         @Override
         public void valueChanged(String xpath, XMLSource nonResolvingSource) {
-            synchronized (getSourceLocaleIDCache) {
-                AliasLocation location = getSourceLocaleIDCache.remove(xpath);
-                if (location == null) {
-                    return;
+            valuesChanged(Collections.singleton(xpath), nonResolvingSource);
+        }
+
+        /**
+         * Clear the caches once for all the paths, rather than once per path.
+         */
+        @Override
+        public void valuesChanged(Collection<String> xpaths, XMLSource nonResolvingSource) {
+            changeGeneration.incrementAndGet();
+            String[] keys = cachedKeys;
+            // Paths aliasing to these paths (directly or indirectly) may be affected,
+            // so clear them as well, and any path whose value was found at one of them.
+            final Set<String> changedPaths = new HashSet<String>();
+            for (String xpath : xpaths) {
+                if (keys != null && Arrays.binarySearch(keys, xpath) < 0) {
+                    cachedKeys = null; // a new path, which may also appear under aliases
+                }
+                changedPaths.addAll(getAliasingPaths(xpath));
+            }
+            for (Cache<String, AliasLocation> cache : locationCaches.values()) {
+                cache.invalidateAll(changedPaths);
+                for (Iterator<Map.Entry<String, AliasLocation>> it = cache.asMap().entrySet().iterator(); it.hasNext();) {
+                    Map.Entry<String, AliasLocation> entry = it.next();
+                    if (changedPaths.contains(entry.getValue().pathWhereFound)) {
+                        getFullPathAtDPathCache.invalidate(entry.getKey());
+                        it.remove();
+                    }
+                }
+            }
+            getFullPathAtDPathCache.invalidateAll(changedPaths);
+        }
+
+        /**
+         * @return the path and all the paths that are aliased to it, directly or indirectly
+         */
+        private Set<String> getAliasingPaths(String xpath) {
+            Set<String> result = new HashSet<String>();
+            List<String> toDo = new ArrayList<String>();
+            toDo.add(xpath);
+            LinkedHashMap<String, List<String>> reverseAliases = getReverseAliases();
+            while (!toDo.isEmpty()) {
+                String path = toDo.remove(toDo.size() - 1);
+                if (!result.add(path)) {
+                    continue;
                 }
-                // Paths aliasing to this path (directly or indirectly) may be affected,
-                // so clear them as well.
-                // There's probably a more elegant way to fix the paths than simply
-                // throwing everything out.
-                Set<String> dependentPaths = getDirectAliases(new String[] { xpath });
-                if (dependentPaths.size() > 0) {
-                    for (String path : dependentPaths) {
-                        getSourceLocaleIDCache.remove(path);
+                // Suffixes always start with an element and not an attribute, so only split at a '/'.
+                for (int i = path.indexOf('/', 2); i > 0; i = path.indexOf('/', i + 1)) {
+                    List<String> aliasPaths = reverseAliases.get(path.substring(0, i));
+                    if (aliasPaths != null) {
+                        for (String aliasPath : aliasPaths) {
+                            toDo.add(aliasPath + path.substring(i));
+                        }
                     }
                 }
             }
+            return result;
         }
 
         /**
@@ -1618,6 +1891,26 @@ public abstract class XMLSource implements Freezable<XMLSource>, Iterable<String
         }
     }
 
+    /**
+     * Notifies all listeners that changes have occurred at several paths, so that each listener
+     * sees them together. See {@link #notifyListeners(String)}.
+     *
+     * @param xpaths
+     *            the xpaths where the changes occurred.
+     */
+    protected void notifyListeners(Collection<String> xpaths) {
+        int i = 0;
+        while (i < listeners.size()) {
+            Listener listener = listeners.get(i).get();
+            if (listener == null) { // listener has been garbage-collected.
+                listeners.remove(i);
+            } else {
+                listener.valuesChanged(xpaths, this);
+                i++;
+            }
+        }
+    }
+
     /**
      * return true if the path in this file (without resolution). Default implementation is to just see if the path has
      * a value.
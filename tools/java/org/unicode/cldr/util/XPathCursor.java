@@ -0,0 +1,325 @@
+package org.unicode.cldr.util;
+
+import java.util.Arrays;
+
+/**
+ * Splits an xpath string into its elements and attributes, without building an XPathParts, maps or substrings.
+ * Elements and attributes are numbered in the order they appear; the characters of each are kept as offsets into
+ * the path. Element and attribute names are returned as interned strings, looked up in a small table owned by the
+ * tokenizer, so that after the first few paths no allocation is needed.
+ * <p>
+ * The syntax accepted is the same as {@link XPathParts#getFrozenInstance(String)}. A tokenizer is meant to be
+ * reused for many paths; it is not thread-safe.
+ *
+ * <pre>
+ * XPathCursor cursor = new XPathCursor().set(path);
+ * for (int e = 0; e &lt; cursor.getElementCount(); ++e) {
+ *     String element = cursor.getElement(e);
+ *     for (int a = cursor.getFirstAttribute(e); a &lt; cursor.getLimitAttribute(e); ++a) {
+ *         String attribute = cursor.getAttributeName(a);
+ *         ... cursor.getValueStart(a), cursor.getValueEnd(a) ...
+ *     }
+ * }
+ * </pre>
+ */
+public final class XPathCursor {
+    private static final DtdType[] DTD_TYPES = DtdType.values();
+
+    private String path;
+
+    private int elementCount;
+    private int[] elementStart = new int[16];
+    private int[] elementEnd = new int[16];
+    private int[] firstAttribute = new int[16];
+    private String[] elementNames = new String[16];
+
+    private int attributeCount;
+    private int[] nameStart = new int[16];
+    private int[] nameEnd = new int[16];
+    private int[] valueStart = new int[16];
+    private int[] valueEnd = new int[16];
+    private String[] attributeNames = new String[16];
+
+    private String[] nameTable = new String[256]; // open-addressed, power of 2
+    private int nameTableSize;
+
+    /**
+     * Tokenize a path starting with "//".
+     *
+     * @throws IllegalArgumentException if the path is malformed
+     */
+    public XPathCursor set(String xPath) {
+        path = xPath;
+        elementCount = 0;
+        attributeCount = 0;
+        if (!xPath.startsWith("//")) {
+            throw parseError(xPath, 0);
+        }
+        int stringStart = 2;
+        int lastNameStart = 0;
+        int lastNameEnd = 0;
+        char state = 'p';
+        // since only ascii chars are relevant, use char
+        int len = xPath.length();
+        for (int i = 2; i < len; ++i) {
+            char cp = xPath.charAt(i);
+            if (cp != state && (state == '\"' || state == '\'')) {
+                continue; // stay in quotation
+            }
+            switch (cp) {
+            case '/':
+                if (state != 'p' || stringStart >= i) {
+                    throw parseError(xPath, i);
+                }
+                if (stringStart > 0) {
+                    addElement(stringStart, i);
+                }
+                stringStart = i + 1;
+                break;
+            case '[':
+                if (state != 'p' || stringStart >= i) {
+                    throw parseError(xPath, i);
+                }
+                if (stringStart > 0) {
+                    addElement(stringStart, i);
+                }
+                state = cp;
+                break;
+            case '@':
+                if (state != '[') {
+                    throw parseError(xPath, i);
+                }
+                stringStart = i + 1;
+                state = cp;
+                break;
+            case '=':
+                if (state != '@' || stringStart >= i) {
+                    throw parseError(xPath, i);
+                }
+                lastNameStart = stringStart;
+                lastNameEnd = i;
+                state = cp;
+                break;
+            case '\"':
+            case '\'':
+                if (state == cp) { // finished
+                    if (stringStart > i) {
+                        throw parseError(xPath, i);
+                    }
+                    addAttribute(lastNameStart, lastNameEnd, stringStart, i);
+                    state = 'e';
+                    break;
+                }
+                if (state != '=') {
+                    throw parseError(xPath, i);
+                }
+                stringStart = i + 1;
+                state = cp;
+                break;
+            case ']':
+                if (state != 'e') {
+                    throw parseError(xPath, i);
+                }
+                state = 'p';
+                stringStart = -1;
+                break;
+            }
+        }
+        // check to make sure terminated
+        if (state != 'p' || stringStart >= len) {
+            throw parseError(xPath, len);
+        }
+        if (stringStart > 0) {
+            addElement(stringStart, len);
+        }
+        return this;
+    }
+
+    private IllegalArgumentException parseError(String s, int i) {
+        return new IllegalArgumentException("Malformed xPath '" + s + "' at " + i);
+    }
+
+    private void addElement(int start, int end) {
+        if (elementCount == elementStart.length) {
+            int newLength = elementCount * 2;
+            elementStart = Arrays.copyOf(elementStart, newLength);
+            elementEnd = Arrays.copyOf(elementEnd, newLength);
+            firstAttribute = Arrays.copyOf(firstAttribute, newLength);
+            elementNames = Arrays.copyOf(elementNames, newLength);
+        }
+        elementStart[elementCount] = start;
+        elementEnd[elementCount] = end;
+        firstAttribute[elementCount] = attributeCount;
+        elementNames[elementCount] = intern(start, end);
+        ++elementCount;
+    }
+
+    private void addAttribute(int nStart, int nEnd, int vStart, int vEnd) {
+        if (attributeCount == nameStart.length) {
+            int newLength = attributeCount * 2;
+            nameStart = Arrays.copyOf(nameStart, newLength);
+            nameEnd = Arrays.copyOf(nameEnd, newLength);
+            valueStart = Arrays.copyOf(valueStart, newLength);
+            valueEnd = Arrays.copyOf(valueEnd, newLength);
+            attributeNames = Arrays.copyOf(attributeNames, newLength);
+        }
+        nameStart[attributeCount] = nStart;
+        nameEnd[attributeCount] = nEnd;
+        valueStart[attributeCount] = vStart;
+        valueEnd[attributeCount] = vEnd;
+        attributeNames[attributeCount] = intern(nStart, nEnd);
+        ++attributeCount;
+    }
+
+    /**
+     * Get the interned string for the characters of the path between start and end, adding it to the table if needed.
+     */
+    private String intern(int start, int end) {
+        int length = end - start;
+        int hash = 0;
+        for (int i = start; i < end; ++i) {
+            hash = 31 * hash + path.charAt(i); // same as String.hashCode()
+        }
+        int mask = nameTable.length - 1;
+        int i = hash & mask;
+        String name;
+        while ((name = nameTable[i]) != null) {
+            if (name.length() == length && path.regionMatches(start, name, 0, length)) {
+                return name;
+            }
+            i = (i + 1) & mask;
+        }
+        name = path.substring(start, end).intern();
+        nameTable[i] = name;
+        if (++nameTableSize * 2 > nameTable.length) {
+            String[] oldTable = nameTable;
+            nameTable = new String[oldTable.length * 2];
+            mask = nameTable.length - 1;
+            for (String old : oldTable) {
+                if (old != null) {
+                    int j = old.hashCode() & mask;
+                    while (nameTable[j] != null) {
+                        j = (j + 1) & mask;
+                    }
+                    nameTable[j] = old;
+                }
+            }
+        }
+        return name;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * @return the DtdType named by the first element, or null if it isn't one
+     */
+    public DtdType getDtdType() {
+        if (elementCount == 0) {
+            return null;
+        }
+        String first = elementNames[0];
+        for (DtdType type : DTD_TYPES) {
+            if (type.name().equals(first)) {
+                return type;
+            }
+        }
+        return null;
+    }
+
+    public int getElementCount() {
+        return elementCount;
+    }
+
+    /**
+     * @return the interned name of the element
+     */
+    public String getElement(int elementIndex) {
+        return elementNames[elementIndex];
+    }
+
+    public int getElementStart(int elementIndex) {
+        return elementStart[elementIndex];
+    }
+
+    public int getElementEnd(int elementIndex) {
+        return elementEnd[elementIndex];
+    }
+
+    /**
+     * @return the index of the first attribute of the element
+     */
+    public int getFirstAttribute(int elementIndex) {
+        return firstAttribute[elementIndex];
+    }
+
+    /**
+     * @return the index after the last attribute of the element
+     */
+    public int getLimitAttribute(int elementIndex) {
+        return elementIndex + 1 < elementCount ? firstAttribute[elementIndex + 1] : attributeCount;
+    }
+
+    public int getAttributeCount(int elementIndex) {
+        return getLimitAttribute(elementIndex) - firstAttribute[elementIndex];
+    }
+
+    /**
+     * @return the total number of attributes in the path
+     */
+    public int getAttributeCount() {
+        return attributeCount;
+    }
+
+    /**
+     * @return the interned name of the attribute
+     */
+    public String getAttributeName(int attributeIndex) {
+        return attributeNames[attributeIndex];
+    }
+
+    public int getValueStart(int attributeIndex) {
+        return valueStart[attributeIndex];
+    }
+
+    public int getValueEnd(int attributeIndex) {
+        return valueEnd[attributeIndex];
+    }
+
+    /**
+     * @return the value of the attribute. This allocates a string; use the value offsets where that matters.
+     */
+    public String getAttributeValue(int attributeIndex) {
+        return path.substring(valueStart[attributeIndex], valueEnd[attributeIndex]);
+    }
+
+    public boolean attributeValueEquals(int attributeIndex, String value) {
+        int length = valueEnd[attributeIndex] - valueStart[attributeIndex];
+        return value.length() == length && path.regionMatches(valueStart[attributeIndex], value, 0, length);
+    }
+
+    /**
+     * @return the index of the last attribute of the element with the given name, or -1 if there is none
+     */
+    public int findAttribute(int elementIndex, String attribute) {
+        for (int a = getLimitAttribute(elementIndex) - 1; a >= firstAttribute[elementIndex]; --a) {
+            if (attributeNames[a].equals(attribute)) {
+                return a;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Append the value of the attribute to the buffer.
+     */
+    public StringBuilder appendValue(int attributeIndex, StringBuilder buffer) {
+        return buffer.append(path, valueStart[attributeIndex], valueEnd[attributeIndex]);
+    }
+
+    @Override
+    public String toString() {
+        return "{XPathCursor " + path + ", elements=" + elementCount + ", attributes=" + attributeCount + "}";
+    }
+}
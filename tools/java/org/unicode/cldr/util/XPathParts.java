@@ -18,8 +18,10 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.TreeMap;
-import java.util.concurrent.ConcurrentHashMap;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ImmutableSet.Builder;
 import com.ibm.icu.impl.Utility;
@@ -45,7 +47,29 @@ public final class XPathParts implements Freezable<XPathParts> {
 
     private Map<String, Map<String, String>> suppressionMap;
     
-    private static final Map<String, XPathParts> cache = new ConcurrentHashMap<String, XPathParts>();
+    /**
+     * Maximum number of frozen instances kept by getFrozenInstance. Large enough to hold every path
+     * of a full CLDR release, but bounded so that long-running processes (eg the Survey Tool) that
+     * see many distinct alt/proposed paths don't grow without limit.
+     */
+    private static final int CACHE_LIMIT = 200_000;
+
+    /**
+     * Variable that controls whether statistics are recorded for the cache.
+     */
+    private static final boolean RECORD_STATISTICS = CldrUtility.getProperty("XPATH_PARTS_CACHE_STATS", false);
+
+    private static final Cache<String, XPathParts> cache = makeCache();
+
+    private static Cache<String, XPathParts> makeCache() {
+        CacheBuilder<Object, Object> builder = CacheBuilder.newBuilder()
+            .maximumSize(CACHE_LIMIT)
+            .concurrencyLevel(Math.max(4, Runtime.getRuntime().availableProcessors()));
+        if (RECORD_STATISTICS) {
+            builder.recordStats();
+        }
+        return builder.build();
+    }
 
     public XPathParts() {
         this.suppressionMap = null;
@@ -1231,8 +1255,13 @@ public final class XPathParts implements Freezable<XPathParts> {
         return xppClone;
     }
 
-    public static synchronized XPathParts getFrozenInstance(String path) {
-        XPathParts result = cache.get(path);
+    /**
+     * Get a frozen (immutable) XPathParts for the path. Instances are shared through a bounded cache,
+     * so this is safe to call from many threads at once. Two threads that miss on the same path at the same
+     * time may both parse it; the results are equal, and whichever is cached last wins.
+     */
+    public static XPathParts getFrozenInstance(String path) {
+        XPathParts result = cache.getIfPresent(path);
         if (result == null) {
             result = new XPathParts().addInternal(path, true).freeze();
             cache.put(path, result);
@@ -1240,6 +1269,21 @@ public final class XPathParts implements Freezable<XPathParts> {
         return result;
     }
 
+    /**
+     * Get the hit/miss/eviction statistics for the getFrozenInstance cache. The counts are only
+     * recorded if the property XPATH_PARTS_CACHE_STATS is true; otherwise they are all zero.
+     */
+    public static CacheStats getFrozenInstanceCacheStats() {
+        return cache.stats();
+    }
+
+    /**
+     * Get the number of frozen instances currently cached (approximate).
+     */
+    public static long getFrozenInstanceCacheSize() {
+        return cache.size();
+    }
+
     public static XPathParts getInstance(String path) {
         return getFrozenInstance(path).cloneAsThawed();
     }